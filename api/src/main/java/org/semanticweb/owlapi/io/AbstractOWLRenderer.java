@@ -39,10 +39,8 @@
 
 package org.semanticweb.owlapi.io;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
 
 import org.semanticweb.owlapi.model.OWLOntology;
@@ -85,7 +83,7 @@ public abstract class AbstractOWLRenderer implements OWLRenderer {
     @Override
     public void render(OWLOntology ontology, OutputStream os) throws OWLRendererException {
         try {
-            Writer writer = new BufferedWriter(new OutputStreamWriter(os, "UTF-8"));
+            Writer writer = DocumentSink.createWriter(os);
             render(ontology, writer);
             writer.flush();
         }
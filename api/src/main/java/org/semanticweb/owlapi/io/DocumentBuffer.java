@@ -0,0 +1,251 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+
+/** The content of a stream or reader, kept so that it can be read more than
+ * once by the parsers that try a document source. Content up to
+ * {@link IOProperties#getDocumentBufferThreshold()} bytes is kept in memory,
+ * in chunks so that growing the buffer never copies it; larger content is
+ * copied to a temporary file as it is read, and read back through a file
+ * channel, so that loading a large document does not need heap proportional
+ * to its size. The file is deleted when the buffer is garbage collected, or
+ * at the latest when the virtual machine exits. */
+final class DocumentBuffer {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int CHUNK_SIZE = 64 * 1024;
+    /** the bytes of a small stream */
+    private final List<byte[]> chunks;
+    /** the characters of a small reader */
+    private final String text;
+    /** the bytes of a large stream, or the characters of a large reader
+     * encoded in UTF-8 */
+    private final File file;
+
+    private DocumentBuffer(List<byte[]> chunks, String text, File file) {
+        this.chunks = chunks;
+        this.text = text;
+        this.file = file;
+    }
+
+    /** @param in
+     *            the stream to read; not closed
+     * @return a buffer with the bytes of the stream */
+    static DocumentBuffer read(InputStream in) {
+        int threshold = IOProperties.getInstance().getDocumentBufferThreshold();
+        List<byte[]> chunks = new ArrayList<byte[]>();
+        long size = 0;
+        try {
+            while (true) {
+                byte[] chunk = new byte[CHUNK_SIZE];
+                int read = fill(in, chunk);
+                if (read > 0) {
+                    chunks.add(read == chunk.length ? chunk : Arrays.copyOf(chunk, read));
+                    size += read;
+                }
+                if (read < chunk.length) {
+                    return new DocumentBuffer(chunks, null, null);
+                }
+                if (size > threshold) {
+                    return new DocumentBuffer(null, null, spill(chunks, in));
+                }
+            }
+        } catch (IOException e) {
+            throw new OWLRuntimeException(e);
+        }
+    }
+
+    /** @param reader
+     *            the reader to read; not closed
+     * @return a buffer with the characters of the reader */
+    static DocumentBuffer read(Reader reader) {
+        int threshold = IOProperties.getInstance().getDocumentBufferThreshold();
+        StringBuilder builder = new StringBuilder();
+        char[] chunk = new char[CHUNK_SIZE];
+        try {
+            int read;
+            while ((read = reader.read(chunk, 0, chunk.length)) > 0) {
+                builder.append(chunk, 0, read);
+                // two bytes per char in the heap
+                if (builder.length() > threshold / 2) {
+                    return new DocumentBuffer(null, null, spill(builder, reader));
+                }
+            }
+            return new DocumentBuffer(null, builder.toString(), null);
+        } catch (IOException e) {
+            throw new OWLRuntimeException(e);
+        }
+    }
+
+    /** reads until the chunk is full or the stream ends */
+    private static int fill(InputStream in, byte[] chunk) throws IOException {
+        int total = 0;
+        while (total < chunk.length) {
+            int read = in.read(chunk, total, chunk.length - total);
+            if (read <= 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private static File createTempFile() throws IOException {
+        File file = File.createTempFile("owlapi", ".document");
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static File spill(List<byte[]> chunks, InputStream in) throws IOException {
+        File file = createTempFile();
+        boolean done = false;
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+        try {
+            for (byte[] chunk : chunks) {
+                out.write(chunk);
+            }
+            chunks.clear();
+            byte[] buffer = new byte[CHUNK_SIZE];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+            done = true;
+        } finally {
+            out.close();
+            if (!done) {
+                file.delete();
+            }
+        }
+        return file;
+    }
+
+    private static File spill(StringBuilder builder, Reader reader) throws IOException {
+        File file = createTempFile();
+        boolean done = false;
+        Writer out = new OutputStreamWriter(new BufferedOutputStream(
+                new FileOutputStream(file)), UTF_8);
+        try {
+            out.append(builder);
+            builder.setLength(0);
+            char[] buffer = new char[CHUNK_SIZE];
+            int read;
+            while ((read = reader.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+            done = true;
+        } finally {
+            out.close();
+            if (!done) {
+                file.delete();
+            }
+        }
+        return file;
+    }
+
+    /** @return true if the content is in a temporary file */
+    boolean isSpilled() {
+        return file != null;
+    }
+
+    private InputStream openFile() {
+        try {
+            return new BufferedInputStream(Channels.newInputStream(new FileInputStream(
+                    file).getChannel()));
+        } catch (FileNotFoundException e) {
+            throw new OWLOntologyInputSourceException(e);
+        }
+    }
+
+    /** @return a new stream over the bytes of a buffer built from a stream */
+    InputStream openStream() {
+        if (file != null) {
+            return openFile();
+        }
+        List<InputStream> streams = new ArrayList<InputStream>(chunks.size());
+        for (byte[] chunk : chunks) {
+            streams.add(new ByteArrayInputStream(chunk));
+        }
+        return new SequenceInputStream(Collections.enumeration(streams));
+    }
+
+    /** @return a new reader over the characters of a buffer built from a
+     *         reader */
+    Reader openReader() {
+        if (file != null) {
+            return new InputStreamReader(openFile(), UTF_8);
+        }
+        return new StringReader(text);
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        try {
+            if (file != null) {
+                file.delete();
+            }
+        } finally {
+            super.finalize();
+        }
+    }
+}
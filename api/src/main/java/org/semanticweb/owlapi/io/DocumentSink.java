@@ -0,0 +1,147 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.io;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+/** The output side of the storers: the UTF-8 writers the renderers write to,
+ * and the moves and copies that finish a save through an intermediate file.
+ * Files are copied as bytes, without decoding and encoding the content
+ * again. */
+public final class DocumentSink {
+    /** the encoding of all documents written by the storers */
+    public static final Charset UTF_8 = Charset.forName("UTF-8");
+    /** the size, in characters, of the buffer of the writers */
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    private DocumentSink() {}
+
+    /** @param os
+     *            the stream to write to
+     * @return a buffered writer that encodes to UTF-8 */
+    public static Writer createWriter(OutputStream os) {
+        return new BufferedWriter(new OutputStreamWriter(os, UTF_8), BUFFER_SIZE);
+    }
+
+    /** @param file
+     *            the file to write to, replaced if it exists
+     * @return a buffered writer that encodes to UTF-8
+     * @throws IOException
+     *             if the file cannot be opened */
+    public static Writer createWriter(File file) throws IOException {
+        return createWriter(new FileOutputStream(file));
+    }
+
+    /** @param target
+     *            the file that a temporary file will replace
+     * @return a new, empty file in the directory of the target, so that it can
+     *         be renamed to the target
+     * @throws IOException
+     *             if the file cannot be created */
+    public static File createSiblingTempFile(File target) throws IOException {
+        File dir = target.getAbsoluteFile().getParentFile();
+        dir.mkdirs();
+        return File.createTempFile("owlapi", ".tmp", dir);
+    }
+
+    /** Replaces the target with the source file. The file is renamed, which is
+     * atomic on most file systems when both are in the same directory; where
+     * renaming over an existing file is not allowed, the target is deleted
+     * first, and where renaming fails altogether the content is copied.
+     * 
+     * @param source
+     *            the file to move; it does not exist afterwards
+     * @param target
+     *            the file to replace
+     * @throws IOException
+     *             if the file can be neither moved nor copied */
+    public static void replace(File source, File target) throws IOException {
+        if (source.renameTo(target)) {
+            return;
+        }
+        if (target.exists() && target.delete() && source.renameTo(target)) {
+            return;
+        }
+        OutputStream os = new FileOutputStream(target);
+        try {
+            copy(source, os);
+        } finally {
+            os.close();
+        }
+        if (!source.delete()) {
+            source.deleteOnExit();
+        }
+    }
+
+    /** Copies the content of a file to a stream, through a file channel.
+     * 
+     * @param source
+     *            the file to copy
+     * @param os
+     *            the stream to copy to; it is not closed
+     * @throws IOException
+     *             if reading or writing fails */
+    public static void copy(File source, OutputStream os) throws IOException {
+        FileInputStream in = new FileInputStream(source);
+        try {
+            FileChannel channel = in.getChannel();
+            WritableByteChannel out = os instanceof FileOutputStream ? ((FileOutputStream) os)
+                    .getChannel() : Channels.newChannel(os);
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+            os.flush();
+        } finally {
+            in.close();
+        }
+    }
+}
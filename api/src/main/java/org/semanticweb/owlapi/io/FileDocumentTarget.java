@@ -40,10 +40,8 @@
 package org.semanticweb.owlapi.io;
 
 import java.io.BufferedOutputStream;
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Writer;
@@ -78,7 +76,7 @@ public class FileDocumentTarget implements OWLOntologyDocumentTarget {
 
     @Override
     public Writer getWriter() throws IOException {
-        return new BufferedWriter(new FileWriter(file));
+        return DocumentSink.createWriter(file);
     }
 
     @Override
@@ -0,0 +1,158 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.io;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+
+/** Translates the frames of a document, e.g., the frames of the entities of an
+ * ontology, on an executor, and hands the translations back in the order of
+ * the frames, so that a renderer can write them one after the other and
+ * produce the same output it would produce translating them itself.
+ * <p>
+ * Frames are translated in chunks; only a bounded number of chunks is in
+ * flight ahead of the renderer, so that memory use does not grow with the
+ * size of the ontology. A chunk that the executor has not started yet when
+ * the renderer needs it, or that the executor rejects, is translated on the
+ * rendering thread.
+ * <p>
+ * Translations read the ontology from several threads at once, so the first
+ * parallel rendering may build lazy ontology indexes concurrently; this is
+ * safe for both in-memory and compact internals, whose shared id interner is
+ * threadsafe.
+ * 
+ * @param <E>
+ *            the type of the frame subjects
+ * @param <F>
+ *            the type of the translated frames */
+public abstract class FrameRenderingPipeline<E, F> {
+    /** number of frames translated by a single task */
+    public static final int CHUNK_SIZE = 32;
+    private final Executor executor;
+    private final List<E> frames;
+    private final int window;
+    private final List<FutureTask<List<F>>> chunks = new ArrayList<FutureTask<List<F>>>();
+    private List<F> current = Collections.emptyList();
+    private int next = 0;
+
+    /** @param executor
+     *            the executor translating the frames
+     * @param frames
+     *            the subjects of the frames, in rendering order */
+    public FrameRenderingPipeline(Executor executor, List<E> frames) {
+        this.executor = executor;
+        this.frames = frames;
+        window = 2 * Runtime.getRuntime().availableProcessors();
+    }
+
+    /** Translates a frame; called on the executor threads, possibly
+     * concurrently with other calls, so it must not touch the state of the
+     * renderer.
+     * 
+     * @param frame
+     *            the subject of the frame
+     * @return the translated frame */
+    protected abstract F translate(E frame);
+
+    /** @return true if there are frames left */
+    public boolean hasNext() {
+        return next < frames.size();
+    }
+
+    /** @return the translation of the next frame, waiting for it if necessary */
+    public F next() {
+        int chunk = next / CHUNK_SIZE;
+        if (next % CHUNK_SIZE == 0) {
+            while (chunks.size() < (frames.size() + CHUNK_SIZE - 1) / CHUNK_SIZE
+                    && chunks.size() <= chunk + window) {
+                submit(chunks.size());
+            }
+            current = await(chunks.get(chunk));
+            // release the chunk once it is consumed
+            chunks.set(chunk, null);
+        }
+        return current.get(next++ % CHUNK_SIZE);
+    }
+
+    private void submit(int chunk) {
+        final List<E> subjects = frames.subList(chunk * CHUNK_SIZE,
+                Math.min(frames.size(), (chunk + 1) * CHUNK_SIZE));
+        FutureTask<List<F>> task = new FutureTask<List<F>>(new Callable<List<F>>() {
+            @Override
+            public List<F> call() {
+                List<F> translated = new ArrayList<F>(subjects.size());
+                for (E frame : subjects) {
+                    translated.add(translate(frame));
+                }
+                return translated;
+            }
+        });
+        chunks.add(task);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // translated by the rendering thread when needed
+        }
+    }
+
+    private static <F> List<F> await(FutureTask<List<F>> task) {
+        // if the executor has not started the task yet, run it here
+        task.run();
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OWLRuntimeException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (RuntimeException) cause;
+        }
+    }
+}
@@ -64,12 +64,21 @@ public class IOProperties {
 
     private boolean connectionAcceptHTTPCompression = DEFAULT_CONNECTION_ACCEPT_HTTP_COMPRESSION;
 
+    /**default size, in bytes, above which stream and reader document sources are kept in a temporary file*/
+    private static final String DEFAULT_DOCUMENT_BUFFER_THRESHOLD = "33554432";
+
+    /**property name for the document buffer threshold*/
+    public static final String DOCUMENT_BUFFER_THRESHOLD_PROPERTY_NAME = "owlapi.documentBufferThreshold";
+
+    private int documentBufferThreshold;
 
 
     private IOProperties() {
         connectionTimeout = Integer.parseInt(System.getProperty(
                 CONNECTION_TIME_OUT_PROPERTY_NAME, DEFAULT_CONNECTION_TIME_OUT));
         connectionAcceptHTTPCompression = DEFAULT_CONNECTION_ACCEPT_HTTP_COMPRESSION;
+        documentBufferThreshold = Integer.parseInt(System.getProperty(
+                DOCUMENT_BUFFER_THRESHOLD_PROPERTY_NAME, DEFAULT_DOCUMENT_BUFFER_THRESHOLD));
     }
 
 
@@ -117,4 +126,25 @@ public class IOProperties {
     public void setConnectionAcceptHTTPCompression(boolean connectionAcceptHTTPCompression) {
         this.connectionAcceptHTTPCompression = connectionAcceptHTTPCompression;
     }
+
+
+    /**
+     * Gets the size above which the content of stream and reader document
+     * sources is written to a temporary file rather than kept in memory.
+     * @return The threshold in bytes
+     */
+    public int getDocumentBufferThreshold() {
+        return documentBufferThreshold;
+    }
+
+
+    /**
+     * Sets the size above which the content of stream and reader document
+     * sources is written to a temporary file. Only affects sources created
+     * afterwards.
+     * @param documentBufferThreshold The threshold in bytes
+     */
+    public void setDocumentBufferThreshold(int documentBufferThreshold) {
+        this.documentBufferThreshold = documentBufferThreshold;
+    }
 }
@@ -0,0 +1,59 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.io;
+
+import org.semanticweb.owlapi.vocab.PrefixOWLOntologyFormat;
+
+/** A read-only, pre-indexed binary layout meant to be memory mapped. Besides
+ * the dictionary and the encoded axioms, documents contain the axiom by type,
+ * entity reference and subclass indexes as fixed width tables, so that an
+ * ontology loaded from a local file in this format is queried in place: loading
+ * takes constant time, objects are decoded only when a query returns them, and
+ * processes that map the same file share its pages through the operating
+ * system cache. Ontologies loaded this way cannot be changed.
+ * 
+ * @since 3.4.5 */
+public class MappedOWLOntologyFormat extends PrefixOWLOntologyFormat {
+    private static final long serialVersionUID = 30402L;
+
+    @Override
+    public String toString() {
+        return "Mapped binary OWL";
+    }
+}
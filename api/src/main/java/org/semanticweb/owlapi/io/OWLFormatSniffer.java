@@ -0,0 +1,69 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.io;
+
+/** Implemented by parsers that can tell, from a preview of a document, how
+ * likely the document is to be in the syntax they parse. Parsers that
+ * implement this interface are tried in order of likelihood when loading an
+ * ontology; parsers that do not are treated as
+ * {@link Likelihood#UNKNOWN}.
+ * 
+ * @since 3.4.5 */
+public interface OWLFormatSniffer {
+    /** likelihood that a document can be parsed by a parser; constants are
+     * listed from the most to the least likely */
+    enum Likelihood {
+        /** the document declares the syntax, e.g., through its root element
+         * or header keywords */
+        LIKELY,
+        /** the document might be in the syntax */
+        POSSIBLE,
+        /** no information available */
+        UNKNOWN,
+        /** the document is clearly not in the syntax, e.g., an XML document
+         * for a text syntax */
+        IMPOSSIBLE
+    }
+
+    /** @param preview
+     *            the preview of the document to parse
+     * @return the likelihood that the document is in a syntax this parser
+     *         can parse */
+    Likelihood getFormatLikelihood(OWLOntologyDocumentPreview preview);
+}
@@ -0,0 +1,401 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.semanticweb.owlapi.model.IRI;
+
+/** A bounded look at the beginning of an ontology document, used to guess its
+ * syntax before parsing it. The preview holds the extension of the document
+ * IRI, the first characters of the document if they
+ * can be read without side effects (readers, input streams and local files;
+ * remote documents are not fetched) and, for XML documents, the root element
+ * name, namespace and attributes.
+ * 
+ * @since 3.4.5 */
+public class OWLOntologyDocumentPreview {
+    private static final Logger logger = Logger.getLogger(OWLOntologyDocumentPreview.class
+            .getName());
+    /** default number of characters read from a document */
+    public static final int DEFAULT_PREVIEW_LENGTH = 8192;
+    private static final Pattern XML_NAME = Pattern
+            .compile("[A-Za-z_][\\w.\\-]*(:[A-Za-z_][\\w.\\-]*)?");
+    private static final Pattern ATTRIBUTE = Pattern.compile(
+            "([^\\s=]+)\\s*=\\s*([\"'])(.*?)\\2", Pattern.DOTALL);
+    private static final Pattern ENTITY = Pattern.compile(
+            "<!ENTITY\\s+([^\\s%]+)\\s+([\"'])(.*?)\\2\\s*>", Pattern.DOTALL);
+    private static final Pattern ENTITY_REFERENCE = Pattern.compile("&([^;\\s]+);");
+    private final IRI documentIRI;
+    private final String extension;
+    private final String content;
+    private boolean xml = false;
+    private String rootName;
+    private String rootNamespace;
+    private Map<String, String> rootAttributes = Collections.emptyMap();
+
+    /** @param documentIRI
+     *            the document IRI
+     * @param content
+     *            the beginning of the document, or null if not available */
+    public OWLOntologyDocumentPreview(IRI documentIRI, String content) {
+        this.documentIRI = documentIRI;
+        extension = extension(documentIRI);
+        // blank content gives no evidence
+        if (content == null || content.trim().length() == 0) {
+            this.content = null;
+        } else {
+            this.content = content;
+            parseXMLProlog(content);
+        }
+    }
+
+    /** Reads the first {@link #DEFAULT_PREVIEW_LENGTH} characters of a
+     * document source, if they can be read without side effects.
+     * 
+     * @param source
+     *            the document source
+     * @return the preview of the document */
+    public static OWLOntologyDocumentPreview read(OWLOntologyDocumentSource source) {
+        return read(source, DEFAULT_PREVIEW_LENGTH);
+    }
+
+    /** @param source
+     *            the document source
+     * @param length
+     *            maximum number of characters to read
+     * @return the preview of the document */
+    public static OWLOntologyDocumentPreview read(OWLOntologyDocumentSource source,
+            int length) {
+        String content = null;
+        try {
+            if (source.isInputStreamAvailable()) {
+                content = read(source.getInputStream(), length);
+            } else if (source.isReaderAvailable()) {
+                content = read(source.getReader(), length);
+            } else {
+                IRI iri = source.getDocumentIRI();
+                if ("file".equals(iri.getScheme())) {
+                    File file = new File(iri.toURI());
+                    if (file.isFile()) {
+                        content = read(new FileInputStream(file), length);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // the parsers will report the problem
+            logger.log(Level.FINE, "Cannot preview " + source.getDocumentIRI(), e);
+        } catch (RuntimeException e) {
+            logger.log(Level.FINE, "Cannot preview " + source.getDocumentIRI(), e);
+        }
+        return new OWLOntologyDocumentPreview(source.getDocumentIRI(), content);
+    }
+
+    private static String read(InputStream in, int length) throws IOException {
+        try {
+            byte[] bytes = new byte[length];
+            int read = 0;
+            int n;
+            while (read < length && (n = in.read(bytes, read, length - read)) > 0) {
+                read += n;
+            }
+            // compressed documents cannot be previewed
+            if (read > 1 && (bytes[0] & 0xFF) == 0x1F && (bytes[1] & 0xFF) == 0x8B) {
+                return null;
+            }
+            String encoding = "UTF-8";
+            if (read > 1 && (bytes[0] & 0xFF) == 0xFE && (bytes[1] & 0xFF) == 0xFF) {
+                encoding = "UTF-16BE";
+            } else if (read > 1 && (bytes[0] & 0xFF) == 0xFF && (bytes[1] & 0xFF) == 0xFE) {
+                encoding = "UTF-16LE";
+            }
+            return new String(bytes, 0, read, encoding);
+        } finally {
+            in.close();
+        }
+    }
+
+    private static String read(Reader in, int length) throws IOException {
+        try {
+            char[] chars = new char[length];
+            int read = 0;
+            int n;
+            while (read < length && (n = in.read(chars, read, length - read)) > 0) {
+                read += n;
+            }
+            return new String(chars, 0, read);
+        } finally {
+            in.close();
+        }
+    }
+
+    private static String extension(IRI iri) {
+        String path;
+        try {
+            path = iri.toURI().getPath();
+        } catch (IllegalArgumentException e) {
+            // not a valid URI
+            return null;
+        }
+        if (path == null) {
+            return null;
+        }
+        int slash = path.lastIndexOf('/');
+        int dot = path.lastIndexOf('.');
+        if (dot <= slash || dot == path.length() - 1) {
+            return null;
+        }
+        return path.substring(dot + 1).toLowerCase(Locale.ENGLISH);
+    }
+
+    /** Finds the root element, skipping the XML declaration, comments,
+     * processing instructions and the document type declaration, whose
+     * internal entities are used to resolve namespace declarations. */
+    private void parseXMLProlog(String s) {
+        int i = skipWhitespace(s, 0);
+        Map<String, String> entities = new HashMap<String, String>();
+        while (i < s.length() && s.charAt(i) == '<') {
+            if (s.startsWith("<?", i)) {
+                i = skipPast(s, i, "?>");
+            } else if (s.startsWith("<!--", i)) {
+                i = skipPast(s, i, "-->");
+            } else if (s.startsWith("<!DOCTYPE", i)) {
+                int bracket = s.indexOf('[', i);
+                int close = s.indexOf('>', i);
+                if (bracket > -1 && (close < 0 || bracket < close)) {
+                    int end = s.indexOf(']', bracket);
+                    if (end < 0) {
+                        // truncated: still XML, but no root element in sight
+                        xml = true;
+                        return;
+                    }
+                    Matcher m = ENTITY.matcher(s.substring(bracket, end));
+                    while (m.find()) {
+                        entities.put(m.group(1), m.group(3));
+                    }
+                    close = s.indexOf('>', end);
+                }
+                i = close < 0 ? -1 : close + 1;
+            } else {
+                parseRootElement(s, i + 1, entities);
+                return;
+            }
+            if (i < 0) {
+                xml = true;
+                return;
+            }
+            xml = true;
+            i = skipWhitespace(s, i);
+        }
+    }
+
+    private void parseRootElement(String s, int start, Map<String, String> entities) {
+        int end = start;
+        while (end < s.length() && !Character.isWhitespace(s.charAt(end))
+                && s.charAt(end) != '>' && s.charAt(end) != '/') {
+            end++;
+        }
+        String qname = s.substring(start, end);
+        if (!XML_NAME.matcher(qname).matches()
+                || end < s.length() && s.charAt(end) == '/' && !s.startsWith("/>", end)) {
+            // e.g., <http://...> in Turtle
+            return;
+        }
+        xml = true;
+        int close = s.indexOf('>', end);
+        String tag = s.substring(end, close < 0 ? s.length() : close);
+        Map<String, String> attributes = new HashMap<String, String>();
+        Matcher m = ATTRIBUTE.matcher(tag);
+        while (m.find()) {
+            attributes.put(m.group(1), resolve(m.group(3), entities));
+        }
+        rootAttributes = attributes;
+        int colon = qname.indexOf(':');
+        if (colon < 0) {
+            rootName = qname;
+            rootNamespace = attributes.get("xmlns");
+        } else {
+            rootName = qname.substring(colon + 1);
+            rootNamespace = attributes.get("xmlns:" + qname.substring(0, colon));
+        }
+    }
+
+    private static String resolve(String value, Map<String, String> entities) {
+        if (value.indexOf('&') < 0) {
+            return value;
+        }
+        Matcher m = ENTITY_REFERENCE.matcher(value);
+        StringBuffer b = new StringBuffer();
+        while (m.find()) {
+            String replacement = entities.get(m.group(1));
+            m.appendReplacement(b,
+                    Matcher.quoteReplacement(replacement == null ? m.group() : replacement));
+        }
+        m.appendTail(b);
+        return b.toString();
+    }
+
+    private static int skipWhitespace(String s, int start) {
+        int i = start;
+        while (i < s.length()
+                && (Character.isWhitespace(s.charAt(i)) || s.charAt(i) == '\uFEFF')) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipPast(String s, int start, String end) {
+        int i = s.indexOf(end, start);
+        return i < 0 ? -1 : i + end.length();
+    }
+
+    /** @return the document IRI */
+    public IRI getDocumentIRI() {
+        return documentIRI;
+    }
+
+    /** @return the lower case extension of the document IRI path, or null if
+     *         there is none */
+    public String getExtension() {
+        return extension;
+    }
+
+    /** @return true if the beginning of the document could be read and is not
+     *         blank */
+    public boolean isContentAvailable() {
+        return content != null;
+    }
+
+    /** @return the beginning of the document, or null if it could not be read */
+    public String getContent() {
+        return content;
+    }
+
+    /** @return true if the content starts like an XML document */
+    public boolean isXML() {
+        return xml;
+    }
+
+    /** @return the local name of the root element, or null if unknown */
+    public String getRootElementName() {
+        return rootName;
+    }
+
+    /** @return the namespace of the root element, or null if unknown */
+    public String getRootElementNamespace() {
+        return rootNamespace;
+    }
+
+    /** @return the attributes of the root element, as written in the document
+     *         (entity references are resolved) */
+    public Map<String, String> getRootElementAttributes() {
+        return Collections.unmodifiableMap(rootAttributes);
+    }
+
+    /** @param namespace
+     *            namespace
+     * @param name
+     *            local name
+     * @return true if the root element has the given local name and either
+     *         the given namespace or an unknown namespace */
+    public boolean isRootElement(String namespace, String name) {
+        return name.equals(rootName)
+                && (rootNamespace == null || rootNamespace.equals(namespace));
+    }
+
+    /** @param keyword
+     *            keyword
+     * @return true if the content contains the keyword */
+    public boolean contains(String keyword) {
+        return content != null && content.contains(keyword);
+    }
+
+    /** @param lineComment
+     *            the start of a line comment in the syntax of interest, or
+     *            null
+     * @return the first character in the content that is not white space or
+     *         in a line comment, or 0 if there is none */
+    public char getFirstSignificantChar(String lineComment) {
+        if (content == null) {
+            return 0;
+        }
+        int i = skipWhitespace(content, 0);
+        while (lineComment != null && content.startsWith(lineComment, i)) {
+            int eol = content.indexOf('\n', i);
+            if (eol < 0) {
+                return 0;
+            }
+            i = skipWhitespace(content, eol);
+        }
+        return i < content.length() ? content.charAt(i) : 0;
+    }
+
+    /** @param extensions
+     *            lower case extensions, without the dot
+     * @return true if the extension of the document is one of the arguments */
+    public boolean hasExtension(String... extensions) {
+        if (extension == null) {
+            return false;
+        }
+        for (String e : extensions) {
+            if (extension.equals(e)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "Preview(" + documentIRI + " extension: " + extension + " xml: " + xml
+                + " root: " + rootNamespace + rootName + ")";
+    }
+}
@@ -38,10 +38,8 @@
  */
 package org.semanticweb.owlapi.io;
 
-import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
-import java.io.StringReader;
 
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLRuntimeException;
@@ -55,7 +53,7 @@ import org.semanticweb.owlapi.model.OWLRuntimeException;
 public class ReaderDocumentSource implements OWLOntologyDocumentSource {
     private static int counter = 0;
     private final IRI documentIRI;
-    private String buffer;
+    private DocumentBuffer buffer;
 
     /** Constructs and ontology input source which will read an ontology from a
      * reader.
@@ -86,21 +84,7 @@ public class ReaderDocumentSource implements OWLOntologyDocumentSource {
     }
 
     private void fillBuffer(Reader reader) {
-        try {
-            StringBuilder builder = new StringBuilder();
-            final int length = 100000;
-            char[] tempBuffer = new char[length];
-            int read = 0;
-            do {
-                read = reader.read(tempBuffer, 0, length);
-                if (read > 0) {
-                    builder.append(tempBuffer, 0, read);
-                }
-            } while (read > 0);
-            buffer = builder.toString();
-        } catch (IOException e) {
-            throw new OWLRuntimeException(e);
-        }
+        buffer = DocumentBuffer.read(reader);
     }
 
     @Override
@@ -110,7 +94,7 @@ public class ReaderDocumentSource implements OWLOntologyDocumentSource {
 
     @Override
     public Reader getReader() {
-        return new StringReader(buffer);
+        return buffer.openReader();
     }
 
     @Override
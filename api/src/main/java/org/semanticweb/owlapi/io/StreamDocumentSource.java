@@ -39,9 +39,6 @@
 
 package org.semanticweb.owlapi.io;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 
@@ -63,7 +60,7 @@ public class StreamDocumentSource implements OWLOntologyDocumentSource {
 
     private final IRI documentIRI;
 
-    private byte [] buffer;
+    private DocumentBuffer buffer;
 
 
     /**
@@ -101,39 +98,12 @@ public class StreamDocumentSource implements OWLOntologyDocumentSource {
      * Reads all the bytes from the specified stream into a temporary buffer,
      * which is necessary because we may need to access the input stream more
      * than once.  In other words, this method caches the input stream.
+     * Large streams are cached in a temporary file rather than in memory, see
+     * {@link IOProperties#getDocumentBufferThreshold()}.
      * @param stream The stream to be "cached"
      */
-//    private void readIntoBuffer(InputStream stream) {
-//        try {
-//            byte [] tempBuffer = new byte [4096];
-//            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-//            int read;
-//            while((read = stream.read(tempBuffer)) != -1) {
-//                bos.write(tempBuffer, 0, read);
-//            }
-//            buffer = bos.toByteArray();
-//        }
-//        catch (IOException e) {
-//            throw new OWLOntologyInputSourceException(e);
-//        }
-//    }
-    private void readIntoBuffer(InputStream reader) {
-        try {
-        	ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            final int length = 100000;
-			byte [] tempBuffer = new byte [length];
-			int read=0;
-			do {
-				read=reader.read(tempBuffer, 0, length);
-				if(read>0) {
-					bos.write(tempBuffer, 0, read);
-				}
-			} while(read>0);
-            buffer = bos.toByteArray();
-        }
-        catch (IOException e) {
-            throw new OWLRuntimeException(e);
-        }
+    private void readIntoBuffer(InputStream stream) {
+        buffer = DocumentBuffer.read(stream);
     }
 
     @Override
@@ -144,7 +114,7 @@ public class StreamDocumentSource implements OWLOntologyDocumentSource {
 
     @Override
     public InputStream getInputStream() {
-        return new ByteArrayInputStream(buffer);
+        return buffer.openStream();
     }
 
 
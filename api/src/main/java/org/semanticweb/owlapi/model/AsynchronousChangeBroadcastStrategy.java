@@ -0,0 +1,382 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** A change broadcast strategy which delivers the changes to the listeners on
+ * an executor, so that slow listeners do not delay the edits. Each listener
+ * receives its batches in order and one at a time. Batches wait in a queue of
+ * bounded size; when it is full, the thread applying the changes waits for a
+ * batch to be delivered. Optionally, the batches waiting for a listener are
+ * merged into one, so that a listener that falls behind catches up with fewer
+ * calls.
+ * <p/>
+ * Callers that need listeners to have seen their changes, for example to read
+ * a cache kept up to date by a listener, call {@link #flush()}.
+ * <p/>
+ * Listener failures are logged; they cannot reach the code that applied the
+ * changes.
+ * <p/>
+ * A strategy that created its own delivery thread should be disposed of when
+ * it is no longer used. Serializing a strategy keeps its settings only: the
+ * copy read back has no pending batches, and delivers on a thread of its
+ * own. */
+public class AsynchronousChangeBroadcastStrategy implements
+        OWLOntologyChangeBroadcastStrategy {
+    private static final long serialVersionUID = 30402L;
+    private static final Logger LOGGER = Logger
+            .getLogger(AsynchronousChangeBroadcastStrategy.class.getName());
+    /** the delivery threads never wait for queue space, since only they free
+     * it */
+    private static final ThreadLocal<Boolean> DELIVERING = new ThreadLocal<Boolean>();
+    private final transient Executor executor;
+    /** the executor created by this strategy, shut down on dispose; null if
+     * the executor belongs to the caller */
+    private final transient ExecutorService ownedExecutor;
+    private final int capacity;
+    private final boolean coalesce;
+    /** guards everything below, and is notified when batches are delivered */
+    private final transient Object lock = new Object();
+    private final transient Map<OWLOntologyChangeListener, ListenerQueue> queues = new IdentityHashMap<OWLOntologyChangeListener, ListenerQueue>();
+    private int queuedBatches;
+    private int deliveringBatches;
+    private long deliveredBatches;
+    private long coalescedBatches;
+    private long failedDeliveries;
+    private long producerWaits;
+    private long producerWaitNanos;
+    private long maxLagNanos;
+    private int maxQueuedBatches;
+
+    /** Creates a strategy that delivers on a single daemon thread of its own.
+     * 
+     * @param capacity
+     *            the maximum number of batches waiting to be delivered
+     * @param coalesce
+     *            true if the batches waiting for a listener should be merged */
+    public AsynchronousChangeBroadcastStrategy(int capacity, boolean coalesce) {
+        this(createExecutor(), true, capacity, coalesce);
+    }
+
+    /** @param executor
+     *            the executor that delivers the changes
+     * @param capacity
+     *            the maximum number of batches waiting to be delivered
+     * @param coalesce
+     *            true if the batches waiting for a listener should be merged */
+    public AsynchronousChangeBroadcastStrategy(Executor executor, int capacity,
+            boolean coalesce) {
+        this(executor, false, capacity, coalesce);
+    }
+
+    private AsynchronousChangeBroadcastStrategy(Executor executor, boolean owned,
+            int capacity, boolean coalesce) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.executor = executor;
+        ownedExecutor = owned ? (ExecutorService) executor : null;
+        this.capacity = capacity;
+        this.coalesce = coalesce;
+    }
+
+    /** @return a new strategy with the same settings, delivering on a thread
+     *         of its own, since the executor, the queues and the lock are not
+     *         serialized */
+    protected Object readResolve() {
+        return new AsynchronousChangeBroadcastStrategy(capacity, coalesce);
+    }
+
+    private static ExecutorService createExecutor() {
+        return Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "OWLOntologyChange broadcast");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /** The batches waiting for a listener. */
+    private static class ListenerQueue {
+        final ArrayDeque<List<OWLOntologyChange>> batches = new ArrayDeque<List<OWLOntologyChange>>();
+        /** the time each batch in batches was queued, for the lag */
+        final ArrayDeque<Long> queuedAt = new ArrayDeque<Long>();
+        /** true while a delivery task for the listener is submitted */
+        boolean scheduled;
+    }
+
+    @Override
+    public void broadcastChanges(OWLOntologyChangeListener listener,
+            List<? extends OWLOntologyChange> changes) throws OWLException {
+        boolean schedule;
+        synchronized (lock) {
+            ListenerQueue queue = queues.get(listener);
+            if (coalesce && queue != null && !queue.batches.isEmpty()) {
+                queue.batches.getLast().addAll(changes);
+                coalescedBatches++;
+                return;
+            }
+            awaitCapacity();
+            // the queue may have been drained and removed while waiting
+            queue = queues.get(listener);
+            if (queue == null) {
+                queue = new ListenerQueue();
+                queues.put(listener, queue);
+            }
+            queue.batches.add(new ArrayList<OWLOntologyChange>(changes));
+            queue.queuedAt.add(Long.valueOf(System.nanoTime()));
+            queuedBatches++;
+            maxQueuedBatches = Math.max(maxQueuedBatches, queuedBatches);
+            schedule = !queue.scheduled;
+            queue.scheduled = true;
+        }
+        if (schedule) {
+            Runnable delivery = new Delivery(listener);
+            try {
+                executor.execute(delivery);
+            } catch (RejectedExecutionException e) {
+                delivery.run();
+            }
+        }
+    }
+
+    /** waits, holding the lock, until a batch can be queued */
+    private void awaitCapacity() {
+        if (queuedBatches < capacity || DELIVERING.get() != null) {
+            return;
+        }
+        long start = System.nanoTime();
+        producerWaits++;
+        try {
+            while (queuedBatches >= capacity) {
+                lock.wait();
+            }
+        } catch (InterruptedException e) {
+            // queue the batch anyway: changes already applied must reach the
+            // listeners
+            Thread.currentThread().interrupt();
+        } finally {
+            producerWaitNanos += System.nanoTime() - start;
+        }
+    }
+
+    /** Delivers the batches of a listener until its queue is empty. */
+    private class Delivery implements Runnable {
+        private final OWLOntologyChangeListener listener;
+
+        Delivery(OWLOntologyChangeListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void run() {
+            DELIVERING.set(Boolean.TRUE);
+            try {
+                while (deliverNext()) {
+                    // continue with the next batch
+                }
+            } finally {
+                DELIVERING.remove();
+            }
+        }
+
+        private boolean deliverNext() {
+            List<OWLOntologyChange> batch;
+            synchronized (lock) {
+                ListenerQueue queue = queues.get(listener);
+                if (queue.batches.isEmpty()) {
+                    queue.scheduled = false;
+                    queues.remove(listener);
+                    lock.notifyAll();
+                    return false;
+                }
+                // removed before the call, so that nothing is merged into a
+                // batch being delivered
+                batch = queue.batches.poll();
+                long lag = System.nanoTime() - queue.queuedAt.poll().longValue();
+                maxLagNanos = Math.max(maxLagNanos, lag);
+                queuedBatches--;
+                deliveringBatches++;
+                lock.notifyAll();
+            }
+            boolean failed = false;
+            try {
+                listener.ontologiesChanged(batch);
+            } catch (Throwable e) {
+                failed = true;
+                LOGGER.log(Level.WARNING, "BADLY BEHAVING LISTENER: " + e, e);
+            } finally {
+                synchronized (lock) {
+                    deliveringBatches--;
+                    deliveredBatches++;
+                    if (failed) {
+                        failedDeliveries++;
+                    }
+                    lock.notifyAll();
+                }
+            }
+            return true;
+        }
+    }
+
+    /** Waits until all the changes broadcast so far have been delivered. Must
+     * not be called by a listener of this strategy. */
+    public void flush() {
+        synchronized (lock) {
+            try {
+                while (!queues.isEmpty()) {
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /** Delivers the changes broadcast so far, then stops the delivery thread
+     * created by this strategy; an executor passed to the constructor is left
+     * running. Changes broadcast afterwards are delivered on the thread that
+     * applies them. Must not be called by a listener of this strategy. */
+    public void dispose() {
+        flush();
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    /** Waits until all the changes broadcast so far have been delivered, or
+     * the timeout expires. Must not be called by a listener of this strategy.
+     * 
+     * @param timeout
+     *            the maximum time to wait
+     * @param unit
+     *            the unit of the timeout
+     * @return true if all changes have been delivered, false if the timeout
+     *         expired first
+     * @throws InterruptedException
+     *             if the thread is interrupted while waiting */
+    public boolean awaitQuiescence(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (lock) {
+            while (!queues.isEmpty()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+            }
+            return true;
+        }
+    }
+
+    /** @return the number of batches waiting to be delivered */
+    public int getQueuedBatches() {
+        synchronized (lock) {
+            return queuedBatches;
+        }
+    }
+
+    /** @return the highest number of batches that were waiting at once */
+    public int getMaxQueuedBatches() {
+        synchronized (lock) {
+            return maxQueuedBatches;
+        }
+    }
+
+    /** @return the number of batches delivered, including failed deliveries */
+    public long getDeliveredBatches() {
+        synchronized (lock) {
+            return deliveredBatches;
+        }
+    }
+
+    /** @return the number of batches merged into a waiting batch */
+    public long getCoalescedBatches() {
+        synchronized (lock) {
+            return coalescedBatches;
+        }
+    }
+
+    /** @return the number of deliveries in which the listener threw */
+    public long getFailedDeliveries() {
+        synchronized (lock) {
+            return failedDeliveries;
+        }
+    }
+
+    /** @return the number of times a thread broadcasting changes had to wait
+     *         for space in the queue */
+    public long getProducerWaits() {
+        synchronized (lock) {
+            return producerWaits;
+        }
+    }
+
+    /** @return the total time, in nanoseconds, that threads broadcasting
+     *         changes waited for space in the queue */
+    public long getProducerWaitNanos() {
+        synchronized (lock) {
+            return producerWaitNanos;
+        }
+    }
+
+    /** @return the longest time, in nanoseconds, between queuing a batch and
+     *         starting its delivery */
+    public long getMaxLagNanos() {
+        synchronized (lock) {
+            return maxLagNanos;
+        }
+    }
+}
@@ -96,6 +96,16 @@ public class AxiomType<C extends OWLAxiom> implements Serializable {
         return name;
     }
 
+    /** axiom types are compared by identity; deserialization must return the
+     * existing constants */
+    protected Object readResolve() {
+        AxiomType<?> type = NAME_TYPE_MAP.get(name);
+        if (type == null) {
+            return this;
+        }
+        return type;
+    }
+
     /**
      * Determines if this axiom is structurally an OWL 2 axiom.
      * @return <code>true</code> if this axiom is an OWL 2 axiom, <code>false</code> if this axiom is not an OWL 2
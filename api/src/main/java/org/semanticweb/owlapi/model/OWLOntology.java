@@ -403,7 +403,8 @@ public interface OWLOntology extends OWLObject {
      *
      * @return A set of <code>OWLEntity</code> objects. The set that is returned is a copy - it will not be updated if
      *         the ontology changes.  It is therefore safe to apply changes to this ontology while iterating over this
-     *         set.
+     *         set.  Implementations may return an unmodifiable set, shared between calls until the signature
+     *         changes; the same holds for the sets of entities of each type.
      * @see #getClassesInSignature()
      * @see #getObjectPropertiesInSignature()
      * @see #getDataPropertiesInSignature()
@@ -422,7 +423,8 @@ public interface OWLOntology extends OWLObject {
      * of just this ontology, or the signature of the imports closure of this ontology.
      * @return A set of <code>OWLEntity</code> objects. The set that is returned is a copy - it will not be updated if
      *         the ontology changes.  It is therefore safe to apply changes to this ontology while iterating over this
-     *         set.
+     *         set.  Implementations may return an unmodifiable set, shared between calls until the signature
+     *         changes; the same holds for the sets of entities of each type.
      * @see #getClassesInSignature()
      * @see #getObjectPropertiesInSignature()
      * @see #getDataPropertiesInSignature()
@@ -0,0 +1,252 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Collects ontology changes and applies them together. A later change to
+ * the same axiom, import or ontology annotation of an ontology replaces the
+ * earlier one, so that adding and then removing an axiom applies only the
+ * removal, and the axiom is never added. On {@link #commit()} all the changes are checked before any of them
+ * is applied, grouped by ontology and axiom type, and passed to
+ * {@link OWLOntologyManager#applyChanges(List)} in one call: listeners receive
+ * a single event, and ontologies can update their indexes once for the whole
+ * batch rather than once per axiom.
+ * 
+ * @since 3.4.5 */
+public class OWLOntologyChangeBatch {
+    private final OWLOntologyManager manager;
+    private final Map<Object, OWLOntologyChange> changes = new LinkedHashMap<Object, OWLOntologyChange>();
+
+    /** @param manager
+     *            the manager that applies the changes */
+    public OWLOntologyChangeBatch(OWLOntologyManager manager) {
+        this.manager = manager;
+    }
+
+    /** @param change
+     *            the change to add; replaces any pending change to the same
+     *            axiom, import or annotation of the same ontology
+     * @return this batch */
+    public OWLOntologyChangeBatch add(OWLOntologyChange change) {
+        Object key = key(change);
+        // remove first, so that the replacement moves to the end
+        changes.remove(key);
+        changes.put(key, change);
+        return this;
+    }
+
+    /** @param toAdd
+     *            the changes to add, in order
+     * @return this batch */
+    public OWLOntologyChangeBatch addAll(Collection<? extends OWLOntologyChange> toAdd) {
+        for (OWLOntologyChange change : toAdd) {
+            add(change);
+        }
+        return this;
+    }
+
+    /** @param ont
+     *            the ontology
+     * @param axiom
+     *            the axiom to add to the ontology
+     * @return this batch */
+    public OWLOntologyChangeBatch addAxiom(OWLOntology ont, OWLAxiom axiom) {
+        return add(new AddAxiom(ont, axiom));
+    }
+
+    /** @param ont
+     *            the ontology
+     * @param axioms
+     *            the axioms to add to the ontology
+     * @return this batch */
+    public OWLOntologyChangeBatch addAxioms(OWLOntology ont,
+            Collection<? extends OWLAxiom> axioms) {
+        for (OWLAxiom axiom : axioms) {
+            add(new AddAxiom(ont, axiom));
+        }
+        return this;
+    }
+
+    /** @param ont
+     *            the ontology
+     * @param axiom
+     *            the axiom to remove from the ontology
+     * @return this batch */
+    public OWLOntologyChangeBatch removeAxiom(OWLOntology ont, OWLAxiom axiom) {
+        return add(new RemoveAxiom(ont, axiom));
+    }
+
+    /** @param ont
+     *            the ontology
+     * @param axioms
+     *            the axioms to remove from the ontology
+     * @return this batch */
+    public OWLOntologyChangeBatch removeAxioms(OWLOntology ont,
+            Collection<? extends OWLAxiom> axioms) {
+        for (OWLAxiom axiom : axioms) {
+            add(new RemoveAxiom(ont, axiom));
+        }
+        return this;
+    }
+
+    /** @return the number of pending changes */
+    public int size() {
+        return changes.size();
+    }
+
+    /** @return true if there are no pending changes */
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /** discards the pending changes */
+    public void clear() {
+        changes.clear();
+    }
+
+    /** @return the pending changes, in the order in which they will be
+     *         applied: changes that are not axiom changes first, in the order
+     *         they were added, then axiom changes grouped by ontology and by
+     *         axiom type */
+    public List<OWLOntologyChange> getChanges() {
+        List<OWLOntologyChange> others = new ArrayList<OWLOntologyChange>();
+        List<OWLOntologyChange> axiomChanges = new ArrayList<OWLOntologyChange>(
+                changes.size());
+        final Map<OWLOntology, Integer> ontologies = new IdentityHashMap<OWLOntology, Integer>();
+        for (OWLOntologyChange change : changes.values()) {
+            if (change.isAxiomChange()) {
+                axiomChanges.add(change);
+                if (!ontologies.containsKey(change.getOntology())) {
+                    ontologies.put(change.getOntology(), ontologies.size());
+                }
+            } else {
+                others.add(change);
+            }
+        }
+        // the sort is stable, so changes of the same type keep their order
+        Collections.sort(axiomChanges, new Comparator<OWLOntologyChange>() {
+            @Override
+            public int compare(OWLOntologyChange o1, OWLOntologyChange o2) {
+                int diff = ontologies.get(o1.getOntology()).intValue()
+                        - ontologies.get(o2.getOntology()).intValue();
+                if (diff != 0) {
+                    return diff;
+                }
+                return o1.getAxiom().getAxiomType().getIndex()
+                        - o2.getAxiom().getAxiomType().getIndex();
+            }
+        });
+        others.addAll(axiomChanges);
+        return others;
+    }
+
+    /** Applies the pending changes and empties the batch. If any change
+     * targets an immutable ontology, nothing is applied.
+     * 
+     * @return the changes that were actually applied
+     * @throws ImmutableOWLOntologyChangeException
+     *             if a change targets an ontology that cannot be changed; the
+     *             batch is left untouched
+     * @throws OWLOntologyChangeException
+     *             if a change cannot be applied */
+    public List<OWLOntologyChange> commit() {
+        List<OWLOntologyChange> toApply = getChanges();
+        Map<OWLOntology, Boolean> checked = new IdentityHashMap<OWLOntology, Boolean>();
+        for (OWLOntologyChange change : toApply) {
+            if (checked.put(change.getOntology(), Boolean.TRUE) == null
+                    && !(change.getOntology() instanceof OWLMutableOntology)) {
+                throw new ImmutableOWLOntologyChangeException(change);
+            }
+        }
+        changes.clear();
+        if (toApply.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return manager.applyChanges(toApply);
+    }
+
+    private static Object key(OWLOntologyChange change) {
+        if (change.isAxiomChange()) {
+            return new Target(change.getOntology(), change.getAxiom());
+        }
+        if (change instanceof ImportChange) {
+            return new Target(change.getOntology(),
+                    ((ImportChange) change).getImportDeclaration());
+        }
+        if (change instanceof AnnotationChange) {
+            return new Target(change.getOntology(),
+                    ((AnnotationChange) change).getAnnotation());
+        }
+        // ontology id changes are kept in sequence
+        return new Object();
+    }
+
+    /** the ontology and the object that a change affects */
+    private static final class Target {
+        private final OWLOntology ontology;
+        private final Object object;
+
+        Target(OWLOntology ontology, Object object) {
+            this.ontology = ontology;
+            this.object = object;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(ontology) * 37 + object.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Target)) {
+                return false;
+            }
+            Target other = (Target) obj;
+            return ontology == other.ontology && object.equals(other.object);
+        }
+    }
+}
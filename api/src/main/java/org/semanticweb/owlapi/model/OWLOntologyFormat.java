@@ -61,6 +61,10 @@ public abstract class OWLOntologyFormat {
     /** if set to "true", an intermediate file will be used for output, even for
      * remote URIs */
     public static String USE_INTERMEDIATE_OUTPUT_FILE = "USE_INTERMEDIATE_OUTPUT_FILE";
+    /** if set to a {@link java.util.concurrent.Executor}, the RDF/XML, Turtle,
+     * functional syntax and Manchester syntax storers translate the entity
+     * frames on that executor; the output is the same as without it */
+    public static final String RENDERING_EXECUTOR = "RENDERING_EXECUTOR";
 
     private Map<Object, Object> paramaterMap;
 
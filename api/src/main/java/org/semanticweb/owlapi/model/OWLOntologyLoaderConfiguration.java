@@ -41,6 +41,7 @@ package org.semanticweb.owlapi.model;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import org.semanticweb.owlapi.vocab.Namespaces;
 
@@ -100,6 +101,10 @@ public final class OWLOntologyLoaderConfiguration {
 
     private final Set<IRI> ignoredImports = new HashSet<IRI>();
 
+    private Executor parallelImportsExecutor = null;
+
+    private boolean streamingRDF = false;
+
     @SuppressWarnings("javadoc")
     public OWLOntologyLoaderConfiguration() {
         ignoredImports.add(IRI.create(stripHash(Namespaces.OWL.toString())));
@@ -331,6 +336,77 @@ public final class OWLOntologyLoaderConfiguration {
         return configuration;
     }
 
+    /** When an executor is set, the imports closure of an ontology is loaded in
+     * parallel: every imported document is submitted to the executor as soon
+     * as its imports declaration is parsed, and the importing document keeps
+     * being parsed while its imports load. A load returns only when its whole
+     * imports closure has been loaded, and the manager waits for pending
+     * imports whenever imported ontologies are looked up, so each imported
+     * document is still loaded exactly once. By default there is no executor
+     * and imports are loaded one at a time on the loading thread.
+     * 
+     * @return the executor used to load imported ontologies, or
+     *         <code>null</code> if imports are loaded sequentially
+     * @since 3.4.5 */
+    public Executor getParallelImportsExecutor() {
+        return parallelImportsExecutor;
+    }
+
+    /** @param executor
+     *            the executor used to load imported ontologies in parallel;
+     *            <code>null</code> loads imports sequentially on the loading
+     *            thread. The executor is not shut down by the manager.
+     * @return a copy of this configuration with the new executor
+     * @since 3.4.5 */
+    public OWLOntologyLoaderConfiguration setParallelImportsExecutor(Executor executor) {
+        // do not make copies if setting the same value
+        if (parallelImportsExecutor == executor) {
+            return this;
+        }
+        OWLOntologyLoaderConfiguration copy = copyConfiguration();
+        copy.parallelImportsExecutor = executor;
+        return copy;
+    }
+
+    /** @return true if imported ontologies are loaded in parallel, i.e., if an
+     *         executor has been set with
+     *         {@link #setParallelImportsExecutor(Executor)}
+     * @since 3.4.5 */
+    public boolean isParallelImportsLoading() {
+        return parallelImportsExecutor != null;
+    }
+
+    /** In streaming mode, RDF parsers translate self-contained triples into
+     * axioms as soon as they are read instead of keeping them until the end of
+     * the document: class assertions, property assertions between named
+     * individuals, <code>rdfs:subClassOf</code> between named classes and
+     * annotation assertions on IRIs. Only triples about blank nodes, lists and
+     * reified axioms are kept, so memory grows with the blank node structure
+     * of the document rather than with its size. Property assertions are only
+     * translated early if the property has been declared earlier in the
+     * document (or in its imports closure); other triples are translated at
+     * the end of the document as usual. By default streaming is disabled.
+     * 
+     * @return true if RDF documents are consumed in streaming mode
+     * @since 3.4.5 */
+    public boolean isStreamingRDF() {
+        return streamingRDF;
+    }
+
+    /** @param value
+     *            true if RDF documents should be consumed in streaming mode
+     * @return a copy of this configuration with the new streaming value
+     * @since 3.4.5 */
+    public OWLOntologyLoaderConfiguration setStreamingRDF(boolean value) {
+        // do not make copies if setting the same value
+        if (streamingRDF == value) {
+            return this;
+        }
+        OWLOntologyLoaderConfiguration copy = copyConfiguration();
+        copy.streamingRDF = value;
+        return copy;
+    }
+
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
@@ -348,6 +424,8 @@ public final class OWLOntologyLoaderConfiguration {
         copy.missingImportHandlingStrategy = missingImportHandlingStrategy;
         copy.missingOntologyHeaderStrategy = missingOntologyHeaderStrategy;
         copy.followRedirects = followRedirects;
+        copy.parallelImportsExecutor = parallelImportsExecutor;
+        copy.streamingRDF = streamingRDF;
         return copy;
     }
 
@@ -38,22 +38,16 @@
  */
 package org.semanticweb.owlapi.util;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.util.logging.Logger;
 
+import org.semanticweb.owlapi.io.DocumentSink;
 import org.semanticweb.owlapi.io.OWLOntologyDocumentTarget;
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLOntology;
@@ -69,7 +63,6 @@ import org.semanticweb.owlapi.model.OWLOntologyStorer;
  * <br> */
 public abstract class AbstractOWLOntologyStorer implements OWLOntologyStorer {
     private static final long serialVersionUID = 30402L;
-    private static final String UTF_8 = "UTF-8";
     protected final static Logger LOGGER = Logger.getLogger(OWLOntologyStorer.class
             .getName());
 
@@ -88,95 +81,71 @@ public abstract class AbstractOWLOntologyStorer implements OWLOntologyStorer {
                 throw new OWLOntologyStorageException("Document IRI must be absolute: "
                         + documentIRI);
             }
-            File tempFile = null;
-            FileOutputStream tempOutputStream = null;
-            FileInputStream tempInputStream = null;
-            InputStreamReader inputStreamReader = null;
-            OutputStreamWriter outputStreamWriter = null;
-            BufferedReader br = null;
-            BufferedWriter w = null;
-            OutputStream os = null;
-            try {
-                // prepare actual output
-                os = prepareActualOutput(documentIRI);
-                boolean useTemp = Boolean.parseBoolean(ontologyFormat.getParameter(
-                        OWLOntologyFormat.USE_INTERMEDIATE_OUTPUT_FILE, Boolean.FALSE)
-                        .toString());
+            boolean useTemp = Boolean.parseBoolean(ontologyFormat.getParameter(
+                    OWLOntologyFormat.USE_INTERMEDIATE_OUTPUT_FILE, Boolean.FALSE)
+                    .toString());
+            if (documentIRI.getScheme().equals("file")) {
+                File file = new File(documentIRI.toURI());
                 if (useTemp) {
-                    tempFile = File.createTempFile("owlapi", ".owl");
-                    tempOutputStream = new FileOutputStream(tempFile);
-                    store(ontology, ontologyFormat, tempOutputStream);
-                    // Now copy across
-                    tempInputStream = new FileInputStream(tempFile);
-                    inputStreamReader = new InputStreamReader(tempInputStream, UTF_8);
-                    br = new BufferedReader(inputStreamReader);
-                    outputStreamWriter = new OutputStreamWriter(os, UTF_8);
-                    w = new BufferedWriter(outputStreamWriter);
-                    String line = br.readLine();
-                    while (line != null) {
-                        w.write(line);
-                        w.write("\n");
-                        line = br.readLine();
+                    // written next to the target and renamed, so that the
+                    // target is never left half written
+                    File tempFile = DocumentSink.createSiblingTempFile(file);
+                    try {
+                        store(ontology, ontologyFormat, new FileOutputStream(tempFile));
+                        DocumentSink.replace(tempFile, file);
+                    } finally {
+                        deleteTempFile(tempFile);
                     }
                 } else {
-                    store(ontology, ontologyFormat, os);
-                }
-            } finally {
-                if (br != null) {
-                    br.close();
-                }
-                if (w != null) {
-                    w.close();
-                }
-                if (os != null) {
-                    os.close();
-                }
-                if (tempOutputStream != null) {
-                    tempOutputStream.close();
-                }
-                if (tempInputStream != null) {
-                    tempInputStream.close();
-                }
-                if (inputStreamReader != null) {
-                    inputStreamReader.close();
+                    // Ensure that the necessary directories exist.
+                    file.getAbsoluteFile().getParentFile().mkdirs();
+                    store(ontology, ontologyFormat, new FileOutputStream(file));
                 }
-                if (outputStreamWriter != null) {
-                    outputStreamWriter.close();
-                }
-                if (tempFile != null && !tempFile.delete()) {
-                    LOGGER.warning("Temporary file " + tempFile.getAbsolutePath()
-                            + " cannot be deleted.");
+            } else if (useTemp) {
+                // the connection is only opened once the ontology is rendered
+                File tempFile = File.createTempFile("owlapi", ".owl");
+                try {
+                    store(ontology, ontologyFormat, new FileOutputStream(tempFile));
+                    OutputStream os = openConnection(documentIRI);
+                    try {
+                        DocumentSink.copy(tempFile, os);
+                    } finally {
+                        os.close();
+                    }
+                } finally {
+                    deleteTempFile(tempFile);
                 }
+            } else {
+                store(ontology, ontologyFormat, openConnection(documentIRI));
             }
         } catch (IOException e) {
             throw new OWLOntologyStorageException(e);
         }
     }
 
-    private OutputStream prepareActualOutput(IRI documentIRI)
-            throws FileNotFoundException, MalformedURLException, IOException {
-        OutputStream os;
-        if (documentIRI.getScheme().equals("file")) {
-            File file = new File(documentIRI.toURI());
-            // Ensure that the necessary directories exist.
-            file.getParentFile().mkdirs();
-            os = new FileOutputStream(file);
-        } else {
-            URL url = documentIRI.toURI().toURL();
-            URLConnection conn = url.openConnection();
-            os = conn.getOutputStream();
+    private static void deleteTempFile(File tempFile) {
+        if (tempFile.exists() && !tempFile.delete()) {
+            LOGGER.warning("Temporary file " + tempFile.getAbsolutePath()
+                    + " cannot be deleted.");
         }
-        return os;
     }
 
+    private static OutputStream openConnection(IRI documentIRI) throws IOException {
+        URL url = documentIRI.toURI().toURL();
+        URLConnection conn = url.openConnection();
+        return conn.getOutputStream();
+    }
+
+    /** Stores the ontology and closes the stream. */
     private void store(OWLOntology ontology, OWLOntologyFormat ontologyFormat,
-            OutputStream tempOutputStream) throws OWLOntologyStorageException,
-            IOException {
-        Writer tempWriter = new BufferedWriter(new OutputStreamWriter(tempOutputStream,
-                UTF_8));
-        storeOntology(ontology, tempWriter, ontologyFormat);
-        tempWriter.flush();
-        tempWriter.close();
+            OutputStream os) throws OWLOntologyStorageException, IOException {
+        Writer writer = DocumentSink.createWriter(os);
+        try {
+            storeOntology(ontology, writer, ontologyFormat);
+            writer.flush();
+        } finally {
+            writer.close();
+        }
     }
 
     @Override
@@ -201,8 +170,7 @@ public abstract class AbstractOWLOntologyStorer implements OWLOntologyStorer {
         } else if (target.isOutputStreamAvailable()) {
             Writer writer = null;
             try {
-                writer = new BufferedWriter(new OutputStreamWriter(
-                        target.getOutputStream(), UTF_8));
+                writer = DocumentSink.createWriter(target.getOutputStream());
                 storeOntology(ontology, writer, format);
                 writer.flush();
             } catch (IOException e) {
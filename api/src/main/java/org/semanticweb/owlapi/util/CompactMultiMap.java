@@ -0,0 +1,552 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/** A {@link MultiMap} that stores keys and values as integer ids obtained from
+ * an {@link ObjectIdInterner}, which can be shared among many maps. Keys live
+ * in an open-addressed table; a key with a single value keeps the value id
+ * inline, a key with a few values keeps them in a small array that is scanned
+ * linearly, and a key with many values keeps them in an open-addressed int
+ * set. Compared to a map of hash sets, this avoids one set and one entry
+ * object per value, at the price of slower writes and of decoding ids on
+ * reads. Value sets are always sets, regardless of the constructor used. This
+ * class is not threadsafe.
+ * 
+ * @param <Key>
+ * @param <Value>
+ * @author ignazio palmisano */
+public class CompactMultiMap<Key, Value> extends MultiMap<Key, Value> {
+    private static final long serialVersionUID = 30402L;
+    /** keys with more values than this use a hashed value set */
+    static final int INLINE_LIMIT = 8;
+    private static final int FREE = -1;
+    private static final int[] NONE = new int[0];
+    private final ObjectIdInterner<Object> ids;
+    /** key id for each slot, or FREE */
+    private int[] keys;
+    private int[] counts;
+    /** the value id for slots with exactly one value */
+    private int[] inline;
+    /** the value ids for slots with more than one value */
+    private int[][] values;
+    private int keyCount = 0;
+    private int pairCount = 0;
+
+    /** @param ids
+     *            the interner used to map keys and values to ids */
+    public CompactMultiMap(ObjectIdInterner<Object> ids) {
+        this.ids = ids;
+        allocate(8);
+    }
+
+    private void allocate(int length) {
+        keys = new int[length];
+        Arrays.fill(keys, FREE);
+        counts = new int[length];
+        inline = new int[length];
+        values = new int[length][];
+    }
+
+    private int findSlot(int keyId) {
+        int mask = keys.length - 1;
+        for (int slot = ObjectIdInterner.mix(keyId) & mask;; slot = slot + 1 & mask) {
+            int k = keys[slot];
+            if (k == keyId) {
+                return slot;
+            }
+            if (k == FREE) {
+                return -1;
+            }
+        }
+    }
+
+    private int slotFor(Object key) {
+        int keyId = ids.idOf(key);
+        if (keyId == ObjectIdInterner.NO_ID) {
+            return -1;
+        }
+        return findSlot(keyId);
+    }
+
+    @Override
+    public boolean put(Key key, Value value) {
+        int slot = slotFor(key);
+        if (slot < 0) {
+            insertKey(ids.intern(key), ids.intern(value));
+            pairCount++;
+            return true;
+        }
+        int valueId = ids.idOf(value);
+        if (valueId != ObjectIdInterner.NO_ID) {
+            if (bucketContains(slot, valueId)) {
+                return false;
+            }
+            ids.retain(valueId);
+        } else {
+            valueId = ids.intern(value);
+        }
+        addToBucket(slot, valueId);
+        pairCount++;
+        return true;
+    }
+
+    private void insertKey(int keyId, int valueId) {
+        if ((keyCount + 1) * 2 > keys.length) {
+            resize(keys.length << 1);
+        }
+        int mask = keys.length - 1;
+        int slot = ObjectIdInterner.mix(keyId) & mask;
+        while (keys[slot] != FREE) {
+            slot = slot + 1 & mask;
+        }
+        keys[slot] = keyId;
+        counts[slot] = 1;
+        inline[slot] = valueId;
+        keyCount++;
+    }
+
+    private void resize(int newLength) {
+        int[] oldKeys = keys;
+        int[] oldCounts = counts;
+        int[] oldInline = inline;
+        int[][] oldValues = values;
+        allocate(newLength);
+        int mask = newLength - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = ObjectIdInterner.mix(oldKeys[i]) & mask;
+                while (keys[slot] != FREE) {
+                    slot = slot + 1 & mask;
+                }
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+                inline[slot] = oldInline[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /** removes the key in the slot, shifting back the entries that follow it
+     * in the probe sequence */
+    private void deleteKeySlot(int hole) {
+        ids.release(keys[hole]);
+        keyCount--;
+        int mask = keys.length - 1;
+        int slot = hole;
+        for (;;) {
+            slot = slot + 1 & mask;
+            int k = keys[slot];
+            if (k == FREE) {
+                keys[hole] = FREE;
+                counts[hole] = 0;
+                values[hole] = null;
+                return;
+            }
+            int home = ObjectIdInterner.mix(k) & mask;
+            if (hole <= slot ? hole >= home || home > slot : hole >= home
+                    && home > slot) {
+                keys[hole] = k;
+                counts[hole] = counts[slot];
+                inline[hole] = inline[slot];
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+    }
+
+    private boolean bucketContains(int slot, int valueId) {
+        int count = counts[slot];
+        if (count == 1) {
+            return inline[slot] == valueId;
+        }
+        int[] bucket = values[slot];
+        if (count <= INLINE_LIMIT) {
+            for (int i = 0; i < count; i++) {
+                if (bucket[i] == valueId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return hashedIndexOf(bucket, valueId) >= 0;
+    }
+
+    private void addToBucket(int slot, int valueId) {
+        int count = counts[slot];
+        if (count == 1) {
+            int[] bucket = new int[4];
+            bucket[0] = inline[slot];
+            bucket[1] = valueId;
+            values[slot] = bucket;
+        } else if (count < INLINE_LIMIT) {
+            int[] bucket = values[slot];
+            if (count == bucket.length) {
+                bucket = Arrays.copyOf(bucket, INLINE_LIMIT);
+                values[slot] = bucket;
+            }
+            bucket[count] = valueId;
+        } else if (count == INLINE_LIMIT) {
+            int[] hashed = newHashedBucket(INLINE_LIMIT * 4);
+            for (int id : values[slot]) {
+                hashedAdd(hashed, id);
+            }
+            hashedAdd(hashed, valueId);
+            values[slot] = hashed;
+        } else {
+            int[] bucket = values[slot];
+            if ((count + 1) * 2 > bucket.length) {
+                int[] hashed = newHashedBucket(bucket.length << 1);
+                for (int id : bucket) {
+                    if (id != FREE) {
+                        hashedAdd(hashed, id);
+                    }
+                }
+                bucket = hashed;
+                values[slot] = bucket;
+            }
+            hashedAdd(bucket, valueId);
+        }
+        counts[slot] = count + 1;
+    }
+
+    private boolean removeFromBucket(int slot, int valueId) {
+        int count = counts[slot];
+        if (count == 1) {
+            if (inline[slot] != valueId) {
+                return false;
+            }
+            deleteKeySlot(slot);
+            return true;
+        }
+        int[] bucket = values[slot];
+        if (count <= INLINE_LIMIT) {
+            int index = -1;
+            for (int i = 0; i < count && index < 0; i++) {
+                if (bucket[i] == valueId) {
+                    index = i;
+                }
+            }
+            if (index < 0) {
+                return false;
+            }
+            bucket[index] = bucket[count - 1];
+            if (count == 2) {
+                inline[slot] = bucket[0];
+                values[slot] = null;
+            }
+        } else {
+            int index = hashedIndexOf(bucket, valueId);
+            if (index < 0) {
+                return false;
+            }
+            hashedDelete(bucket, index);
+            if (count - 1 == INLINE_LIMIT) {
+                int[] small = new int[INLINE_LIMIT];
+                int i = 0;
+                for (int id : bucket) {
+                    if (id != FREE) {
+                        small[i++] = id;
+                    }
+                }
+                values[slot] = small;
+            }
+        }
+        counts[slot] = count - 1;
+        return true;
+    }
+
+    private static int[] newHashedBucket(int length) {
+        int[] bucket = new int[length];
+        Arrays.fill(bucket, FREE);
+        return bucket;
+    }
+
+    private static void hashedAdd(int[] bucket, int id) {
+        int mask = bucket.length - 1;
+        int slot = ObjectIdInterner.mix(id) & mask;
+        while (bucket[slot] != FREE) {
+            slot = slot + 1 & mask;
+        }
+        bucket[slot] = id;
+    }
+
+    private static int hashedIndexOf(int[] bucket, int id) {
+        int mask = bucket.length - 1;
+        for (int slot = ObjectIdInterner.mix(id) & mask;; slot = slot + 1 & mask) {
+            int v = bucket[slot];
+            if (v == id) {
+                return slot;
+            }
+            if (v == FREE) {
+                return -1;
+            }
+        }
+    }
+
+    private static void hashedDelete(int[] bucket, int hole) {
+        int mask = bucket.length - 1;
+        int slot = hole;
+        for (;;) {
+            slot = slot + 1 & mask;
+            int v = bucket[slot];
+            if (v == FREE) {
+                bucket[hole] = FREE;
+                return;
+            }
+            int home = ObjectIdInterner.mix(v) & mask;
+            if (hole <= slot ? hole >= home || home > slot : hole >= home
+                    && home > slot) {
+                bucket[hole] = v;
+                hole = slot;
+            }
+        }
+    }
+
+    /** @return the value ids for a slot, as a fresh array */
+    private int[] bucketIds(int slot) {
+        int count = counts[slot];
+        if (count == 0) {
+            return NONE;
+        }
+        if (count == 1) {
+            return new int[] { inline[slot] };
+        }
+        int[] bucket = values[slot];
+        if (count <= INLINE_LIMIT) {
+            return Arrays.copyOf(bucket, count);
+        }
+        int[] toReturn = new int[count];
+        int i = 0;
+        for (int id : bucket) {
+            if (id != FREE) {
+                toReturn[i++] = id;
+            }
+        }
+        return toReturn;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Value> decode(int[] valueIds) {
+        Object[] decoded = new Object[valueIds.length];
+        for (int i = 0; i < valueIds.length; i++) {
+            decoded[i] = ids.get(valueIds[i]);
+        }
+        return Collections.unmodifiableList((List<Value>) (List<?>) Arrays.asList(decoded));
+    }
+
+    @Override
+    protected Collection<Value> createCollection() {
+        return CollectionFactory.createSet();
+    }
+
+    @Override
+    public void setEntry(Key key, Collection<Value> newValues) {
+        remove(key);
+        putAll(key, newValues);
+    }
+
+    /** returns an unmodifiable snapshot of the values connected to the key;
+     * changes to the map are not reflected in the returned collection
+     * 
+     * @param key
+     * @return the values connected with the key */
+    @Override
+    public Collection<Value> get(Key key) {
+        int slot = slotFor(key);
+        if (slot < 0) {
+            return Collections.emptyList();
+        }
+        return decode(bucketIds(slot));
+    }
+
+    /** @return a snapshot of the keys */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<Key> keySet() {
+        List<Key> toReturn = new ArrayList<Key>(keyCount);
+        for (int k : keys) {
+            if (k != FREE) {
+                toReturn.add((Key) ids.get(k));
+            }
+        }
+        return CollectionFactory.getCopyOnRequestSetFromImmutableCollection(toReturn);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<Value> getAllValues() {
+        Set<Value> toReturn = CollectionFactory.createSet(pairCount);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE) {
+                for (int id : bucketIds(slot)) {
+                    toReturn.add((Value) ids.get(id));
+                }
+            }
+        }
+        return toReturn;
+    }
+
+    @Override
+    public boolean remove(Key key) {
+        int slot = slotFor(key);
+        if (slot < 0) {
+            return false;
+        }
+        for (int id : bucketIds(slot)) {
+            ids.release(id);
+        }
+        pairCount -= counts[slot];
+        deleteKeySlot(slot);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Key key, Value value) {
+        int slot = slotFor(key);
+        if (slot < 0) {
+            return false;
+        }
+        int valueId = ids.idOf(value);
+        if (valueId == ObjectIdInterner.NO_ID || !removeFromBucket(slot, valueId)) {
+            return false;
+        }
+        ids.release(valueId);
+        pairCount--;
+        return true;
+    }
+
+    /** @return the number of key-value pairs in the map */
+    @Override
+    public int size() {
+        return pairCount;
+    }
+
+    @Override
+    public boolean contains(Key k, Value v) {
+        int slot = slotFor(k);
+        if (slot < 0) {
+            return false;
+        }
+        int valueId = ids.idOf(v);
+        return valueId != ObjectIdInterner.NO_ID && bucketContains(slot, valueId);
+    }
+
+    @Override
+    public boolean containsKey(Key k) {
+        return slotFor(k) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Value v) {
+        int valueId = ids.idOf(v);
+        if (valueId == ObjectIdInterner.NO_ID) {
+            return false;
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE && bucketContains(slot, valueId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE) {
+                for (int id : bucketIds(slot)) {
+                    ids.release(id);
+                }
+                ids.release(keys[slot]);
+            }
+        }
+        allocate(8);
+        keyCount = 0;
+        pairCount = 0;
+    }
+
+    @Override
+    public void putAll(Key k, Collection<Value> v) {
+        for (Value value : v) {
+            put(k, value);
+        }
+    }
+
+    @Override
+    public boolean isValueSetsEqual() {
+        Set<Value> first = null;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE) {
+                Set<Value> current = CollectionFactory.createSet(decode(bucketIds(slot)));
+                if (first == null) {
+                    first = current;
+                } else if (!first.equals(current)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public String toString() {
+        StringBuilder b = new StringBuilder("CompactMultiMap ");
+        b.append(pairCount).append("\n{");
+        boolean first = true;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE) {
+                if (!first) {
+                    b.append(", ");
+                }
+                first = false;
+                b.append((Key) ids.get(keys[slot])).append('=')
+                        .append(decode(bucketIds(slot)));
+            }
+        }
+        return b.append('}').toString();
+    }
+}
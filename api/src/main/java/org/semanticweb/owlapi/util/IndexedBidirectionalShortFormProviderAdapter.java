@@ -0,0 +1,144 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.util;
+
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+/** A {@link BidirectionalShortFormProviderAdapter} that also keeps its short
+ * forms in a {@link ShortFormIndex}, for prefix and case insensitive lookups.
+ * The index is updated with the cache, so with a manager it follows the
+ * ontology changes. */
+public class IndexedBidirectionalShortFormProviderAdapter extends
+        BidirectionalShortFormProviderAdapter {
+    /** null while the superclass constructor fills the cache */
+    private final ShortFormIndex index;
+
+    /** @param shortFormProvider
+     *            the short form provider to use */
+    public IndexedBidirectionalShortFormProviderAdapter(
+            ShortFormProvider shortFormProvider) {
+        super(shortFormProvider);
+        index = createIndex();
+    }
+
+    /** @param ontologies
+     *            The ontologies that contain references to the entities to be
+     *            mapped.
+     * @param shortFormProvider
+     *            The short form provider that should be used to generate the
+     *            short forms of the referenced entities. */
+    public IndexedBidirectionalShortFormProviderAdapter(Set<OWLOntology> ontologies,
+            ShortFormProvider shortFormProvider) {
+        super(ontologies, shortFormProvider);
+        index = createIndex();
+    }
+
+    /** @param man
+     *            the manager whose changes the provider follows; the
+     *            <code>dispose</code> method must be called when the provider
+     *            is no longer used
+     * @param ontologies
+     *            The ontologies that contain references to the entities to be
+     *            mapped.
+     * @param shortFormProvider
+     *            The short form provider that should be used to generate the
+     *            short forms of the referenced entities. */
+    public IndexedBidirectionalShortFormProviderAdapter(OWLOntologyManager man,
+            Set<OWLOntology> ontologies, ShortFormProvider shortFormProvider) {
+        super(man, ontologies, shortFormProvider);
+        index = createIndex();
+    }
+
+    private ShortFormIndex createIndex() {
+        ShortFormIndex newIndex = new ShortFormIndex();
+        for (String shortForm : getShortForms()) {
+            for (OWLEntity entity : getEntities(shortForm)) {
+                newIndex.add(shortForm, entity);
+            }
+        }
+        return newIndex;
+    }
+
+    /** @return the index of the short forms of the cached entities */
+    public ShortFormIndex getShortFormIndex() {
+        return index;
+    }
+
+    @Override
+    public void add(OWLEntity entity) {
+        if (index == null) {
+            super.add(entity);
+            return;
+        }
+        String previous = getShortForm(entity);
+        super.add(entity);
+        String shortForm = getShortForm(entity);
+        if (!previous.equals(shortForm)) {
+            index.remove(previous, entity);
+        }
+        index.add(shortForm, entity);
+    }
+
+    @Override
+    @Deprecated
+    public void remove(OWLEntity entity) {
+        String shortForm = getShortForm(entity);
+        super.remove(entity);
+        index.remove(shortForm, entity);
+    }
+
+    @Override
+    @Deprecated
+    public void rebuild(OWLEntitySetProvider<OWLEntity> entitySetProvider) {
+        if (index != null) {
+            index.clear();
+        }
+        super.rebuild(entitySetProvider);
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        index.clear();
+    }
+}
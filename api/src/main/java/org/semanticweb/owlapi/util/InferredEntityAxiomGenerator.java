@@ -39,8 +39,13 @@
 
 package org.semanticweb.owlapi.util;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLDataFactory;
@@ -60,6 +65,8 @@ import org.semanticweb.owlapi.reasoner.OWLReasoner;
  * @param <A> the axiom type
  */
 public abstract class InferredEntityAxiomGenerator<E extends OWLEntity, A extends OWLAxiom> implements InferredAxiomGenerator<A> {
+    /** the number of entities processed by a parallel task */
+    private static final int CHUNK_SIZE = 64;
 
 
     @Override
@@ -78,6 +85,72 @@ public abstract class InferredEntityAxiomGenerator<E extends OWLEntity, A extend
     }
 
 
+    /**
+     * Generates the axioms and passes them to a sink in batches, without
+     * collecting them all first. The entities are split into chunks that are
+     * processed in parallel if an executor is given; the reasoner must then
+     * answer queries concurrently.
+     * @param manager the manager to use
+     * @param reasoner the reasoner to use
+     * @param executor the executor, or null to generate on the calling thread;
+     * see {@link TaskWindow} for executors with a bounded number of threads
+     * @param batchSize the number of axioms after which a batch is passed on;
+     * a batch can be larger by the axioms of one entity
+     * @param sink the sink that receives the batches
+     */
+    public void createAxioms(OWLOntologyManager manager, OWLReasoner reasoner,
+            Executor executor, int batchSize, InferredAxiomSink sink) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        TaskWindow window = new TaskWindow(executor);
+        submitAxioms(manager, reasoner, window, batchSize, sink);
+        window.awaitAll();
+    }
+
+    void submitAxioms(final OWLOntologyManager manager, final OWLReasoner reasoner,
+            TaskWindow window, final int batchSize, final InferredAxiomSink sink) {
+        final List<E> entities = new ArrayList<E>(getEntitiesInClosure(reasoner));
+        for (int start = 0; start < entities.size(); start += CHUNK_SIZE) {
+            final List<E> chunk = entities.subList(start,
+                    Math.min(start + CHUNK_SIZE, entities.size()));
+            window.submit(new Runnable() {
+                @Override
+                public void run() {
+                    OWLDataFactory dataFactory = manager.getOWLDataFactory();
+                    Set<A> result = new HashSet<A>();
+                    for (E entity : chunk) {
+                        addAxioms(entity, reasoner, dataFactory, result);
+                        if (result.size() >= batchSize) {
+                            emit(sink, result);
+                            result = new HashSet<A>();
+                        }
+                    }
+                    emit(sink, result);
+                }
+            });
+        }
+    }
+
+    static void emit(InferredAxiomSink sink, Collection<? extends OWLAxiom> axioms) {
+        if (!axioms.isEmpty()) {
+            synchronized (sink) {
+                sink.addAxioms(axioms);
+            }
+        }
+    }
+
+    /** @return the entities of the imports closure, in the order in which
+     * {@link #createAxioms(OWLOntologyManager, OWLReasoner)} processes them */
+    private Set<E> getEntitiesInClosure(OWLReasoner reasoner) {
+        Set<E> results = new LinkedHashSet<E>();
+        for (OWLOntology ont : reasoner.getRootOntology().getImportsClosure()) {
+            results.addAll(getEntities(ont));
+        }
+        return results;
+    }
+
+
     /**
      * Adds inferred axioms to a results set.  The inferred axioms are generated for the specific entity.
      * @param entity The entity
@@ -40,7 +40,11 @@
 package org.semanticweb.owlapi.util;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
 
 import org.semanticweb.owlapi.model.AddAxiom;
 import org.semanticweb.owlapi.model.OWLAxiom;
@@ -146,4 +150,128 @@ public class InferredOntologyGenerator {
         }
         manager.applyChanges(changes);
     }
+
+
+    /**
+     * Adds 'inferred axioms' to an ontology in batches, as they are generated,
+     * instead of collecting them all first. With an executor, the generators,
+     * and the entities within each generator, are processed in parallel; the
+     * reasoner must then answer queries concurrently, and the batches are
+     * queued and applied on the calling thread between submissions of further
+     * work, so that at most the output of the running tasks is held. Changes
+     * are always applied on the calling thread. If the ontology is in the
+     * imports closure of the reasoner root ontology, the changes would alter
+     * the answers of a non buffering reasoner while it is being queried; the
+     * batches are then collected and applied once all axioms have been
+     * generated.
+     * @param manager  The manager which can be used to obtain a data factory and
+     *                 apply changes.
+     * @param ontology The ontology which the inferred axioms will be added to
+     * @param executor the executor, or null to generate on the calling thread;
+     * see {@link TaskWindow} for executors with a bounded number of threads
+     * @param batchSize the number of axioms added with each change
+     * @throws OWLOntologyChangeException If there was a problem adding the inferred
+     * axioms to the specified ontology.
+     */
+    public void fillOntology(final OWLOntologyManager manager, final OWLOntology ontology,
+            Executor executor, int batchSize) throws OWLOntologyChangeException {
+        if (reasoner.getRootOntology().getImportsClosure().contains(ontology)) {
+            final List<Collection<? extends OWLAxiom>> batches = new ArrayList<Collection<? extends OWLAxiom>>();
+            generateAxioms(manager, executor, batchSize, new InferredAxiomSink() {
+                @Override
+                public void addAxioms(Collection<? extends OWLAxiom> axioms) {
+                    // batches are passed one at a time, so no further locking
+                    batches.add(axioms);
+                }
+            });
+            for (int i = 0; i < batches.size(); i++) {
+                addBatch(manager, ontology, batches.get(i));
+                // release the batch once it is applied
+                batches.set(i, null);
+            }
+            return;
+        }
+        if (executor == null) {
+            generateAxioms(manager, null, batchSize, new InferredAxiomSink() {
+                @Override
+                public void addAxioms(Collection<? extends OWLAxiom> axioms) {
+                    addBatch(manager, ontology, axioms);
+                }
+            });
+            return;
+        }
+        final Queue<Collection<? extends OWLAxiom>> batches = new ConcurrentLinkedQueue<Collection<? extends OWLAxiom>>();
+        Runnable applyQueued = new Runnable() {
+            @Override
+            public void run() {
+                for (Collection<? extends OWLAxiom> batch = batches.poll(); batch != null; batch = batches
+                        .poll()) {
+                    addBatch(manager, ontology, batch);
+                }
+            }
+        };
+        submitAxioms(manager, new TaskWindow(executor, applyQueued), batchSize,
+                new InferredAxiomSink() {
+                    @Override
+                    public void addAxioms(Collection<? extends OWLAxiom> axioms) {
+                        batches.add(axioms);
+                    }
+                });
+        applyQueued.run();
+    }
+
+
+    private static void addBatch(OWLOntologyManager manager, OWLOntology ontology,
+            Collection<? extends OWLAxiom> axioms) {
+        List<OWLOntologyChange> changes = new ArrayList<OWLOntologyChange>(axioms.size());
+        for (OWLAxiom ax : axioms) {
+            changes.add(new AddAxiom(ontology, ax));
+        }
+        manager.applyChanges(changes);
+    }
+
+
+    /**
+     * Passes the 'inferred axioms' of all generators to a sink, in batches, as
+     * they are generated; for example, to write them out without building an
+     * ontology. With an executor, the generators, and the entities within each
+     * generator, are processed in parallel; the reasoner must then answer
+     * queries concurrently.
+     * @param manager the manager used to obtain a data factory
+     * @param executor the executor, or null to generate on the calling thread;
+     * see {@link TaskWindow} for executors with a bounded number of threads
+     * @param batchSize the number of axioms after which a batch is passed on
+     * @param sink the sink that receives the batches
+     */
+    public void generateAxioms(OWLOntologyManager manager, Executor executor,
+            int batchSize, InferredAxiomSink sink) {
+        submitAxioms(manager, new TaskWindow(executor), batchSize, sink);
+    }
+
+
+    private void submitAxioms(final OWLOntologyManager manager, TaskWindow window,
+            final int batchSize, final InferredAxiomSink sink) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        for (final InferredAxiomGenerator<? extends OWLAxiom> axiomGenerator : axiomGenerators) {
+            if (axiomGenerator instanceof InferredEntityAxiomGenerator) {
+                ((InferredEntityAxiomGenerator<?, ?>) axiomGenerator).submitAxioms(
+                        manager, reasoner, window, batchSize, sink);
+            } else {
+                window.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        List<OWLAxiom> axioms = new ArrayList<OWLAxiom>(
+                                axiomGenerator.createAxioms(manager, reasoner));
+                        for (int i = 0; i < axioms.size(); i += batchSize) {
+                            InferredEntityAxiomGenerator.emit(sink, axioms.subList(i,
+                                    Math.min(i + batchSize, axioms.size())));
+                        }
+                    }
+                });
+            }
+        }
+        window.awaitAll();
+    }
 }
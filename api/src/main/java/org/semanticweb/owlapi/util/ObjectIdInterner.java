@@ -0,0 +1,275 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/** Assigns dense integer ids to objects, so that indexes can store ints
+ * instead of object references. Ids are reference counted: every
+ * {@link #intern(Object)} must be balanced by a {@link #release(int)}, and the
+ * id of an object whose count drops to zero is recycled. Lookups use an
+ * open-addressed table with linear probing and backward shift deletion, so no
+ * tombstones are left behind by removals. This class is threadsafe: all
+ * methods synchronize on the interner, so that the maps sharing it can be
+ * built and read from different threads, as long as each map is itself only
+ * changed by one thread at a time.
+ * 
+ * @param <T>
+ *            the type of the interned objects
+ * @author ignazio palmisano */
+public class ObjectIdInterner<T> implements Serializable {
+    private static final long serialVersionUID = 30402L;
+    /** value returned for objects that do not have an id */
+    public static final int NO_ID = -1;
+    private static final int FREE = -1;
+    private Object[] objects;
+    /** hash codes are not stable across JVMs; rebuilt on deserialization */
+    private transient int[] hashes;
+    private int[] refCounts;
+    /** table slots, each holding an id or FREE */
+    private transient int[] table;
+    private int[] freeIds;
+    private int freeCount = 0;
+    /** first never used id */
+    private int nextId = 0;
+    private int size = 0;
+
+    /** creates an empty interner */
+    public ObjectIdInterner() {
+        this(16);
+    }
+
+    /** @param expectedSize
+     *            number of objects expected to be interned */
+    public ObjectIdInterner(int expectedSize) {
+        int capacity = Math.max(4, expectedSize);
+        objects = new Object[capacity];
+        hashes = new int[capacity];
+        refCounts = new int[capacity];
+        freeIds = new int[4];
+        table = new int[tableSizeFor(capacity)];
+        Arrays.fill(table, FREE);
+    }
+
+    private static int tableSizeFor(int n) {
+        int size = 8;
+        // keep the load factor at or below 0.5
+        while (size < n * 2) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    /** spreads the bits of a hash code; shared with the other primitive
+     * collections in this package
+     * 
+     * @param h
+     *            hash code
+     * @return mixed hash code */
+    static int mix(int h) {
+        int x = h * 0x9E3779B9;
+        return x ^ x >>> 16;
+    }
+
+    /** @return the number of objects currently interned */
+    public synchronized int size() {
+        return size;
+    }
+
+    /** @param id
+     *            an id returned by {@link #intern(Object)}
+     * @return the object with the specified id */
+    @SuppressWarnings("unchecked")
+    public synchronized T get(int id) {
+        return (T) objects[id];
+    }
+
+    /** @param o
+     *            the object to look up
+     * @return the id of o, or {@link #NO_ID} if o is not interned; the
+     *         reference count is not modified */
+    public synchronized int idOf(Object o) {
+        if (o == null) {
+            return NO_ID;
+        }
+        int h = o.hashCode();
+        int mask = table.length - 1;
+        for (int slot = mix(h) & mask;; slot = slot + 1 & mask) {
+            int id = table[slot];
+            if (id == FREE) {
+                return NO_ID;
+            }
+            if (hashes[id] == h && o.equals(objects[id])) {
+                return id;
+            }
+        }
+    }
+
+    /** @param o
+     *            the object to intern; cannot be null
+     * @return the id for o; its reference count is incremented */
+    public synchronized int intern(T o) {
+        int h = o.hashCode();
+        int mask = table.length - 1;
+        int slot = mix(h) & mask;
+        for (;; slot = slot + 1 & mask) {
+            int id = table[slot];
+            if (id == FREE) {
+                break;
+            }
+            if (hashes[id] == h && o.equals(objects[id])) {
+                refCounts[id]++;
+                return id;
+            }
+        }
+        int id = allocateId();
+        objects[id] = o;
+        hashes[id] = h;
+        refCounts[id] = 1;
+        table[slot] = id;
+        size++;
+        if (size * 2 > table.length) {
+            rehash(table.length << 1);
+        }
+        return id;
+    }
+
+    /** increments the reference count of an interned id
+     * 
+     * @param id
+     *            the id to retain */
+    public synchronized void retain(int id) {
+        refCounts[id]++;
+    }
+
+    /** decrements the reference count for id; if it reaches zero, the object
+     * is removed and the id can be reused
+     * 
+     * @param id
+     *            the id to release */
+    public synchronized void release(int id) {
+        if (--refCounts[id] > 0) {
+            return;
+        }
+        int mask = table.length - 1;
+        int slot = mix(hashes[id]) & mask;
+        while (table[slot] != id) {
+            slot = slot + 1 & mask;
+        }
+        deleteSlot(slot);
+        objects[id] = null;
+        size--;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = id;
+    }
+
+    /** backward shift deletion: moves later entries of the probe sequence
+     * into the hole so that lookups never need tombstones */
+    private void deleteSlot(int hole) {
+        int mask = table.length - 1;
+        int slot = hole;
+        for (;;) {
+            slot = slot + 1 & mask;
+            int id = table[slot];
+            if (id == FREE) {
+                table[hole] = FREE;
+                return;
+            }
+            int home = mix(hashes[id]) & mask;
+            // move the entry if its home is not in the cyclic range (hole,
+            // slot]
+            if (hole <= slot ? hole >= home || home > slot : hole >= home
+                    && home > slot) {
+                table[hole] = id;
+                hole = slot;
+            }
+        }
+    }
+
+    private int allocateId() {
+        if (freeCount > 0) {
+            return freeIds[--freeCount];
+        }
+        if (nextId == objects.length) {
+            int capacity = objects.length + (objects.length >> 1) + 1;
+            objects = Arrays.copyOf(objects, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            refCounts = Arrays.copyOf(refCounts, capacity);
+        }
+        return nextId++;
+    }
+
+    private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException,
+            ClassNotFoundException {
+        in.defaultReadObject();
+        hashes = new int[objects.length];
+        for (int id = 0; id < nextId; id++) {
+            if (objects[id] != null) {
+                hashes[id] = objects[id].hashCode();
+            }
+        }
+        rehash(tableSizeFor(Math.max(4, size)));
+    }
+
+    private void rehash(int newLength) {
+        int[] newTable = new int[newLength];
+        Arrays.fill(newTable, FREE);
+        int mask = newLength - 1;
+        for (int id = 0; id < nextId; id++) {
+            if (objects[id] != null) {
+                int slot = mix(hashes[id]) & mask;
+                while (newTable[slot] != FREE) {
+                    slot = slot + 1 & mask;
+                }
+                newTable[slot] = id;
+            }
+        }
+        table = newTable;
+    }
+}
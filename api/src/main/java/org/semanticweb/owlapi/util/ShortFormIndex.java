@@ -0,0 +1,216 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.semanticweb.owlapi.model.OWLEntity;
+
+/** A sorted index of short forms, for prefix lookups such as autocompletion.
+ * Short forms are kept in sorted maps, once as they are and once case folded,
+ * so that a lookup costs a logarithmic search plus the number of results
+ * returned; adding and removing a short form is logarithmic too. Most short
+ * forms map to a single entity, which is stored without a set of its own.
+ * The index is not thread safe. */
+public class ShortFormIndex {
+    private final TreeMap<String, Set<OWLEntity>> shortForms = new TreeMap<String, Set<OWLEntity>>();
+    private final TreeMap<String, Set<String>> foldedShortForms = new TreeMap<String, Set<String>>();
+
+    /** @param shortForm
+     *            the short form
+     * @return the case folded form, used for case insensitive lookups */
+    public static String fold(String shortForm) {
+        return shortForm.toLowerCase(Locale.ENGLISH);
+    }
+
+    /** @param shortForm
+     *            the short form of the entity
+     * @param entity
+     *            the entity to add */
+    public void add(String shortForm, OWLEntity entity) {
+        if (add(shortForms, shortForm, entity)) {
+            add(foldedShortForms, fold(shortForm), shortForm);
+        }
+    }
+
+    /** @param shortForm
+     *            the short form the entity was added with
+     * @param entity
+     *            the entity to remove */
+    public void remove(String shortForm, OWLEntity entity) {
+        if (remove(shortForms, shortForm, entity)) {
+            remove(foldedShortForms, fold(shortForm), shortForm);
+        }
+    }
+
+    /** removes all short forms */
+    public void clear() {
+        shortForms.clear();
+        foldedShortForms.clear();
+    }
+
+    /** @return the number of distinct short forms */
+    public int size() {
+        return shortForms.size();
+    }
+
+    /** @param prefix
+     *            the prefix
+     * @param ignoreCase
+     *            true if the case of the prefix and of the short forms should
+     *            be ignored
+     * @param limit
+     *            the maximum number of short forms to return
+     * @return the first short forms, in lexicographic order, that start with
+     *         the prefix; with ignoreCase, short forms are ordered by their
+     *         case folded form */
+    public List<String> getShortFormsWithPrefix(String prefix, boolean ignoreCase,
+            int limit) {
+        List<String> result = new ArrayList<String>();
+        if (ignoreCase) {
+            String folded = fold(prefix);
+            for (Map.Entry<String, Set<String>> e : foldedShortForms.tailMap(folded, true)
+                    .entrySet()) {
+                if (result.size() >= limit || !e.getKey().startsWith(folded)) {
+                    break;
+                }
+                for (String shortForm : e.getValue()) {
+                    if (result.size() < limit) {
+                        result.add(shortForm);
+                    }
+                }
+            }
+        } else {
+            for (String shortForm : shortForms.tailMap(prefix, true).keySet()) {
+                if (result.size() >= limit || !shortForm.startsWith(prefix)) {
+                    break;
+                }
+                result.add(shortForm);
+            }
+        }
+        return result;
+    }
+
+    /** @param prefix
+     *            the prefix
+     * @param ignoreCase
+     *            true if the case of the prefix and of the short forms should
+     *            be ignored
+     * @param limit
+     *            the maximum number of entities to return
+     * @return the entities of the first short forms that start with the
+     *         prefix, ordered as in
+     *         {@link #getShortFormsWithPrefix(String, boolean, int)} */
+    public Set<OWLEntity> getEntitiesWithPrefix(String prefix, boolean ignoreCase,
+            int limit) {
+        Set<OWLEntity> result = new LinkedHashSet<OWLEntity>();
+        // each short form has at least one entity
+        for (String shortForm : getShortFormsWithPrefix(prefix, ignoreCase, limit)) {
+            for (OWLEntity entity : shortForms.get(shortForm)) {
+                if (result.size() < limit) {
+                    result.add(entity);
+                }
+            }
+        }
+        return result;
+    }
+
+    /** @param shortForm
+     *            the short form
+     * @param ignoreCase
+     *            true if the case should be ignored
+     * @return the entities with the short form */
+    public Set<OWLEntity> getEntities(String shortForm, boolean ignoreCase) {
+        if (!ignoreCase) {
+            Set<OWLEntity> entities = shortForms.get(shortForm);
+            if (entities == null) {
+                return Collections.emptySet();
+            }
+            return CollectionFactory.getCopyOnRequestSetFromImmutableCollection(entities);
+        }
+        Set<String> matches = foldedShortForms.get(fold(shortForm));
+        if (matches == null) {
+            return Collections.emptySet();
+        }
+        Set<OWLEntity> result = new HashSet<OWLEntity>();
+        for (String match : matches) {
+            result.addAll(shortForms.get(match));
+        }
+        return result;
+    }
+
+    /** @return true if the key was not in the map */
+    private static <K, V> boolean add(Map<K, Set<V>> map, K key, V value) {
+        Set<V> values = map.get(key);
+        if (values == null) {
+            map.put(key, Collections.singleton(value));
+            return true;
+        }
+        if (!values.contains(value)) {
+            if (values.size() == 1 && !(values instanceof HashSet)) {
+                values = new HashSet<V>(values);
+                map.put(key, values);
+            }
+            values.add(value);
+        }
+        return false;
+    }
+
+    /** @return true if the key is no longer in the map */
+    private static <K, V> boolean remove(Map<K, Set<V>> map, K key, V value) {
+        Set<V> values = map.get(key);
+        if (values == null || !values.contains(value)) {
+            return false;
+        }
+        if (values.size() == 1) {
+            map.remove(key);
+            return true;
+        }
+        values.remove(value);
+        return false;
+    }
+}
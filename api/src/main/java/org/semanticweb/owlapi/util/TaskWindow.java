@@ -0,0 +1,162 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+
+/** Runs tasks on an executor with a bounded number of them submitted and not
+ * finished, so that the results they hold stay bounded too. Without an
+ * executor, tasks run when they are submitted.
+ * <p>
+ * A window must not be used from a thread of its own executor if that
+ * executor has a bounded number of threads: {@link #submit(Runnable)} waits
+ * for a running task to finish, and if every thread of the executor is
+ * waiting there, the queued tasks never start and the threads deadlock. */
+final class TaskWindow {
+    private final Executor executor;
+    private final Runnable consumer;
+    private final Semaphore window;
+    private final List<FutureTask<Object>> tasks = new ArrayList<FutureTask<Object>>();
+
+    /** @param executor
+     *            the executor, or null to run the tasks on the calling thread */
+    TaskWindow(Executor executor) {
+        this(executor, null);
+    }
+
+    /** @param executor
+     *            the executor, or null to run the tasks on the calling thread
+     * @param consumer
+     *            run on the calling thread before each submission and after
+     *            each awaited task, to consume what the finished tasks
+     *            produced; if it fails, the tasks that have not started are
+     *            cancelled. Can be null. */
+    TaskWindow(Executor executor, Runnable consumer) {
+        this.executor = executor;
+        this.consumer = consumer;
+        window = new Semaphore(2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /** Submits a task, after waiting for one to finish if the window is full.
+     * 
+     * @param runnable
+     *            the task */
+    void submit(final Runnable runnable) {
+        consume();
+        if (executor == null) {
+            runnable.run();
+            return;
+        }
+        try {
+            window.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OWLRuntimeException(e);
+        }
+        FutureTask<Object> task = new FutureTask<Object>(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    runnable.run();
+                } finally {
+                    window.release();
+                }
+            }
+        }, null);
+        tasks.add(task);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    /** Waits for all the submitted tasks; a task that has not started runs on
+     * the calling thread. The failure of the first failed task, in submission
+     * order, is rethrown. */
+    void awaitAll() {
+        for (int i = 0; i < tasks.size(); i++) {
+            FutureTask<Object> task = tasks.get(i);
+            task.run();
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new OWLRuntimeException(e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new OWLRuntimeException(cause);
+            }
+            consume();
+        }
+        tasks.clear();
+    }
+
+    private void consume() {
+        if (consumer == null) {
+            return;
+        }
+        boolean consumed = false;
+        try {
+            consumer.run();
+            consumed = true;
+        } finally {
+            if (!consumed) {
+                for (FutureTask<Object> task : tasks) {
+                    task.cancel(false);
+                }
+                tasks.clear();
+            }
+        }
+    }
+}
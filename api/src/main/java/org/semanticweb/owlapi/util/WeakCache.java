@@ -3,27 +3,98 @@ package org.semanticweb.owlapi.util;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
-import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
-/** A weakly linked cache - elements in the cache can be garbage collected
+/** A weakly linked cache - elements in the cache can be garbage collected.
+ * The cache is threadsafe: lookups do not lock, and updates only contend on
+ * the same segment of the backing concurrent map. Entries whose elements have
+ * been collected are removed the next time the cache is updated.
  * 
  * @param <K> */
 public class WeakCache<K> implements Serializable {
     private static final long serialVersionUID = 30402L;
-    private transient Map<K, WeakReference<K>> prefixCache = CollectionFactory.createSyncWeakMap();
+    private transient ConcurrentMap<Object, WeakKey<K>> prefixCache = CollectionFactory
+            .createSyncMap();
+    private transient ReferenceQueue<K> queue = new ReferenceQueue<K>();
+
+    /** a weak reference used both as key and value in the map; equality is
+     * based on the referents, while the referents are alive */
+    private static final class WeakKey<K> extends WeakReference<K> {
+        final int hash;
+
+        WeakKey(K k, ReferenceQueue<? super K> queue) {
+            super(k, queue);
+            hash = k.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj instanceof Lookup) {
+                return obj.equals(this);
+            }
+            if (!(obj instanceof WeakKey) || ((WeakKey<?>) obj).hash != hash) {
+                return false;
+            }
+            Object referent = get();
+            return referent != null && referent.equals(((WeakKey<?>) obj).get());
+        }
+    }
+
+    /** a strong key used for lookups, so that no reference objects are
+     * created when the element is already cached */
+    private static final class Lookup {
+        final Object value;
+        final int hash;
+
+        Lookup(Object value) {
+            this.value = value;
+            hash = value.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj instanceof Lookup) {
+                return value.equals(((Lookup) obj).value);
+            }
+            return obj instanceof WeakKey && ((WeakKey<?>) obj).hash == hash
+                    && value.equals(((WeakKey<?>) obj).get());
+        }
+    }
 
     private void readObject(ObjectInputStream in) throws IOException,
-    ClassNotFoundException {
+            ClassNotFoundException {
         in.defaultReadObject();
-        prefixCache = CollectionFactory.createSyncWeakMap();
+        prefixCache = CollectionFactory.createSyncMap();
+        queue = new ReferenceQueue<K>();
     }
 
     /** @param s
-     *            the value to cache
+     *            the value to cache; null values are returned as they are
      * @return the cached value */
     public K cache(K s) {
-        WeakReference<K> w = prefixCache.get(s);
+        if (s == null) {
+            return null;
+        }
+        WeakKey<K> w = prefixCache.get(new Lookup(s));
         if (w != null) {
             K toReturn = w.get();
             if (toReturn != null) {
@@ -31,26 +102,62 @@ public class WeakCache<K> implements Serializable {
             }
         }
         // need to add the new key and return it
-        prefixCache.put(s, new WeakReference<K>(s));
-        return s;
+        expungeStaleEntries();
+        WeakKey<K> key = new WeakKey<K>(s, queue);
+        for (;;) {
+            w = prefixCache.putIfAbsent(key, key);
+            if (w == null) {
+                return s;
+            }
+            K toReturn = w.get();
+            if (toReturn != null) {
+                return toReturn;
+            }
+            // collected after the lookup matched it - remove and retry
+            prefixCache.remove(w, w);
+        }
+    }
+
+    /** @param probe
+     *            an object with the hash code of the wanted element, whose
+     *            equals method accepts that element; this finds an element
+     *            without building it first
+     * @return the cached element the probe is equal to, or null if there is
+     *         none */
+    public K find(Object probe) {
+        WeakKey<K> w = prefixCache.get(new Lookup(probe));
+        return w == null ? null : w.get();
+    }
+
+    private void expungeStaleEntries() {
+        Reference<? extends K> r;
+        while ((r = queue.poll()) != null) {
+            prefixCache.remove(r, r);
+        }
     }
+
     /**
      * @param k the key to check
      * @return true if the cache contains k as a key; note that, due to the nature of this cache, by the time the method returns the key may no longer be in the map.*/
     public boolean contains(K k) {
-        WeakReference<K> w = prefixCache.get(k);
-        if (w != null) {
-            K toReturn = w.get();
-            if (toReturn != null) {
-                return true;
-            }
+        if (k == null) {
+            return false;
         }
-        return false;
+        WeakKey<K> w = prefixCache.get(new Lookup(k));
+        return w != null && w.get() != null;
+    }
+
+    /** @return the number of entries in the cache, including entries whose
+     *         elements have been collected but not yet removed */
+    public int size() {
+        return prefixCache.size();
     }
 
     /** empty the cache */
     public void clear() {
         prefixCache.clear();
-
+        while (queue.poll() != null) {
+            // entries are already gone; just drain the queue
+        }
     }
 }
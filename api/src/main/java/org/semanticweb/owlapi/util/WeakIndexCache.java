@@ -3,46 +3,87 @@ package org.semanticweb.owlapi.util;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
-import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
-/** A weakly linked cache - elements in the cache can be garbage collected
+/** A weakly linked cache - elements in the cache can be garbage collected.
+ * Values are weakly referenced; when a value is collected, its entry is
+ * removed the next time the cache is updated. The cache is threadsafe and
+ * backed by a concurrent map, so lookups do not lock and updates only contend
+ * on the same segment.
  * 
  * @param <K>
  * @param <V> */
 public class WeakIndexCache<K, V> implements Serializable {
     private static final long serialVersionUID = 30402L;
-    protected transient Map<K, WeakReference<V>> prefixCache = CollectionFactory
-            .createSyncWeakMap();
+    private transient ConcurrentMap<K, ValueReference<K, V>> prefixCache = CollectionFactory
+            .createSyncMap();
+    private transient ReferenceQueue<V> queue = new ReferenceQueue<V>();
+
+    /** a weak reference to a value that remembers its key, so that the entry
+     * can be removed once the value has been collected */
+    private static final class ValueReference<K, V> extends WeakReference<V> {
+        final K key;
+
+        ValueReference(K key, V value, ReferenceQueue<? super V> queue) {
+            super(value, queue);
+            this.key = key;
+        }
+    }
 
     /** @param s
-     *            the cache key
+     *            the cache key; null keys are not cached
      * @param v
      *            the cache value
      * @return the cached value */
     public V cache(K s, V v) {
-        WeakReference<V> w = prefixCache.get(s);
-        if (w != null) {
+        if (s == null) {
+            return v;
+        }
+        expungeStaleEntries();
+        ValueReference<K, V> ref = new ValueReference<K, V>(s, v, queue);
+        for (;;) {
+            ValueReference<K, V> w = prefixCache.putIfAbsent(s, ref);
+            if (w == null) {
+                return v;
+            }
             V toReturn = w.get();
             if (toReturn != null) {
                 return toReturn;
             }
+            // entry collected - replace it, unless another thread did it
+            // first
+            if (prefixCache.replace(s, w, ref)) {
+                return v;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void expungeStaleEntries() {
+        Reference<? extends V> r;
+        while ((r = queue.poll()) != null) {
+            ValueReference<K, V> w = (ValueReference<K, V>) r;
+            prefixCache.remove(w.key, w);
         }
-        // need to add the new key and return it
-        prefixCache.put(s, new WeakReference<V>(v));
-        return v;
     }
 
     private void readObject(ObjectInputStream in) throws IOException,
-    ClassNotFoundException {
+            ClassNotFoundException {
         in.defaultReadObject();
-        prefixCache = CollectionFactory.createSyncWeakMap();
+        prefixCache = CollectionFactory.createSyncMap();
+        queue = new ReferenceQueue<V>();
     }
 
     /** @param k
      *            the key
      * @return the value */
     public V get(K k) {
+        if (k == null) {
+            return null;
+        }
         WeakReference<V> w = prefixCache.get(k);
         if (w != null) {
             V toReturn = w.get();
@@ -55,18 +96,20 @@ public class WeakIndexCache<K, V> implements Serializable {
      * @param k the key to check
      * @return true if the cache contains k as a key; note that, due to the nature of this cache, by the time the method returns the key may no longer be in the map.*/
     public boolean contains(K k) {
-        WeakReference<V> w = prefixCache.get(k);
-        if (w != null) {
-            V toReturn = w.get();
-            if(toReturn!=null) {
-                return true;
-            }
-        }
-        return false;
+        return get(k) != null;
+    }
+
+    /** @return the number of entries in the cache, including entries whose
+     *         values have been collected but not yet removed */
+    public int size() {
+        return prefixCache.size();
     }
 
     /** empty the cache */
     public void clear() {
         prefixCache.clear();
+        while (queue.poll() != null) {
+            // entries are already gone; just drain the queue
+        }
     }
 }
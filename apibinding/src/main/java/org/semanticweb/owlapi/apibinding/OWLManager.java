@@ -40,6 +40,10 @@
 package org.semanticweb.owlapi.apibinding;
 
 
+import org.coode.owlapi.binary.BinaryOWLOntologyStorer;
+import org.coode.owlapi.binary.BinaryOWLParserFactory;
+import org.coode.owlapi.binary.MappedOWLOntologyFactory;
+import org.coode.owlapi.binary.MappedOWLOntologyStorer;
 import org.coode.owlapi.functionalparser.OWLFunctionalSyntaxParserFactory;
 import org.coode.owlapi.functionalrenderer.OWLFunctionalSyntaxOntologyStorer;
 import org.coode.owlapi.latex.LatexOntologyStorer;
@@ -87,6 +91,7 @@ public class OWLManager implements OWLOntologyManagerFactory {
         registry.registerParserFactory(new OWLFunctionalSyntaxParserFactory());
         registry.registerParserFactory(new OWLXMLParserFactory());
         registry.registerParserFactory(new RDFXMLParserFactory());
+        registry.registerParserFactory(new BinaryOWLParserFactory());
 
     }
 
@@ -127,6 +132,21 @@ public class OWLManager implements OWLOntologyManagerFactory {
      * @return The manager.
      */
     public static OWLOntologyManager createOWLOntologyManager(OWLDataFactory dataFactory) {
+        return createOWLOntologyManager(dataFactory, false);
+    }
+
+    /**
+     * Creates an OWL ontology manager that is configured with standard parsers,
+     * storeres etc.
+     *
+     * @param dataFactory The data factory that the manager should have a reference to.
+     * @param useCompactIndexes true if the ontologies created by the manager
+     *            should store their indexes as interned integer ids, which
+     *            uses less memory but makes changes slower
+     * @return The manager.
+     */
+    public static OWLOntologyManager createOWLOntologyManager(OWLDataFactory dataFactory,
+            boolean useCompactIndexes) {
         // Create the ontology manager and add ontology factories, mappers and storers
         OWLOntologyManager ontologyManager = new OWLOntologyManagerImpl(dataFactory);
         ontologyManager.addOntologyStorer(new RDFXMLOntologyStorer());
@@ -137,11 +157,17 @@ public class OWLManager implements OWLOntologyManagerFactory {
         ontologyManager.addOntologyStorer(new KRSS2OWLSyntaxOntologyStorer());
         ontologyManager.addOntologyStorer(new TurtleOntologyStorer());
         ontologyManager.addOntologyStorer(new LatexOntologyStorer());
+        ontologyManager.addOntologyStorer(new BinaryOWLOntologyStorer());
+        ontologyManager.addOntologyStorer(new MappedOWLOntologyStorer());
 
         ontologyManager.addIRIMapper(new NonMappingOntologyIRIMapper());
 
-        ontologyManager.addOntologyFactory(new EmptyInMemOWLOntologyFactory());
-        ontologyManager.addOntologyFactory(new ParsableOWLOntologyFactory());
+        ontologyManager.addOntologyFactory(new EmptyInMemOWLOntologyFactory(
+                useCompactIndexes));
+        ontologyManager.addOntologyFactory(new ParsableOWLOntologyFactory(
+                useCompactIndexes));
+        // factories added later are asked first
+        ontologyManager.addOntologyFactory(new MappedOWLOntologyFactory());
 
         return ontologyManager;
     }
@@ -0,0 +1,125 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+
+/** Time to sort the axioms of a synthetic ontology, and sets of n-ary class
+ * expressions, with <code>OWLObject.compareTo</code>. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompareToBenchmark {
+    /** number of classes in the synthetic ontology */
+    @Param({ "1000", "10000" })
+    public int size;
+    private List<OWLAxiom> axioms;
+    private List<OWLClassExpression> intersections;
+
+    /** generates the axioms, in a fixed shuffled order, and intersections that
+     * share most of their operands */
+    @Setup
+    public void setUp() {
+        OWLDataFactory df = OWLManager.getOWLDataFactory();
+        axioms = SyntheticOntologies.createAxioms(df, size, true,
+                SyntheticOntologies.DEFAULT_SEED);
+        Collections.shuffle(axioms, new Random(SyntheticOntologies.DEFAULT_SEED));
+        List<OWLClassExpression> classes = new ArrayList<OWLClassExpression>();
+        for (OWLAxiom ax : axioms) {
+            classes.addAll(ax.getClassesInSignature());
+            if (classes.size() >= 8) {
+                break;
+            }
+        }
+        intersections = new ArrayList<OWLClassExpression>();
+        for (OWLAxiom ax : axioms) {
+            Set<OWLClassExpression> operands = new TreeSet<OWLClassExpression>(classes);
+            operands.addAll(ax.getClassesInSignature());
+            intersections.add(df.getOWLObjectIntersectionOf(operands));
+        }
+    }
+
+    /** @return the axioms, sorted */
+    @Benchmark
+    public List<OWLAxiom> sortAxioms() {
+        List<OWLAxiom> list = new ArrayList<OWLAxiom>(axioms);
+        Collections.sort(list);
+        return list;
+    }
+
+    /** @return the axioms, in a tree set */
+    @Benchmark
+    public Set<OWLAxiom> treeSetOfAxioms() {
+        return new TreeSet<OWLAxiom>(axioms);
+    }
+
+    /** @return the intersections, sorted; their comparisons walk the shared
+     *         operands */
+    @Benchmark
+    public List<OWLClassExpression> sortIntersections() {
+        List<OWLClassExpression> list = new ArrayList<OWLClassExpression>(intersections);
+        Collections.sort(list);
+        return list;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLLiteral;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+/** Throughput of the interning caches used by the data factory and by
+ * {@link IRI}, under contention. Run {@link #main(String[])} to measure the
+ * same benchmarks with an increasing number of threads; with a concurrent
+ * cache, throughput should grow with the thread count up to the number of
+ * cores. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataFactoryCacheBenchmark {
+    /** number of distinct names in the working set */
+    @Param({ "1000", "100000" })
+    public int names;
+    private OWLDataFactory df;
+    private IRI[] iris;
+    private String[] strings;
+
+    /** builds the working set and warms the caches */
+    @Setup
+    public void setUp() {
+        df = new OWLDataFactoryImpl();
+        iris = new IRI[names];
+        strings = new String[names];
+        for (int i = 0; i < names; i++) {
+            strings[i] = "http://www.example.org/ontology" + i % 50 + "#Entity" + i;
+            iris[i] = IRI.create(strings[i]);
+            df.getOWLClass(iris[i]);
+        }
+    }
+
+    /** per thread source of indexes, so that threads do not contend on a
+     * shared random generator */
+    @State(Scope.Thread)
+    public static class Index {
+        private final Random random = new Random(Thread.currentThread().getId());
+
+        int next(int bound) {
+            return random.nextInt(bound);
+        }
+    }
+
+    /** @param index
+     *            per thread index source
+     * @return a cached class */
+    @Benchmark
+    public OWLClass getOWLClass(Index index) {
+        return df.getOWLClass(iris[index.next(names)]);
+    }
+
+    /** @param index
+     *            per thread index source
+     * @return a cached literal */
+    @Benchmark
+    public OWLLiteral getOWLLiteral(Index index) {
+        return df.getOWLLiteral(strings[index.next(names)]);
+    }
+
+    /** @param index
+     *            per thread index source
+     * @return an IRI; the prefix goes through the shared prefix cache */
+    @Benchmark
+    public IRI createIRI(Index index) {
+        return IRI.create(strings[index.next(names)]);
+    }
+
+    /** runs all benchmarks in this class with 1, 2, 4... threads, up to twice
+     * the number of available processors
+     * 
+     * @param args
+     *            ignored
+     * @throws RunnerException
+     *             if JMH fails */
+    public static void main(String[] args) throws RunnerException {
+        int max = Runtime.getRuntime().availableProcessors() * 2;
+        for (int threads = 1; threads <= max; threads *= 2) {
+            new Runner(new OptionsBuilder()
+                    .include(DataFactoryCacheBenchmark.class.getSimpleName())
+                    .threads(threads).build()).run();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeBatch;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+/** Time to add and remove the axioms of a synthetic ontology through the
+ * manager and <code>OWLOntologyImpl</code>, with the default and with the
+ * compact index backend. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OntologyChangeBenchmark {
+    /** number of classes in the synthetic ontology */
+    @Param({ "1000", "10000" })
+    public int size;
+    /** true to use the compact, id based index backend */
+    @Param({ "false", "true" })
+    public boolean compactIndexes;
+    private OWLDataFactory df;
+    private Set<OWLAxiom> axioms;
+    private List<OWLOntologyChange> additions;
+
+    /** generates the axioms */
+    @Setup
+    public void setUp() {
+        df = OWLManager.getOWLDataFactory();
+        List<OWLAxiom> list = SyntheticOntologies.createAxioms(df, size, true,
+                SyntheticOntologies.DEFAULT_SEED);
+        axioms = new HashSet<OWLAxiom>(list);
+        additions = new ArrayList<OWLOntologyChange>();
+    }
+
+    private OWLOntology createOntology() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager(df,
+                compactIndexes);
+        return manager.createOntology(SyntheticOntologies.ONTOLOGY_IRI);
+    }
+
+    /** @return an ontology with all axioms added in one call
+     * @throws Exception
+     *             if the ontology cannot be created */
+    @Benchmark
+    public OWLOntology addAxioms() throws Exception {
+        OWLOntology ontology = createOntology();
+        ontology.getOWLOntologyManager().addAxioms(ontology, axioms);
+        return ontology;
+    }
+
+    /** @return an ontology with all axioms added with one call each, as
+     *         editors and parsers do
+     * @throws Exception
+     *             if the ontology cannot be created */
+    @Benchmark
+    public OWLOntology addAxiomsOneByOne() throws Exception {
+        OWLOntology ontology = createOntology();
+        OWLOntologyManager manager = ontology.getOWLOntologyManager();
+        for (OWLAxiom ax : axioms) {
+            additions.clear();
+            additions.add(new AddAxiom(ontology, ax));
+            manager.applyChanges(additions);
+        }
+        return ontology;
+    }
+
+    /** @return an empty ontology, after all axioms have been added and removed
+     * @throws Exception
+     *             if the ontology cannot be created */
+    @Benchmark
+    public OWLOntology addAndRemoveAxioms() throws Exception {
+        OWLOntology ontology = createOntology();
+        OWLOntologyManager manager = ontology.getOWLOntologyManager();
+        manager.addAxioms(ontology, axioms);
+        manager.removeAxioms(ontology, axioms);
+        return ontology;
+    }
+
+    /** @return an empty ontology, after all axioms have been added and then
+     *         removed in one batch, with the lazily built indexes in use
+     * @throws Exception
+     *             if the ontology cannot be created */
+    @Benchmark
+    public OWLOntology removeAxiomsInBatch() throws Exception {
+        OWLOntology ontology = createOntology();
+        OWLOntologyManager manager = ontology.getOWLOntologyManager();
+        manager.addAxioms(ontology, axioms);
+        // build the indexes that the batch has to keep up to date
+        ontology.getSubClassAxiomsForSubClass(df.getOWLThing());
+        ontology.getSubClassAxiomsForSuperClass(df.getOWLThing());
+        ontology.getAxioms(df.getOWLThing());
+        new OWLOntologyChangeBatch(manager).removeAxioms(ontology, axioms).commit();
+        return ontology;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+
+/** Throughput of the <code>OWLOntology</code> lookup methods on a synthetic
+ * ontology, with the default and with the compact index backend. Successive
+ * calls cycle through all classes and individuals. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OntologyLookupBenchmark {
+    /** number of classes in the synthetic ontology */
+    @Param({ "1000", "100000" })
+    public int size;
+    /** true to use the compact, id based index backend */
+    @Param({ "false", "true" })
+    public boolean compactIndexes;
+    private OWLOntology ontology;
+    private OWLClass[] classes;
+    private OWLEntity[] entities;
+    private OWLAxiom[] axioms;
+    private int next = 0;
+
+    /** creates the ontology
+     * 
+     * @throws Exception
+     *             if the ontology cannot be created */
+    @Setup
+    public void setUp() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager(
+                OWLManager.getOWLDataFactory(), compactIndexes);
+        ontology = SyntheticOntologies.createOntology(manager, size, true);
+        classes = new OWLClass[size];
+        List<OWLEntity> list = new ArrayList<OWLEntity>();
+        for (int i = 0; i < size; i++) {
+            classes[i] = SyntheticOntologies.getClass(manager.getOWLDataFactory(), i);
+            list.add(classes[i]);
+            list.add(SyntheticOntologies.getIndividual(manager.getOWLDataFactory(), i));
+        }
+        entities = list.toArray(new OWLEntity[list.size()]);
+        Set<OWLAxiom> all = ontology.getAxioms();
+        axioms = all.toArray(new OWLAxiom[all.size()]);
+    }
+
+    private int next(int bound) {
+        next++;
+        if (next >= bound) {
+            next = 0;
+        }
+        return next;
+    }
+
+    /** @return the axioms that reference the next entity */
+    @Benchmark
+    public Set<OWLAxiom> getReferencingAxioms() {
+        return ontology.getReferencingAxioms(entities[next(entities.length)]);
+    }
+
+    /** @return the subclass axioms for the next class */
+    @Benchmark
+    public Set<OWLSubClassOfAxiom> getSubClassAxiomsForSubClass() {
+        return ontology.getSubClassAxiomsForSubClass(classes[next(classes.length)]);
+    }
+
+    /** @return true if the ontology contains the next axiom, ignoring
+     *         annotations */
+    @Benchmark
+    public boolean containsAxiomIgnoreAnnotations() {
+        return ontology.containsAxiomIgnoreAnnotations(axioms[next(axioms.length)]);
+    }
+
+    /** @return all subclass axioms */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Set<OWLSubClassOfAxiom> getAxiomsByType() {
+        return ontology.getAxioms(AxiomType.SUBCLASS_OF);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.io.OWLParser;
+import org.semanticweb.owlapi.io.StreamDocumentSource;
+import org.semanticweb.owlapi.io.StreamDocumentTarget;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+/** Time to parse a synthetic ontology with each parser. The document is
+ * rendered once per trial by the storer for the same syntax; OBO documents
+ * only contain the TBox. Documents are kept as bytes, so that text and binary
+ * syntaxes are read through the same kind of source. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+    /** the parser to time, see {@link Syntax} */
+    @Param({ "RDFXML", "TURTLE", "FUNCTIONAL", "OWLXML", "OBO", "BINARY" })
+    public String syntax;
+    /** number of classes in the synthetic ontology */
+    @Param({ "1000", "10000" })
+    public int size;
+    private Syntax format;
+    private byte[] document;
+
+    /** renders the document to parse
+     * 
+     * @throws Exception
+     *             if the ontology cannot be created or rendered */
+    @Setup
+    public void setUp() throws Exception {
+        format = Syntax.valueOf(syntax);
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLOntology ontology = SyntheticOntologies.createOntology(manager, size,
+                format.supportsABox());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        format.createStorer().storeOntology(manager, ontology,
+                new StreamDocumentTarget(out), format.createFormat());
+        document = out.toByteArray();
+    }
+
+    /** @return the parsed ontology
+     * @throws Exception
+     *             if parsing fails */
+    @Benchmark
+    public OWLOntology parse() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLOntology ontology = manager.createOntology();
+        OWLParser parser = format.createParser();
+        parser.setOWLOntologyManager(manager);
+        parser.parse(new StreamDocumentSource(new ByteArrayInputStream(document)),
+                ontology);
+        return ontology;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.io.StreamDocumentTarget;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyFormat;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLOntologyStorer;
+
+/** Time to render a synthetic ontology with each storer. Syntaxes that cannot
+ * represent individuals only render the TBox. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorerBenchmark {
+    /** the storer to time, see {@link Syntax} */
+    @Param({ "RDFXML", "TURTLE", "FUNCTIONAL", "OWLXML", "OBO", "MANCHESTER", "KRSS2",
+            "KRSS", "LATEX", "DLSYNTAX", "DLSYNTAX_HTML", "BINARY" })
+    public String syntax;
+    /** number of classes in the synthetic ontology */
+    @Param({ "1000", "10000" })
+    public int size;
+    private OWLOntologyManager manager;
+    private OWLOntology ontology;
+    private OWLOntologyStorer storer;
+    private OWLOntologyFormat format;
+
+    /** creates the ontology to render
+     * 
+     * @throws Exception
+     *             if the ontology cannot be created */
+    @Setup
+    public void setUp() throws Exception {
+        Syntax s = Syntax.valueOf(syntax);
+        manager = OWLManager.createOWLOntologyManager();
+        ontology = SyntheticOntologies.createOntology(manager, size, s.supportsABox());
+        storer = s.createStorer();
+        format = s.createFormat();
+    }
+
+    /** @return the rendered document
+     * @throws Exception
+     *             if rendering fails */
+    @Benchmark
+    public ByteArrayOutputStream store() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        storer.storeOntology(manager, ontology, new StreamDocumentTarget(out), format);
+        return out;
+    }
+}
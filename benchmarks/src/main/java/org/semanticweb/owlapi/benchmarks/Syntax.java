@@ -0,0 +1,279 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.benchmarks;
+
+import org.coode.owl.krssparser.KRSSOntologyFormat;
+import org.coode.owlapi.binary.BinaryOWLOntologyStorer;
+import org.coode.owlapi.binary.BinaryOWLParser;
+import org.coode.owlapi.functionalparser.OWLFunctionalSyntaxOWLParser;
+import org.coode.owlapi.functionalrenderer.OWLFunctionalSyntaxOntologyStorer;
+import org.coode.owlapi.latex.LatexOntologyFormat;
+import org.coode.owlapi.latex.LatexOntologyStorer;
+import org.coode.owlapi.manchesterowlsyntax.ManchesterOWLSyntaxOntologyFormat;
+import org.coode.owlapi.obo.parser.OBOOntologyFormat;
+import org.coode.owlapi.obo.parser.OWLOBOParser;
+import org.coode.owlapi.obo.renderer.OBOFlatFileOntologyStorer;
+import org.coode.owlapi.owlxml.renderer.OWLXMLOntologyStorer;
+import org.coode.owlapi.owlxmlparser.OWLXMLParser;
+import org.coode.owlapi.rdf.rdfxml.RDFXMLOntologyStorer;
+import org.coode.owlapi.rdfxml.parser.RDFXMLParser;
+import org.coode.owlapi.turtle.TurtleOntologyFormat;
+import org.coode.owlapi.turtle.TurtleOntologyStorer;
+import org.semanticweb.owlapi.io.BinaryOWLOntologyFormat;
+import org.semanticweb.owlapi.io.OWLFunctionalSyntaxOntologyFormat;
+import org.semanticweb.owlapi.io.OWLParser;
+import org.semanticweb.owlapi.io.OWLXMLOntologyFormat;
+import org.semanticweb.owlapi.io.RDFXMLOntologyFormat;
+import org.semanticweb.owlapi.model.OWLOntologyFormat;
+import org.semanticweb.owlapi.model.OWLOntologyStorer;
+
+import uk.ac.manchester.cs.owl.owlapi.mansyntaxrenderer.ManchesterOWLSyntaxOntologyStorer;
+import uk.ac.manchester.cs.owl.owlapi.turtle.parser.TurtleOntologyParser;
+import uk.ac.manchester.cs.owlapi.dlsyntax.DLSyntaxHTMLOntologyFormat;
+import uk.ac.manchester.cs.owlapi.dlsyntax.DLSyntaxHTMLOntologyStorer;
+import uk.ac.manchester.cs.owlapi.dlsyntax.DLSyntaxOntologyFormat;
+import uk.ac.manchester.cs.owlapi.dlsyntax.DLSyntaxOntologyStorer;
+import de.uulm.ecs.ai.owlapi.krssparser.KRSS2OntologyFormat;
+import de.uulm.ecs.ai.owlapi.krssrenderer.KRSS2OWLSyntaxOntologyStorer;
+import de.uulm.ecs.ai.owlapi.krssrenderer.KRSSSyntaxOntologyStorer;
+
+/** The syntaxes that the benchmarks parse and render. Benchmark parameters are
+ * the names of these constants. */
+public enum Syntax {
+    /** RDF/XML */
+    RDFXML {
+        @Override
+        public OWLOntologyFormat createFormat() {
+            return new RDFXMLOntologyFormat();
+        }
+
+        @Override
+        public OWLOntologyStorer createStorer() {
+            return new RDFXMLOntologyStorer();
+        }
+
+        @Override
+        public OWLParser createParser() {
+            return new RDFXMLParser();
+        }
+    },
+    /** Turtle */
+    TURTLE {
+        @Override
+        public OWLOntologyFormat createFormat() {
+            return new TurtleOntologyFormat();
+        }
+
+        @Override
+        public OWLOntologyStorer createStorer() {
+            return new TurtleOntologyStorer();
+        }
+
+        @Override
+        public OWLParser createParser() {
+            return new TurtleOntologyParser();
+        }
+    },
+    /** OWL functional syntax */
+    FUNCTIONAL {
+        @Override
+        public OWLOntologyFormat createFormat() {
+            return new OWLFunctionalSyntaxOntologyFormat();
+        }
+
+        @Override
+        public OWLOntologyStorer createStorer() {
+            return new OWLFunctionalSyntaxOntologyStorer();
+        }
+
+        @Override
+        public OWLParser createParser() {
+            return new OWLFunctionalSyntaxOWLParser();
+        }
+    },
+    /** OWL/XML */
+    OWLXML {
+        @Override
+        public OWLOntologyFormat createFormat() {
+            return new OWLXMLOntologyFormat();
+        }
+
+        @Override
+        public OWLOntologyStorer createStorer() {
+            return new OWLXMLOntologyStorer();
+        }
+
+        @Override
+        public OWLParser createParser() {
+            return new OWLXMLParser();
+        }
+    },
+    /** OBO flat file format; can only represent the TBox of the synthetic
+     * ontologies */
+    OBO {
+        @Override
+        public OWLOntologyFormat createFormat() {
+            return new OBOOntologyFormat();
+        }
+
+        @Override
+        public OWLOntologyStorer createStorer() {
+            return new OBOFlatFileOntologyStorer();
+        }
+
+        @Override
+        public OWLParser createParser() {
+            return new OWLOBOParser();
+        }
+
+        @Override
+        public boolean supportsABox() {
+            return false;
+        }
+    },
+    /** compact binary format */
+    BINARY {
+        @Override
+        public OWLOntologyFormat createFormat() {
+            return new BinaryOWLOntologyFormat();
+        }
+
+        @Override
+        public OWLOntologyStorer createStorer() {
+            return new BinaryOWLOntologyStorer();
+        }
+
+        @Override
+        public OWLParser createParser() {
+            return new BinaryOWLParser();
+        }
+    },
+    /** Manchester OWL syntax; rendering only */
+    MANCHESTER {
+        @Override
+        public OWLOntologyFormat createFormat() {
+            return new ManchesterOWLSyntaxOntologyFormat();
+        }
+
+        @Override
+        public OWLOntologyStorer createStorer() {
+            return new ManchesterOWLSyntaxOntologyStorer();
+        }
+    },
+    /** KRSS2; rendering only */
+    KRSS2 {
+        @Override
+        public OWLOntologyFormat createFormat() {
+            return new KRSS2OntologyFormat();
+        }
+
+        @Override
+        public OWLOntologyStorer createStorer() {
+            return new KRSS2OWLSyntaxOntologyStorer();
+        }
+    },
+    /** KRSS; rendering only */
+    KRSS {
+        @Override
+        public OWLOntologyFormat createFormat() {
+            return new KRSSOntologyFormat();
+        }
+
+        @Override
+        public OWLOntologyStorer createStorer() {
+            return new KRSSSyntaxOntologyStorer();
+        }
+    },
+    /** LaTeX; rendering only */
+    LATEX {
+        @Override
+        public OWLOntologyFormat createFormat() {
+            return new LatexOntologyFormat();
+        }
+
+        @Override
+        public OWLOntologyStorer createStorer() {
+            return new LatexOntologyStorer();
+        }
+    },
+    /** DL syntax; rendering only */
+    DLSYNTAX {
+        @Override
+        public OWLOntologyFormat createFormat() {
+            return new DLSyntaxOntologyFormat();
+        }
+
+        @Override
+        public OWLOntologyStorer createStorer() {
+            return new DLSyntaxOntologyStorer();
+        }
+    },
+    /** DL syntax as HTML; rendering only */
+    DLSYNTAX_HTML {
+        @Override
+        public OWLOntologyFormat createFormat() {
+            return new DLSyntaxHTMLOntologyFormat();
+        }
+
+        @Override
+        public OWLOntologyStorer createStorer() {
+            return new DLSyntaxHTMLOntologyStorer();
+        }
+    };
+
+    /** @return a new instance of the format */
+    public abstract OWLOntologyFormat createFormat();
+
+    /** @return a new storer for the format */
+    public abstract OWLOntologyStorer createStorer();
+
+    /** @return a new parser for the format
+     * @throws UnsupportedOperationException
+     *             if the benchmarks do not parse this syntax */
+    public OWLParser createParser() {
+        throw new UnsupportedOperationException(name() + " is not parsed by the benchmarks");
+    }
+
+    /** @return false if the syntax cannot represent individuals and property
+     *         assertions, in which case benchmarks only use the TBox of the
+     *         synthetic ontologies */
+    public boolean supportsABox() {
+        return true;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+/** Generates the ontologies used by the benchmarks, so that no benchmark needs
+ * a file or a network connection. The same size and seed always give the same
+ * axioms. For <code>n</code> classes an ontology has:
+ * <ul>
+ * <li>a random class hierarchy where every tenth class has a second parent;</li>
+ * <li>an existential restriction on every fifth class and a defined class for
+ * every twentieth;</li>
+ * <li>a label on every class;</li>
+ * <li>a small object and data property hierarchy;</li>
+ * <li>unless only the TBox is requested, <code>n</code> individuals with a
+ * type, an object property assertion and a data property assertion each.</li>
+ * </ul> */
+public final class SyntheticOntologies {
+    /** namespace of all generated entities */
+    public static final String NAMESPACE = "http://www.semanticweb.org/owlapi/benchmarks#";
+    /** IRI of the generated ontologies */
+    public static final IRI ONTOLOGY_IRI = IRI
+            .create("http://www.semanticweb.org/owlapi/benchmarks");
+    /** seed used when none is specified */
+    public static final long DEFAULT_SEED = 42;
+
+    private SyntheticOntologies() {}
+
+    /** @param df
+     *            data factory
+     * @param i
+     *            index
+     * @return the class with index i */
+    public static OWLClass getClass(OWLDataFactory df, int i) {
+        return df.getOWLClass(IRI.create(NAMESPACE + "C" + i));
+    }
+
+    /** @param df
+     *            data factory
+     * @param i
+     *            index
+     * @return the individual with index i */
+    public static OWLNamedIndividual getIndividual(OWLDataFactory df, int i) {
+        return df.getOWLNamedIndividual(IRI.create(NAMESPACE + "i" + i));
+    }
+
+    /** @param df
+     *            data factory
+     * @param classes
+     *            number of classes
+     * @param withABox
+     *            true if individuals and assertions should be generated
+     * @param seed
+     *            random seed
+     * @return the axioms of a synthetic ontology */
+    public static List<OWLAxiom> createAxioms(OWLDataFactory df, int classes,
+            boolean withABox, long seed) {
+        Random random = new Random(seed);
+        List<OWLAxiom> axioms = new ArrayList<OWLAxiom>();
+        int propertyCount = classes / 100 + 2;
+        OWLObjectProperty[] objectProperties = new OWLObjectProperty[propertyCount];
+        OWLDataProperty[] dataProperties = new OWLDataProperty[propertyCount];
+        for (int i = 0; i < propertyCount; i++) {
+            objectProperties[i] = df.getOWLObjectProperty(IRI.create(NAMESPACE + "p" + i));
+            dataProperties[i] = df.getOWLDataProperty(IRI.create(NAMESPACE + "d" + i));
+            axioms.add(df.getOWLDeclarationAxiom(objectProperties[i]));
+            axioms.add(df.getOWLDeclarationAxiom(dataProperties[i]));
+            if (i > 0) {
+                int parent = random.nextInt(i);
+                axioms.add(df.getOWLSubObjectPropertyOfAxiom(objectProperties[i],
+                        objectProperties[parent]));
+                axioms.add(df.getOWLSubDataPropertyOfAxiom(dataProperties[i],
+                        dataProperties[parent]));
+            }
+        }
+        for (int i = 0; i < classes; i++) {
+            OWLClass cls = getClass(df, i);
+            axioms.add(df.getOWLDeclarationAxiom(cls));
+            axioms.add(df.getOWLAnnotationAssertionAxiom(df.getRDFSLabel(), cls.getIRI(),
+                    df.getOWLLiteral("Class " + i, "en")));
+            if (i == 0) {
+                continue;
+            }
+            axioms.add(df.getOWLSubClassOfAxiom(cls, getClass(df, random.nextInt(i))));
+            if (i % 10 == 0) {
+                axioms.add(df.getOWLSubClassOfAxiom(cls, getClass(df, random.nextInt(i))));
+            }
+            if (i % 5 == 0) {
+                axioms.add(df.getOWLSubClassOfAxiom(cls, df.getOWLObjectSomeValuesFrom(
+                        objectProperties[random.nextInt(propertyCount)],
+                        getClass(df, random.nextInt(classes)))));
+            }
+            if (i % 20 == 0) {
+                axioms.add(df.getOWLEquivalentClassesAxiom(cls, df.getOWLObjectIntersectionOf(
+                        getClass(df, random.nextInt(i)), df.getOWLObjectSomeValuesFrom(
+                                objectProperties[random.nextInt(propertyCount)],
+                                getClass(df, random.nextInt(classes))))));
+            }
+        }
+        if (withABox) {
+            for (int i = 0; i < classes; i++) {
+                OWLNamedIndividual ind = getIndividual(df, i);
+                axioms.add(df.getOWLDeclarationAxiom(ind));
+                axioms.add(df.getOWLClassAssertionAxiom(getClass(df, random.nextInt(classes)),
+                        ind));
+                axioms.add(df.getOWLObjectPropertyAssertionAxiom(
+                        objectProperties[random.nextInt(propertyCount)], ind,
+                        getIndividual(df, random.nextInt(classes))));
+                axioms.add(df.getOWLDataPropertyAssertionAxiom(
+                        dataProperties[random.nextInt(propertyCount)], ind, random.nextInt()));
+            }
+        }
+        return axioms;
+    }
+
+    /** @param manager
+     *            manager that creates the ontology
+     * @param classes
+     *            number of classes
+     * @param withABox
+     *            true if individuals and assertions should be generated
+     * @return a new synthetic ontology, generated with {@link #DEFAULT_SEED}
+     * @throws OWLOntologyCreationException
+     *             if the ontology cannot be created */
+    public static OWLOntology createOntology(OWLOntologyManager manager, int classes,
+            boolean withABox) throws OWLOntologyCreationException {
+        OWLOntology ontology = manager.createOntology(ONTOLOGY_IRI);
+        manager.addAxioms(ontology, new HashSet<OWLAxiom>(createAxioms(
+                manager.getOWLDataFactory(), classes, withABox, DEFAULT_SEED)));
+        return ontology;
+    }
+}
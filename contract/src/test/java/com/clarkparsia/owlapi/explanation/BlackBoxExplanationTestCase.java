@@ -0,0 +1,152 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.clarkparsia.owlapi.explanation;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.reasoner.BufferingMode;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.OWLReasonerConfiguration;
+import org.semanticweb.owlapi.reasoner.structural.StructuralReasoner;
+import org.semanticweb.owlapi.reasoner.structural.StructuralReasonerFactory;
+
+@SuppressWarnings("javadoc")
+public class BlackBoxExplanationTestCase {
+    private static final String NS = "http://www.example.org/blackbox#";
+    private final OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+    private final OWLDataFactory df = manager.getOWLDataFactory();
+
+    /** a structural reasoner that finds classes with a chain of told
+     * subclass axioms up to owl:Nothing unsatisfiable */
+    static class ToldReasoner extends StructuralReasoner {
+        ToldReasoner(OWLOntology ontology, OWLReasonerConfiguration config,
+                BufferingMode mode) {
+            super(ontology, config, mode);
+        }
+
+        @Override
+        public boolean isSatisfiable(OWLClassExpression ce) {
+            Set<OWLClassExpression> reached = new HashSet<OWLClassExpression>();
+            List<OWLClassExpression> toVisit = new ArrayList<OWLClassExpression>();
+            toVisit.add(ce);
+            while (!toVisit.isEmpty()) {
+                OWLClassExpression current = toVisit.remove(toVisit.size() - 1);
+                if (current.isOWLNothing()) {
+                    return false;
+                }
+                if (reached.add(current)) {
+                    for (OWLAxiom ax : getReasonerAxioms()) {
+                        if (ax instanceof OWLSubClassOfAxiom
+                                && ((OWLSubClassOfAxiom) ax).getSubClass().equals(current)) {
+                            toVisit.add(((OWLSubClassOfAxiom) ax).getSuperClass());
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    /** counts the reasoners created */
+    static class CountingReasonerFactory extends StructuralReasonerFactory {
+        int created = 0;
+
+        @Override
+        public OWLReasoner createReasoner(OWLOntology ontology,
+                OWLReasonerConfiguration config) {
+            created++;
+            return new ToldReasoner(ontology, config, BufferingMode.BUFFERING);
+        }
+
+        @Override
+        public OWLReasoner createNonBufferingReasoner(OWLOntology ontology,
+                OWLReasonerConfiguration config) {
+            created++;
+            return new ToldReasoner(ontology, config, BufferingMode.NON_BUFFERING);
+        }
+    }
+
+    private OWLClass cls(String name) {
+        return df.getOWLClass(IRI.create(NS + name));
+    }
+
+    @Test
+    public void shouldFindTheMinimalExplanationWithOneReasoner() throws Exception {
+        OWLOntology o = manager.createOntology(IRI.create(NS + "ontology"));
+        Set<OWLAxiom> expected = new HashSet<OWLAxiom>();
+        expected.add(df.getOWLSubClassOfAxiom(cls("A"), cls("B")));
+        expected.add(df.getOWLSubClassOfAxiom(cls("B"), cls("C")));
+        expected.add(df.getOWLSubClassOfAxiom(cls("C"), df.getOWLNothing()));
+        manager.addAxioms(o, expected);
+        // axioms about the same classes that play no part in the clash
+        for (int i = 0; i < 40; i++) {
+            manager.addAxiom(o, df.getOWLSubClassOfAxiom(cls("A"), cls("D" + i)));
+            manager.addAxiom(o, df.getOWLSubClassOfAxiom(cls("D" + i), cls("E" + i)));
+            manager.addAxiom(o, df.getOWLSubClassOfAxiom(cls("F" + i), cls("B")));
+        }
+        int ontologies = manager.getOntologies().size();
+        CountingReasonerFactory factory = new CountingReasonerFactory();
+        OWLReasoner reasoner = factory.createReasoner(o);
+        BlackBoxExplanation explanation = new BlackBoxExplanation(o, factory, reasoner);
+        assertEquals(expected, explanation.getExplanation(cls("A")));
+        // the debugging ontology and its reasoner are kept, not recreated,
+        // and the second explanation is served from the cached results
+        assertEquals(expected, explanation.getExplanation(cls("A")));
+        assertEquals(2, factory.created);
+        assertEquals(ontologies + 1, manager.getOntologies().size());
+        assertTrue(explanation.getExplanation(cls("D1")).isEmpty());
+        explanation.dispose();
+        assertEquals(ontologies, manager.getOntologies().size());
+    }
+}
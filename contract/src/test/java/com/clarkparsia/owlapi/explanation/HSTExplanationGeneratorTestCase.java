@@ -0,0 +1,188 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.clarkparsia.owlapi.explanation;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLException;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+
+import com.clarkparsia.owlapi.explanation.BlackBoxExplanationTestCase.CountingReasonerFactory;
+import com.clarkparsia.owlapi.explanation.util.ExplanationProgressMonitor;
+
+@SuppressWarnings("javadoc")
+public class HSTExplanationGeneratorTestCase {
+    private static final String NS = "http://www.example.org/hst#";
+    private final OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+    private final OWLDataFactory df = manager.getOWLDataFactory();
+    private final OWLReasonerFactory reasonerFactory = new CountingReasonerFactory();
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    /** creates black box generators, each with its own manager */
+    private class BlackBoxFactory implements TransactionAwareSingleExpGenFactory {
+        final List<TransactionAwareSingleExpGen> live = Collections
+                .synchronizedList(new ArrayList<TransactionAwareSingleExpGen>());
+
+        @Override
+        public TransactionAwareSingleExpGen createExplanationGenerator(
+                Set<OWLAxiom> axioms) throws OWLException {
+            OWLOntology copy = OWLManager.createOWLOntologyManager().createOntology(
+                    axioms);
+            TransactionAwareSingleExpGen generator = new BlackBoxExplanation(copy,
+                    reasonerFactory, reasonerFactory.createNonBufferingReasoner(copy));
+            live.add(generator);
+            return generator;
+        }
+
+        @Override
+        public void disposeExplanationGenerator(TransactionAwareSingleExpGen generator) {
+            ((BlackBoxExplanation) generator).dispose();
+            generator.getOntologyManager().removeOntology(generator.getOntology());
+            live.remove(generator);
+        }
+    }
+
+    private static class RecordingMonitor implements ExplanationProgressMonitor {
+        final List<Set<OWLAxiom>> found = Collections
+                .synchronizedList(new ArrayList<Set<OWLAxiom>>());
+        boolean finished = false;
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public void foundExplanation(Set<OWLAxiom> axioms) {
+            found.add(axioms);
+        }
+
+        @Override
+        public void foundAllExplanations() {
+            finished = true;
+        }
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private OWLClass cls(String name) {
+        return df.getOWLClass(IRI.create(NS + name));
+    }
+
+    /** A has one justification through each B and one through C and D */
+    private OWLOntology createOntology() throws Exception {
+        OWLOntology o = manager.createOntology(IRI.create(NS + "ontology"));
+        for (int i = 0; i < 4; i++) {
+            manager.addAxiom(o, df.getOWLSubClassOfAxiom(cls("A"), cls("B" + i)));
+            manager.addAxiom(o, df.getOWLSubClassOfAxiom(cls("B" + i), df.getOWLNothing()));
+            manager.addAxiom(o, df.getOWLSubClassOfAxiom(cls("E" + i), cls("B" + i)));
+        }
+        manager.addAxiom(o, df.getOWLSubClassOfAxiom(cls("A"), cls("C")));
+        manager.addAxiom(o, df.getOWLSubClassOfAxiom(cls("C"), cls("D")));
+        manager.addAxiom(o, df.getOWLSubClassOfAxiom(cls("D"), df.getOWLNothing()));
+        manager.addAxiom(o, df.getOWLSubClassOfAxiom(cls("A"), cls("F")));
+        return o;
+    }
+
+    private HSTExplanationGenerator createGenerator(OWLOntology o) {
+        return new HSTExplanationGenerator(new BlackBoxExplanation(o, reasonerFactory,
+                reasonerFactory.createNonBufferingReasoner(o)));
+    }
+
+    @Test
+    public void shouldFindTheSameExplanationsInParallel() throws Exception {
+        OWLOntology o = createOntology();
+        Set<OWLAxiom> axioms = o.getAxioms();
+        Set<Set<OWLAxiom>> expected = createGenerator(o).getExplanations(cls("A"));
+        assertEquals(5, expected.size());
+        assertEquals(axioms, o.getAxioms());
+        HSTExplanationGenerator parallel = createGenerator(o);
+        BlackBoxFactory factory = new BlackBoxFactory();
+        parallel.setParallelExploration(executor, 3, factory);
+        RecordingMonitor monitor = new RecordingMonitor();
+        parallel.setProgressMonitor(monitor);
+        Set<Set<OWLAxiom>> explanations = parallel.getExplanations(cls("A"));
+        assertEquals(expected, explanations);
+        assertEquals(expected, new HashSet<Set<OWLAxiom>>(monitor.found));
+        assertEquals(expected.size(), monitor.found.size());
+        assertTrue(monitor.finished);
+        // the ontology is never changed, and the copies are disposed
+        assertEquals(axioms, o.getAxioms());
+        assertTrue(factory.live.isEmpty());
+    }
+
+    @Test
+    public void shouldStopAtMaxExplanations() throws Exception {
+        OWLOntology o = createOntology();
+        HSTExplanationGenerator parallel = createGenerator(o);
+        parallel.setParallelExploration(executor, 2, new BlackBoxFactory());
+        Set<Set<OWLAxiom>> all = createGenerator(o).getExplanations(cls("A"));
+        for (int max = 1; max <= 6; max++) {
+            Set<Set<OWLAxiom>> explanations = parallel.getExplanations(cls("A"), max);
+            assertEquals(Math.min(max, all.size()), explanations.size());
+            assertTrue(all.containsAll(explanations));
+        }
+        assertTrue(parallel.getExplanations(cls("F")).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequireAFactory() throws Exception {
+        createGenerator(manager.createOntology()).setParallelExploration(executor, 2, null);
+    }
+}
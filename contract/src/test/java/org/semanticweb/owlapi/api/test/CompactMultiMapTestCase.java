@@ -0,0 +1,166 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.api.test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.util.CompactMultiMap;
+import org.semanticweb.owlapi.util.MultiMap;
+import org.semanticweb.owlapi.util.ObjectIdInterner;
+
+@SuppressWarnings("javadoc")
+public class CompactMultiMapTestCase {
+    @Test
+    public void shouldBehaveLikeMultiMap() {
+        ObjectIdInterner<Object> ids = new ObjectIdInterner<Object>();
+        CompactMultiMap<String, Integer> compact = new CompactMultiMap<String, Integer>(
+                ids);
+        MultiMap<String, Integer> reference = new MultiMap<String, Integer>();
+        Random r = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            // a few keys with many values, many keys with few values
+            String key = "k" + (r.nextBoolean() ? r.nextInt(3) : r.nextInt(500));
+            Integer value = Integer.valueOf(r.nextInt(200));
+            if (r.nextInt(3) == 0) {
+                assertEquals(reference.remove(key, value), compact.remove(key, value));
+            } else {
+                assertEquals(reference.put(key, value), compact.put(key, value));
+            }
+        }
+        assertEquals(reference.keySet(), new HashSet<String>(compact.keySet()));
+        int pairs = 0;
+        for (String key : reference.keySet()) {
+            Set<Integer> expected = new HashSet<Integer>(reference.get(key));
+            assertEquals(expected, new HashSet<Integer>(compact.get(key)));
+            assertEquals(expected.size(), compact.get(key).size());
+            for (Integer i : expected) {
+                assertTrue(compact.contains(key, i));
+            }
+            pairs += expected.size();
+        }
+        assertEquals(pairs, compact.size());
+        assertEquals(reference.getAllValues(), compact.getAllValues());
+        for (String key : reference.keySet()) {
+            assertTrue(compact.remove(key));
+        }
+        assertEquals(0, compact.size());
+        assertTrue(compact.keySet().isEmpty());
+        // every id has been released
+        assertEquals(0, ids.size());
+    }
+
+    @Test
+    public void shouldShareIdsBetweenMaps() {
+        ObjectIdInterner<Object> ids = new ObjectIdInterner<Object>();
+        CompactMultiMap<String, String> first = new CompactMultiMap<String, String>(ids);
+        CompactMultiMap<String, String> second = new CompactMultiMap<String, String>(ids);
+        first.put("a", "x");
+        second.put("b", "x");
+        assertEquals(3, ids.size());
+        first.remove("a", "x");
+        assertEquals(2, ids.size());
+        assertTrue(second.contains("b", "x"));
+        assertFalse(first.containsKey("a"));
+        second.clear();
+        assertEquals(0, ids.size());
+    }
+
+    @Test
+    public void shouldFillMapsSharingIdsConcurrently() throws Exception {
+        final ObjectIdInterner<Object> ids = new ObjectIdInterner<Object>();
+        final List<CompactMultiMap<String, Integer>> maps = new ArrayList<CompactMultiMap<String, Integer>>();
+        List<Thread> threads = new ArrayList<Thread>();
+        final List<Throwable> failures = Collections
+                .synchronizedList(new ArrayList<Throwable>());
+        final CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < 4; t++) {
+            final CompactMultiMap<String, Integer> map = new CompactMultiMap<String, Integer>(
+                    ids);
+            maps.add(map);
+            final int seed = t;
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        Random r = new Random(seed);
+                        for (int i = 0; i < 200000; i++) {
+                            String key = "k" + r.nextInt(20000);
+                            Integer value = Integer.valueOf(r.nextInt(100));
+                            map.put(key, value);
+                            assertTrue(map.contains(key, value));
+                        }
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                }
+            });
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(Collections.emptyList(), failures);
+        for (int t = 0; t < 4; t++) {
+            Random r = new Random(t);
+            MultiMap<String, Integer> reference = new MultiMap<String, Integer>();
+            for (int i = 0; i < 200000; i++) {
+                reference.put("k" + r.nextInt(20000), Integer.valueOf(r.nextInt(100)));
+            }
+            CompactMultiMap<String, Integer> map = maps.get(t);
+            assertEquals(reference.keySet(), new HashSet<String>(map.keySet()));
+            for (String key : reference.keySet()) {
+                assertEquals(new HashSet<Integer>(reference.get(key)),
+                        new HashSet<Integer>(map.get(key)));
+            }
+        }
+    }
+}
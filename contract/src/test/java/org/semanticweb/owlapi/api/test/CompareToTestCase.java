@@ -0,0 +1,172 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.api.test;
+
+import static org.junit.Assert.*;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLObject;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.vocab.OWLFacet;
+
+@SuppressWarnings("javadoc")
+public class CompareToTestCase {
+    private static final String NS = "http://www.example.org/compare#";
+
+    private static OWLClass cls(String name) {
+        return Class(IRI(NS + name));
+    }
+
+    private static List<OWLObject> createObjects() {
+        OWLClass a = cls("A");
+        OWLClass b = cls("B");
+        OWLClass c = cls("C");
+        OWLObjectProperty p = ObjectProperty(IRI(NS + "p"));
+        OWLObjectProperty q = ObjectProperty(IRI(NS + "q"));
+        OWLDataProperty d = DataProperty(IRI(NS + "d"));
+        OWLIndividual i = NamedIndividual(IRI(NS + "i"));
+        OWLIndividual j = NamedIndividual(IRI(NS + "j"));
+        OWLDatatype integer = Integer();
+        List<OWLObject> objects = new ArrayList<OWLObject>();
+        objects.add(a);
+        objects.add(b);
+        objects.add(p);
+        objects.add(i);
+        objects.add(ObjectIntersectionOf(a, b));
+        objects.add(ObjectIntersectionOf(b, a, c));
+        objects.add(ObjectUnionOf(a, c));
+        objects.add(ObjectOneOf(i, j));
+        objects.add(ObjectOneOf(j));
+        objects.add(DataOneOf(Literal(1), Literal(2)));
+        objects.add(DataIntersectionOf(integer, DataOneOf(Literal(3))));
+        objects.add(DataUnionOf(integer, DataOneOf(Literal(3))));
+        objects.add(DatatypeRestriction(integer,
+                FacetRestriction(OWLFacet.MIN_INCLUSIVE, Literal(1)),
+                FacetRestriction(OWLFacet.MAX_INCLUSIVE, Literal(5))));
+        objects.add(DatatypeRestriction(integer,
+                FacetRestriction(OWLFacet.MIN_INCLUSIVE, Literal(2))));
+        objects.add(SubClassOf(a, b));
+        objects.add(EquivalentClasses(a, b, c));
+        objects.add(DisjointClasses(a, c));
+        objects.add(DisjointUnion(a, b, c));
+        objects.add(HasKey(a, p, d));
+        objects.add(HasKey(a, q));
+        objects.add(DifferentIndividuals(i, j));
+        objects.add(SameIndividual(i, j));
+        objects.add(EquivalentObjectProperties(p, q));
+        objects.add(DisjointObjectProperties(p, q));
+        return objects;
+    }
+
+    @Test
+    public void shouldBeATotalOrderConsistentWithEquals() {
+        List<OWLObject> objects = createObjects();
+        List<OWLObject> copies = createObjects();
+        for (int x = 0; x < objects.size(); x++) {
+            OWLObject o1 = objects.get(x);
+            assertEquals(0, o1.compareTo(copies.get(x)));
+            for (int y = 0; y < objects.size(); y++) {
+                OWLObject o2 = objects.get(y);
+                int diff = o1.compareTo(o2);
+                assertEquals(o1 + " " + o2, x == y, diff == 0);
+                assertEquals(o1 + " " + o2, Integer.signum(diff),
+                        -Integer.signum(o2.compareTo(o1)));
+                for (OWLObject o3 : objects) {
+                    if (diff < 0 && o2.compareTo(o3) < 0) {
+                        assertTrue(o1 + " " + o2 + " " + o3, o1.compareTo(o3) < 0);
+                    }
+                }
+            }
+        }
+        List<OWLObject> sorted = new ArrayList<OWLObject>(objects);
+        Collections.sort(sorted);
+        assertEquals(sorted, new ArrayList<OWLObject>(new TreeSet<OWLObject>(objects)));
+        Collections.reverse(objects);
+        Collections.sort(objects);
+        assertEquals(sorted, objects);
+    }
+
+    @Test
+    public void shouldIterateOverOperandsInOrder() {
+        Set<OWLClassExpression> operands = new HashSet<OWLClassExpression>();
+        for (int i = 0; i < 20; i++) {
+            operands.add(cls("C" + i));
+            operands.add(ObjectComplementOf(cls("D" + i)));
+        }
+        Set<OWLClassExpression> intersectionOperands = ObjectIntersectionOf(
+                operands.toArray(new OWLClassExpression[operands.size()])).getOperands();
+        assertEquals(operands, intersectionOperands);
+        assertEquals(operands.hashCode(), intersectionOperands.hashCode());
+        assertEquals(new ArrayList<OWLClassExpression>(new TreeSet<OWLClassExpression>(
+                operands)), new ArrayList<OWLClassExpression>(intersectionOperands));
+        Iterator<OWLClassExpression> it = intersectionOperands.iterator();
+        OWLClassExpression previous = it.next();
+        while (it.hasNext()) {
+            OWLClassExpression next = it.next();
+            assertTrue(previous.compareTo(next) < 0);
+            previous = next;
+        }
+        assertTrue(intersectionOperands.contains(cls("C7")));
+        assertFalse(intersectionOperands.contains(cls("D7")));
+    }
+
+    @Test
+    public void shouldDropDuplicateOperands() {
+        OWLClass a = cls("A");
+        assertEquals(ObjectUnionOf(a, cls("B")), ObjectUnionOf(cls("B"), a, cls("A")));
+        assertEquals(2, ObjectUnionOf(cls("B"), a, cls("A")).getOperands().size());
+        assertEquals(ObjectUnionOf(a, cls("B")).hashCode(),
+                ObjectUnionOf(cls("B"), a, cls("A")).hashCode());
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.api.test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.util.WeakCache;
+import org.semanticweb.owlapi.util.WeakIndexCache;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+@SuppressWarnings("javadoc")
+public class ConcurrentCachesTestCase {
+    private static final int THREADS = 8;
+    private static final int NAMES = 2000;
+
+    @Test
+    public void shouldInternStrings() {
+        WeakCache<String> cache = new WeakCache<String>();
+        String a = new String("http://www.example.org/");
+        String b = new String("http://www.example.org/");
+        assertSame(a, cache.cache(a));
+        assertSame(a, cache.cache(b));
+        assertTrue(cache.contains(b));
+        assertFalse(cache.contains(null));
+        assertNull(cache.cache(null));
+        assertEquals(1, cache.size());
+        cache.clear();
+        assertFalse(cache.contains(a));
+        assertSame(b, cache.cache(b));
+    }
+
+    @Test
+    public void shouldKeepFirstCachedValue() {
+        WeakIndexCache<String, Object> cache = new WeakIndexCache<String, Object>();
+        Object first = new Object();
+        assertSame(first, cache.cache("a", first));
+        assertSame(first, cache.cache("a", new Object()));
+        assertSame(first, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertTrue(cache.contains("a"));
+        assertEquals(1, cache.size());
+        cache.clear();
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    public void shouldReturnSameEntityAcrossThreads() throws Exception {
+        final OWLDataFactoryImpl df = new OWLDataFactoryImpl();
+        List<OWLClass[]> results = runConcurrently(new Callable<OWLClass[]>() {
+            @Override
+            public OWLClass[] call() {
+                OWLClass[] classes = new OWLClass[NAMES];
+                for (int i = 0; i < NAMES; i++) {
+                    classes[i] = df.getOWLClass(IRI.create("urn:test:c" + i));
+                }
+                return classes;
+            }
+        });
+        OWLClass[] reference = results.get(0);
+        for (OWLClass[] classes : results) {
+            for (int i = 0; i < NAMES; i++) {
+                assertSame(reference[i], classes[i]);
+            }
+        }
+        df.purge();
+        OWLClass fresh = df.getOWLClass(IRI.create("urn:test:c0"));
+        assertEquals(reference[0], fresh);
+    }
+
+    @Test
+    public void shouldShareIRIPrefixesAcrossThreads() throws Exception {
+        List<String[]> results = runConcurrently(new Callable<String[]>() {
+            @Override
+            public String[] call() {
+                String[] prefixes = new String[NAMES];
+                for (int i = 0; i < NAMES; i++) {
+                    prefixes[i] = IRI.create(
+                            new String("http://www.example.org/concurrent" + i % 10
+                                    + "#"), "c" + i).getNamespace();
+                }
+                return prefixes;
+            }
+        });
+        String[] reference = results.get(0);
+        for (String[] prefixes : results) {
+            for (int i = 0; i < NAMES; i++) {
+                assertSame(reference[i], prefixes[i]);
+            }
+        }
+    }
+
+    private static <T> List<T> runConcurrently(Callable<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<T>> futures = new ArrayList<Future<T>>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(task));
+            }
+            List<T> results = new ArrayList<T>();
+            for (Future<T> f : futures) {
+                results.add(f.get());
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.api.test;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.*;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAnnotationProperty;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+/** Generates random axioms over a small, fixed vocabulary, for tests that compare an
+ * optimised index or algorithm against a straightforward computation. The same seed
+ * always produces the same sequence of axioms. */
+@SuppressWarnings("javadoc")
+public class RandomAxiomGenerator {
+    private static final String NS = "http://www.semanticweb.org/owlapi/test/random#";
+    private static final int PROPERTIES = 4;
+    private static final int INDIVIDUALS = 10;
+    private static final int ANNOTATION_PROPERTIES = 3;
+    private final Random random;
+    private final int classes;
+
+    /** @param seed
+     *            the random seed
+     * @param classes
+     *            the number of distinct classes to use */
+    public RandomAxiomGenerator(long seed, int classes) {
+        random = new Random(seed);
+        this.classes = classes;
+    }
+
+    public static OWLClass cls(int i) {
+        return Class(IRI.create(NS + "C" + i));
+    }
+
+    public static OWLObjectProperty prop(int i) {
+        return ObjectProperty(IRI.create(NS + "p" + i));
+    }
+
+    public static OWLNamedIndividual ind(int i) {
+        return NamedIndividual(IRI.create(NS + "i" + i));
+    }
+
+    public static OWLAnnotationProperty annotationProperty(int i) {
+        return AnnotationProperty(IRI.create(NS + "a" + i));
+    }
+
+    /** @return the random source, for decisions the test makes itself */
+    public Random getRandom() {
+        return random;
+    }
+
+    public OWLClass nextClass() {
+        return cls(random.nextInt(classes));
+    }
+
+    public OWLObjectProperty nextProperty() {
+        return prop(random.nextInt(PROPERTIES));
+    }
+
+    public OWLNamedIndividual nextIndividual() {
+        return ind(random.nextInt(INDIVIDUALS));
+    }
+
+    public OWLAnnotationProperty nextAnnotationProperty() {
+        return annotationProperty(random.nextInt(ANNOTATION_PROPERTIES));
+    }
+
+    /** @return a logical axiom without annotations; the shapes include axioms that are
+     *         local for every signature and axioms that are never local */
+    public OWLAxiom nextLogicalAxiom() {
+        OWLClass a = nextClass();
+        OWLClass b = nextClass();
+        OWLObjectProperty p = nextProperty();
+        switch (random.nextInt(12)) {
+            case 0:
+                return SubClassOf(a, b);
+            case 1:
+                return SubClassOf(a, ObjectSomeValuesFrom(p, b));
+            case 2:
+                return SubClassOf(ObjectSomeValuesFrom(p, b), a);
+            case 3:
+                return EquivalentClasses(a,
+                        ObjectIntersectionOf(b, ObjectAllValuesFrom(p, b)));
+            case 4:
+                return DisjointClasses(a, b);
+            case 5:
+                return ObjectPropertyDomain(p, a);
+            case 6:
+                return ClassAssertion(a, nextIndividual());
+            case 7:
+                return ObjectPropertyAssertion(p, nextIndividual(), nextIndividual());
+            case 8:
+                return SubClassOf(ObjectComplementOf(a), b);
+            case 9:
+                return SubClassOf(a, DataHasValue(DataProperty(IRI.create(NS + "d")),
+                        Literal(random.nextInt(2))));
+            case 10:
+                // not local for any signature: in every bottom module
+                return SubClassOf(OWLThing(), ObjectUnionOf(a, b));
+            default:
+                // a tautology: in no module
+                return SubClassOf(a, OWLThing());
+        }
+    }
+
+    /** @return a logical axiom, declaration or annotation assertion, annotated a third of
+     *         the time with one of a few annotations, so that distinct axioms often
+     *         differ only in their annotations */
+    public OWLAxiom nextAxiom() {
+        OWLAxiom axiom;
+        switch (random.nextInt(4)) {
+            case 0:
+                axiom = Declaration(nextClass());
+                break;
+            case 1:
+                axiom = AnnotationAssertion(nextAnnotationProperty(), nextClass().getIRI(),
+                        Literal("y"));
+                break;
+            default:
+                axiom = nextLogicalAxiom();
+        }
+        if (random.nextInt(3) == 0) {
+            return axiom.getAnnotatedAxiom(Collections.singleton(nextAnnotation()));
+        }
+        return axiom;
+    }
+
+    public OWLAnnotation nextAnnotation() {
+        return Annotation(nextAnnotationProperty(), Literal("note " + random.nextInt(2)));
+    }
+
+    /** @return one to four classes, and a property a third of the time */
+    public Set<OWLEntity> nextSignature() {
+        Set<OWLEntity> signature = new HashSet<OWLEntity>();
+        for (int i = random.nextInt(4); i >= 0; i--) {
+            signature.add(nextClass());
+        }
+        if (random.nextInt(3) == 0) {
+            signature.add(nextProperty());
+        }
+        return signature;
+    }
+
+    /** @param manager
+     *            the manager to create the ontology with
+     * @param axioms
+     *            the number of logical axioms to generate
+     * @return a new anonymous ontology with the generated logical axioms and the
+     *         declarations of their non built in entities
+     * @throws OWLOntologyCreationException
+     *             if the ontology cannot be created */
+    public OWLOntology createOntology(OWLOntologyManager manager, int axioms)
+            throws OWLOntologyCreationException {
+        OWLOntology o = manager.createOntology();
+        Set<OWLAxiom> toAdd = new HashSet<OWLAxiom>();
+        for (int i = 0; i < axioms; i++) {
+            OWLAxiom ax = nextLogicalAxiom();
+            toAdd.add(ax);
+            for (OWLEntity e : ax.getSignature()) {
+                if (!e.isBuiltIn()) {
+                    toAdd.add(Declaration(e));
+                }
+            }
+        }
+        manager.addAxioms(o, toAdd);
+        return o;
+    }
+}
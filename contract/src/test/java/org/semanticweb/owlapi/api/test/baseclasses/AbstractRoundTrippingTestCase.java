@@ -38,12 +38,21 @@
  */
 package org.semanticweb.owlapi.api.test.baseclasses;
 
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
 import org.coode.owlapi.manchesterowlsyntax.ManchesterOWLSyntaxOntologyFormat;
 import org.coode.owlapi.turtle.TurtleOntologyFormat;
 import org.junit.Before;
 import org.junit.Test;
+import org.semanticweb.owlapi.api.test.Factory;
+import org.semanticweb.owlapi.io.BinaryOWLOntologyFormat;
 import org.semanticweb.owlapi.io.OWLFunctionalSyntaxOntologyFormat;
 import org.semanticweb.owlapi.io.OWLXMLOntologyFormat;
+import org.semanticweb.owlapi.io.StreamDocumentSource;
+import org.semanticweb.owlapi.io.StreamDocumentTarget;
 import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyFormat;
 
@@ -92,6 +101,17 @@ public abstract class AbstractRoundTrippingTestCase extends AbstractOWLAPITestCa
         roundTripOntology(ont, new ManchesterOWLSyntaxOntologyFormat());
     }
 
+    @Test
+    public void testBinary() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ont.getOWLOntologyManager().saveOntology(ont, new BinaryOWLOntologyFormat(),
+                new StreamDocumentTarget(out));
+        OWLOntology ont2 = Factory.getManager().loadOntologyFromOntologyDocument(
+                new StreamDocumentSource(new ByteArrayInputStream(out.toByteArray())));
+        // the binary format is lossless: no declarations are added or dropped
+        assertTrue(equal(ont, ont2));
+    }
+
     @Override
     protected boolean isIgnoreDeclarationAxioms(OWLOntologyFormat format) {
         return format instanceof ManchesterOWLSyntaxOntologyFormat;
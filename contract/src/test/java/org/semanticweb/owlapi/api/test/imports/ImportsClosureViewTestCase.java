@@ -0,0 +1,198 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.api.test.imports;
+
+import static org.junit.Assert.*;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.*;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.AddOntologyAnnotation;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAnnotationProperty;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLMutableOntology;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.RemoveAxiom;
+import org.semanticweb.owlapi.model.RemoveImport;
+import org.semanticweb.owlapi.model.RemoveOntologyAnnotation;
+
+@SuppressWarnings("javadoc")
+public class ImportsClosureViewTestCase {
+    private static final String NS = "http://www.example.org/closure#";
+    private final OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+    private final OWLClass a = Class(IRI(NS + "A"));
+    private final OWLClass b = Class(IRI(NS + "B"));
+    private final OWLClass c = Class(IRI(NS + "C"));
+    private final OWLObjectProperty p = ObjectProperty(IRI(NS + "p"));
+    private final OWLAnnotationProperty label = RDFSLabel();
+    private final OWLAnnotationProperty comment = RDFSComment();
+
+    /** checks every closure query of the ontology against the union of the
+     * answers of the ontologies in its closure */
+    private void assertMatchesUnion(OWLOntology o) {
+        Set<OWLOntology> closure = manager.getImportsClosure(o);
+        Set<OWLEntity> signature = new HashSet<OWLEntity>();
+        Set<OWLAxiom> axioms = new HashSet<OWLAxiom>();
+        for (OWLOntology ont : closure) {
+            signature.addAll(ont.getSignature());
+            axioms.addAll(ont.getAxioms());
+        }
+        assertEquals(signature, o.getSignature(true));
+        Set<OWLEntity> classes = new HashSet<OWLEntity>();
+        for (OWLOntology ont : closure) {
+            classes.addAll(ont.getClassesInSignature());
+        }
+        assertEquals(classes, new HashSet<OWLEntity>(o.getClassesInSignature(true)));
+        for (AxiomType<?> type : AxiomType.AXIOM_TYPES) {
+            Set<OWLAxiom> expected = new HashSet<OWLAxiom>();
+            for (OWLOntology ont : closure) {
+                expected.addAll(ont.getAxioms(type));
+            }
+            assertEquals(expected, new HashSet<OWLAxiom>(o.getAxioms(type, true)));
+        }
+        for (OWLAxiom ax : axioms) {
+            assertTrue(o.containsAxiom(ax, true));
+            assertTrue(o.containsAxiomIgnoreAnnotations(ax.getAxiomWithoutAnnotations(),
+                    true));
+            Set<OWLAxiom> expected = new HashSet<OWLAxiom>();
+            for (OWLOntology ont : closure) {
+                expected.addAll(ont.getAxiomsIgnoreAnnotations(ax));
+            }
+            assertEquals(expected, o.getAxiomsIgnoreAnnotations(ax, true));
+        }
+        Set<OWLEntity> candidates = new HashSet<OWLEntity>(signature);
+        candidates.add(a);
+        candidates.add(b);
+        candidates.add(c);
+        candidates.add(p);
+        candidates.add(label);
+        candidates.add(comment);
+        for (OWLEntity e : candidates) {
+            Set<OWLAxiom> expected = new HashSet<OWLAxiom>();
+            boolean inSignature = false;
+            Set<OWLEntity> entities = new HashSet<OWLEntity>();
+            for (OWLOntology ont : closure) {
+                expected.addAll(ont.getReferencingAxioms(e));
+                inSignature |= ont.containsEntityInSignature(e);
+                entities.addAll(ont.getEntitiesInSignature(e.getIRI()));
+            }
+            assertEquals(expected, o.getReferencingAxioms(e, true));
+            assertEquals(inSignature, o.containsEntityInSignature(e, true));
+            assertEquals(entities, o.getEntitiesInSignature(e.getIRI(), true));
+            assertEquals(!entities.isEmpty(), o.containsEntityInSignature(e.getIRI(), true));
+        }
+    }
+
+    @Test
+    public void shouldMatchTheOntologiesInTheClosure() throws Exception {
+        OWLOntology top = manager.createOntology(IRI(NS + "top"));
+        OWLOntology middle = manager.createOntology(IRI(NS + "middle"));
+        OWLOntology bottom = manager.createOntology(IRI(NS + "bottom"));
+        manager.applyChange(new AddImport(top, ImportsDeclaration(IRI(NS + "middle"))));
+        manager.applyChange(new AddImport(middle, ImportsDeclaration(IRI(NS + "bottom"))));
+        OWLAxiom ab = SubClassOf(a, b);
+        OWLAxiom annotatedAb = SubClassOf(a, b,
+                Collections.singleton(Annotation(comment, Literal("x"))));
+        OWLAxiom bc = SubClassOf(b, ObjectSomeValuesFrom(p, c));
+        manager.addAxiom(top, Declaration(a));
+        manager.addAxiom(top, ab);
+        manager.addAxiom(middle, ab);
+        manager.addAxiom(middle, bc);
+        manager.addAxiom(bottom, annotatedAb);
+        manager.addAxiom(bottom, Declaration(p));
+        assertMatchesUnion(top);
+        assertMatchesUnion(middle);
+        // in two ontologies of the closure: stays after one removal
+        manager.removeAxiom(middle, ab);
+        assertTrue(top.containsAxiom(ab, true));
+        assertMatchesUnion(top);
+        manager.removeAxiom(top, ab);
+        assertFalse(top.containsAxiom(ab, true));
+        assertTrue(top.containsAxiomIgnoreAnnotations(ab, true));
+        assertMatchesUnion(top);
+        manager.removeAxiom(middle, bc);
+        assertFalse(top.containsClassInSignature(c.getIRI(), true));
+        // still declared in the bottom ontology
+        assertTrue(top.containsObjectPropertyInSignature(p.getIRI(), true));
+        assertMatchesUnion(top);
+        manager.applyChange(new RemoveImport(middle, ImportsDeclaration(IRI(NS
+                + "bottom"))));
+        assertFalse(top.containsAxiomIgnoreAnnotations(ab, true));
+        assertMatchesUnion(top);
+        manager.applyChange(new AddImport(middle, ImportsDeclaration(IRI(NS + "bottom"))));
+        assertTrue(top.containsAxiom(annotatedAb, true));
+        assertMatchesUnion(top);
+    }
+
+    @Test
+    public void shouldFollowOntologyAnnotationsAndDirectChanges() throws Exception {
+        OWLOntology top = manager.createOntology(IRI(NS + "top"));
+        OWLOntology imported = manager.createOntology(IRI(NS + "imported"));
+        manager.applyChange(new AddImport(top, ImportsDeclaration(IRI(NS + "imported"))));
+        assertFalse(top.containsAnnotationPropertyInSignature(label.getIRI(), true));
+        OWLAnnotation annotation = Annotation(label, Literal("imported"));
+        manager.applyChange(new AddOntologyAnnotation(imported, annotation));
+        assertTrue(top.containsAnnotationPropertyInSignature(label.getIRI(), true));
+        assertMatchesUnion(top);
+        manager.applyChange(new RemoveOntologyAnnotation(imported, annotation));
+        assertFalse(top.containsAnnotationPropertyInSignature(label.getIRI(), true));
+        assertMatchesUnion(top);
+        // changes applied to the ontology without the manager
+        OWLAxiom ab = SubClassOf(a, b);
+        ((OWLMutableOntology) imported).applyChange(new AddAxiom(imported, ab));
+        assertTrue(top.containsAxiom(ab, true));
+        assertTrue(top.getClassesInSignature(true).contains(b));
+        ((OWLMutableOntology) imported).applyChange(new RemoveAxiom(imported, ab));
+        assertFalse(top.containsAxiom(ab, true));
+        assertMatchesUnion(top);
+    }
+}
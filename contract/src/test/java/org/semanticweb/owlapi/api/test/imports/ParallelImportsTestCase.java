@@ -0,0 +1,253 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.api.test.imports;
+
+import static org.junit.Assert.*;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.*;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.semanticweb.owlapi.api.test.Factory;
+import org.semanticweb.owlapi.io.FileDocumentSource;
+import org.semanticweb.owlapi.io.OWLFunctionalSyntaxOntologyFormat;
+import org.semanticweb.owlapi.io.OWLXMLOntologyFormat;
+import org.semanticweb.owlapi.io.RDFXMLOntologyFormat;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.MissingImportHandlingStrategy;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyFormat;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.util.AutoIRIMapper;
+import org.semanticweb.owlapi.util.SimpleIRIMapper;
+
+@RunWith(Parameterized.class)
+@SuppressWarnings("javadoc")
+public class ParallelImportsTestCase {
+    private static final String NS = "http://www.example.org/parallel/";
+    private static final int MODULES = 8;
+    private final OWLOntologyFormat format;
+    private File folder;
+    private ExecutorService executor;
+
+    public ParallelImportsTestCase(OWLOntologyFormat format) {
+        this.format = format;
+    }
+
+    @Parameters
+    public static Collection<Object[]> formats() {
+        return Arrays.asList(new Object[] { new RDFXMLOntologyFormat() },
+                new Object[] { new OWLFunctionalSyntaxOntologyFormat() },
+                new Object[] { new OWLXMLOntologyFormat() });
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        folder = File.createTempFile("parallelimports", "");
+        folder.delete();
+        folder.mkdirs();
+        executor = Executors.newFixedThreadPool(4);
+        // root imports every module and a missing module; each module imports
+        // the common ontology and the next module, so that the imports graph
+        // has shared nodes
+        OWLOntologyManager m = Factory.getManager();
+        OWLOntology common = m.createOntology(IRI(NS + "common"));
+        for (int i = 0; i < 50; i++) {
+            m.addAxiom(common, SubClassOf(cls("common", i), cls("common", i + 1)));
+        }
+        save(m, common);
+        OWLOntology root = m.createOntology(IRI(NS + "root"));
+        for (int i = 0; i < MODULES; i++) {
+            OWLOntology module = m.createOntology(IRI(NS + "m" + i));
+            m.applyChange(new AddImport(module, ImportsDeclaration(IRI(NS + "common"))));
+            if (i + 1 < MODULES) {
+                m.applyChange(new AddImport(module, ImportsDeclaration(IRI(NS + "m"
+                        + (i + 1)))));
+            }
+            for (int j = 0; j < 50; j++) {
+                m.addAxiom(module, SubClassOf(cls("m" + i, j), cls("common", j)));
+                m.addAxiom(module, Declaration(cls("m" + i, j)));
+            }
+            save(m, module);
+            m.applyChange(new AddImport(root, ImportsDeclaration(IRI(NS + "m" + i))));
+        }
+        save(m, root);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+        for (File f : folder.listFiles()) {
+            f.delete();
+        }
+        folder.delete();
+    }
+
+    private static OWLClass cls(String ontology, int i) {
+        return Class(IRI(NS + ontology + "#C" + i));
+    }
+
+    private void save(OWLOntologyManager m, OWLOntology o) throws Exception {
+        String name = o.getOntologyID().getOntologyIRI().getFragment();
+        if (name == null) {
+            String iri = o.getOntologyID().getOntologyIRI().toString();
+            name = iri.substring(iri.lastIndexOf('/') + 1);
+        }
+        m.saveOntology(o, format, IRI.create(file(name)));
+    }
+
+    private File file(String name) {
+        return new File(folder, name + ".owl");
+    }
+
+    private OWLOntologyManager mappedManager() {
+        OWLOntologyManager m = Factory.getManager();
+        m.addIRIMapper(new SimpleIRIMapper(IRI(NS + "common"), IRI.create(file("common"))));
+        for (int i = 0; i < MODULES; i++) {
+            m.addIRIMapper(new SimpleIRIMapper(IRI(NS + "m" + i), IRI.create(file("m"
+                    + i))));
+        }
+        return m;
+    }
+
+    private OWLOntologyLoaderConfiguration parallel() {
+        return new OWLOntologyLoaderConfiguration().setParallelImportsExecutor(executor);
+    }
+
+    private static Map<OWLOntologyID, Set<OWLAxiom>> contents(OWLOntologyManager m) {
+        Map<OWLOntologyID, Set<OWLAxiom>> map = new HashMap<OWLOntologyID, Set<OWLAxiom>>();
+        for (OWLOntology o : m.getOntologies()) {
+            map.put(o.getOntologyID(), o.getAxioms());
+        }
+        return map;
+    }
+
+    private static Set<OWLOntologyID> ids(Set<OWLOntology> ontologies) {
+        Set<OWLOntologyID> ids = new HashSet<OWLOntologyID>();
+        for (OWLOntology o : ontologies) {
+            ids.add(o.getOntologyID());
+        }
+        return ids;
+    }
+
+    private OWLOntology load(OWLOntologyManager m, OWLOntologyLoaderConfiguration config)
+            throws OWLOntologyCreationException {
+        return m.loadOntologyFromOntologyDocument(
+                new FileDocumentSource(file("root")), config);
+    }
+
+    @Test
+    public void shouldLoadSameClosureAsSequentialLoading() throws Exception {
+        OWLOntologyManager sequential = mappedManager();
+        OWLOntology expected = load(sequential, new OWLOntologyLoaderConfiguration());
+        OWLOntologyManager parallel = mappedManager();
+        OWLOntology actual = load(parallel, parallel());
+        assertEquals(MODULES + 2, parallel.getOntologies().size());
+        assertEquals(contents(sequential), contents(parallel));
+        assertEquals(ids(expected.getImportsClosure()), ids(actual.getImportsClosure()));
+        for (OWLOntology o : parallel.getOntologies()) {
+            assertEquals(ids(sequential.getDirectImports(sequential.getOntology(o
+                    .getOntologyID()))), ids(o.getDirectImports()));
+            assertEquals(IRI.create(file(o.getOntologyID().getOntologyIRI().toString()
+                    .substring(NS.length()))), parallel.getOntologyDocumentIRI(o));
+        }
+    }
+
+    @Test
+    public void shouldNotStarveWithSingleThread() throws Exception {
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            OWLOntologyManager m = mappedManager();
+            OWLOntology root = load(m, new OWLOntologyLoaderConfiguration()
+                    .setParallelImportsExecutor(single));
+            assertEquals(MODULES + 2, root.getImportsClosure().size());
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldFailOnMissingImport() throws Exception {
+        // the mapping for the last module points to a missing file
+        file("m" + (MODULES - 1)).delete();
+        try {
+            load(mappedManager(), parallel());
+            fail("Missing import should have been reported");
+        } catch (OWLOntologyCreationException e) {
+            // expected
+        }
+        OWLOntologyManager m = mappedManager();
+        OWLOntology root = load(m, parallel().setMissingImportHandlingStrategy(
+                MissingImportHandlingStrategy.SILENT));
+        assertEquals(MODULES + 1, root.getImportsClosure().size());
+    }
+
+    @Test
+    public void shouldLoadCyclicImports() throws Exception {
+        File resources = new File(MultiImportsTestCase.RESOURCES, "importscyclic");
+        OWLOntologyManager sequential = Factory.getManager();
+        sequential.addIRIMapper(new AutoIRIMapper(resources, true));
+        sequential.loadOntologyFromOntologyDocument(new File(resources, "D.owl"));
+        OWLOntologyManager parallel = Factory.getManager();
+        parallel.addIRIMapper(new AutoIRIMapper(resources, true));
+        parallel.loadOntologyFromOntologyDocument(
+                new FileDocumentSource(new File(resources,
+                        "D.owl")), parallel());
+        assertEquals(ids(sequential.getOntologies()), ids(parallel.getOntologies()));
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.api.test.literals;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.vocab.XSDVocabulary;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+import uk.ac.manchester.cs.owl.owlapi.OWLLiteralImpl;
+import uk.ac.manchester.cs.owl.owlapi.OWLLiteralImplNoCompression;
+
+@SuppressWarnings("javadoc")
+public class SharedLexicalFormTestCase {
+    private final OWLDataFactory df = new OWLDataFactoryImpl(false, true);
+    private final OWLDatatype string = df.getOWLDatatype(XSDVocabulary.STRING.getIRI());
+
+    private static String repeat(String s, int times) {
+        StringBuilder b = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            b.append(s);
+        }
+        return b.toString();
+    }
+
+    private static List<String> createForms() {
+        List<String> forms = new ArrayList<String>();
+        forms.add("");
+        forms.add("abc");
+        forms.add("caf\u00E9 cr\u00E8me br\u00FBl\u00E9e");
+        forms.add("\u65E5\u672C\u8A9E\u306E\u30E9\u30D9\u30EB");
+        forms.add("emoji \uD83D\uDE00 and a lone surrogate \uD83D end");
+        forms.add(repeat("A process that is part of the development of a cell. ", 10));
+        forms.add(repeat("caf\u00E9 ", 60));
+        forms.add(repeat("\u03B1\u03B2\u03B3 protein ", 30));
+        forms.add(repeat("\uDE00\uD83D", 120));
+        Random r = new Random(11);
+        StringBuilder b = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            b.append((char) r.nextInt(0x10000));
+        }
+        forms.add(b.toString());
+        return forms;
+    }
+
+    @Test
+    public void shouldReturnTheLexicalForm() {
+        for (String form : createForms()) {
+            OWLLiteral literal = new OWLLiteralImpl(form, "", string);
+            assertEquals(form, literal.getLiteral());
+            // a second read is served by the decoded cache
+            assertEquals(form, literal.getLiteral());
+            assertEquals(form, df.getOWLLiteral(form, "en").getLiteral());
+        }
+    }
+
+    @Test
+    public void shouldBehaveAsUncompressedLiterals() {
+        List<String> forms = createForms();
+        for (String f1 : forms) {
+            OWLLiteral l1 = new OWLLiteralImpl(f1, "", string);
+            OWLLiteral plain1 = new OWLLiteralImplNoCompression(f1, "", string);
+            // unpaired surrogates do not survive the UTF-8 of the uncompressed
+            // literals
+            if (plain1.getLiteral().equals(f1)) {
+                assertEquals(l1, plain1);
+                assertEquals(plain1, l1);
+            }
+            for (String f2 : forms) {
+                OWLLiteral l2 = new OWLLiteralImpl(f2, "", string);
+                assertEquals(f1.equals(f2), l1.equals(l2));
+                if (f1.equals(f2)) {
+                    assertEquals(l1.hashCode(), l2.hashCode());
+                }
+                assertEquals(Integer.signum(f1.compareTo(f2)),
+                        Integer.signum(l1.compareTo(l2)));
+            }
+        }
+        assertFalse(new OWLLiteralImpl("abc", "en", null).equals(new OWLLiteralImpl(
+                "abc", "fr", null)));
+    }
+
+    @Test
+    public void shouldShareLongFormsWithCollidingHashes() {
+        // "Aa" and "BB" have the same hash code, and so do these forms
+        String aa = repeat("Aa", 200);
+        String bb = repeat("BB", 200);
+        assertEquals(aa.hashCode(), bb.hashCode());
+        OWLLiteral first = new OWLLiteralImpl(aa, "", string);
+        OWLLiteral other = new OWLLiteralImpl(bb, "", string);
+        OWLLiteral again = new OWLLiteralImpl(new String(aa), "", string);
+        assertEquals(aa, first.getLiteral());
+        assertEquals(bb, other.getLiteral());
+        assertEquals(aa, again.getLiteral());
+        assertFalse(first.equals(other));
+        assertEquals(first, again);
+    }
+
+    @Test
+    public void shouldRejectLiteralsOfEarlierVersions() {
+        // the lexical form used to be held by a different type, so old
+        // streams must fail with a version mismatch
+        assertFalse(30402L == ObjectStreamClass.lookup(OWLLiteralImpl.class)
+                .getSerialVersionUID());
+    }
+
+    @Test
+    public void shouldSurviveSerialization() throws Exception {
+        List<OWLLiteral> literals = new ArrayList<OWLLiteral>();
+        for (String form : createForms()) {
+            literals.add(new OWLLiteralImpl(form, "", string));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ObjectOutputStream stream = new ObjectOutputStream(out);
+        stream.writeObject(literals);
+        stream.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(
+                out.toByteArray()));
+        @SuppressWarnings("unchecked")
+        List<OWLLiteral> copies = (List<OWLLiteral>) in.readObject();
+        assertEquals(literals, copies);
+        for (int i = 0; i < literals.size(); i++) {
+            assertEquals(literals.get(i).getLiteral(), copies.get(i).getLiteral());
+            assertEquals(literals.get(i).hashCode(), copies.get(i).hashCode());
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.api.test.ontology;
+
+import static org.junit.Assert.*;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.api.test.Factory;
+import org.semanticweb.owlapi.model.AsynchronousChangeBroadcastStrategy;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+@SuppressWarnings("javadoc")
+public class AsynchronousChangeBroadcastStrategyTestCase {
+    private static final String NS = "http://www.example.org/async#";
+    private OWLOntologyManager manager;
+    private OWLOntology ontology;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = Factory.getManager();
+        ontology = manager.createOntology(IRI.create(NS));
+    }
+
+    private static OWLAxiom axiom(int i) {
+        return Declaration(Class(IRI.create(NS + "C" + i)));
+    }
+
+    /** records the axioms of the changes it receives, optionally blocking
+     * until released */
+    private static class RecordingListener implements OWLOntologyChangeListener {
+        final List<OWLAxiom> axioms = Collections.synchronizedList(new ArrayList<OWLAxiom>());
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch released;
+
+        RecordingListener(boolean block) {
+            released = new CountDownLatch(block ? 1 : 0);
+        }
+
+        @Override
+        public void ontologiesChanged(List<? extends OWLOntologyChange> changes) {
+            entered.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batchSizes.add(changes.size());
+            for (OWLOntologyChange change : changes) {
+                axioms.add(change.getAxiom());
+            }
+        }
+    }
+
+    @Test
+    public void shouldDeliverInOrderBeforeFlushReturns() {
+        AsynchronousChangeBroadcastStrategy strategy = new AsynchronousChangeBroadcastStrategy(
+                4, false);
+        RecordingListener listener = new RecordingListener(false);
+        manager.addOntologyChangeListener(listener, strategy);
+        List<OWLAxiom> expected = new ArrayList<OWLAxiom>();
+        for (int i = 0; i < 200; i++) {
+            manager.addAxiom(ontology, axiom(i));
+            expected.add(axiom(i));
+        }
+        strategy.flush();
+        assertEquals(expected, listener.axioms);
+        assertEquals(200, strategy.getDeliveredBatches());
+        assertEquals(0, strategy.getQueuedBatches());
+        assertTrue(strategy.getMaxQueuedBatches() <= 4);
+    }
+
+    @Test
+    public void shouldMergeWaitingBatches() throws Exception {
+        AsynchronousChangeBroadcastStrategy strategy = new AsynchronousChangeBroadcastStrategy(
+                1, true);
+        RecordingListener listener = new RecordingListener(true);
+        manager.addOntologyChangeListener(listener, strategy);
+        manager.addAxiom(ontology, axiom(0));
+        assertTrue(listener.entered.await(10, TimeUnit.SECONDS));
+        for (int i = 1; i < 10; i++) {
+            manager.addAxiom(ontology, axiom(i));
+        }
+        assertEquals(8, strategy.getCoalescedBatches());
+        assertEquals(1, strategy.getQueuedBatches());
+        listener.released.countDown();
+        assertTrue(strategy.awaitQuiescence(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(1, 9), listener.batchSizes);
+        assertEquals(10, listener.axioms.size());
+        assertEquals(axiom(9), listener.axioms.get(9));
+    }
+
+    @Test
+    public void shouldMakeProducersWaitWhenTheQueueIsFull() throws Exception {
+        final AsynchronousChangeBroadcastStrategy strategy = new AsynchronousChangeBroadcastStrategy(
+                1, false);
+        RecordingListener listener = new RecordingListener(true);
+        manager.addOntologyChangeListener(listener, strategy);
+        manager.addAxiom(ontology, axiom(0));
+        assertTrue(listener.entered.await(10, TimeUnit.SECONDS));
+        manager.addAxiom(ontology, axiom(1));
+        Thread producer = new Thread() {
+            @Override
+            public void run() {
+                manager.addAxiom(ontology, axiom(2));
+            }
+        };
+        producer.start();
+        long deadline = System.currentTimeMillis() + 10000;
+        while (strategy.getProducerWaits() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, strategy.getProducerWaits());
+        assertTrue(producer.isAlive());
+        listener.released.countDown();
+        producer.join(10000);
+        strategy.flush();
+        assertEquals(3, listener.axioms.size());
+        assertEquals(0, strategy.getCoalescedBatches());
+    }
+
+    @Test
+    public void shouldDeliverAfterDeserialization() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ObjectOutputStream stream = new ObjectOutputStream(out);
+        stream.writeObject(new AsynchronousChangeBroadcastStrategy(4, false));
+        stream.flush();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(
+                out.toByteArray()));
+        AsynchronousChangeBroadcastStrategy strategy = (AsynchronousChangeBroadcastStrategy) in
+                .readObject();
+        RecordingListener listener = new RecordingListener(false);
+        manager.addOntologyChangeListener(listener, strategy);
+        manager.addAxiom(ontology, axiom(0));
+        manager.addAxiom(ontology, axiom(1));
+        strategy.flush();
+        assertEquals(Arrays.asList(axiom(0), axiom(1)), listener.axioms);
+        strategy.dispose();
+    }
+
+    @Test
+    public void shouldDeliverOnTheCallingThreadAfterDispose() {
+        AsynchronousChangeBroadcastStrategy strategy = new AsynchronousChangeBroadcastStrategy(
+                4, false);
+        final List<Thread> threads = new ArrayList<Thread>();
+        manager.addOntologyChangeListener(new OWLOntologyChangeListener() {
+            @Override
+            public void ontologiesChanged(List<? extends OWLOntologyChange> changes) {
+                threads.add(Thread.currentThread());
+            }
+        }, strategy);
+        manager.addAxiom(ontology, axiom(0));
+        strategy.dispose();
+        assertEquals(1, threads.size());
+        assertNotSame(Thread.currentThread(), threads.get(0));
+        manager.addAxiom(ontology, axiom(1));
+        // the delivery thread is gone, so nothing is left queued
+        assertEquals(0, strategy.getQueuedBatches());
+        assertEquals(Arrays.asList(threads.get(0), Thread.currentThread()), threads);
+    }
+}
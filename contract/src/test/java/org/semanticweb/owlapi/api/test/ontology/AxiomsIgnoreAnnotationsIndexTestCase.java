@@ -0,0 +1,129 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.api.test.ontology;
+
+import static org.junit.Assert.*;
+import static org.semanticweb.owlapi.api.test.RandomAxiomGenerator.cls;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.api.test.Factory;
+import org.semanticweb.owlapi.api.test.RandomAxiomGenerator;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChangeBatch;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+@SuppressWarnings("javadoc")
+public class AxiomsIgnoreAnnotationsIndexTestCase {
+    private static Set<OWLAxiom> scan(OWLOntology o, OWLAxiom axiom) {
+        Set<OWLAxiom> toReturn = new HashSet<OWLAxiom>();
+        for (OWLAxiom ax : o.getAxioms()) {
+            if (ax.equalsIgnoreAnnotations(axiom)) {
+                toReturn.add(ax);
+            }
+        }
+        return toReturn;
+    }
+
+    private static void check(OWLOntology o, RandomAxiomGenerator generator) {
+        for (int i = 0; i < 20; i++) {
+            OWLAxiom ax = generator.nextAxiom();
+            Set<OWLAxiom> expected = scan(o, ax);
+            assertEquals(expected, o.getAxiomsIgnoreAnnotations(ax));
+            assertEquals(!expected.isEmpty(), o.containsAxiomIgnoreAnnotations(ax));
+        }
+    }
+
+    @Test
+    public void shouldMatchAScanAfterChanges() throws Exception {
+        for (boolean compact : new boolean[] { false, true }) {
+            // few classes, so that many axioms differ only in their annotations
+            RandomAxiomGenerator generator = new RandomAxiomGenerator(17, 4);
+            OWLOntologyManager manager = OWLManager.createOWLOntologyManager(
+                    OWLManager.getOWLDataFactory(), compact);
+            OWLOntology o = manager.createOntology();
+            for (int i = 0; i < 50; i++) {
+                manager.addAxiom(o, generator.nextAxiom());
+            }
+            // builds the index
+            check(o, generator);
+            for (int step = 0; step < 100; step++) {
+                OWLAxiom ax = generator.nextAxiom();
+                if (generator.getRandom().nextBoolean()) {
+                    manager.addAxiom(o, ax);
+                } else {
+                    List<OWLAxiom> list = new ArrayList<OWLAxiom>(o.getAxioms());
+                    manager.removeAxiom(o,
+                            list.get(generator.getRandom().nextInt(list.size())));
+                }
+                check(o, generator);
+            }
+        }
+    }
+
+    @Test
+    public void shouldRebuildAfterLargeBatches() throws Exception {
+        RandomAxiomGenerator generator = new RandomAxiomGenerator(23, 10);
+        OWLOntologyManager manager = Factory.getManager();
+        OWLOntology o = manager.createOntology();
+        for (int i = 0; i < 300; i++) {
+            manager.addAxiom(o, generator.nextAxiom());
+        }
+        check(o, generator);
+        List<OWLAxiom> axioms = new ArrayList<OWLAxiom>(o.getAxioms());
+        new OWLOntologyChangeBatch(manager).removeAxioms(o,
+                new HashSet<OWLAxiom>(axioms.subList(0, axioms.size() / 2))).commit();
+        check(o, generator);
+        OWLAxiom annotated = SubClassOf(cls(100), cls(101),
+                Collections.singleton(Annotation(RDFSLabel(), Literal("x"))));
+        assertFalse(o.containsAxiomIgnoreAnnotations(annotated));
+        manager.addAxiom(o, annotated);
+        assertTrue(o.containsAxiomIgnoreAnnotations(annotated.getAxiomWithoutAnnotations()));
+        assertEquals(Collections.singleton(annotated),
+                o.getAxiomsIgnoreAnnotations(annotated.getAxiomWithoutAnnotations()));
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.api.test.ontology;
+
+import static org.junit.Assert.*;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+@SuppressWarnings("javadoc")
+public class CompactIndexesTestCase {
+    private static final String NS = "urn:test#";
+
+    private static Set<OWLAxiom> createAxioms() {
+        Set<OWLAxiom> axioms = new HashSet<OWLAxiom>();
+        OWLObjectProperty p = ObjectProperty(IRI(NS + "p"));
+        for (int i = 0; i < 300; i++) {
+            OWLClass c = Class(IRI(NS + "C" + i));
+            OWLClass d = Class(IRI(NS + "C" + i / 10));
+            OWLNamedIndividual ind = NamedIndividual(IRI(NS + "i" + i));
+            axioms.add(Declaration(c));
+            axioms.add(SubClassOf(c, d));
+            axioms.add(SubClassOf(c, ObjectSomeValuesFrom(p, d)));
+            axioms.add(ClassAssertion(c, ind));
+            axioms.add(ObjectPropertyAssertion(p, ind, NamedIndividual(IRI(NS + "i"
+                    + i % 7))));
+        }
+        return axioms;
+    }
+
+    private static OWLOntology create(OWLOntologyManager m)
+            throws OWLOntologyCreationException {
+        OWLOntology o = m.createOntology(IRI.create("urn:test"));
+        m.addAxioms(o, createAxioms());
+        return o;
+    }
+
+    private static void assertSameIndexes(OWLOntology expected, OWLOntology actual) {
+        assertEquals(expected.getAxioms(), actual.getAxioms());
+        assertEquals(expected.getAxiomCount(), actual.getAxiomCount());
+        assertEquals(expected.getLogicalAxiomCount(), actual.getLogicalAxiomCount());
+        for (AxiomType<?> t : AxiomType.AXIOM_TYPES) {
+            assertEquals(expected.getAxioms(t), actual.getAxioms(t));
+        }
+        assertEquals(expected.getSignature(), actual.getSignature());
+        for (OWLClass c : expected.getClassesInSignature()) {
+            assertEquals(expected.getReferencingAxioms(c), actual.getReferencingAxioms(c));
+            assertEquals(expected.getSubClassAxiomsForSubClass(c),
+                    actual.getSubClassAxiomsForSubClass(c));
+            assertEquals(expected.getSubClassAxiomsForSuperClass(c),
+                    actual.getSubClassAxiomsForSuperClass(c));
+            assertEquals(expected.getAxioms(c), actual.getAxioms(c));
+        }
+        for (OWLNamedIndividual i : expected.getIndividualsInSignature()) {
+            assertEquals(expected.getReferencingAxioms(i), actual.getReferencingAxioms(i));
+            assertEquals(expected.getObjectPropertyAssertionAxioms(i),
+                    actual.getObjectPropertyAssertionAxioms(i));
+        }
+    }
+
+    @Test
+    public void shouldMatchDefaultIndexes() throws OWLOntologyCreationException {
+        OWLOntology expected = create(OWLManager.createOWLOntologyManager());
+        OWLOntology actual = create(OWLManager.createOWLOntologyManager(
+                OWLManager.getOWLDataFactory(), true));
+        assertSameIndexes(expected, actual);
+        // remove half of the axioms and check again
+        Set<OWLAxiom> toRemove = new HashSet<OWLAxiom>();
+        int i = 0;
+        for (OWLAxiom ax : expected.getAxioms()) {
+            if (i++ % 2 == 0) {
+                toRemove.add(ax);
+            }
+        }
+        expected.getOWLOntologyManager().removeAxioms(expected, toRemove);
+        actual.getOWLOntologyManager().removeAxioms(actual, toRemove);
+        assertSameIndexes(expected, actual);
+        actual.getOWLOntologyManager().removeAxioms(actual, actual.getAxioms());
+        assertTrue(actual.isEmpty());
+        assertEquals(0, actual.getSignature().size());
+    }
+
+    @Test
+    public void shouldSerializeCompactOntology() throws Exception {
+        OWLOntology o = create(OWLManager.createOWLOntologyManager(
+                OWLManager.getOWLDataFactory(), true));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ObjectOutputStream stream = new ObjectOutputStream(out);
+        stream.writeObject(o);
+        stream.flush();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(
+                out.toByteArray()));
+        OWLOntology copy = (OWLOntology) in.readObject();
+        assertSameIndexes(o, copy);
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.api.test.ontology;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.api.test.baseclasses.AbstractOWLAPITestCase;
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.ImmutableOWLOntologyChangeException;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLException;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeBatch;
+import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+
+@SuppressWarnings("javadoc")
+public class OntologyChangeBatchTestCase extends AbstractOWLAPITestCase {
+    private final List<List<? extends OWLOntologyChange>> events = new ArrayList<List<? extends OWLOntologyChange>>();
+
+    private void recordEvents() {
+        getManager().addOntologyChangeListener(new OWLOntologyChangeListener() {
+            @Override
+            public void ontologiesChanged(List<? extends OWLOntologyChange> changes)
+                    throws OWLException {
+                events.add(changes);
+            }
+        });
+    }
+
+    private OWLClass cls(int i) {
+        return Class(getIRI("C" + i));
+    }
+
+    @Test
+    public void shouldApplyBatchInOneEvent() {
+        OWLOntology ont = getOWLOntology("batch");
+        recordEvents();
+        OWLOntologyChangeBatch batch = new OWLOntologyChangeBatch(getManager());
+        Set<OWLAxiom> axioms = new HashSet<OWLAxiom>();
+        for (int i = 1; i < 500; i++) {
+            axioms.add(SubClassOf(cls(i), cls(i / 2)));
+            axioms.add(Declaration(cls(i)));
+            axioms.add(ClassAssertion(cls(i), NamedIndividual(getIRI("i" + i))));
+        }
+        batch.addAxioms(ont, axioms);
+        assertEquals(axioms.size(), batch.size());
+        List<OWLOntologyChange> applied = batch.commit();
+        assertTrue(batch.isEmpty());
+        assertEquals(axioms.size(), applied.size());
+        assertEquals(1, events.size());
+        assertEquals(axioms, ont.getAxioms());
+    }
+
+    @Test
+    public void shouldReplaceEarlierChangesToTheSameAxiom() {
+        OWLOntology ont = getOWLOntology("replace");
+        OWLSubClassOfAxiom present = SubClassOf(cls(1), cls(2));
+        OWLSubClassOfAxiom absent = SubClassOf(cls(3), cls(4));
+        getManager().addAxiom(ont, present);
+        recordEvents();
+        OWLOntologyChangeBatch batch = new OWLOntologyChangeBatch(getManager());
+        batch.removeAxiom(ont, present).addAxiom(ont, present);
+        batch.addAxiom(ont, absent).removeAxiom(ont, absent);
+        assertEquals(2, batch.size());
+        assertTrue(batch.commit().isEmpty());
+        assertTrue(ont.containsAxiom(present));
+        assertFalse(ont.containsAxiom(absent));
+    }
+
+    @Test
+    public void shouldGroupChangesByOntologyAndType() {
+        OWLOntology ont1 = getOWLOntology("first");
+        OWLOntology ont2 = getOWLOntology("second");
+        OWLOntologyChangeBatch batch = new OWLOntologyChangeBatch(getManager());
+        batch.addAxiom(ont1, SubClassOf(cls(1), cls(2)));
+        batch.addAxiom(ont2, Declaration(cls(1)));
+        batch.addAxiom(ont1, Declaration(cls(1)));
+        batch.addAxiom(ont1, SubClassOf(cls(2), cls(3)));
+        List<OWLOntologyChange> changes = batch.getChanges();
+        assertSame(ont1, changes.get(0).getOntology());
+        assertSame(ont1, changes.get(1).getOntology());
+        assertSame(ont1, changes.get(2).getOntology());
+        assertSame(ont2, changes.get(3).getOntology());
+        assertEquals(changes.get(1).getAxiom().getAxiomType(), changes.get(2)
+                .getAxiom().getAxiomType());
+    }
+
+    @Test
+    public void shouldNotApplyAnythingIfAnOntologyIsImmutable() {
+        OWLOntology ont = getOWLOntology("mutable");
+        OWLOntology immutable = mock(OWLOntology.class);
+        OWLOntologyChangeBatch batch = new OWLOntologyChangeBatch(getManager());
+        batch.addAxiom(ont, Declaration(cls(1)));
+        batch.add(new AddAxiom(immutable, Declaration(cls(2))));
+        try {
+            batch.commit();
+            fail("Expected " + ImmutableOWLOntologyChangeException.class);
+        } catch (ImmutableOWLOntologyChangeException e) {
+            assertTrue(ont.getAxioms().isEmpty());
+            assertEquals(2, batch.size());
+        }
+    }
+
+    @Test
+    public void shouldRebuildIndexesAfterLargeBatches() {
+        OWLOntology ont = getOWLOntology("indexes");
+        for (int i = 1; i < 300; i++) {
+            getManager().addAxiom(ont, SubClassOf(cls(i), cls(i / 2)));
+        }
+        OWLNamedIndividual ind = NamedIndividual(getIRI("ind"));
+        // build the lazy indexes before the batch
+        assertEquals(1, ont.getSubClassAxiomsForSubClass(cls(10)).size());
+        assertEquals(2, ont.getSubClassAxiomsForSuperClass(cls(10)).size());
+        assertTrue(ont.getClassAssertionAxioms(ind).isEmpty());
+        assertEquals(1, ont.getAxioms(cls(11)).size());
+        OWLOntologyChangeBatch batch = new OWLOntologyChangeBatch(getManager());
+        for (int i = 1; i < 300; i++) {
+            if (i % 2 == 0) {
+                batch.removeAxiom(ont, SubClassOf(cls(i), cls(i / 2)));
+            }
+            batch.addAxiom(ont, SubClassOf(cls(i), cls(1000 + i)));
+            batch.addAxiom(ont, ClassAssertion(cls(i), ind));
+        }
+        batch.commit();
+        assertEquals(1, ont.getSubClassAxiomsForSubClass(cls(10)).size());
+        assertEquals(2, ont.getSubClassAxiomsForSubClass(cls(11)).size());
+        assertEquals(1, ont.getSubClassAxiomsForSuperClass(cls(10)).size());
+        assertEquals(1, ont.getSubClassAxiomsForSuperClass(cls(1010)).size());
+        assertEquals(299, ont.getClassAssertionAxioms(ind).size());
+        assertEquals(1, ont.getClassAssertionAxioms(cls(5)).size());
+        assertEquals(2, ont.getAxioms(cls(11)).size());
+    }
+}
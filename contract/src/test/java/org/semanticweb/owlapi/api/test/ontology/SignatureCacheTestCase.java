@@ -0,0 +1,200 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.api.test.ontology;
+
+import static org.junit.Assert.*;
+import static org.semanticweb.owlapi.api.test.RandomAxiomGenerator.*;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.*;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.api.test.Factory;
+import org.semanticweb.owlapi.api.test.RandomAxiomGenerator;
+import org.semanticweb.owlapi.model.AddOntologyAnnotation;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAnnotationProperty;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.RemoveOntologyAnnotation;
+
+@SuppressWarnings("javadoc")
+public class SignatureCacheTestCase {
+    private final OWLOntologyManager manager = Factory.getManager();
+
+    private static Set<OWLEntity> expectedSignature(OWLOntology o) {
+        Set<OWLEntity> expected = new HashSet<OWLEntity>();
+        for (OWLAxiom ax : o.getAxioms()) {
+            expected.addAll(ax.getSignature());
+        }
+        for (OWLAnnotation anno : o.getAnnotations()) {
+            expected.add(anno.getProperty());
+        }
+        return expected;
+    }
+
+    private static void assertSignature(OWLOntology o) {
+        Set<OWLEntity> expected = expectedSignature(o);
+        assertEquals(expected, o.getSignature());
+        Set<OWLAnnotationProperty> properties = new HashSet<OWLAnnotationProperty>();
+        Set<OWLClass> classes = new HashSet<OWLClass>();
+        for (OWLEntity e : expected) {
+            if (e.isOWLAnnotationProperty()) {
+                properties.add(e.asOWLAnnotationProperty());
+            }
+            if (e.isOWLClass()) {
+                classes.add(e.asOWLClass());
+            }
+        }
+        assertEquals(properties, o.getAnnotationPropertiesInSignature());
+        assertEquals(classes, o.getClassesInSignature());
+    }
+
+    @Test
+    public void shouldFollowAxiomAndAnnotationChanges() throws Exception {
+        RandomAxiomGenerator generator = new RandomAxiomGenerator(3, 8);
+        Random r = generator.getRandom();
+        OWLOntology o = manager.createOntology();
+        // built before any change, and then maintained
+        assertTrue(o.getSignature().isEmpty());
+        for (int i = 0; i < 500; i++) {
+            OWLAxiom ax = generator.nextAxiom();
+            if (r.nextInt(3) == 0) {
+                manager.removeAxiom(o, ax);
+            } else {
+                manager.addAxiom(o, ax);
+            }
+            if (r.nextInt(10) == 0) {
+                OWLAnnotation anno = Annotation(annotationProperty(r.nextInt(4)),
+                        Literal(r.nextInt(2)));
+                if (r.nextBoolean()) {
+                    manager.applyChange(new AddOntologyAnnotation(o, anno));
+                } else {
+                    manager.applyChange(new RemoveOntologyAnnotation(o, anno));
+                }
+            }
+            if (i % 25 == 0) {
+                assertSignature(o);
+            }
+        }
+        manager.removeAxioms(o, o.getAxioms());
+        assertSignature(o);
+        for (OWLAnnotation anno : o.getAnnotations()) {
+            manager.applyChange(new RemoveOntologyAnnotation(o, anno));
+        }
+        assertTrue(o.getSignature().isEmpty());
+    }
+
+    @Test
+    public void shouldKeepPropertiesUsedElsewhere() throws Exception {
+        OWLOntology o = manager.createOntology();
+        OWLAnnotation anno = Annotation(annotationProperty(0), Literal("z"));
+        OWLAxiom assertion = AnnotationAssertion(annotationProperty(0), cls(0).getIRI(),
+                Literal("z"));
+        manager.applyChange(new AddOntologyAnnotation(o, anno));
+        manager.addAxiom(o, assertion);
+        assertTrue(o.getSignature().contains(annotationProperty(0)));
+        manager.removeAxiom(o, assertion);
+        // still used by the ontology annotation
+        assertTrue(o.getSignature().contains(annotationProperty(0)));
+        manager.addAxiom(o, assertion);
+        manager.applyChange(new RemoveOntologyAnnotation(o, anno));
+        // still used by the axiom
+        assertTrue(o.getAnnotationPropertiesInSignature().contains(annotationProperty(0)));
+        manager.removeAxiom(o, assertion);
+        assertFalse(o.getAnnotationPropertiesInSignature().contains(annotationProperty(0)));
+    }
+
+    @Test
+    public void shouldReturnTheSameViewUntilTheSignatureChanges() throws Exception {
+        OWLOntology o = manager.createOntology();
+        manager.addAxiom(o, SubClassOf(cls(1), cls(2)));
+        Set<OWLEntity> signature = o.getSignature();
+        Set<OWLClass> classes = o.getClassesInSignature();
+        assertSame(signature, o.getSignature());
+        assertSame(classes, o.getClassesInSignature());
+        try {
+            signature.add(cls(3));
+            fail("the signature must not be modifiable");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        // the classes do not change, so their view is kept
+        manager.addAxiom(o, ClassAssertion(cls(1), ind(1)));
+        assertNotSame(signature, o.getSignature());
+        assertSame(classes, o.getClassesInSignature());
+        assertEquals(Collections.singleton(ind(1)), o.getIndividualsInSignature());
+        manager.addAxiom(o, SubClassOf(cls(2), cls(3)));
+        assertEquals(3, o.getClassesInSignature().size());
+        assertEquals(2, classes.size());
+        manager.removeAxioms(o, o.getAxioms());
+        assertTrue(o.getClassesInSignature().isEmpty());
+        assertTrue(o.getIndividualsInSignature().isEmpty());
+    }
+
+    @Test
+    public void shouldReturnSnapshotsThatSurviveChanges() throws Exception {
+        OWLOntology o = manager.createOntology();
+        RandomAxiomGenerator generator = new RandomAxiomGenerator(5, 8);
+        for (int i = 0; i < 100; i++) {
+            manager.addAxiom(o, generator.nextAxiom());
+        }
+        Set<OWLEntity> before = o.getSignature();
+        Set<OWLEntity> copy = new HashSet<OWLEntity>(before);
+        Set<OWLAnnotationProperty> properties = o.getAnnotationPropertiesInSignature();
+        Set<OWLAnnotationProperty> propertiesCopy = new HashSet<OWLAnnotationProperty>(
+                properties);
+        // the common pattern of removing axioms while iterating the signature
+        for (OWLEntity e : o.getSignature()) {
+            manager.removeAxioms(o, o.getReferencingAxioms(e));
+        }
+        assertTrue(o.getSignature().isEmpty());
+        assertTrue(o.getAnnotationPropertiesInSignature().isEmpty());
+        assertEquals(copy, before);
+        assertEquals(propertiesCopy, properties);
+        manager.addAxiom(o, SubClassOf(cls(1), cls(2)));
+        assertEquals(2, o.getSignature().size());
+    }
+}
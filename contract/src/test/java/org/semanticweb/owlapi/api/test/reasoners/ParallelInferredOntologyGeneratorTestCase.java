@@ -0,0 +1,229 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.api.test.reasoners;
+
+import static org.junit.Assert.*;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.api.test.Factory;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.reasoner.BufferingMode;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.SimpleConfiguration;
+import org.semanticweb.owlapi.reasoner.structural.StructuralReasoner;
+import org.semanticweb.owlapi.util.InferredAxiomGenerator;
+import org.semanticweb.owlapi.util.InferredAxiomSink;
+import org.semanticweb.owlapi.util.InferredOntologyGenerator;
+import org.semanticweb.owlapi.util.InferredSubClassAxiomGenerator;
+
+@SuppressWarnings("javadoc")
+public class ParallelInferredOntologyGeneratorTestCase {
+    private static final String NS = "http://www.semanticweb.org/owlapi/test/inferred#";
+    private OWLOntologyManager manager;
+    private OWLOntology ontology;
+    private OWLReasoner reasoner;
+    private ExecutorService executor;
+
+    private static OWLClass cls(int i) {
+        return Class(IRI.create(NS + "C" + i));
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        manager = Factory.getManager();
+        ontology = manager.createOntology(IRI.create(NS));
+        for (int i = 1; i < 500; i++) {
+            manager.addAxiom(ontology, SubClassOf(cls(i), cls((i - 1) / 3)));
+            manager.addAxiom(ontology, ClassAssertion(cls(i),
+                    NamedIndividual(IRI.create(NS + "i" + i))));
+        }
+        manager.addAxiom(ontology, EquivalentClasses(cls(7), cls(500)));
+        StructuralReasoner structural = new StructuralReasoner(ontology,
+                new SimpleConfiguration(), BufferingMode.BUFFERING);
+        structural.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        reasoner = synchronizedReasoner(structural);
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    /** the structural reasoner does not support concurrent queries */
+    private static OWLReasoner synchronizedReasoner(OWLReasoner reasoner) {
+        return synchronizedReasoner(reasoner, new AtomicInteger());
+    }
+
+    private static OWLReasoner synchronizedReasoner(final OWLReasoner reasoner,
+            final AtomicInteger calls) {
+        return (OWLReasoner) Proxy.newProxyInstance(OWLReasoner.class.getClassLoader(),
+                new Class<?>[] { OWLReasoner.class }, new InvocationHandler() {
+                    @Override
+                    public synchronized Object invoke(Object proxy, Method method,
+                            Object[] args) throws Throwable {
+                        calls.incrementAndGet();
+                        try {
+                            return method.invoke(reasoner, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                });
+    }
+
+    private Set<OWLAxiom> fill(Executor executorToUse, int batchSize) throws Exception {
+        OWLOntology target = manager.createOntology();
+        InferredOntologyGenerator generator = new InferredOntologyGenerator(reasoner);
+        if (batchSize == 0) {
+            generator.fillOntology(manager, target);
+        } else {
+            generator.fillOntology(manager, target, executorToUse, batchSize);
+        }
+        return target.getAxioms();
+    }
+
+    @Test
+    public void shouldAddTheSameAxiomsInParallel() throws Exception {
+        Set<OWLAxiom> expected = fill(null, 0);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, fill(null, 100));
+        assertEquals(expected, fill(executor, 100));
+        assertEquals(expected, fill(executor, 1));
+    }
+
+    @Test
+    public void shouldApplyChangesOnTheCallingThreadAfterGeneration() throws Exception {
+        Set<OWLAxiom> expected = new HashSet<OWLAxiom>(ontology.getAxioms());
+        expected.addAll(fill(null, 0));
+        // changes to the root ontology are flushed into this reasoner at once
+        OWLReasoner nonBuffering = synchronizedReasoner(new StructuralReasoner(ontology,
+                new SimpleConfiguration(), BufferingMode.NON_BUFFERING));
+        final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+        OWLOntologyChangeListener listener = new OWLOntologyChangeListener() {
+            @Override
+            public void ontologiesChanged(List<? extends OWLOntologyChange> changes) {
+                threads.add(Thread.currentThread());
+            }
+        };
+        manager.addOntologyChangeListener(listener);
+        new InferredOntologyGenerator(nonBuffering).fillOntology(manager, ontology,
+                executor, 10);
+        manager.removeOntologyChangeListener(listener);
+        assertEquals(Collections.singleton(Thread.currentThread()), threads);
+        assertEquals(expected, ontology.getAxioms());
+    }
+
+    @Test
+    public void shouldApplyBatchesWhileGeneratingForOtherOntologies() throws Exception {
+        Set<OWLAxiom> expected = fill(null, 0);
+        final AtomicInteger calls = new AtomicInteger();
+        InferredOntologyGenerator generator = new InferredOntologyGenerator(
+                synchronizedReasoner(reasoner, calls));
+        final List<Integer> callsAtChange = new ArrayList<Integer>();
+        OWLOntologyChangeListener listener = new OWLOntologyChangeListener() {
+            @Override
+            public void ontologiesChanged(List<? extends OWLOntologyChange> changes) {
+                callsAtChange.add(calls.get());
+            }
+        };
+        OWLOntology target = manager.createOntology();
+        manager.addOntologyChangeListener(listener);
+        // runs each task when it is submitted, so that the order is fixed
+        generator.fillOntology(manager, target, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        }, 10);
+        manager.removeOntologyChangeListener(listener);
+        assertEquals(expected, target.getAxioms());
+        assertTrue(callsAtChange.size() > 1);
+        // the first batches are added before the reasoner has answered all queries
+        assertTrue(callsAtChange.get(0) < calls.get());
+    }
+
+    @Test
+    public void shouldStreamBoundedBatches() throws Exception {
+        InferredOntologyGenerator generator = new InferredOntologyGenerator(reasoner,
+                new ArrayList<InferredAxiomGenerator<? extends OWLAxiom>>());
+        generator.addGenerator(new InferredSubClassAxiomGenerator());
+        final Set<OWLAxiom> streamed = new HashSet<OWLAxiom>();
+        final List<Integer> sizes = new ArrayList<Integer>();
+        generator.generateAxioms(manager, executor, 10, new InferredAxiomSink() {
+            @Override
+            public void addAxioms(Collection<? extends OWLAxiom> axioms) {
+                streamed.addAll(axioms);
+                sizes.add(axioms.size());
+            }
+        });
+        assertEquals(new InferredSubClassAxiomGenerator().createAxioms(manager, reasoner),
+                streamed);
+        assertTrue(sizes.size() > 1);
+        for (int size : sizes) {
+            // a class of this hierarchy has at most one direct superclass
+            assertTrue(size <= 10);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.api.test.reasoners;
+
+import static org.junit.Assert.*;
+import static org.semanticweb.owlapi.api.test.RandomAxiomGenerator.cls;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.api.test.Factory;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.reasoner.BufferingMode;
+import org.semanticweb.owlapi.reasoner.SimpleConfiguration;
+import org.semanticweb.owlapi.reasoner.structural.StructuralReasoner;
+
+@SuppressWarnings("javadoc")
+public class StructuralReasonerIncrementalTestCase {
+    private static void assertSameHierarchy(StructuralReasoner incremental, OWLOntology ont,
+            List<OWLClass> classes) {
+        StructuralReasoner fresh = new StructuralReasoner(ont, new SimpleConfiguration(),
+                BufferingMode.BUFFERING);
+        assertEquals(fresh.getTopClassNode(), incremental.getTopClassNode());
+        assertEquals(fresh.getBottomClassNode(), incremental.getBottomClassNode());
+        for (OWLClass c : classes) {
+            assertEquals(c.toString(), fresh.getEquivalentClasses(c),
+                    incremental.getEquivalentClasses(c));
+            assertEquals(c.toString(), fresh.getSubClasses(c, true),
+                    incremental.getSubClasses(c, true));
+            assertEquals(c.toString(), fresh.getSuperClasses(c, true),
+                    incremental.getSuperClasses(c, true));
+            assertEquals(c.toString(), fresh.getSuperClasses(c, false),
+                    incremental.getSuperClasses(c, false));
+        }
+        fresh.dispose();
+    }
+
+    @Test
+    public void shouldMergeCycleThroughEntitiesOutsideTheChange()
+            throws OWLOntologyCreationException {
+        OWLOntologyManager m = Factory.getManager();
+        OWLOntology ont = m.createOntology();
+        m.addAxiom(ont, SubClassOf(cls(1), cls(2)));
+        m.addAxiom(ont, SubClassOf(cls(2), cls(3)));
+        m.addAxiom(ont, SubClassOf(cls(0), cls(1)));
+        StructuralReasoner reasoner = new StructuralReasoner(ont, new SimpleConfiguration(),
+                BufferingMode.NON_BUFFERING);
+        assertEquals(1, reasoner.getEquivalentClasses(cls(2)).getSize());
+        OWLAxiom closing = SubClassOf(cls(3), cls(1));
+        m.addAxiom(ont, closing);
+        // C2 is not mentioned by the new axiom but joins the cycle
+        assertEquals(3, reasoner.getEquivalentClasses(cls(2)).getSize());
+        assertTrue(reasoner.getSubClasses(cls(3), true).containsEntity(cls(0)));
+        assertTrue(reasoner.getSuperClasses(cls(0), true).containsEntity(cls(2)));
+        m.removeAxiom(ont, closing);
+        assertEquals(1, reasoner.getEquivalentClasses(cls(2)).getSize());
+        assertEquals(1, reasoner.getEquivalentClasses(cls(3)).getSize());
+        assertTrue(reasoner.getSuperClasses(cls(0), true).containsEntity(cls(1)));
+    }
+
+    @Test
+    public void shouldKeepTopNodeWhenChangingUnrelatedClasses()
+            throws OWLOntologyCreationException {
+        OWLOntologyManager m = Factory.getManager();
+        OWLOntology ont = m.createOntology();
+        m.addAxiom(ont, EquivalentClasses(OWLThing(), cls(0)));
+        m.addAxiom(ont, SubClassOf(cls(2), OWLNothing()));
+        StructuralReasoner reasoner = new StructuralReasoner(ont, new SimpleConfiguration(),
+                BufferingMode.NON_BUFFERING);
+        m.addAxiom(ont, SubClassOf(cls(3), cls(4)));
+        assertTrue(reasoner.getTopClassNode().contains(cls(0)));
+        assertTrue(reasoner.getSuperClasses(OWLNothing(), true).containsEntity(cls(2)));
+        assertTrue(reasoner.getSubClasses(cls(4), true).containsEntity(cls(3)));
+    }
+
+    @Test
+    public void shouldMatchFullRecomputationAfterRandomEdits()
+            throws OWLOntologyCreationException {
+        OWLOntologyManager m = Factory.getManager();
+        OWLOntology ont = m.createOntology();
+        List<OWLClass> classes = new ArrayList<OWLClass>();
+        for (int i = 0; i < 25; i++) {
+            classes.add(cls(i));
+            m.addAxiom(ont, Declaration(cls(i)));
+        }
+        classes.add(OWLThing());
+        classes.add(OWLNothing());
+        StructuralReasoner reasoner = new StructuralReasoner(ont, new SimpleConfiguration(),
+                BufferingMode.NON_BUFFERING);
+        Random random = new Random(17);
+        List<OWLAxiom> added = new ArrayList<OWLAxiom>();
+        for (int step = 0; step < 200; step++) {
+            if (!added.isEmpty() && random.nextInt(3) == 0) {
+                m.removeAxiom(ont, added.remove(random.nextInt(added.size())));
+            } else {
+                OWLClass sub = classes.get(random.nextInt(classes.size()));
+                OWLClass sup = classes.get(random.nextInt(classes.size()));
+                OWLAxiom ax = random.nextInt(5) == 0 ? EquivalentClasses(sub, sup)
+                        : SubClassOf(sub, sup);
+                if (!sub.equals(sup) && m.addAxiom(ont, ax).size() > 0) {
+                    added.add(ax);
+                }
+            }
+            assertSameHierarchy(reasoner, ont, classes);
+        }
+    }
+
+    @Test
+    public void shouldHandleDeepHierarchies() throws OWLOntologyCreationException {
+        OWLOntologyManager m = Factory.getManager();
+        OWLOntology ont = m.createOntology();
+        int depth = 20000;
+        for (int i = 1; i < depth; i++) {
+            m.addAxiom(ont, SubClassOf(cls(i), cls(i - 1)));
+        }
+        StructuralReasoner reasoner = new StructuralReasoner(ont, new SimpleConfiguration(),
+                BufferingMode.NON_BUFFERING);
+        // all named ancestors plus owl:Thing
+        assertEquals(depth, reasoner.getSuperClasses(cls(depth - 1), false).getNodes().size());
+        // all named descendants plus owl:Nothing
+        assertEquals(depth, reasoner.getSubClasses(cls(0), false).getNodes().size());
+        m.addAxiom(ont, SubClassOf(cls(0), cls(depth - 1)));
+        assertEquals(depth, reasoner.getEquivalentClasses(cls(depth / 2)).getSize());
+    }
+
+    @Test
+    public void shouldRemoveAnnotatedAxiomAddedAfterConstruction()
+            throws OWLOntologyCreationException {
+        OWLOntologyManager m = Factory.getManager();
+        OWLOntology ont = m.createOntology();
+        StructuralReasoner reasoner = new StructuralReasoner(ont, new SimpleConfiguration(),
+                BufferingMode.BUFFERING);
+        OWLAxiom annotated = SubClassOf(cls(1), cls(2), Collections.singleton(Annotation(
+                RDFSComment(), Literal("annotated"))));
+        m.addAxiom(ont, annotated);
+        reasoner.flush();
+        assertTrue(reasoner.getSuperClasses(cls(1), true).containsEntity(cls(2)));
+        m.removeAxiom(ont, annotated);
+        assertEquals(Collections.singleton(annotated.getAxiomWithoutAnnotations()),
+                reasoner.getPendingAxiomRemovals());
+        reasoner.flush();
+        assertFalse(reasoner.getReasonerAxioms().contains(
+                annotated.getAxiomWithoutAnnotations()));
+        assertTrue(reasoner.getReasonerAxioms().isEmpty());
+        assertFalse(reasoner.getSuperClasses(cls(1), true).containsEntity(cls(2)));
+    }
+}
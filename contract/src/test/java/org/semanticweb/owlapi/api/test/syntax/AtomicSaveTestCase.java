@@ -0,0 +1,171 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.api.test.syntax;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.io.OWLFunctionalSyntaxOntologyFormat;
+import org.semanticweb.owlapi.io.StringDocumentTarget;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyFormat;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLOntologyStorageException;
+import org.semanticweb.owlapi.util.AbstractOWLOntologyStorer;
+
+@SuppressWarnings("javadoc")
+public class AtomicSaveTestCase {
+    private File dir;
+    private File file;
+    private OWLOntologyManager manager;
+    private OWLOntology ontology;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = File.createTempFile("owlapi", "save");
+        assertTrue(dir.delete());
+        assertTrue(dir.mkdir());
+        file = new File(dir, "ontology.owl");
+        manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        ontology = manager.createOntology(IRI.create("http://www.example.org/save"));
+        for (int i = 0; i < 100; i++) {
+            manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(
+                    df.getOWLClass(IRI.create("http://www.example.org/save#C" + i)),
+                    df.getOWLClass(IRI.create("http://www.example.org/save#été"))));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        for (File f : dir.listFiles()) {
+            f.delete();
+        }
+        dir.delete();
+    }
+
+    private static String read(File f) throws IOException {
+        Reader reader = new InputStreamReader(new FileInputStream(f), "UTF-8");
+        try {
+            StringBuilder b = new StringBuilder();
+            char[] buffer = new char[4096];
+            int read;
+            while ((read = reader.read(buffer)) > 0) {
+                b.append(buffer, 0, read);
+            }
+            return b.toString();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static OWLOntologyFormat intermediateFileFormat() {
+        OWLOntologyFormat format = new OWLFunctionalSyntaxOntologyFormat();
+        format.setParameter(OWLOntologyFormat.USE_INTERMEDIATE_OUTPUT_FILE, "true");
+        return format;
+    }
+
+    @Test
+    public void shouldReplaceTheFileWithTheSameContent() throws Exception {
+        StringDocumentTarget expected = new StringDocumentTarget();
+        manager.saveOntology(ontology, new OWLFunctionalSyntaxOntologyFormat(), expected);
+        Writer w = new FileWriter(file);
+        w.write("previous content");
+        w.close();
+        manager.saveOntology(ontology, intermediateFileFormat(), IRI.create(file));
+        assertEquals(expected.toString(), read(file));
+        assertEquals(1, dir.listFiles().length);
+    }
+
+    @Test
+    public void shouldKeepTheFileIfStoringFails() throws Exception {
+        Writer w = new FileWriter(file);
+        w.write("previous content");
+        w.close();
+        AbstractOWLOntologyStorer failing = new AbstractOWLOntologyStorer() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public boolean canStoreOntology(OWLOntologyFormat ontologyFormat) {
+                return true;
+            }
+
+            @Override
+            @Deprecated
+            protected void storeOntology(OWLOntologyManager m, OWLOntology o,
+                    Writer writer, OWLOntologyFormat format)
+                    throws OWLOntologyStorageException {
+                storeOntology(o, writer, format);
+            }
+
+            @Override
+            protected void storeOntology(OWLOntology o, Writer writer,
+                    OWLOntologyFormat format) throws OWLOntologyStorageException {
+                try {
+                    writer.write("partial");
+                    writer.flush();
+                } catch (IOException e) {
+                    throw new OWLOntologyStorageException(e);
+                }
+                throw new OWLOntologyStorageException("failed");
+            }
+        };
+        try {
+            failing.storeOntology(ontology, IRI.create(file), intermediateFileFormat());
+            fail("the storer should have failed");
+        } catch (OWLOntologyStorageException e) {
+            // expected
+        }
+        assertEquals("previous content", read(file));
+        assertEquals(1, dir.listFiles().length);
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.api.test.syntax;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.coode.owlapi.binary.BinaryOWLParser;
+import org.coode.owlapi.binary.MappedOWLOntology;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.api.test.Factory;
+import org.semanticweb.owlapi.io.BinaryOWLOntologyFormat;
+import org.semanticweb.owlapi.io.FileDocumentSource;
+import org.semanticweb.owlapi.io.MappedOWLOntologyFormat;
+import org.semanticweb.owlapi.io.OWLFormatSniffer.Likelihood;
+import org.semanticweb.owlapi.io.OWLFunctionalSyntaxOntologyFormat;
+import org.semanticweb.owlapi.io.OWLOntologyDocumentPreview;
+import org.semanticweb.owlapi.io.OWLParserException;
+import org.semanticweb.owlapi.io.StreamDocumentSource;
+import org.semanticweb.owlapi.io.StreamDocumentTarget;
+import org.semanticweb.owlapi.io.StringDocumentSource;
+import org.semanticweb.owlapi.io.StringDocumentTarget;
+import org.semanticweb.owlapi.io.UnparsableOntologyException;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.MissingImportHandlingStrategy;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLOntologyStorageException;
+
+@SuppressWarnings("javadoc")
+public class BinaryOWLFormatTestCase {
+    private static final String INPUT = "Prefix(:=<http://www.example.org/binary#>)\n"
+            + "Prefix(xsd:=<http://www.w3.org/2001/XMLSchema#>)\n"
+            + "Prefix(rdfs:=<http://www.w3.org/2000/01/rdf-schema#>)\n"
+            + "Ontology(<http://www.example.org/binary> <http://www.example.org/binary/1.0>\n"
+            + "Import(<http://www.example.org/missing>)\n"
+            + "Annotation(rdfs:comment \"ontology annotation\"@en)\n"
+            + "Declaration(Class(:A)) Declaration(Class(:B)) Declaration(Class(:C))\n"
+            + "Declaration(ObjectProperty(:p)) Declaration(ObjectProperty(:q))\n"
+            + "Declaration(DataProperty(:d)) Declaration(NamedIndividual(:i))\n"
+            + "Declaration(Datatype(:age))\n"
+            + "SubClassOf(Annotation(rdfs:comment \"annotated\") :A "
+            + "ObjectIntersectionOf(:B ObjectSomeValuesFrom(ObjectInverseOf(:p) :C)))\n"
+            + "EquivalentClasses(:C ObjectUnionOf(ObjectComplementOf(:A) ObjectOneOf(:i)"
+            + " ObjectMinCardinality(2 :p :B) ObjectHasSelf(:q) ObjectHasValue(:p _:x)))\n"
+            + "SubClassOf(:B DataExactCardinality(1 :d DatatypeRestriction(xsd:integer xsd:minInclusive \"18\"^^xsd:integer)))\n"
+            + "SubClassOf(:B DataAllValuesFrom(:d DataUnionOf(DataOneOf(\"a\" \"b\"@fr) DataComplementOf(xsd:string))))\n"
+            + "DatatypeDefinition(:age DataIntersectionOf(xsd:integer xsd:int))\n"
+            + "SubObjectPropertyOf(ObjectPropertyChain(:p :q) :p)\n"
+            + "HasKey(:A (:p) (:d))\n"
+            + "DisjointUnion(:A :B :C)\n"
+            + "ClassAssertion(:A _:x)\n"
+            + "ObjectPropertyAssertion(:p :i _:x)\n"
+            + "NegativeDataPropertyAssertion(:d :i \"3.5\"^^xsd:double)\n"
+            + "AnnotationAssertion(rdfs:label :A \"A label with ünicode ☃\"@de)\n"
+            + "AnnotationAssertion(rdfs:seeAlso _:x <http://www.example.org/other>)\n"
+            + "DLSafeRule(Body(ClassAtom(:A Variable(:x)) DataPropertyAtom(:d Variable(:x) Variable(:y))"
+            + " BuiltInAtom(<http://www.w3.org/2003/11/swrlb#greaterThan> Variable(:y) \"18\"^^xsd:integer))"
+            + " Head(ClassAtom(:B Variable(:x)) SameIndividualAtom(Variable(:x) :i)))\n"
+            + ")";
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static OWLOntologyLoaderConfiguration silentImports() {
+        return new OWLOntologyLoaderConfiguration()
+                .setMissingImportHandlingStrategy(MissingImportHandlingStrategy.SILENT);
+    }
+
+    private static OWLOntology load(OWLOntologyManager m, byte[] bytes) throws Exception {
+        return m.loadOntologyFromOntologyDocument(new StreamDocumentSource(
+                new ByteArrayInputStream(bytes)), silentImports());
+    }
+
+    private static OWLOntology createOntology() throws Exception {
+        OWLOntology o = Factory.getManager().loadOntologyFromOntologyDocument(
+                new StringDocumentSource(INPUT), silentImports());
+        OWLDataFactory df = o.getOWLOntologyManager().getOWLDataFactory();
+        // annotations on annotations
+        OWLAnnotation nested = df.getOWLAnnotation(df.getRDFSComment(),
+                df.getOWLLiteral("nested"),
+                Collections.singleton(df.getOWLAnnotation(df.getRDFSLabel(),
+                        df.getOWLLiteral("deep"))));
+        o.getOWLOntologyManager().addAxiom(
+                o,
+                df.getOWLSubClassOfAxiom(df.getOWLClass(IRI
+                        .create("http://www.example.org/binary#C")), df
+                        .getOWLThing(), Collections.singleton(nested)));
+        return o;
+    }
+
+    private static byte[] save(OWLOntology o) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryOWLOntologyFormat format = new BinaryOWLOntologyFormat();
+        format.copyPrefixesFrom(o.getOWLOntologyManager().getOntologyFormat(o)
+                .asPrefixOWLOntologyFormat());
+        o.getOWLOntologyManager().saveOntology(o, format, new StreamDocumentTarget(out));
+        return out.toByteArray();
+    }
+
+    private static void assertSameOntology(OWLOntology expected, OWLOntology actual) {
+        assertEquals(expected.getOntologyID(), actual.getOntologyID());
+        assertEquals(expected.getImportsDeclarations(), actual.getImportsDeclarations());
+        assertEquals(expected.getAnnotations(), actual.getAnnotations());
+        // anonymous individuals keep their ids, so the axioms are equal
+        assertEquals(expected.getAxioms(), actual.getAxioms());
+    }
+
+    @Test
+    public void shouldRoundTripEveryConstruct() throws Exception {
+        OWLOntology o = createOntology();
+        OWLOntologyManager m = Factory.getManager();
+        OWLOntology o2 = load(m, save(o));
+        assertSameOntology(o, o2);
+        BinaryOWLOntologyFormat format = (BinaryOWLOntologyFormat) m.getOntologyFormat(o2);
+        assertEquals("http://www.example.org/binary#", format.getDefaultPrefix());
+    }
+
+    @Test
+    public void shouldRoundTripThroughFile() throws Exception {
+        OWLOntology o = createOntology();
+        File file = new File(folder.getRoot(), "snapshot.owlbin");
+        o.getOWLOntologyManager().saveOntology(o, new BinaryOWLOntologyFormat(),
+                IRI.create(file));
+        OWLOntology o2 = Factory.getManager().loadOntologyFromOntologyDocument(
+                new FileDocumentSource(file), silentImports());
+        assertSameOntology(o, o2);
+    }
+
+    @Test
+    public void shouldWriteSmallerDocumentsThanFunctionalSyntax() throws Exception {
+        OWLOntologyManager m = Factory.getManager();
+        OWLDataFactory df = m.getOWLDataFactory();
+        OWLOntology o = m.createOntology(IRI.create("http://www.example.org/binary"));
+        for (int i = 1; i < 1000; i++) {
+            OWLClass c = df.getOWLClass(IRI.create("http://www.example.org/binary#C" + i));
+            m.addAxiom(o, df.getOWLDeclarationAxiom(c));
+            m.addAxiom(o, df.getOWLSubClassOfAxiom(c, df.getOWLClass(IRI
+                    .create("http://www.example.org/binary#C" + i / 2))));
+            m.addAxiom(o, df.getOWLAnnotationAssertionAxiom(df.getRDFSLabel(),
+                    c.getIRI(), df.getOWLLiteral("class " + i, "en")));
+        }
+        StringDocumentTarget functional = new StringDocumentTarget();
+        m.saveOntology(o, new OWLFunctionalSyntaxOntologyFormat(), functional);
+        byte[] binary = save(o);
+        assertTrue(binary.length < functional.toString().length() / 2);
+    }
+
+    @Test
+    public void shouldSkipRecordsOfUnknownType() throws Exception {
+        OWLOntology o = createOntology();
+        byte[] bytes = save(o);
+        // insert a record of an unknown type before the end record
+        byte[] extended = Arrays.copyOf(bytes, bytes.length + 5);
+        System.arraycopy(new byte[] { (byte) 200, 3, 1, 2, 3, 0, 0 }, 0, extended,
+                bytes.length - 2, 7);
+        assertSameOntology(o, load(Factory.getManager(), extended));
+    }
+
+    @Test(expected = UnparsableOntologyException.class)
+    public void shouldRejectTruncatedDocuments() throws Exception {
+        byte[] bytes = save(createOntology());
+        load(Factory.getManager(), Arrays.copyOf(bytes, bytes.length / 2));
+    }
+
+    @Test(expected = OWLParserException.class)
+    public void shouldFailWhenTheContentCannotBeAdded() throws Exception {
+        OWLOntology o = createOntology();
+        byte[] bytes = save(o);
+        File file = new File(folder.getRoot(), "snapshot.owlmap");
+        o.getOWLOntologyManager().saveOntology(o, new MappedOWLOntologyFormat(),
+                IRI.create(file));
+        // mapped ontologies reject every change
+        OWLOntology mapped = Factory.getManager().loadOntologyFromOntologyDocument(
+                new FileDocumentSource(file), silentImports());
+        assertTrue(mapped instanceof MappedOWLOntology);
+        new BinaryOWLParser().parse(new StreamDocumentSource(new ByteArrayInputStream(
+                bytes)), mapped, silentImports());
+    }
+
+    @Test(expected = OWLOntologyStorageException.class)
+    public void shouldRejectCharacterTargets() throws Exception {
+        OWLOntology o = createOntology();
+        o.getOWLOntologyManager().saveOntology(o, new BinaryOWLOntologyFormat(),
+                new StringDocumentTarget());
+    }
+
+    @Test
+    public void shouldRecogniseBinaryDocuments() throws Exception {
+        byte[] bytes = save(createOntology());
+        BinaryOWLParser parser = new BinaryOWLParser();
+        assertEquals(Likelihood.LIKELY, parser.getFormatLikelihood(OWLOntologyDocumentPreview
+                .read(new StreamDocumentSource(new ByteArrayInputStream(bytes)))));
+        assertEquals(Likelihood.IMPOSSIBLE, parser
+                .getFormatLikelihood(OWLOntologyDocumentPreview
+                        .read(new StringDocumentSource(INPUT))));
+    }
+}
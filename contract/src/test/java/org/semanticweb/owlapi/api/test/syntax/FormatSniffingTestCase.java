@@ -0,0 +1,158 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.api.test.syntax;
+
+import static org.junit.Assert.*;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.*;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.coode.owlapi.manchesterowlsyntax.ManchesterOWLSyntaxOntologyFormat;
+import org.coode.owlapi.obo.parser.OBOOntologyFormat;
+import org.coode.owlapi.turtle.TurtleOntologyFormat;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.semanticweb.owlapi.api.test.Factory;
+import org.semanticweb.owlapi.io.OWLFormatSniffer;
+import org.semanticweb.owlapi.io.OWLFormatSniffer.Likelihood;
+import org.semanticweb.owlapi.io.OWLFunctionalSyntaxOntologyFormat;
+import org.semanticweb.owlapi.io.OWLOntologyDocumentPreview;
+import org.semanticweb.owlapi.io.OWLParser;
+import org.semanticweb.owlapi.io.OWLXMLOntologyFormat;
+import org.semanticweb.owlapi.io.RDFXMLOntologyFormat;
+import org.semanticweb.owlapi.io.StringDocumentSource;
+import org.semanticweb.owlapi.io.StringDocumentTarget;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyFormat;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import uk.ac.manchester.cs.owl.owlapi.ParsableOWLOntologyFactory;
+import de.uulm.ecs.ai.owlapi.krssparser.KRSS2OntologyFormat;
+
+@RunWith(Parameterized.class)
+@SuppressWarnings("javadoc")
+public class FormatSniffingTestCase {
+    private final OWLOntologyFormat format;
+
+    public FormatSniffingTestCase(OWLOntologyFormat format) {
+        this.format = format;
+    }
+
+    @Parameters
+    public static Collection<Object[]> formats() {
+        return Arrays.asList(new Object[] { new RDFXMLOntologyFormat() },
+                new Object[] { new OWLXMLOntologyFormat() },
+                new Object[] { new OWLFunctionalSyntaxOntologyFormat() },
+                new Object[] { new ManchesterOWLSyntaxOntologyFormat() },
+                new Object[] { new TurtleOntologyFormat() },
+                new Object[] { new OBOOntologyFormat() },
+                new Object[] { new KRSS2OntologyFormat() });
+    }
+
+    /** exposes the parser ranking */
+    private static class RankingFactory extends ParsableOWLOntologyFactory {
+        private static final long serialVersionUID = 1L;
+
+        RankingFactory(OWLOntologyManager manager) {
+            setOWLOntologyManager(manager);
+        }
+
+        List<OWLParser> rank(StringDocumentSource source) {
+            return rankParsers(getParsers(), source);
+        }
+    }
+
+    private String save() throws Exception {
+        OWLOntologyManager m = Factory.getManager();
+        OWLOntology o = m.createOntology(IRI("http://www.example.org/sniffing"));
+        OWLClass a = Class(IRI("http://www.example.org/sniffing#A"));
+        OWLClass b = Class(IRI("http://www.example.org/sniffing#B"));
+        m.addAxiom(o, Declaration(a));
+        m.addAxiom(o, Declaration(b));
+        m.addAxiom(o, SubClassOf(a, b));
+        StringDocumentTarget target = new StringDocumentTarget();
+        m.saveOntology(o, format, target);
+        return target.toString();
+    }
+
+    @Test
+    public void shouldRankMatchingParserFirst() throws Exception {
+        StringDocumentSource source = new StringDocumentSource(save());
+        OWLOntologyManager m = Factory.getManager();
+        List<OWLParser> ranked = new RankingFactory(m).rank(source);
+        OWLParser first = ranked.get(0);
+        assertTrue(first instanceof OWLFormatSniffer);
+        assertEquals(Likelihood.LIKELY,
+                ((OWLFormatSniffer) first).getFormatLikelihood(OWLOntologyDocumentPreview
+                        .read(source)));
+        OWLOntologyFormat parsed = first.parse(source, m.createOntology());
+        assertEquals(format.getClass(), parsed.getClass());
+    }
+
+    @Test
+    public void shouldLoadWithSniffedParser() throws Exception {
+        OWLOntologyManager m = Factory.getManager();
+        OWLOntology o = m.loadOntologyFromOntologyDocument(new StringDocumentSource(save()));
+        assertEquals(format.getClass(), m.getOntologyFormat(o).getClass());
+    }
+
+    @Test
+    public void shouldPreviewXMLRootThroughEntities() {
+        String rdf = "<?xml version=\"1.0\"?>\n<!-- comment -->\n<!DOCTYPE rdf:RDF [\n"
+                + "<!ENTITY rdf \"http://www.w3.org/1999/02/22-rdf-syntax-ns#\" >\n]>\n"
+                + "<rdf:RDF xmlns:rdf=\"&rdf;\" xml:base=\"http://www.example.org/\">";
+        OWLOntologyDocumentPreview preview = OWLOntologyDocumentPreview
+                .read(new StringDocumentSource(rdf));
+        assertTrue(preview.isXML());
+        assertEquals("RDF", preview.getRootElementName());
+        assertEquals("http://www.w3.org/1999/02/22-rdf-syntax-ns#",
+                preview.getRootElementNamespace());
+        assertEquals("http://www.example.org/",
+                preview.getRootElementAttributes().get("xml:base"));
+        OWLOntologyDocumentPreview turtle = OWLOntologyDocumentPreview
+                .read(new StringDocumentSource("<http://a.org/a> <http://a.org/b> <http://a.org/c> ."));
+        assertFalse(turtle.isXML());
+        assertEquals('<', turtle.getFirstSignificantChar("#"));
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.api.test.syntax;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.coode.owlapi.binary.MappedOWLOntology;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.api.test.Factory;
+import org.semanticweb.owlapi.io.FileDocumentSource;
+import org.semanticweb.owlapi.io.MappedOWLOntologyFormat;
+import org.semanticweb.owlapi.io.StringDocumentSource;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.ImmutableOWLOntologyChangeException;
+import org.semanticweb.owlapi.model.MissingImportHandlingStrategy;
+import org.semanticweb.owlapi.model.OWLAnonymousIndividual;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+@SuppressWarnings("javadoc")
+public class MappedOWLFormatTestCase {
+    private static final String NS = "http://www.example.org/mapped#";
+    private static final String INPUT = "Prefix(:=<" + NS + ">)\n"
+            + "Prefix(xsd:=<http://www.w3.org/2001/XMLSchema#>)\n"
+            + "Prefix(rdfs:=<http://www.w3.org/2000/01/rdf-schema#>)\n"
+            + "Ontology(<http://www.example.org/mapped> <http://www.example.org/mapped/1.0>\n"
+            + "Import(<http://www.example.org/missing>)\n"
+            + "Annotation(rdfs:comment \"ontology annotation\"@en)\n"
+            + "Declaration(Class(:A)) Declaration(Class(:B)) Declaration(Class(:C))\n"
+            + "Declaration(ObjectProperty(:p)) Declaration(DataProperty(:d))\n"
+            + "Declaration(NamedIndividual(:i)) Declaration(Datatype(:age))\n"
+            + "SubClassOf(Annotation(rdfs:comment \"annotated\") :A "
+            + "ObjectIntersectionOf(:B ObjectSomeValuesFrom(ObjectInverseOf(:p) :C)))\n"
+            + "SubClassOf(:B :C)\n"
+            + "SubClassOf(ObjectSomeValuesFrom(:p :A) :B)\n"
+            + "EquivalentClasses(:C ObjectUnionOf(ObjectComplementOf(:A) ObjectOneOf(:i)))\n"
+            + "SubClassOf(:B DataSomeValuesFrom(:d :age))\n"
+            + "DatatypeDefinition(:age DataIntersectionOf(xsd:integer xsd:int))\n"
+            + "ClassAssertion(:A _:x)\n"
+            + "ObjectPropertyAssertion(:p :i _:x)\n"
+            + "AnnotationAssertion(rdfs:label :A \"A label with ünicode ☃\"@de)\n"
+            + "AnnotationAssertion(rdfs:seeAlso _:x <http://www.example.org/other>)\n"
+            + ")";
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static OWLOntologyLoaderConfiguration silentImports() {
+        return new OWLOntologyLoaderConfiguration()
+                .setMissingImportHandlingStrategy(MissingImportHandlingStrategy.SILENT);
+    }
+
+    private static OWLOntology createOntology() throws Exception {
+        return Factory.getManager().loadOntologyFromOntologyDocument(
+                new StringDocumentSource(INPUT), silentImports());
+    }
+
+    private OWLOntology saveAndMap(OWLOntology o) throws Exception {
+        File file = folder.newFile("snapshot.owlmap");
+        MappedOWLOntologyFormat format = new MappedOWLOntologyFormat();
+        format.copyPrefixesFrom(o.getOWLOntologyManager().getOntologyFormat(o)
+                .asPrefixOWLOntologyFormat());
+        o.getOWLOntologyManager().saveOntology(o, format, IRI.create(file));
+        OWLOntology mapped = Factory.getManager().loadOntologyFromOntologyDocument(
+                new FileDocumentSource(file), silentImports());
+        assertTrue(mapped instanceof MappedOWLOntology);
+        return mapped;
+    }
+
+    @Test
+    public void shouldMapEveryAxiom() throws Exception {
+        OWLOntology o = createOntology();
+        OWLOntology mapped = saveAndMap(o);
+        assertEquals(o.getOntologyID(), mapped.getOntologyID());
+        assertEquals(o.getImportsDeclarations(), mapped.getImportsDeclarations());
+        assertEquals(o.getAnnotations(), mapped.getAnnotations());
+        assertEquals(o.getAxioms(), mapped.getAxioms());
+        assertEquals(o.getAxiomCount(), mapped.getAxiomCount());
+        assertEquals(o.getLogicalAxioms(), mapped.getLogicalAxioms());
+        assertEquals(o.getLogicalAxiomCount(), mapped.getLogicalAxiomCount());
+        assertEquals(o.getGeneralClassAxioms(), mapped.getGeneralClassAxioms());
+        for (AxiomType<?> type : AxiomType.AXIOM_TYPES) {
+            assertEquals(o.getAxioms(type), mapped.getAxioms(type));
+            assertEquals(o.getAxiomCount(type), mapped.getAxiomCount(type));
+        }
+        MappedOWLOntologyFormat format = (MappedOWLOntologyFormat) mapped
+                .getOWLOntologyManager().getOntologyFormat(mapped);
+        assertEquals(NS, format.getDefaultPrefix());
+    }
+
+    @Test
+    public void shouldAnswerIndexedQueries() throws Exception {
+        OWLOntology o = createOntology();
+        OWLOntology mapped = saveAndMap(o);
+        assertEquals(o.getSignature(), mapped.getSignature());
+        for (OWLEntity e : o.getSignature()) {
+            assertEquals(e.toString(), o.getReferencingAxioms(e),
+                    mapped.getReferencingAxioms(e));
+            assertEquals(o.getDeclarationAxioms(e), mapped.getDeclarationAxioms(e));
+            assertEquals(o.isDeclared(e), mapped.isDeclared(e));
+            assertTrue(mapped.containsEntityInSignature(e));
+        }
+        for (OWLClass c : o.getClassesInSignature()) {
+            assertEquals(o.getSubClassAxiomsForSubClass(c),
+                    mapped.getSubClassAxiomsForSubClass(c));
+            assertEquals(o.getSubClassAxiomsForSuperClass(c),
+                    mapped.getSubClassAxiomsForSuperClass(c));
+        }
+        for (OWLAnonymousIndividual i : o.getReferencedAnonymousIndividuals()) {
+            assertEquals(o.getReferencingAxioms(i), mapped.getReferencingAxioms(i));
+        }
+        for (OWLAxiom ax : o.getAxioms()) {
+            assertTrue(ax.toString(), mapped.containsAxiom(ax));
+        }
+        OWLDataFactory df = o.getOWLOntologyManager().getOWLDataFactory();
+        OWLClass unknown = df.getOWLClass(IRI.create(NS + "Unknown"));
+        OWLClass a = df.getOWLClass(IRI.create(NS + "A"));
+        OWLClass c = df.getOWLClass(IRI.create(NS + "C"));
+        assertFalse(mapped.containsAxiom(df.getOWLSubClassOfAxiom(a, c)));
+        assertFalse(mapped.containsAxiom(df.getOWLSubClassOfAxiom(unknown, c)));
+        assertFalse(mapped.containsEntityInSignature(unknown));
+        assertTrue(mapped.getReferencingAxioms(unknown).isEmpty());
+    }
+
+    @Test
+    public void shouldShareOneFileBetweenManagers() throws Exception {
+        OWLOntology o = createOntology();
+        File file = folder.newFile("shared.owlmap");
+        o.getOWLOntologyManager().saveOntology(o, new MappedOWLOntologyFormat(),
+                IRI.create(file));
+        Set<OWLAxiom> axioms = new HashSet<OWLAxiom>();
+        for (int i = 0; i < 3; i++) {
+            OWLOntologyManager m = Factory.getManager();
+            OWLOntology mapped = m.loadOntologyFromOntologyDocument(
+                    new FileDocumentSource(file), silentImports());
+            if (i == 0) {
+                axioms.addAll(mapped.getAxioms());
+            } else {
+                assertEquals(axioms, mapped.getAxioms());
+            }
+        }
+    }
+
+    @Test(expected = ImmutableOWLOntologyChangeException.class)
+    public void shouldRejectChanges() throws Exception {
+        OWLOntology mapped = saveAndMap(createOntology());
+        OWLDataFactory df = mapped.getOWLOntologyManager().getOWLDataFactory();
+        mapped.getOWLOntologyManager().addAxiom(
+                mapped,
+                df.getOWLDeclarationAxiom(df.getOWLClass(IRI.create(NS + "D")),
+                        Collections.singleton(df.getOWLAnnotation(df.getRDFSLabel(),
+                                df.getOWLLiteral("d")))));
+    }
+
+    @Test
+    public void shouldSerializeMappedContentInMemory() throws Exception {
+        OWLOntology o = createOntology();
+        OWLOntology mapped = saveAndMap(o);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ObjectOutputStream stream = new ObjectOutputStream(out);
+        stream.writeObject(mapped);
+        stream.flush();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(
+                out.toByteArray()));
+        OWLOntology copy = (OWLOntology) in.readObject();
+        assertEquals(o.getOntologyID(), copy.getOntologyID());
+        assertEquals(o.getImportsDeclarations(), copy.getImportsDeclarations());
+        assertEquals(o.getAnnotations(), copy.getAnnotations());
+        assertEquals(o.getAxioms(), copy.getAxioms());
+        assertEquals(o.getSignature(), copy.getSignature());
+        for (OWLClass c : o.getClassesInSignature()) {
+            assertEquals(o.getSubClassAxiomsForSubClass(c),
+                    copy.getSubClassAxiomsForSubClass(c));
+            assertEquals(o.getReferencingAxioms(c), copy.getReferencingAxioms(c));
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.api.test.syntax;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.coode.owlapi.manchesterowlsyntax.ManchesterOWLSyntaxOntologyFormat;
+import org.coode.owlapi.turtle.TurtleOntologyFormat;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.io.OWLFunctionalSyntaxOntologyFormat;
+import org.semanticweb.owlapi.io.RDFXMLOntologyFormat;
+import org.semanticweb.owlapi.io.StringDocumentTarget;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyFormat;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+@SuppressWarnings("javadoc")
+public class ParallelRenderingTestCase {
+    private static final String NS = "http://www.example.org/parallel#";
+    private static ExecutorService executor;
+    private static OWLOntology ontology;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        executor = Executors.newFixedThreadPool(4);
+        ontology = createOntology(OWLManager.createOWLOntologyManager());
+    }
+
+    private static OWLOntology createOntology(OWLOntologyManager manager)
+            throws Exception {
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology(IRI.create(NS));
+        OWLObjectProperty p = df.getOWLObjectProperty(IRI.create(NS + "p"));
+        manager.addAxiom(ontology, df.getOWLInverseObjectPropertiesAxiom(p,
+                df.getOWLObjectProperty(IRI.create(NS + "q"))));
+        manager.addAxiom(ontology,
+                df.getOWLSubObjectPropertyOfAxiom(df.getOWLObjectInverseOf(p), p));
+        for (int i = 0; i < 200; i++) {
+            OWLClass a = df.getOWLClass(IRI.create(NS + "C" + i));
+            OWLClass b = df.getOWLClass(IRI.create(NS + "C" + (i + 1) % 200));
+            OWLClass c = df.getOWLClass(IRI.create(NS + "C" + (i * 7) % 200));
+            OWLNamedIndividual ind = df.getOWLNamedIndividual(IRI.create(NS + "i" + i));
+            manager.addAxiom(ontology, df.getOWLDeclarationAxiom(a));
+            manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(a,
+                    df.getOWLObjectSomeValuesFrom(p, df.getOWLObjectUnionOf(b, c))));
+            if (i % 3 == 0) {
+                manager.addAxiom(ontology, df.getOWLEquivalentClassesAxiom(a,
+                        df.getOWLObjectIntersectionOf(b, df.getOWLObjectComplementOf(c))));
+            }
+            if (i % 5 == 0) {
+                // n-ary disjointness is written after the frames, in an order
+                // that varies from run to run
+                manager.addAxiom(ontology, df.getOWLDisjointClassesAxiom(a, c));
+            }
+            manager.addAxiom(ontology, df.getOWLAnnotationAssertionAxiom(a.getIRI(), df
+                    .getOWLAnnotation(df.getRDFSComment(), df.getOWLLiteral(
+                            "a comment long enough to be wrapped by the renderers "
+                                    + "that wrap long literals, number " + i, "en"))));
+            manager.addAxiom(ontology, df.getOWLClassAssertionAxiom(a, ind));
+            manager.addAxiom(ontology, df.getOWLObjectPropertyAssertionAxiom(p, ind,
+                    df.getOWLNamedIndividual(IRI.create(NS + "i" + (i + 1) % 200))));
+        }
+        return ontology;
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        executor.shutdown();
+    }
+
+    private static String save(OWLOntologyFormat format) throws Exception {
+        return save(ontology, format);
+    }
+
+    private static String save(OWLOntology o, OWLOntologyFormat format)
+            throws Exception {
+        StringDocumentTarget target = new StringDocumentTarget();
+        o.getOWLOntologyManager().saveOntology(o, format, target);
+        return target.toString();
+    }
+
+    private static void assertSameOutput(OWLOntologyFormat sequential,
+            OWLOntologyFormat parallel) throws Exception {
+        parallel.setParameter(OWLOntologyFormat.RENDERING_EXECUTOR, executor);
+        assertEquals(save(sequential), save(parallel));
+    }
+
+    /** compact internals build their lazy indexes from one shared id
+     * interner; fresh ontologies make the first parallel rendering build all
+     * of them concurrently. RDF syntaxes are left out: blank node ids are
+     * identity hash codes, so two ontologies do not render identically */
+    private static void assertSameCompactOutput(OWLOntologyFormat sequential,
+            OWLOntologyFormat parallel) throws Exception {
+        parallel.setParameter(OWLOntologyFormat.RENDERING_EXECUTOR, executor);
+        assertEquals(save(createCompactOntology(), sequential),
+                save(createCompactOntology(), parallel));
+    }
+
+    private static OWLOntology createCompactOntology() throws Exception {
+        return createOntology(OWLManager.createOWLOntologyManager(
+                OWLManager.getOWLDataFactory(), true));
+    }
+
+    @Test
+    public void shouldRenderRDFXMLInParallel() throws Exception {
+        assertSameOutput(new RDFXMLOntologyFormat(), new RDFXMLOntologyFormat());
+    }
+
+    @Test
+    public void shouldRenderTurtleInParallel() throws Exception {
+        assertSameOutput(new TurtleOntologyFormat(), new TurtleOntologyFormat());
+    }
+
+    @Test
+    public void shouldRenderFunctionalSyntaxInParallel() throws Exception {
+        assertSameOutput(new OWLFunctionalSyntaxOntologyFormat(),
+                new OWLFunctionalSyntaxOntologyFormat());
+    }
+
+    @Test
+    public void shouldRenderManchesterSyntaxInParallel() throws Exception {
+        assertSameOutput(new ManchesterOWLSyntaxOntologyFormat(),
+                new ManchesterOWLSyntaxOntologyFormat());
+    }
+
+    @Test
+    public void shouldRenderCompactFunctionalSyntaxInParallel() throws Exception {
+        assertSameCompactOutput(new OWLFunctionalSyntaxOntologyFormat(),
+                new OWLFunctionalSyntaxOntologyFormat());
+    }
+
+    @Test
+    public void shouldRenderCompactManchesterSyntaxInParallel() throws Exception {
+        assertSameCompactOutput(new ManchesterOWLSyntaxOntologyFormat(),
+                new ManchesterOWLSyntaxOntologyFormat());
+    }
+}
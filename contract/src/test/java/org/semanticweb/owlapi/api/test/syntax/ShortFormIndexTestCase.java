@@ -0,0 +1,112 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.api.test.syntax;
+
+import static org.junit.Assert.*;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.api.test.Factory;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.util.IndexedBidirectionalShortFormProviderAdapter;
+import org.semanticweb.owlapi.util.ShortFormIndex;
+import org.semanticweb.owlapi.util.SimpleShortFormProvider;
+
+@SuppressWarnings("javadoc")
+public class ShortFormIndexTestCase {
+    private static final String NS = "http://www.example.org/index#";
+
+    private static OWLClass cls(String name) {
+        return Class(IRI.create(NS + name));
+    }
+
+    @Test
+    public void shouldFindShortFormsByPrefix() {
+        ShortFormIndex index = new ShortFormIndex();
+        for (String name : new String[] { "Pizza", "PizzaBase", "pizzeria", "Pasta",
+                "Piz", "Topping" }) {
+            index.add(name, cls(name));
+        }
+        OWLClass other = cls("OtherPizza");
+        index.add("Pizza", other);
+        assertEquals(Arrays.asList("Piz", "Pizza", "PizzaBase"),
+                index.getShortFormsWithPrefix("Piz", false, 10));
+        assertEquals(Arrays.asList("Piz", "Pizza"),
+                index.getShortFormsWithPrefix("Piz", false, 2));
+        assertEquals(Arrays.asList("Piz", "Pizza", "PizzaBase", "pizzeria"),
+                index.getShortFormsWithPrefix("PIZ", true, 10));
+        assertEquals(Collections.emptyList(), index.getShortFormsWithPrefix("Q", true, 10));
+        assertEquals(2, index.getEntities("pizza", true).size());
+        assertTrue(index.getEntities("pizza", false).isEmpty());
+        assertEquals(3, index.getEntitiesWithPrefix("Pizz", false, 10).size());
+        assertEquals(2, index.getEntitiesWithPrefix("Pizz", false, 2).size());
+        index.remove("Pizza", cls("Pizza"));
+        assertEquals(Collections.singleton(other), index.getEntities("Pizza", false));
+        index.remove("Pizza", other);
+        assertEquals(Arrays.asList("Piz", "PizzaBase", "pizzeria"),
+                index.getShortFormsWithPrefix("piz", true, 10));
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    public void shouldFollowOntologyChanges() throws Exception {
+        OWLOntologyManager manager = Factory.getManager();
+        OWLOntology ontology = manager.createOntology(IRI.create(NS));
+        manager.addAxiom(ontology, Declaration(cls("Pizza")));
+        IndexedBidirectionalShortFormProviderAdapter provider = new IndexedBidirectionalShortFormProviderAdapter(
+                manager, Collections.singleton(ontology), new SimpleShortFormProvider());
+        ShortFormIndex index = provider.getShortFormIndex();
+        assertEquals(Arrays.asList("Pizza"), index.getShortFormsWithPrefix("Pi", false, 10));
+        OWLAxiom axiom = SubClassOf(cls("PizzaBase"), cls("Pizza"));
+        manager.addAxiom(ontology, axiom);
+        assertEquals(Arrays.asList("Pizza", "PizzaBase"),
+                index.getShortFormsWithPrefix("pi", true, 10));
+        manager.removeAxiom(ontology, axiom);
+        assertEquals(Arrays.asList("Pizza"), index.getShortFormsWithPrefix("Pi", false, 10));
+        provider.dispose();
+        assertEquals(0, index.size());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.api.test.syntax.rdf;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.semanticweb.owlapi.api.test.Factory;
+import org.semanticweb.owlapi.io.StreamDocumentSource;
+import org.semanticweb.owlapi.model.MissingImportHandlingStrategy;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
+
+@RunWith(Parameterized.class)
+@SuppressWarnings("javadoc")
+public class StreamingRDFConsumptionTestCase {
+    private final String resource;
+
+    public StreamingRDFConsumptionTestCase(String resource) {
+        this.resource = resource;
+    }
+
+    @Parameters
+    public static Collection<Object[]> getData() {
+        return Arrays.asList(new Object[][] { { "/streamingABox.ttl" },
+                { "/AnnotatedPropertyAssertions.rdf" }, { "/koala.owl" },
+                { "/primer.rdfxml.xml" }, { "/primer.turtle.rdf" },
+                { "/testBlankNodesAssertions.ttl" }, { "/TestDeclarations.rdf" },
+                { "/annotatedpropertychain.ttl.rdf" }, { "/dublincore.rdf" },
+                { "/DataHasValue.rdf" } });
+    }
+
+    /** Blank node ids and the names of error entities come from global counters,
+     * so they differ from one load to the next and are left out of the
+     * comparison. */
+    private List<String> load(OWLOntologyLoaderConfiguration config)
+            throws OWLOntologyCreationException {
+        OWLOntology ontology = Factory.getManager().loadOntologyFromOntologyDocument(
+                new StreamDocumentSource(getClass().getResourceAsStream(resource)),
+                config.setMissingImportHandlingStrategy(MissingImportHandlingStrategy.SILENT));
+        List<String> axioms = new ArrayList<String>();
+        for (OWLAxiom ax : ontology.getAxioms()) {
+            axioms.add(ax.toString().replaceAll("_:genid\\d+", "_:genid")
+                    .replaceAll("#Error\\d+", "#Error"));
+        }
+        Collections.sort(axioms);
+        return axioms;
+    }
+
+    @Test
+    public void shouldLoadSameAxiomsWhenStreaming() throws OWLOntologyCreationException {
+        OWLOntologyLoaderConfiguration config = new OWLOntologyLoaderConfiguration();
+        List<String> expected = load(config);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, load(config.setStreamingRDF(true)));
+    }
+
+    @Test
+    public void shouldLoadSameAxiomsWhenStreamingStrict() throws OWLOntologyCreationException {
+        OWLOntologyLoaderConfiguration config = new OWLOntologyLoaderConfiguration()
+                .setStrict(true);
+        assertEquals(load(config), load(config.setStreamingRDF(true)));
+    }
+}
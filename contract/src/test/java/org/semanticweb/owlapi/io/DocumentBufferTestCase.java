@@ -0,0 +1,157 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.semanticweb.owlapi.io;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+@SuppressWarnings("javadoc")
+public class DocumentBufferTestCase {
+    private static final int THRESHOLD = 1000;
+    private int oldThreshold;
+
+    @Before
+    public void setUp() {
+        oldThreshold = IOProperties.getInstance().getDocumentBufferThreshold();
+        IOProperties.getInstance().setDocumentBufferThreshold(THRESHOLD);
+    }
+
+    @After
+    public void tearDown() {
+        IOProperties.getInstance().setDocumentBufferThreshold(oldThreshold);
+    }
+
+    private static byte[] readAll(InputStream in) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] b = new byte[333];
+        int read;
+        while ((read = in.read(b)) > 0) {
+            out.write(b, 0, read);
+        }
+        in.close();
+        return out.toByteArray();
+    }
+
+    private static String readAll(Reader in) throws Exception {
+        StringBuilder b = new StringBuilder();
+        char[] c = new char[333];
+        int read;
+        while ((read = in.read(c)) > 0) {
+            b.append(c, 0, read);
+        }
+        in.close();
+        return b.toString();
+    }
+
+    @Test
+    public void shouldKeepSmallStreamsInMemory() throws Exception {
+        byte[] content = new byte[THRESHOLD];
+        new Random(1).nextBytes(content);
+        DocumentBuffer buffer = DocumentBuffer.read(new ByteArrayInputStream(content));
+        assertFalse(buffer.isSpilled());
+        assertArrayEquals(content, readAll(buffer.openStream()));
+        assertArrayEquals(content, readAll(buffer.openStream()));
+    }
+
+    @Test
+    public void shouldReplayLargeStreamsFromAFile() throws Exception {
+        // larger than one chunk, not a multiple of it
+        byte[] content = new byte[150000];
+        new Random(2).nextBytes(content);
+        DocumentBuffer buffer = DocumentBuffer.read(new ByteArrayInputStream(content));
+        assertTrue(buffer.isSpilled());
+        assertArrayEquals(content, readAll(buffer.openStream()));
+        assertArrayEquals(content, readAll(buffer.openStream()));
+    }
+
+    @Test
+    public void shouldReplayLargeReadersFromAFile() throws Exception {
+        StringBuilder b = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            b.append("Grüße αβγ 𝄞 ").append(i);
+        }
+        String content = b.toString();
+        DocumentBuffer buffer = DocumentBuffer.read(new StringReader(content));
+        assertTrue(buffer.isSpilled());
+        assertEquals(content, readAll(buffer.openReader()));
+        assertEquals(content, readAll(buffer.openReader()));
+        buffer = DocumentBuffer.read(new StringReader("small"));
+        assertFalse(buffer.isSpilled());
+        assertEquals("small", readAll(buffer.openReader()));
+    }
+
+    @Test
+    public void shouldLoadOntologiesFromSpilledSources() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLOntology o = manager.createOntology(IRI.create("http://www.example.org/spill"));
+        for (int i = 0; i < 200; i++) {
+            manager.addAxiom(o, df.getOWLSubClassOfAxiom(
+                    df.getOWLClass(IRI.create("http://www.example.org/spill#C" + i)),
+                    df.getOWLClass(IRI.create("http://www.example.org/spill#C" + (i + 1)))));
+        }
+        StringDocumentTarget target = new StringDocumentTarget();
+        manager.saveOntology(o, new RDFXMLOntologyFormat(), target);
+        String text = target.toString();
+        // the parsers try the Manchester syntax first, so that the source has
+        // to be read more than once
+        for (OWLOntologyDocumentSource source : new OWLOntologyDocumentSource[] {
+                new StreamDocumentSource(new ByteArrayInputStream(text.getBytes("UTF-8"))),
+                new ReaderDocumentSource(new StringReader(text)) }) {
+            OWLOntology loaded = OWLManager.createOWLOntologyManager()
+                    .loadOntologyFromOntologyDocument(source);
+            assertEquals(o.getLogicalAxioms(), loaded.getLogicalAxioms());
+        }
+    }
+}
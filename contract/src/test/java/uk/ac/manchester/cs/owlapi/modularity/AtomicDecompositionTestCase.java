@@ -0,0 +1,154 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.manchester.cs.owlapi.modularity;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.api.test.Factory;
+import org.semanticweb.owlapi.api.test.RandomAxiomGenerator;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLLogicalAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import uk.ac.manchester.cs.owlapi.modularity.AtomicDecomposition.Atom;
+
+@SuppressWarnings("javadoc")
+public class AtomicDecompositionTestCase {
+    private static final ModuleType[] TYPES = { ModuleType.BOT, ModuleType.TOP,
+            ModuleType.STAR };
+    private final OWLOntologyManager manager = Factory.getManager();
+
+    private static Set<OWLAxiom> logical(Set<OWLAxiom> axioms) {
+        Set<OWLAxiom> toReturn = new HashSet<OWLAxiom>();
+        for (OWLAxiom ax : axioms) {
+            if (ax.isLogicalAxiom()) {
+                toReturn.add(ax);
+            }
+        }
+        return toReturn;
+    }
+
+    @Test
+    public void shouldExtractTheSameModulesAsTheLocalityExtractor() throws Exception {
+        RandomAxiomGenerator generator = new RandomAxiomGenerator(11, 40);
+        for (int round = 0; round < 4; round++) {
+            OWLOntology o = generator.createOntology(manager, 80);
+            for (ModuleType type : TYPES) {
+                SyntacticLocalityModuleExtractor expected = new SyntacticLocalityModuleExtractor(
+                        manager, o, type);
+                AtomicDecompositionModuleExtractor actual = new AtomicDecompositionModuleExtractor(
+                        manager, o, type);
+                for (int i = 0; i < 25; i++) {
+                    Set<OWLEntity> sig = generator.nextSignature();
+                    assertEquals(type + " " + sig, expected.extract(sig), actual.extract(sig));
+                }
+                actual.dispose();
+            }
+        }
+    }
+
+    @Test
+    public void shouldBuildAtomsWhoseIdealsAreAxiomModules() throws Exception {
+        OWLOntology o = new RandomAxiomGenerator(5, 30).createOntology(manager, 60);
+        Set<OWLLogicalAxiom> axioms = o.getLogicalAxioms();
+        for (ModuleType type : TYPES) {
+            AtomicDecomposition ad = new AtomicDecomposition(o, type);
+            SyntacticLocalityModuleExtractor extractor = new SyntacticLocalityModuleExtractor(
+                    manager, o, type);
+            Set<OWLAxiom> covered = new HashSet<OWLAxiom>();
+            for (Atom atom : ad.getAtoms()) {
+                assertFalse(atom.getAxioms().isEmpty());
+                for (OWLAxiom ax : atom.getAxioms()) {
+                    assertSame(atom, ad.getAtom(ax));
+                    assertTrue(covered.add(ax));
+                    Set<OWLAxiom> module = logical(extractor.extract(ax.getSignature()));
+                    assertEquals(module, ad.getPrincipalIdeal(atom));
+                    assertEquals(module, ad.getModule(ax.getSignature()));
+                }
+                assertEquals(ad.getPrincipalIdeal(atom).size(), atom.getModuleSize());
+                for (Atom dependency : atom.getDependencies()) {
+                    assertTrue(dependency.getIndex() < atom.getIndex());
+                    assertTrue(ad.getPrincipalIdeal(atom).containsAll(
+                            ad.getPrincipalIdeal(dependency)));
+                }
+            }
+            for (OWLAxiom ax : axioms) {
+                if (!covered.contains(ax)) {
+                    assertNull(ad.getAtom(ax));
+                    assertFalse(logical(extractor.extract(ax.getSignature())).contains(ax));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldKeepCachedModulesConsistentWithChanges() throws Exception {
+        RandomAxiomGenerator generator = new RandomAxiomGenerator(3, 30);
+        OWLOntology o = generator.createOntology(manager, 60);
+        for (ModuleType type : TYPES) {
+            AtomicDecompositionModuleExtractor cached = new AtomicDecompositionModuleExtractor(
+                    manager, o, type);
+            Set<Set<OWLEntity>> signatures = new HashSet<Set<OWLEntity>>();
+            for (int i = 0; i < 15; i++) {
+                signatures.add(generator.nextSignature());
+            }
+            for (int step = 0; step < 10; step++) {
+                for (Set<OWLEntity> sig : signatures) {
+                    assertEquals(new SyntacticLocalityModuleExtractor(manager, o, type)
+                            .extract(sig), cached.extract(sig));
+                }
+                if (step % 2 == 0) {
+                    manager.addAxiom(o, generator.nextLogicalAxiom());
+                } else {
+                    Set<OWLLogicalAxiom> logical = o.getLogicalAxioms();
+                    manager.removeAxiom(o,
+                            logical.toArray(new OWLLogicalAxiom[logical.size()])[generator
+                                    .getRandom().nextInt(logical.size())]);
+                }
+            }
+            cached.dispose();
+        }
+    }
+}
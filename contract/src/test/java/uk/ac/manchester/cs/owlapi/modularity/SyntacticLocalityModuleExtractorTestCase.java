@@ -0,0 +1,136 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.manchester.cs.owlapi.modularity;
+
+import static org.junit.Assert.*;
+import static org.semanticweb.owlapi.api.test.RandomAxiomGenerator.cls;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.api.test.Factory;
+import org.semanticweb.owlapi.api.test.RandomAxiomGenerator;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import com.clarkparsia.owlapi.modularity.locality.LocalityClass;
+
+@SuppressWarnings("javadoc")
+public class SyntacticLocalityModuleExtractorTestCase {
+    private final OWLOntologyManager manager = Factory.getManager();
+
+    @Test
+    public void shouldMatchTheFixpointOfRepeatedScans() throws Exception {
+        RandomAxiomGenerator generator = new RandomAxiomGenerator(42, 60);
+        for (int round = 0; round < 5; round++) {
+            OWLOntology o = generator.createOntology(manager, 180);
+            SyntacticLocalityModuleExtractor extractor = new SyntacticLocalityModuleExtractor(
+                    manager, o, ModuleType.BOT);
+            Set<OWLAxiom> all = extractor.ontologyAxiomSet.toSet(extractor.ontologyAxiomSet
+                    .getSubset(true));
+            for (int i = 0; i < 20; i++) {
+                Set<OWLEntity> seed = generator.nextSignature();
+                for (LocalityClass locality : new LocalityClass[] {
+                        LocalityClass.BOTTOM_BOTTOM, LocalityClass.TOP_TOP }) {
+                    Set<OWLEntity> expectedSig = new HashSet<OWLEntity>(seed);
+                    Set<OWLAxiom> expected = extractor.extract(all, expectedSig,
+                            locality, false);
+                    Set<OWLEntity> actualSig = new HashSet<OWLEntity>(seed);
+                    boolean[] module = extractor.extractLogicalAxioms(
+                            extractor.ontologyAxiomSet.getSubset(true), actualSig,
+                            locality, false);
+                    assertEquals(expected, extractor.ontologyAxiomSet.toSet(module));
+                    assertEquals(expectedSig, actualSig);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldReuseTheIndexAcrossExtractions() throws Exception {
+        RandomAxiomGenerator generator = new RandomAxiomGenerator(7, 40);
+        OWLOntology o = generator.createOntology(manager, 120);
+        List<Set<OWLEntity>> signatures = new ArrayList<Set<OWLEntity>>();
+        for (int i = 0; i < 10; i++) {
+            signatures.add(generator.nextSignature());
+        }
+        for (ModuleType type : new ModuleType[] { ModuleType.BOT, ModuleType.TOP,
+                ModuleType.STAR }) {
+            SyntacticLocalityModuleExtractor reused = new SyntacticLocalityModuleExtractor(
+                    manager, o, type);
+            for (Set<OWLEntity> sig : signatures) {
+                SyntacticLocalityModuleExtractor fresh = new SyntacticLocalityModuleExtractor(
+                        manager, o, type);
+                assertEquals(fresh.extract(sig), reused.extract(sig));
+            }
+        }
+    }
+
+    @Test
+    public void shouldFollowSubClassChains() throws Exception {
+        OWLOntology o = manager.createOntology();
+        OWLAxiom ab = SubClassOf(cls(1), cls(2));
+        OWLAxiom bc = SubClassOf(cls(2), cls(3));
+        OWLAxiom da = SubClassOf(cls(4), cls(1));
+        OWLAxiom topC = SubClassOf(OWLThing(), cls(5));
+        manager.addAxiom(o, ab);
+        manager.addAxiom(o, bc);
+        manager.addAxiom(o, da);
+        manager.addAxiom(o, topC);
+        Set<OWLEntity> sig = new HashSet<OWLEntity>();
+        sig.add(cls(1));
+        Set<OWLAxiom> module = new SyntacticLocalityModuleExtractor(manager, o,
+                ModuleType.BOT).extract(sig);
+        assertTrue(module.contains(ab));
+        assertTrue(module.contains(bc));
+        // not local for any signature: always in bottom modules
+        assertTrue(module.contains(topC));
+        assertFalse(module.contains(da));
+        module = new SyntacticLocalityModuleExtractor(manager, o, ModuleType.TOP)
+                .extract(sig);
+        assertTrue(module.contains(da));
+        assertFalse(module.contains(bc));
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.coode.owlapi.binary;
+
+/** Constants of the binary format. A document starts with {@link #MAGIC} and
+ * the format version as a varint; it continues with a sequence of records,
+ * each made of a tag byte, the payload length as a varint and the payload, and
+ * ends with an {@link #END} record. Dictionary records assign consecutive ids
+ * to strings, IRIs and entities, and always precede the first record that
+ * refers to those ids; all other records can therefore be skipped by readers
+ * that do not know their tag. Nested objects are written as a tag byte
+ * followed by their fields. Tags must never be reused for a different
+ * meaning. */
+final class BinaryOWLConstants {
+    /** document signature; the line breaks detect text mode transfers */
+    static final byte[] MAGIC = { 'O', 'W', 'L', 'B', 'I', 'N', '\r', '\n', 0x1A, '\n' };
+    /** version written by this implementation */
+    static final int VERSION = 1;
+    // records
+    static final int END = 0;
+    static final int STRINGS = 1;
+    static final int IRIS = 2;
+    static final int ENTITIES = 3;
+    static final int ONTOLOGY_ID = 4;
+    static final int PREFIX = 5;
+    static final int IMPORT = 6;
+    static final int ONTOLOGY_ANNOTATION = 7;
+    // axiom records
+    static final int DECLARATION = 16;
+    static final int SUBCLASS_OF = 17;
+    static final int EQUIVALENT_CLASSES = 18;
+    static final int DISJOINT_CLASSES = 19;
+    static final int DISJOINT_UNION = 20;
+    static final int SUB_OBJECT_PROPERTY_OF = 21;
+    static final int SUB_PROPERTY_CHAIN_OF = 22;
+    static final int EQUIVALENT_OBJECT_PROPERTIES = 23;
+    static final int DISJOINT_OBJECT_PROPERTIES = 24;
+    static final int INVERSE_OBJECT_PROPERTIES = 25;
+    static final int OBJECT_PROPERTY_DOMAIN = 26;
+    static final int OBJECT_PROPERTY_RANGE = 27;
+    static final int FUNCTIONAL_OBJECT_PROPERTY = 28;
+    static final int INVERSE_FUNCTIONAL_OBJECT_PROPERTY = 29;
+    static final int REFLEXIVE_OBJECT_PROPERTY = 30;
+    static final int IRREFLEXIVE_OBJECT_PROPERTY = 31;
+    static final int SYMMETRIC_OBJECT_PROPERTY = 32;
+    static final int ASYMMETRIC_OBJECT_PROPERTY = 33;
+    static final int TRANSITIVE_OBJECT_PROPERTY = 34;
+    static final int SUB_DATA_PROPERTY_OF = 35;
+    static final int EQUIVALENT_DATA_PROPERTIES = 36;
+    static final int DISJOINT_DATA_PROPERTIES = 37;
+    static final int DATA_PROPERTY_DOMAIN = 38;
+    static final int DATA_PROPERTY_RANGE = 39;
+    static final int FUNCTIONAL_DATA_PROPERTY = 40;
+    static final int DATATYPE_DEFINITION = 41;
+    static final int HAS_KEY = 42;
+    static final int SAME_INDIVIDUAL = 43;
+    static final int DIFFERENT_INDIVIDUALS = 44;
+    static final int CLASS_ASSERTION = 45;
+    static final int OBJECT_PROPERTY_ASSERTION = 46;
+    static final int NEGATIVE_OBJECT_PROPERTY_ASSERTION = 47;
+    static final int DATA_PROPERTY_ASSERTION = 48;
+    static final int NEGATIVE_DATA_PROPERTY_ASSERTION = 49;
+    static final int ANNOTATION_ASSERTION = 50;
+    static final int SUB_ANNOTATION_PROPERTY_OF = 51;
+    static final int ANNOTATION_PROPERTY_DOMAIN = 52;
+    static final int ANNOTATION_PROPERTY_RANGE = 53;
+    static final int SWRL_RULE = 54;
+    // class expressions; CLASS is also the entity type of classes
+    static final int CLASS = 64;
+    static final int OBJECT_INTERSECTION_OF = 65;
+    static final int OBJECT_UNION_OF = 66;
+    static final int OBJECT_COMPLEMENT_OF = 67;
+    static final int OBJECT_ONE_OF = 68;
+    static final int OBJECT_SOME_VALUES_FROM = 69;
+    static final int OBJECT_ALL_VALUES_FROM = 70;
+    static final int OBJECT_HAS_VALUE = 71;
+    static final int OBJECT_MIN_CARDINALITY = 72;
+    static final int OBJECT_EXACT_CARDINALITY = 73;
+    static final int OBJECT_MAX_CARDINALITY = 74;
+    static final int OBJECT_HAS_SELF = 75;
+    static final int DATA_SOME_VALUES_FROM = 76;
+    static final int DATA_ALL_VALUES_FROM = 77;
+    static final int DATA_HAS_VALUE = 78;
+    static final int DATA_MIN_CARDINALITY = 79;
+    static final int DATA_EXACT_CARDINALITY = 80;
+    static final int DATA_MAX_CARDINALITY = 81;
+    // properties; the entity tags are also entity types
+    static final int OBJECT_PROPERTY = 96;
+    static final int OBJECT_INVERSE_OF = 97;
+    static final int DATA_PROPERTY = 98;
+    static final int ANNOTATION_PROPERTY = 99;
+    // data ranges
+    static final int DATATYPE = 104;
+    static final int DATA_ONE_OF = 105;
+    static final int DATA_COMPLEMENT_OF = 106;
+    static final int DATA_INTERSECTION_OF = 107;
+    static final int DATA_UNION_OF = 108;
+    static final int DATATYPE_RESTRICTION = 109;
+    // individuals, literals and annotation values
+    static final int NAMED_INDIVIDUAL = 112;
+    static final int ANONYMOUS_INDIVIDUAL = 113;
+    static final int IRI_VALUE = 114;
+    static final int TYPED_LITERAL = 115;
+    static final int PLAIN_LITERAL = 116;
+    // SWRL
+    static final int SWRL_CLASS_ATOM = 120;
+    static final int SWRL_DATA_RANGE_ATOM = 121;
+    static final int SWRL_OBJECT_PROPERTY_ATOM = 122;
+    static final int SWRL_DATA_PROPERTY_ATOM = 123;
+    static final int SWRL_BUILT_IN_ATOM = 124;
+    static final int SWRL_SAME_INDIVIDUAL_ATOM = 125;
+    static final int SWRL_DIFFERENT_INDIVIDUALS_ATOM = 126;
+    static final int SWRL_VARIABLE = 127;
+    static final int SWRL_INDIVIDUAL_ARGUMENT = 128;
+    static final int SWRL_LITERAL_ARGUMENT = 129;
+
+    // mapped layout: MAPPED_MAGIC, the version and the section count as ints,
+    // then offset and length of each section as longs; see
+    // MappedOWLOntologyWriter
+    static final byte[] MAPPED_MAGIC = { 'O', 'W', 'L', 'M', 'A', 'P', '\r', '\n', 0x1A,
+            '\n' };
+    static final int MAPPED_VERSION = 1;
+    static final int SECTION_HEADER = 0;
+    static final int SECTION_STRING_OFFSETS = 1;
+    static final int SECTION_STRING_DATA = 2;
+    static final int SECTION_IRIS = 3;
+    static final int SECTION_ENTITIES = 4;
+    static final int SECTION_ENTITY_TABLE = 5;
+    static final int SECTION_AXIOM_OFFSETS = 6;
+    static final int SECTION_AXIOM_DATA = 7;
+    static final int SECTION_REFERENCE_STARTS = 8;
+    static final int SECTION_REFERENCES = 9;
+    static final int SECTION_SUBCLASS_STARTS = 10;
+    static final int SECTION_SUBCLASSES = 11;
+    static final int SECTION_SUPERCLASS_STARTS = 12;
+    static final int SECTION_SUPERCLASSES = 13;
+    static final int SECTION_GENERAL_CLASS_AXIOMS = 14;
+    static final int SECTION_COUNT = 15;
+
+    private BinaryOWLConstants() {}
+}
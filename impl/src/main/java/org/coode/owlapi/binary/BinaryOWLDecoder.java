@@ -0,0 +1,596 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.coode.owlapi.binary;
+
+import static org.coode.owlapi.binary.BinaryOWLConstants.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.semanticweb.owlapi.io.OWLParserException;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAnnotationProperty;
+import org.semanticweb.owlapi.model.OWLAnnotationSubject;
+import org.semanticweb.owlapi.model.OWLAnnotationValue;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDataRange;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLFacetRestriction;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLPropertyExpression;
+import org.semanticweb.owlapi.model.SWRLAtom;
+import org.semanticweb.owlapi.model.SWRLDArgument;
+import org.semanticweb.owlapi.model.SWRLIArgument;
+import org.semanticweb.owlapi.vocab.OWLFacet;
+
+/** Decodes ontology objects from binary OWL records. Subclasses resolve the
+ * dictionary ids, which lets the same decoding serve documents read as a
+ * stream and documents accessed in place.
+ * 
+ * @see BinaryOWLOntologyWriter */
+abstract class BinaryOWLDecoder {
+    final OWLDataFactory df;
+    byte[] bytes = new byte[256];
+    int pos;
+    int end;
+    int recordTag;
+
+    /** @param df
+     *            the data factory used to build the decoded objects */
+    BinaryOWLDecoder(OWLDataFactory df) {
+        this.df = df;
+    }
+
+    /** @param id
+     *            a string id
+     * @return the string with the given id
+     * @throws OWLParserException
+     *             if the id is not known */
+    abstract String string(int id) throws OWLParserException;
+
+    /** @param id
+     *            an IRI id
+     * @return the IRI with the given id
+     * @throws OWLParserException
+     *             if the id is not known */
+    abstract IRI iri(int id) throws OWLParserException;
+
+    /** @param id
+     *            an entity id
+     * @return the entity with the given id
+     * @throws OWLParserException
+     *             if the id is not known */
+    abstract OWLEntity entity(int id) throws OWLParserException;
+
+    OWLParserException malformed() {
+        return new OWLParserException("Malformed binary OWL record of type " + recordTag);
+    }
+
+    // primitives
+    int readByte() throws OWLParserException {
+        if (pos >= end) {
+            throw malformed();
+        }
+        return bytes[pos++] & 0xFF;
+    }
+
+    int readVarInt() throws OWLParserException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw malformed();
+    }
+
+    String readInlineString() throws OWLParserException {
+        int length = readVarInt();
+        if (length < 0 || length > end - pos) {
+            throw malformed();
+        }
+        String s = new String(bytes, pos, length, BinaryOWLOutput.UTF_8);
+        pos += length;
+        return s;
+    }
+
+    String readString() throws OWLParserException {
+        return string(readVarInt());
+    }
+
+    IRI readIRI() throws OWLParserException {
+        return iri(readVarInt());
+    }
+
+    IRI readOptionalIRI() throws OWLParserException {
+        return readVarInt() == 0 ? null : readIRI();
+    }
+
+    <E extends OWLEntity> E readEntity(Class<E> type) throws OWLParserException {
+        OWLEntity entity = entity(readVarInt());
+        if (!type.isInstance(entity)) {
+            throw malformed();
+        }
+        return type.cast(entity);
+    }
+
+    // axioms
+    OWLAxiom readAxiom(int tag) throws OWLParserException {
+        Set<OWLAnnotation> a = readAnnotations();
+        switch (tag) {
+            case DECLARATION:
+                return df.getOWLDeclarationAxiom(readEntity(OWLEntity.class), a);
+            case SUBCLASS_OF:
+                return df.getOWLSubClassOfAxiom(readClassExpression(),
+                        readClassExpression(), a);
+            case EQUIVALENT_CLASSES:
+                return df.getOWLEquivalentClassesAxiom(readClassExpressions(), a);
+            case DISJOINT_CLASSES:
+                return df.getOWLDisjointClassesAxiom(readClassExpressions(), a);
+            case DISJOINT_UNION:
+                return df.getOWLDisjointUnionAxiom(readEntity(OWLClass.class),
+                        readClassExpressions(), a);
+            case SUB_OBJECT_PROPERTY_OF:
+                return df.getOWLSubObjectPropertyOfAxiom(readObjectProperty(),
+                        readObjectProperty(), a);
+            case SUB_PROPERTY_CHAIN_OF: {
+                int length = readVarInt();
+                List<OWLObjectPropertyExpression> chain = new ArrayList<OWLObjectPropertyExpression>();
+                for (int i = 0; i < length; i++) {
+                    chain.add(readObjectProperty());
+                }
+                return df.getOWLSubPropertyChainOfAxiom(chain, readObjectProperty(), a);
+            }
+            case EQUIVALENT_OBJECT_PROPERTIES:
+                return df.getOWLEquivalentObjectPropertiesAxiom(readObjectProperties(), a);
+            case DISJOINT_OBJECT_PROPERTIES:
+                return df.getOWLDisjointObjectPropertiesAxiom(readObjectProperties(), a);
+            case INVERSE_OBJECT_PROPERTIES:
+                return df.getOWLInverseObjectPropertiesAxiom(readObjectProperty(),
+                        readObjectProperty(), a);
+            case OBJECT_PROPERTY_DOMAIN:
+                return df.getOWLObjectPropertyDomainAxiom(readObjectProperty(),
+                        readClassExpression(), a);
+            case OBJECT_PROPERTY_RANGE:
+                return df.getOWLObjectPropertyRangeAxiom(readObjectProperty(),
+                        readClassExpression(), a);
+            case FUNCTIONAL_OBJECT_PROPERTY:
+                return df.getOWLFunctionalObjectPropertyAxiom(readObjectProperty(), a);
+            case INVERSE_FUNCTIONAL_OBJECT_PROPERTY:
+                return df.getOWLInverseFunctionalObjectPropertyAxiom(
+                        readObjectProperty(), a);
+            case REFLEXIVE_OBJECT_PROPERTY:
+                return df.getOWLReflexiveObjectPropertyAxiom(readObjectProperty(), a);
+            case IRREFLEXIVE_OBJECT_PROPERTY:
+                return df.getOWLIrreflexiveObjectPropertyAxiom(readObjectProperty(), a);
+            case SYMMETRIC_OBJECT_PROPERTY:
+                return df.getOWLSymmetricObjectPropertyAxiom(readObjectProperty(), a);
+            case ASYMMETRIC_OBJECT_PROPERTY:
+                return df.getOWLAsymmetricObjectPropertyAxiom(readObjectProperty(), a);
+            case TRANSITIVE_OBJECT_PROPERTY:
+                return df.getOWLTransitiveObjectPropertyAxiom(readObjectProperty(), a);
+            case SUB_DATA_PROPERTY_OF:
+                return df.getOWLSubDataPropertyOfAxiom(readDataProperty(),
+                        readDataProperty(), a);
+            case EQUIVALENT_DATA_PROPERTIES:
+                return df.getOWLEquivalentDataPropertiesAxiom(readDataProperties(), a);
+            case DISJOINT_DATA_PROPERTIES:
+                return df.getOWLDisjointDataPropertiesAxiom(readDataProperties(), a);
+            case DATA_PROPERTY_DOMAIN:
+                return df.getOWLDataPropertyDomainAxiom(readDataProperty(),
+                        readClassExpression(), a);
+            case DATA_PROPERTY_RANGE:
+                return df.getOWLDataPropertyRangeAxiom(readDataProperty(),
+                        readDataRange(), a);
+            case FUNCTIONAL_DATA_PROPERTY:
+                return df.getOWLFunctionalDataPropertyAxiom(readDataProperty(), a);
+            case DATATYPE_DEFINITION:
+                return df.getOWLDatatypeDefinitionAxiom(readEntity(OWLDatatype.class),
+                        readDataRange(), a);
+            case HAS_KEY: {
+                OWLClassExpression ce = readClassExpression();
+                Set<OWLPropertyExpression<?, ?>> keys = new HashSet<OWLPropertyExpression<?, ?>>();
+                keys.addAll(readObjectProperties());
+                keys.addAll(readDataProperties());
+                return df.getOWLHasKeyAxiom(ce, keys, a);
+            }
+            case SAME_INDIVIDUAL:
+                return df.getOWLSameIndividualAxiom(readIndividuals(), a);
+            case DIFFERENT_INDIVIDUALS:
+                return df.getOWLDifferentIndividualsAxiom(readIndividuals(), a);
+            case CLASS_ASSERTION: {
+                OWLIndividual individual = readIndividual();
+                return df.getOWLClassAssertionAxiom(readClassExpression(), individual, a);
+            }
+            case OBJECT_PROPERTY_ASSERTION:
+            case NEGATIVE_OBJECT_PROPERTY_ASSERTION: {
+                OWLIndividual subject = readIndividual();
+                OWLObjectPropertyExpression property = readObjectProperty();
+                OWLIndividual object = readIndividual();
+                if (tag == OBJECT_PROPERTY_ASSERTION) {
+                    return df.getOWLObjectPropertyAssertionAxiom(property, subject,
+                            object, a);
+                }
+                return df.getOWLNegativeObjectPropertyAssertionAxiom(property, subject,
+                        object, a);
+            }
+            case DATA_PROPERTY_ASSERTION:
+            case NEGATIVE_DATA_PROPERTY_ASSERTION: {
+                OWLIndividual subject = readIndividual();
+                OWLDataProperty property = readDataProperty();
+                OWLLiteral object = readLiteral();
+                if (tag == DATA_PROPERTY_ASSERTION) {
+                    return df.getOWLDataPropertyAssertionAxiom(property, subject, object,
+                            a);
+                }
+                return df.getOWLNegativeDataPropertyAssertionAxiom(property, subject,
+                        object, a);
+            }
+            case ANNOTATION_ASSERTION: {
+                OWLAnnotationSubject subject = readAnnotationSubject();
+                return df.getOWLAnnotationAssertionAxiom(
+                        readEntity(OWLAnnotationProperty.class), subject,
+                        readAnnotationValue(), a);
+            }
+            case SUB_ANNOTATION_PROPERTY_OF:
+                return df.getOWLSubAnnotationPropertyOfAxiom(
+                        readEntity(OWLAnnotationProperty.class),
+                        readEntity(OWLAnnotationProperty.class), a);
+            case ANNOTATION_PROPERTY_DOMAIN:
+                return df.getOWLAnnotationPropertyDomainAxiom(
+                        readEntity(OWLAnnotationProperty.class), readIRI(), a);
+            case ANNOTATION_PROPERTY_RANGE:
+                return df.getOWLAnnotationPropertyRangeAxiom(
+                        readEntity(OWLAnnotationProperty.class), readIRI(), a);
+            case SWRL_RULE: {
+                Set<SWRLAtom> body = readAtoms();
+                return df.getSWRLRule(body, readAtoms(), a);
+            }
+            default:
+                throw malformed();
+        }
+    }
+
+    Set<OWLAnnotation> readAnnotations() throws OWLParserException {
+        int count = readVarInt();
+        if (count == 0) {
+            return Collections.emptySet();
+        }
+        Set<OWLAnnotation> annotations = new HashSet<OWLAnnotation>();
+        for (int i = 0; i < count; i++) {
+            annotations.add(readAnnotation());
+        }
+        return annotations;
+    }
+
+    OWLAnnotation readAnnotation() throws OWLParserException {
+        OWLAnnotationProperty property = readEntity(OWLAnnotationProperty.class);
+        OWLAnnotationValue value = readAnnotationValue();
+        return df.getOWLAnnotation(property, value, readAnnotations());
+    }
+
+    // nested objects
+    OWLClassExpression readClassExpression() throws OWLParserException {
+        int tag = readByte();
+        switch (tag) {
+            case CLASS:
+                return readEntity(OWLClass.class);
+            case OBJECT_INTERSECTION_OF:
+                return df.getOWLObjectIntersectionOf(readClassExpressions());
+            case OBJECT_UNION_OF:
+                return df.getOWLObjectUnionOf(readClassExpressions());
+            case OBJECT_COMPLEMENT_OF:
+                return df.getOWLObjectComplementOf(readClassExpression());
+            case OBJECT_ONE_OF:
+                return df.getOWLObjectOneOf(readIndividuals());
+            case OBJECT_SOME_VALUES_FROM:
+                return df.getOWLObjectSomeValuesFrom(readObjectProperty(),
+                        readClassExpression());
+            case OBJECT_ALL_VALUES_FROM:
+                return df.getOWLObjectAllValuesFrom(readObjectProperty(),
+                        readClassExpression());
+            case OBJECT_HAS_VALUE:
+                return df.getOWLObjectHasValue(readObjectProperty(), readIndividual());
+            case OBJECT_MIN_CARDINALITY:
+                return df.getOWLObjectMinCardinality(readVarInt(), readObjectProperty(),
+                        readClassExpression());
+            case OBJECT_EXACT_CARDINALITY:
+                return df.getOWLObjectExactCardinality(readVarInt(),
+                        readObjectProperty(), readClassExpression());
+            case OBJECT_MAX_CARDINALITY:
+                return df.getOWLObjectMaxCardinality(readVarInt(), readObjectProperty(),
+                        readClassExpression());
+            case OBJECT_HAS_SELF:
+                return df.getOWLObjectHasSelf(readObjectProperty());
+            case DATA_SOME_VALUES_FROM:
+                return df.getOWLDataSomeValuesFrom(readDataProperty(), readDataRange());
+            case DATA_ALL_VALUES_FROM:
+                return df.getOWLDataAllValuesFrom(readDataProperty(), readDataRange());
+            case DATA_HAS_VALUE:
+                return df.getOWLDataHasValue(readDataProperty(), readLiteral());
+            case DATA_MIN_CARDINALITY:
+                return df.getOWLDataMinCardinality(readVarInt(), readDataProperty(),
+                        readDataRange());
+            case DATA_EXACT_CARDINALITY:
+                return df.getOWLDataExactCardinality(readVarInt(), readDataProperty(),
+                        readDataRange());
+            case DATA_MAX_CARDINALITY:
+                return df.getOWLDataMaxCardinality(readVarInt(), readDataProperty(),
+                        readDataRange());
+            default:
+                throw malformed();
+        }
+    }
+
+    Set<OWLClassExpression> readClassExpressions() throws OWLParserException {
+        int count = readVarInt();
+        Set<OWLClassExpression> set = new HashSet<OWLClassExpression>();
+        for (int i = 0; i < count; i++) {
+            set.add(readClassExpression());
+        }
+        return set;
+    }
+
+    OWLObjectPropertyExpression readObjectProperty() throws OWLParserException {
+        int tag = readByte();
+        switch (tag) {
+            case OBJECT_PROPERTY:
+                return readEntity(OWLObjectProperty.class);
+            case OBJECT_INVERSE_OF:
+                return df.getOWLObjectInverseOf(readObjectProperty());
+            default:
+                throw malformed();
+        }
+    }
+
+    Set<OWLObjectPropertyExpression> readObjectProperties()
+            throws OWLParserException {
+        int count = readVarInt();
+        Set<OWLObjectPropertyExpression> set = new HashSet<OWLObjectPropertyExpression>();
+        for (int i = 0; i < count; i++) {
+            set.add(readObjectProperty());
+        }
+        return set;
+    }
+
+    OWLDataProperty readDataProperty() throws OWLParserException {
+        return readEntity(OWLDataProperty.class);
+    }
+
+    Set<OWLDataProperty> readDataProperties() throws OWLParserException {
+        int count = readVarInt();
+        Set<OWLDataProperty> set = new HashSet<OWLDataProperty>();
+        for (int i = 0; i < count; i++) {
+            set.add(readDataProperty());
+        }
+        return set;
+    }
+
+    OWLDataRange readDataRange() throws OWLParserException {
+        int tag = readByte();
+        switch (tag) {
+            case DATATYPE:
+                return readEntity(OWLDatatype.class);
+            case DATA_ONE_OF: {
+                int count = readVarInt();
+                Set<OWLLiteral> values = new HashSet<OWLLiteral>();
+                for (int i = 0; i < count; i++) {
+                    values.add(readLiteral());
+                }
+                return df.getOWLDataOneOf(values);
+            }
+            case DATA_COMPLEMENT_OF:
+                return df.getOWLDataComplementOf(readDataRange());
+            case DATA_INTERSECTION_OF:
+                return df.getOWLDataIntersectionOf(readDataRanges());
+            case DATA_UNION_OF:
+                return df.getOWLDataUnionOf(readDataRanges());
+            case DATATYPE_RESTRICTION: {
+                OWLDatatype datatype = readEntity(OWLDatatype.class);
+                int count = readVarInt();
+                Set<OWLFacetRestriction> restrictions = new HashSet<OWLFacetRestriction>();
+                for (int i = 0; i < count; i++) {
+                    OWLFacet facet = OWLFacet.getFacet(readIRI());
+                    if (facet == null) {
+                        throw malformed();
+                    }
+                    restrictions.add(df.getOWLFacetRestriction(facet, readLiteral()));
+                }
+                return df.getOWLDatatypeRestriction(datatype, restrictions);
+            }
+            default:
+                throw malformed();
+        }
+    }
+
+    Set<OWLDataRange> readDataRanges() throws OWLParserException {
+        int count = readVarInt();
+        Set<OWLDataRange> set = new HashSet<OWLDataRange>();
+        for (int i = 0; i < count; i++) {
+            set.add(readDataRange());
+        }
+        return set;
+    }
+
+    OWLIndividual readIndividual() throws OWLParserException {
+        int tag = readByte();
+        switch (tag) {
+            case NAMED_INDIVIDUAL:
+                return readEntity(OWLNamedIndividual.class);
+            case ANONYMOUS_INDIVIDUAL:
+                return df.getOWLAnonymousIndividual(readString());
+            default:
+                throw malformed();
+        }
+    }
+
+    Set<OWLIndividual> readIndividuals() throws OWLParserException {
+        int count = readVarInt();
+        Set<OWLIndividual> set = new HashSet<OWLIndividual>();
+        for (int i = 0; i < count; i++) {
+            set.add(readIndividual());
+        }
+        return set;
+    }
+
+    OWLLiteral readLiteral() throws OWLParserException {
+        int tag = readByte();
+        switch (tag) {
+            case TYPED_LITERAL: {
+                OWLDatatype datatype = readEntity(OWLDatatype.class);
+                return df.getOWLLiteral(readInlineString(), datatype);
+            }
+            case PLAIN_LITERAL: {
+                String lang = readString();
+                return df.getOWLLiteral(readInlineString(), lang);
+            }
+            default:
+                throw malformed();
+        }
+    }
+
+    OWLAnnotationSubject readAnnotationSubject() throws OWLParserException {
+        int tag = readByte();
+        switch (tag) {
+            case IRI_VALUE:
+                return readIRI();
+            case ANONYMOUS_INDIVIDUAL:
+                return df.getOWLAnonymousIndividual(readString());
+            default:
+                throw malformed();
+        }
+    }
+
+    OWLAnnotationValue readAnnotationValue() throws OWLParserException {
+        int tag = readByte();
+        switch (tag) {
+            case IRI_VALUE:
+                return readIRI();
+            case ANONYMOUS_INDIVIDUAL:
+                return df.getOWLAnonymousIndividual(readString());
+            case TYPED_LITERAL:
+            case PLAIN_LITERAL:
+                pos--;
+                return readLiteral();
+            default:
+                throw malformed();
+        }
+    }
+
+    // SWRL
+    Set<SWRLAtom> readAtoms() throws OWLParserException {
+        int count = readVarInt();
+        Set<SWRLAtom> atoms = new HashSet<SWRLAtom>();
+        for (int i = 0; i < count; i++) {
+            atoms.add(readAtom());
+        }
+        return atoms;
+    }
+
+    SWRLAtom readAtom() throws OWLParserException {
+        int tag = readByte();
+        switch (tag) {
+            case SWRL_CLASS_ATOM:
+                return df.getSWRLClassAtom(readClassExpression(), readIArgument());
+            case SWRL_DATA_RANGE_ATOM:
+                return df.getSWRLDataRangeAtom(readDataRange(), readDArgument());
+            case SWRL_OBJECT_PROPERTY_ATOM:
+                return df.getSWRLObjectPropertyAtom(readObjectProperty(),
+                        readIArgument(), readIArgument());
+            case SWRL_DATA_PROPERTY_ATOM:
+                return df.getSWRLDataPropertyAtom(readDataProperty(), readIArgument(),
+                        readDArgument());
+            case SWRL_BUILT_IN_ATOM: {
+                IRI predicate = readIRI();
+                int count = readVarInt();
+                List<SWRLDArgument> arguments = new ArrayList<SWRLDArgument>();
+                for (int i = 0; i < count; i++) {
+                    arguments.add(readDArgument());
+                }
+                return df.getSWRLBuiltInAtom(predicate, arguments);
+            }
+            case SWRL_SAME_INDIVIDUAL_ATOM:
+                return df.getSWRLSameIndividualAtom(readIArgument(), readIArgument());
+            case SWRL_DIFFERENT_INDIVIDUALS_ATOM:
+                return df.getSWRLDifferentIndividualsAtom(readIArgument(),
+                        readIArgument());
+            default:
+                throw malformed();
+        }
+    }
+
+    SWRLIArgument readIArgument() throws OWLParserException {
+        int tag = readByte();
+        switch (tag) {
+            case SWRL_VARIABLE:
+                return df.getSWRLVariable(readIRI());
+            case SWRL_INDIVIDUAL_ARGUMENT:
+                return df.getSWRLIndividualArgument(readIndividual());
+            default:
+                throw malformed();
+        }
+    }
+
+    SWRLDArgument readDArgument() throws OWLParserException {
+        int tag = readByte();
+        switch (tag) {
+            case SWRL_VARIABLE:
+                return df.getSWRLVariable(readIRI());
+            case SWRL_LITERAL_ARGUMENT:
+                return df.getSWRLLiteralArgument(readLiteral());
+            default:
+                throw malformed();
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.coode.owlapi.binary;
+
+import static org.coode.owlapi.binary.BinaryOWLConstants.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.semanticweb.owlapi.io.BinaryOWLOntologyFormat;
+import org.semanticweb.owlapi.io.OWLParserException;
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.AddImport;
+import org.semanticweb.owlapi.model.AddOntologyAnnotation;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotationAxiom;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeException;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.SetOntologyID;
+import org.semanticweb.owlapi.model.UnloadableImportException;
+
+/** Reads an ontology in the binary format into an ontology. Every record is
+ * read into memory before being decoded; the axioms are added to the ontology
+ * in batches, and the ontology indexes are built lazily when they are first
+ * used.
+ * 
+ * @see BinaryOWLOntologyWriter */
+public class BinaryOWLOntologyReader extends BinaryOWLDecoder {
+    private static final Logger LOGGER = Logger.getLogger(BinaryOWLOntologyReader.class
+            .getName());
+    private static final int BATCH_SIZE = 10000;
+    private final InputStream in;
+    private final OWLOntology ontology;
+    private final OWLOntologyManager manager;
+    private final OWLOntologyLoaderConfiguration configuration;
+    private final List<String> strings = new ArrayList<String>();
+    private final List<IRI> iris = new ArrayList<IRI>();
+    private final List<OWLEntity> entities = new ArrayList<OWLEntity>();
+    private final List<OWLOntologyChange> changes = new ArrayList<OWLOntologyChange>();
+
+    /** @param in
+     *            the stream to read from; it should be buffered
+     * @param ontology
+     *            the ontology to add the content to
+     * @param configuration
+     *            the loader configuration */
+    public BinaryOWLOntologyReader(InputStream in, OWLOntology ontology,
+            OWLOntologyLoaderConfiguration configuration) {
+        super(ontology.getOWLOntologyManager().getOWLDataFactory());
+        this.in = in;
+        this.ontology = ontology;
+        this.configuration = configuration;
+        manager = ontology.getOWLOntologyManager();
+    }
+
+    /** Reads the document up to the end record; the stream is not closed.
+     * 
+     * @return the format of the document, with its prefixes
+     * @throws IOException
+     *             if the stream cannot be read
+     * @throws OWLParserException
+     *             if the document is not a valid binary document, or its
+     *             content cannot be added to the ontology
+     * @throws UnloadableImportException
+     *             if an import cannot be loaded */
+    public BinaryOWLOntologyFormat read() throws IOException, OWLParserException,
+            UnloadableImportException {
+        byte[] magic = new byte[MAGIC.length];
+        readFully(magic, magic.length);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new OWLParserException("Not a binary OWL document");
+        }
+        int version = readStreamVarInt();
+        if (version > VERSION) {
+            throw new OWLParserException("Unsupported binary OWL version " + version
+                    + "; the latest supported version is " + VERSION);
+        }
+        BinaryOWLOntologyFormat format = new BinaryOWLOntologyFormat();
+        while (true) {
+            recordTag = in.read();
+            if (recordTag < 0) {
+                throw new OWLParserException("Truncated binary OWL document");
+            }
+            readRecord();
+            switch (recordTag) {
+                case END:
+                    flushChanges();
+                    return format;
+                case STRINGS:
+                    readStrings();
+                    break;
+                case IRIS:
+                    readIRIs();
+                    break;
+                case ENTITIES:
+                    readEntities();
+                    break;
+                case PREFIX:
+                    format.setPrefix(readString(), readString());
+                    break;
+                case ONTOLOGY_ID:
+                    IRI ontologyIRI = readOptionalIRI();
+                    IRI versionIRI = readOptionalIRI();
+                    changes.add(new SetOntologyID(ontology, new OWLOntologyID(
+                            ontologyIRI, versionIRI)));
+                    break;
+                case IMPORT:
+                    OWLImportsDeclaration decl = df.getOWLImportsDeclaration(readIRI());
+                    changes.add(new AddImport(ontology, decl));
+                    flushChanges();
+                    manager.makeLoadImportRequest(decl, configuration);
+                    break;
+                case ONTOLOGY_ANNOTATION:
+                    changes.add(new AddOntologyAnnotation(ontology, readAnnotation()));
+                    break;
+                default:
+                    if (recordTag < DECLARATION || recordTag > SWRL_RULE) {
+                        // written by a later version; the content is not needed
+                        // to read the records that follow
+                        LOGGER.warning("Skipping binary OWL record of unknown type "
+                                + recordTag);
+                        pos = end;
+                    } else {
+                        addAxiom(readAxiom(recordTag));
+                    }
+            }
+            if (pos != end) {
+                throw malformed();
+            }
+        }
+    }
+
+    private void addAxiom(OWLAxiom axiom) throws OWLParserException {
+        if (!(axiom instanceof OWLAnnotationAxiom) || configuration.isLoadAnnotationAxioms()) {
+            changes.add(new AddAxiom(ontology, axiom));
+            if (changes.size() >= BATCH_SIZE) {
+                flushChanges();
+            }
+        }
+    }
+
+    private void flushChanges() throws OWLParserException {
+        if (!changes.isEmpty()) {
+            try {
+                manager.applyChanges(changes);
+            } catch (OWLOntologyChangeException e) {
+                throw new OWLParserException(e);
+            }
+            changes.clear();
+        }
+    }
+
+    // stream access
+    private void readFully(byte[] buffer, int length) throws IOException,
+            OWLParserException {
+        int read = 0;
+        while (read < length) {
+            int n = in.read(buffer, read, length - read);
+            if (n < 0) {
+                throw new OWLParserException("Truncated binary OWL document");
+            }
+            read += n;
+        }
+    }
+
+    private int readStreamVarInt() throws IOException, OWLParserException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new OWLParserException("Truncated binary OWL document");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw malformed();
+    }
+
+    private void readRecord() throws IOException, OWLParserException {
+        int length = readStreamVarInt();
+        if (length < 0) {
+            throw malformed();
+        }
+        if (length > bytes.length) {
+            bytes = new byte[Math.max(length, bytes.length * 2)];
+        }
+        readFully(bytes, length);
+        pos = 0;
+        end = length;
+    }
+
+    // dictionaries
+    private <T> T get(List<T> dictionary, int id) throws OWLParserException {
+        if (id < 0 || id >= dictionary.size()) {
+            throw malformed();
+        }
+        return dictionary.get(id);
+    }
+
+    @Override
+    String string(int id) throws OWLParserException {
+        return get(strings, id);
+    }
+
+    @Override
+    IRI iri(int id) throws OWLParserException {
+        return get(iris, id);
+    }
+
+    @Override
+    OWLEntity entity(int id) throws OWLParserException {
+        return get(entities, id);
+    }
+
+    private void readStrings() throws OWLParserException {
+        int count = readVarInt();
+        for (int i = 0; i < count; i++) {
+            strings.add(readInlineString());
+        }
+    }
+
+    private void readIRIs() throws OWLParserException {
+        int count = readVarInt();
+        for (int i = 0; i < count; i++) {
+            String namespace = readString();
+            int fragment = readVarInt();
+            iris.add(IRI.create(namespace, fragment == 0 ? null : string(fragment - 1)));
+        }
+    }
+
+    private void readEntities() throws OWLParserException {
+        int count = readVarInt();
+        for (int i = 0; i < count; i++) {
+            int type = readByte();
+            IRI iri = readIRI();
+            switch (type) {
+                case CLASS:
+                    entities.add(df.getOWLClass(iri));
+                    break;
+                case OBJECT_PROPERTY:
+                    entities.add(df.getOWLObjectProperty(iri));
+                    break;
+                case DATA_PROPERTY:
+                    entities.add(df.getOWLDataProperty(iri));
+                    break;
+                case ANNOTATION_PROPERTY:
+                    entities.add(df.getOWLAnnotationProperty(iri));
+                    break;
+                case NAMED_INDIVIDUAL:
+                    entities.add(df.getOWLNamedIndividual(iri));
+                    break;
+                case DATATYPE:
+                    entities.add(df.getOWLDatatype(iri));
+                    break;
+                default:
+                    throw malformed();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.coode.owlapi.binary;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLConnection;
+
+import org.semanticweb.owlapi.io.BinaryOWLOntologyFormat;
+import org.semanticweb.owlapi.io.OWLOntologyDocumentTarget;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyFormat;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLOntologyStorageException;
+import org.semanticweb.owlapi.model.OWLOntologyStorer;
+import org.semanticweb.owlapi.vocab.PrefixOWLOntologyFormat;
+
+/** Storer for the binary format. Binary documents can only be written to
+ * output streams or document IRIs, not to writers.
+ * 
+ * @see BinaryOWLOntologyFormat */
+public class BinaryOWLOntologyStorer implements OWLOntologyStorer {
+    private static final long serialVersionUID = 30402L;
+
+    @Override
+    public boolean canStoreOntology(OWLOntologyFormat ontologyFormat) {
+        return ontologyFormat instanceof BinaryOWLOntologyFormat;
+    }
+
+    @Override
+    @Deprecated
+    public void storeOntology(OWLOntologyManager manager, OWLOntology ontology,
+            IRI documentIRI, OWLOntologyFormat ontologyFormat)
+            throws OWLOntologyStorageException {
+        storeOntology(ontology, documentIRI, ontologyFormat);
+    }
+
+    @Override
+    public void storeOntology(OWLOntology ontology, IRI documentIRI,
+            OWLOntologyFormat ontologyFormat) throws OWLOntologyStorageException {
+        if (!documentIRI.isAbsolute()) {
+            throw new OWLOntologyStorageException("Document IRI must be absolute: "
+                    + documentIRI);
+        }
+        OutputStream os = null;
+        try {
+            if ("file".equals(documentIRI.getScheme())) {
+                File file = new File(documentIRI.toURI());
+                file.getParentFile().mkdirs();
+                os = new FileOutputStream(file);
+            } else {
+                URLConnection conn = documentIRI.toURI().toURL().openConnection();
+                conn.setDoOutput(true);
+                os = conn.getOutputStream();
+            }
+            write(ontology, os, ontologyFormat);
+        } catch (IOException e) {
+            throw new OWLOntologyStorageException(e);
+        } finally {
+            if (os != null) {
+                try {
+                    os.close();
+                } catch (IOException e) {
+                    throw new OWLOntologyStorageException(e);
+                }
+            }
+        }
+    }
+
+    @Override
+    @Deprecated
+    public void storeOntology(OWLOntologyManager manager, OWLOntology ontology,
+            OWLOntologyDocumentTarget target, OWLOntologyFormat format)
+            throws OWLOntologyStorageException {
+        storeOntology(ontology, target, format);
+    }
+
+    @Override
+    public void storeOntology(OWLOntology ontology, OWLOntologyDocumentTarget target,
+            OWLOntologyFormat format) throws OWLOntologyStorageException {
+        if (target.isOutputStreamAvailable()) {
+            try {
+                write(ontology, target.getOutputStream(), format);
+            } catch (IOException e) {
+                throw new OWLOntologyStorageException(e);
+            }
+        } else if (target.isDocumentIRIAvailable()) {
+            storeOntology(ontology, target.getDocumentIRI(), format);
+        } else {
+            throw new OWLOntologyStorageException(
+                    "Binary OWL documents need an OutputStream or a Document IRI to be stored");
+        }
+    }
+
+    /** @param ontology
+     *            the ontology to write
+     * @param os
+     *            the stream to write to; flushed, but not closed
+     * @param format
+     *            the format to write
+     * @throws IOException
+     *             if the stream cannot be written */
+    protected void write(OWLOntology ontology, OutputStream os,
+            OWLOntologyFormat format) throws IOException {
+        BufferedOutputStream out = new BufferedOutputStream(os);
+        new BinaryOWLOntologyWriter(out).write(ontology,
+                format instanceof PrefixOWLOntologyFormat ? (PrefixOWLOntologyFormat) format
+                        : null);
+        out.flush();
+    }
+}
@@ -0,0 +1,976 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.coode.owlapi.binary;
+
+import static org.coode.owlapi.binary.BinaryOWLConstants.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAnnotationAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLAnnotationProperty;
+import org.semanticweb.owlapi.model.OWLAnnotationPropertyDomainAxiom;
+import org.semanticweb.owlapi.model.OWLAnnotationPropertyRangeAxiom;
+import org.semanticweb.owlapi.model.OWLAnonymousIndividual;
+import org.semanticweb.owlapi.model.OWLAsymmetricObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLDataAllValuesFrom;
+import org.semanticweb.owlapi.model.OWLDataComplementOf;
+import org.semanticweb.owlapi.model.OWLDataExactCardinality;
+import org.semanticweb.owlapi.model.OWLDataHasValue;
+import org.semanticweb.owlapi.model.OWLDataIntersectionOf;
+import org.semanticweb.owlapi.model.OWLDataMaxCardinality;
+import org.semanticweb.owlapi.model.OWLDataMinCardinality;
+import org.semanticweb.owlapi.model.OWLDataOneOf;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDataPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLDataPropertyDomainAxiom;
+import org.semanticweb.owlapi.model.OWLDataPropertyExpression;
+import org.semanticweb.owlapi.model.OWLDataPropertyRangeAxiom;
+import org.semanticweb.owlapi.model.OWLDataSomeValuesFrom;
+import org.semanticweb.owlapi.model.OWLDataUnionOf;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLDatatypeDefinitionAxiom;
+import org.semanticweb.owlapi.model.OWLDatatypeRestriction;
+import org.semanticweb.owlapi.model.OWLDeclarationAxiom;
+import org.semanticweb.owlapi.model.OWLDifferentIndividualsAxiom;
+import org.semanticweb.owlapi.model.OWLDisjointClassesAxiom;
+import org.semanticweb.owlapi.model.OWLDisjointDataPropertiesAxiom;
+import org.semanticweb.owlapi.model.OWLDisjointObjectPropertiesAxiom;
+import org.semanticweb.owlapi.model.OWLDisjointUnionAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLEquivalentClassesAxiom;
+import org.semanticweb.owlapi.model.OWLEquivalentDataPropertiesAxiom;
+import org.semanticweb.owlapi.model.OWLEquivalentObjectPropertiesAxiom;
+import org.semanticweb.owlapi.model.OWLFacetRestriction;
+import org.semanticweb.owlapi.model.OWLFunctionalDataPropertyAxiom;
+import org.semanticweb.owlapi.model.OWLFunctionalObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.OWLHasKeyAxiom;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLInverseFunctionalObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.OWLInverseObjectPropertiesAxiom;
+import org.semanticweb.owlapi.model.OWLIrreflexiveObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLNegativeDataPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLNegativeObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLObject;
+import org.semanticweb.owlapi.model.OWLObjectAllValuesFrom;
+import org.semanticweb.owlapi.model.OWLObjectComplementOf;
+import org.semanticweb.owlapi.model.OWLObjectExactCardinality;
+import org.semanticweb.owlapi.model.OWLObjectHasSelf;
+import org.semanticweb.owlapi.model.OWLObjectHasValue;
+import org.semanticweb.owlapi.model.OWLObjectIntersectionOf;
+import org.semanticweb.owlapi.model.OWLObjectInverseOf;
+import org.semanticweb.owlapi.model.OWLObjectMaxCardinality;
+import org.semanticweb.owlapi.model.OWLObjectMinCardinality;
+import org.semanticweb.owlapi.model.OWLObjectOneOf;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLObjectPropertyDomainAxiom;
+import org.semanticweb.owlapi.model.OWLObjectPropertyRangeAxiom;
+import org.semanticweb.owlapi.model.OWLObjectSomeValuesFrom;
+import org.semanticweb.owlapi.model.OWLObjectUnionOf;
+import org.semanticweb.owlapi.model.OWLObjectVisitor;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLReflexiveObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+import org.semanticweb.owlapi.model.OWLSameIndividualAxiom;
+import org.semanticweb.owlapi.model.OWLSubAnnotationPropertyOfAxiom;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.model.OWLSubDataPropertyOfAxiom;
+import org.semanticweb.owlapi.model.OWLSubObjectPropertyOfAxiom;
+import org.semanticweb.owlapi.model.OWLSubPropertyChainOfAxiom;
+import org.semanticweb.owlapi.model.OWLSymmetricObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.OWLTransitiveObjectPropertyAxiom;
+import org.semanticweb.owlapi.model.SWRLAtom;
+import org.semanticweb.owlapi.model.SWRLBuiltInAtom;
+import org.semanticweb.owlapi.model.SWRLClassAtom;
+import org.semanticweb.owlapi.model.SWRLDArgument;
+import org.semanticweb.owlapi.model.SWRLDataPropertyAtom;
+import org.semanticweb.owlapi.model.SWRLDataRangeAtom;
+import org.semanticweb.owlapi.model.SWRLDifferentIndividualsAtom;
+import org.semanticweb.owlapi.model.SWRLIndividualArgument;
+import org.semanticweb.owlapi.model.SWRLLiteralArgument;
+import org.semanticweb.owlapi.model.SWRLObjectPropertyAtom;
+import org.semanticweb.owlapi.model.SWRLRule;
+import org.semanticweb.owlapi.model.SWRLSameIndividualAtom;
+import org.semanticweb.owlapi.model.SWRLVariable;
+import org.semanticweb.owlapi.vocab.PrefixOWLOntologyFormat;
+
+/** Writes an ontology in the binary format. Strings, IRIs and entities are
+ * given dictionary ids the first time they are seen; the new dictionary
+ * entries are written just before the record that uses them, so that the
+ * ontology is written in a single pass.
+ * 
+ * @see BinaryOWLOntologyReader */
+public class BinaryOWLOntologyWriter implements OWLObjectVisitor {
+    private final OutputStream out;
+    private final BinaryOWLOutput record = new BinaryOWLOutput();
+    private final BinaryOWLOutput dictionary = new BinaryOWLOutput();
+    private final Map<String, Integer> strings = new HashMap<String, Integer>();
+    private final Map<IRI, Integer> iris = new HashMap<IRI, Integer>();
+    private final Map<OWLEntity, Integer> entities = new HashMap<OWLEntity, Integer>();
+    private final List<String> newStrings = new ArrayList<String>();
+    private final List<IRI> newIRIs = new ArrayList<IRI>();
+    private final List<OWLEntity> newEntities = new ArrayList<OWLEntity>();
+    private int recordTag;
+
+    /** @param out
+     *            the stream to write to; it should be buffered */
+    public BinaryOWLOntologyWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    /** Creates a writer that only encodes objects, for layouts that arrange
+     * the records themselves; since no record is written, the dictionary
+     * entries are never flushed and {@link #getStrings()},
+     * {@link #getIRIs()} and {@link #getEntities()} list all of them, in id
+     * order. */
+    BinaryOWLOntologyWriter() {
+        this(null);
+    }
+
+    /** Writes the ontology, followed by the end record. The stream is flushed
+     * but not closed.
+     * 
+     * @param ontology
+     *            the ontology to write
+     * @param format
+     *            the format, whose prefixes are written if it is a prefix
+     *            format; can be null
+     * @throws IOException
+     *             if the stream cannot be written */
+    public void write(OWLOntology ontology, PrefixOWLOntologyFormat format)
+            throws IOException {
+        out.write(MAGIC);
+        record.reset();
+        record.writeVarInt(VERSION);
+        record.writeTo(out);
+        if (format != null) {
+            for (Map.Entry<String, String> e : format.getPrefixName2PrefixMap()
+                    .entrySet()) {
+                record.reset();
+                string(e.getKey());
+                string(e.getValue());
+                writeRecord(PREFIX);
+            }
+        }
+        if (!ontology.isAnonymous()) {
+            record.reset();
+            optionalIRI(ontology.getOntologyID().getOntologyIRI());
+            optionalIRI(ontology.getOntologyID().getVersionIRI());
+            writeRecord(ONTOLOGY_ID);
+        }
+        for (OWLImportsDeclaration decl : ontology.getImportsDeclarations()) {
+            record.reset();
+            iri(decl.getIRI());
+            writeRecord(IMPORT);
+        }
+        for (OWLAnnotation annotation : ontology.getAnnotations()) {
+            record.reset();
+            annotation.accept(this);
+            writeRecord(ONTOLOGY_ANNOTATION);
+        }
+        // declarations come first, and axioms of the same type stay together
+        for (AxiomType<?> type : AxiomType.AXIOM_TYPES) {
+            for (OWLAxiom axiom : ontology.getAxioms(type)) {
+                record.reset();
+                axiom.accept(this);
+                writeRecord(recordTag);
+            }
+        }
+        record.reset();
+        record.writeRecord(END, out);
+        out.flush();
+    }
+
+    /** @param axiom
+     *            the axiom to encode in the record buffer
+     * @return the record tag for the axiom */
+    int encode(OWLAxiom axiom) {
+        record.reset();
+        axiom.accept(this);
+        return recordTag;
+    }
+
+    /** @param annotation
+     *            the annotation to encode in the record buffer */
+    void encode(OWLAnnotation annotation) {
+        record.reset();
+        annotation.accept(this);
+    }
+
+    BinaryOWLOutput getRecord() {
+        return record;
+    }
+
+    List<String> getStrings() {
+        return newStrings;
+    }
+
+    List<IRI> getIRIs() {
+        return newIRIs;
+    }
+
+    List<OWLEntity> getEntities() {
+        return newEntities;
+    }
+
+    private void writeRecord(int tag) throws IOException {
+        if (!newStrings.isEmpty()) {
+            dictionary.reset();
+            dictionary.writeVarInt(newStrings.size());
+            for (String s : newStrings) {
+                dictionary.writeString(s);
+            }
+            dictionary.writeRecord(STRINGS, out);
+            newStrings.clear();
+        }
+        if (!newIRIs.isEmpty()) {
+            dictionary.reset();
+            dictionary.writeVarInt(newIRIs.size());
+            for (IRI iri : newIRIs) {
+                dictionary.writeVarInt(strings.get(iri.getNamespace()).intValue());
+                String fragment = iri.getFragment();
+                dictionary.writeVarInt(fragment == null ? 0 : strings.get(fragment)
+                        .intValue() + 1);
+            }
+            dictionary.writeRecord(IRIS, out);
+            newIRIs.clear();
+        }
+        if (!newEntities.isEmpty()) {
+            dictionary.reset();
+            dictionary.writeVarInt(newEntities.size());
+            for (OWLEntity entity : newEntities) {
+                dictionary.writeByte(entityTag(entity));
+                dictionary.writeVarInt(iris.get(entity.getIRI()).intValue());
+            }
+            dictionary.writeRecord(ENTITIES, out);
+            newEntities.clear();
+        }
+        record.writeRecord(tag, out);
+    }
+
+    static int entityTag(OWLEntity entity) {
+        if (entity.isOWLClass()) {
+            return CLASS;
+        }
+        if (entity.isOWLObjectProperty()) {
+            return OBJECT_PROPERTY;
+        }
+        if (entity.isOWLDataProperty()) {
+            return DATA_PROPERTY;
+        }
+        if (entity.isOWLAnnotationProperty()) {
+            return ANNOTATION_PROPERTY;
+        }
+        if (entity.isOWLNamedIndividual()) {
+            return NAMED_INDIVIDUAL;
+        }
+        return DATATYPE;
+    }
+
+    // dictionary references
+    private void string(String s) {
+        record.writeVarInt(stringId(s));
+    }
+
+    int stringId(String s) {
+        Integer id = strings.get(s);
+        if (id == null) {
+            id = Integer.valueOf(strings.size());
+            strings.put(s, id);
+            newStrings.add(s);
+        }
+        return id.intValue();
+    }
+
+    private void iri(IRI iri) {
+        record.writeVarInt(iriId(iri));
+    }
+
+    int iriId(IRI iri) {
+        Integer id = iris.get(iri);
+        if (id == null) {
+            stringId(iri.getNamespace());
+            if (iri.getFragment() != null) {
+                stringId(iri.getFragment());
+            }
+            id = Integer.valueOf(iris.size());
+            iris.put(iri, id);
+            newIRIs.add(iri);
+        }
+        return id.intValue();
+    }
+
+    private void optionalIRI(IRI iri) {
+        if (iri == null) {
+            record.writeVarInt(0);
+        } else {
+            record.writeVarInt(1);
+            iri(iri);
+        }
+    }
+
+    private void entity(OWLEntity entity) {
+        record.writeVarInt(entityId(entity));
+    }
+
+    int entityId(OWLEntity entity) {
+        Integer id = entities.get(entity);
+        if (id == null) {
+            iriId(entity.getIRI());
+            id = Integer.valueOf(entities.size());
+            entities.put(entity, id);
+            newEntities.add(entity);
+        }
+        return id.intValue();
+    }
+
+    // nested objects
+    private void write(OWLObject object) {
+        object.accept(this);
+    }
+
+    private void write(Collection<? extends OWLObject> objects) {
+        record.writeVarInt(objects.size());
+        for (OWLObject o : objects) {
+            o.accept(this);
+        }
+    }
+
+    private void dataProperty(OWLDataPropertyExpression property) {
+        entity(property.asOWLDataProperty());
+    }
+
+    private void axiom(int tag, OWLAxiom axiom) {
+        recordTag = tag;
+        write(axiom.getAnnotations());
+    }
+
+    @Override
+    public void visit(OWLOntology ontology) {
+        throw new OWLRuntimeException("Ontologies cannot be nested: " + ontology);
+    }
+
+    @Override
+    public void visit(OWLDeclarationAxiom axiom) {
+        axiom(DECLARATION, axiom);
+        entity(axiom.getEntity());
+    }
+
+    @Override
+    public void visit(OWLSubClassOfAxiom axiom) {
+        axiom(SUBCLASS_OF, axiom);
+        write(axiom.getSubClass());
+        write(axiom.getSuperClass());
+    }
+
+    @Override
+    public void visit(OWLEquivalentClassesAxiom axiom) {
+        axiom(EQUIVALENT_CLASSES, axiom);
+        write(axiom.getClassExpressions());
+    }
+
+    @Override
+    public void visit(OWLDisjointClassesAxiom axiom) {
+        axiom(DISJOINT_CLASSES, axiom);
+        write(axiom.getClassExpressions());
+    }
+
+    @Override
+    public void visit(OWLDisjointUnionAxiom axiom) {
+        axiom(DISJOINT_UNION, axiom);
+        entity(axiom.getOWLClass());
+        write(axiom.getClassExpressions());
+    }
+
+    @Override
+    public void visit(OWLSubObjectPropertyOfAxiom axiom) {
+        axiom(SUB_OBJECT_PROPERTY_OF, axiom);
+        write(axiom.getSubProperty());
+        write(axiom.getSuperProperty());
+    }
+
+    @Override
+    public void visit(OWLSubPropertyChainOfAxiom axiom) {
+        axiom(SUB_PROPERTY_CHAIN_OF, axiom);
+        write(axiom.getPropertyChain());
+        write(axiom.getSuperProperty());
+    }
+
+    @Override
+    public void visit(OWLEquivalentObjectPropertiesAxiom axiom) {
+        axiom(EQUIVALENT_OBJECT_PROPERTIES, axiom);
+        write(axiom.getProperties());
+    }
+
+    @Override
+    public void visit(OWLDisjointObjectPropertiesAxiom axiom) {
+        axiom(DISJOINT_OBJECT_PROPERTIES, axiom);
+        write(axiom.getProperties());
+    }
+
+    @Override
+    public void visit(OWLInverseObjectPropertiesAxiom axiom) {
+        axiom(INVERSE_OBJECT_PROPERTIES, axiom);
+        write(axiom.getFirstProperty());
+        write(axiom.getSecondProperty());
+    }
+
+    @Override
+    public void visit(OWLObjectPropertyDomainAxiom axiom) {
+        axiom(OBJECT_PROPERTY_DOMAIN, axiom);
+        write(axiom.getProperty());
+        write(axiom.getDomain());
+    }
+
+    @Override
+    public void visit(OWLObjectPropertyRangeAxiom axiom) {
+        axiom(OBJECT_PROPERTY_RANGE, axiom);
+        write(axiom.getProperty());
+        write(axiom.getRange());
+    }
+
+    @Override
+    public void visit(OWLFunctionalObjectPropertyAxiom axiom) {
+        axiom(FUNCTIONAL_OBJECT_PROPERTY, axiom);
+        write(axiom.getProperty());
+    }
+
+    @Override
+    public void visit(OWLInverseFunctionalObjectPropertyAxiom axiom) {
+        axiom(INVERSE_FUNCTIONAL_OBJECT_PROPERTY, axiom);
+        write(axiom.getProperty());
+    }
+
+    @Override
+    public void visit(OWLReflexiveObjectPropertyAxiom axiom) {
+        axiom(REFLEXIVE_OBJECT_PROPERTY, axiom);
+        write(axiom.getProperty());
+    }
+
+    @Override
+    public void visit(OWLIrreflexiveObjectPropertyAxiom axiom) {
+        axiom(IRREFLEXIVE_OBJECT_PROPERTY, axiom);
+        write(axiom.getProperty());
+    }
+
+    @Override
+    public void visit(OWLSymmetricObjectPropertyAxiom axiom) {
+        axiom(SYMMETRIC_OBJECT_PROPERTY, axiom);
+        write(axiom.getProperty());
+    }
+
+    @Override
+    public void visit(OWLAsymmetricObjectPropertyAxiom axiom) {
+        axiom(ASYMMETRIC_OBJECT_PROPERTY, axiom);
+        write(axiom.getProperty());
+    }
+
+    @Override
+    public void visit(OWLTransitiveObjectPropertyAxiom axiom) {
+        axiom(TRANSITIVE_OBJECT_PROPERTY, axiom);
+        write(axiom.getProperty());
+    }
+
+    @Override
+    public void visit(OWLSubDataPropertyOfAxiom axiom) {
+        axiom(SUB_DATA_PROPERTY_OF, axiom);
+        dataProperty(axiom.getSubProperty());
+        dataProperty(axiom.getSuperProperty());
+    }
+
+    @Override
+    public void visit(OWLEquivalentDataPropertiesAxiom axiom) {
+        axiom(EQUIVALENT_DATA_PROPERTIES, axiom);
+        dataProperties(axiom.getProperties());
+    }
+
+    @Override
+    public void visit(OWLDisjointDataPropertiesAxiom axiom) {
+        axiom(DISJOINT_DATA_PROPERTIES, axiom);
+        dataProperties(axiom.getProperties());
+    }
+
+    private void dataProperties(Collection<OWLDataPropertyExpression> properties) {
+        record.writeVarInt(properties.size());
+        for (OWLDataPropertyExpression p : properties) {
+            dataProperty(p);
+        }
+    }
+
+    @Override
+    public void visit(OWLDataPropertyDomainAxiom axiom) {
+        axiom(DATA_PROPERTY_DOMAIN, axiom);
+        dataProperty(axiom.getProperty());
+        write(axiom.getDomain());
+    }
+
+    @Override
+    public void visit(OWLDataPropertyRangeAxiom axiom) {
+        axiom(DATA_PROPERTY_RANGE, axiom);
+        dataProperty(axiom.getProperty());
+        write(axiom.getRange());
+    }
+
+    @Override
+    public void visit(OWLFunctionalDataPropertyAxiom axiom) {
+        axiom(FUNCTIONAL_DATA_PROPERTY, axiom);
+        dataProperty(axiom.getProperty());
+    }
+
+    @Override
+    public void visit(OWLDatatypeDefinitionAxiom axiom) {
+        axiom(DATATYPE_DEFINITION, axiom);
+        entity(axiom.getDatatype());
+        write(axiom.getDataRange());
+    }
+
+    @Override
+    public void visit(OWLHasKeyAxiom axiom) {
+        axiom(HAS_KEY, axiom);
+        write(axiom.getClassExpression());
+        write(axiom.getObjectPropertyExpressions());
+        dataProperties(axiom.getDataPropertyExpressions());
+    }
+
+    @Override
+    public void visit(OWLSameIndividualAxiom axiom) {
+        axiom(SAME_INDIVIDUAL, axiom);
+        write(axiom.getIndividuals());
+    }
+
+    @Override
+    public void visit(OWLDifferentIndividualsAxiom axiom) {
+        axiom(DIFFERENT_INDIVIDUALS, axiom);
+        write(axiom.getIndividuals());
+    }
+
+    @Override
+    public void visit(OWLClassAssertionAxiom axiom) {
+        axiom(CLASS_ASSERTION, axiom);
+        write(axiom.getIndividual());
+        write(axiom.getClassExpression());
+    }
+
+    @Override
+    public void visit(OWLObjectPropertyAssertionAxiom axiom) {
+        axiom(OBJECT_PROPERTY_ASSERTION, axiom);
+        write(axiom.getSubject());
+        write(axiom.getProperty());
+        write(axiom.getObject());
+    }
+
+    @Override
+    public void visit(OWLNegativeObjectPropertyAssertionAxiom axiom) {
+        axiom(NEGATIVE_OBJECT_PROPERTY_ASSERTION, axiom);
+        write(axiom.getSubject());
+        write(axiom.getProperty());
+        write(axiom.getObject());
+    }
+
+    @Override
+    public void visit(OWLDataPropertyAssertionAxiom axiom) {
+        axiom(DATA_PROPERTY_ASSERTION, axiom);
+        write(axiom.getSubject());
+        dataProperty(axiom.getProperty());
+        write(axiom.getObject());
+    }
+
+    @Override
+    public void visit(OWLNegativeDataPropertyAssertionAxiom axiom) {
+        axiom(NEGATIVE_DATA_PROPERTY_ASSERTION, axiom);
+        write(axiom.getSubject());
+        dataProperty(axiom.getProperty());
+        write(axiom.getObject());
+    }
+
+    @Override
+    public void visit(OWLAnnotationAssertionAxiom axiom) {
+        axiom(ANNOTATION_ASSERTION, axiom);
+        write(axiom.getSubject());
+        entity(axiom.getProperty());
+        write(axiom.getValue());
+    }
+
+    @Override
+    public void visit(OWLSubAnnotationPropertyOfAxiom axiom) {
+        axiom(SUB_ANNOTATION_PROPERTY_OF, axiom);
+        entity(axiom.getSubProperty());
+        entity(axiom.getSuperProperty());
+    }
+
+    @Override
+    public void visit(OWLAnnotationPropertyDomainAxiom axiom) {
+        axiom(ANNOTATION_PROPERTY_DOMAIN, axiom);
+        entity(axiom.getProperty());
+        iri(axiom.getDomain());
+    }
+
+    @Override
+    public void visit(OWLAnnotationPropertyRangeAxiom axiom) {
+        axiom(ANNOTATION_PROPERTY_RANGE, axiom);
+        entity(axiom.getProperty());
+        iri(axiom.getRange());
+    }
+
+    @Override
+    public void visit(SWRLRule rule) {
+        axiom(SWRL_RULE, rule);
+        write(rule.getBody());
+        write(rule.getHead());
+    }
+
+    // class expressions
+    @Override
+    public void visit(OWLClass ce) {
+        record.writeByte(CLASS);
+        entity(ce);
+    }
+
+    @Override
+    public void visit(OWLObjectIntersectionOf ce) {
+        record.writeByte(OBJECT_INTERSECTION_OF);
+        write(ce.getOperands());
+    }
+
+    @Override
+    public void visit(OWLObjectUnionOf ce) {
+        record.writeByte(OBJECT_UNION_OF);
+        write(ce.getOperands());
+    }
+
+    @Override
+    public void visit(OWLObjectComplementOf ce) {
+        record.writeByte(OBJECT_COMPLEMENT_OF);
+        write(ce.getOperand());
+    }
+
+    @Override
+    public void visit(OWLObjectOneOf ce) {
+        record.writeByte(OBJECT_ONE_OF);
+        write(ce.getIndividuals());
+    }
+
+    @Override
+    public void visit(OWLObjectSomeValuesFrom ce) {
+        record.writeByte(OBJECT_SOME_VALUES_FROM);
+        write(ce.getProperty());
+        write(ce.getFiller());
+    }
+
+    @Override
+    public void visit(OWLObjectAllValuesFrom ce) {
+        record.writeByte(OBJECT_ALL_VALUES_FROM);
+        write(ce.getProperty());
+        write(ce.getFiller());
+    }
+
+    @Override
+    public void visit(OWLObjectHasValue ce) {
+        record.writeByte(OBJECT_HAS_VALUE);
+        write(ce.getProperty());
+        write(ce.getValue());
+    }
+
+    @Override
+    public void visit(OWLObjectMinCardinality ce) {
+        record.writeByte(OBJECT_MIN_CARDINALITY);
+        record.writeVarInt(ce.getCardinality());
+        write(ce.getProperty());
+        write(ce.getFiller());
+    }
+
+    @Override
+    public void visit(OWLObjectExactCardinality ce) {
+        record.writeByte(OBJECT_EXACT_CARDINALITY);
+        record.writeVarInt(ce.getCardinality());
+        write(ce.getProperty());
+        write(ce.getFiller());
+    }
+
+    @Override
+    public void visit(OWLObjectMaxCardinality ce) {
+        record.writeByte(OBJECT_MAX_CARDINALITY);
+        record.writeVarInt(ce.getCardinality());
+        write(ce.getProperty());
+        write(ce.getFiller());
+    }
+
+    @Override
+    public void visit(OWLObjectHasSelf ce) {
+        record.writeByte(OBJECT_HAS_SELF);
+        write(ce.getProperty());
+    }
+
+    @Override
+    public void visit(OWLDataSomeValuesFrom ce) {
+        record.writeByte(DATA_SOME_VALUES_FROM);
+        dataProperty(ce.getProperty());
+        write(ce.getFiller());
+    }
+
+    @Override
+    public void visit(OWLDataAllValuesFrom ce) {
+        record.writeByte(DATA_ALL_VALUES_FROM);
+        dataProperty(ce.getProperty());
+        write(ce.getFiller());
+    }
+
+    @Override
+    public void visit(OWLDataHasValue ce) {
+        record.writeByte(DATA_HAS_VALUE);
+        dataProperty(ce.getProperty());
+        write(ce.getValue());
+    }
+
+    @Override
+    public void visit(OWLDataMinCardinality ce) {
+        record.writeByte(DATA_MIN_CARDINALITY);
+        record.writeVarInt(ce.getCardinality());
+        dataProperty(ce.getProperty());
+        write(ce.getFiller());
+    }
+
+    @Override
+    public void visit(OWLDataExactCardinality ce) {
+        record.writeByte(DATA_EXACT_CARDINALITY);
+        record.writeVarInt(ce.getCardinality());
+        dataProperty(ce.getProperty());
+        write(ce.getFiller());
+    }
+
+    @Override
+    public void visit(OWLDataMaxCardinality ce) {
+        record.writeByte(DATA_MAX_CARDINALITY);
+        record.writeVarInt(ce.getCardinality());
+        dataProperty(ce.getProperty());
+        write(ce.getFiller());
+    }
+
+    // properties
+    @Override
+    public void visit(OWLObjectProperty property) {
+        record.writeByte(OBJECT_PROPERTY);
+        entity(property);
+    }
+
+    @Override
+    public void visit(OWLObjectInverseOf property) {
+        record.writeByte(OBJECT_INVERSE_OF);
+        write(property.getInverse());
+    }
+
+    @Override
+    public void visit(OWLDataProperty property) {
+        record.writeByte(DATA_PROPERTY);
+        entity(property);
+    }
+
+    @Override
+    public void visit(OWLAnnotationProperty property) {
+        record.writeByte(ANNOTATION_PROPERTY);
+        entity(property);
+    }
+
+    // data ranges
+    @Override
+    public void visit(OWLDatatype node) {
+        record.writeByte(DATATYPE);
+        entity(node);
+    }
+
+    @Override
+    public void visit(OWLDataOneOf node) {
+        record.writeByte(DATA_ONE_OF);
+        write(node.getValues());
+    }
+
+    @Override
+    public void visit(OWLDataComplementOf node) {
+        record.writeByte(DATA_COMPLEMENT_OF);
+        write(node.getDataRange());
+    }
+
+    @Override
+    public void visit(OWLDataIntersectionOf node) {
+        record.writeByte(DATA_INTERSECTION_OF);
+        write(node.getOperands());
+    }
+
+    @Override
+    public void visit(OWLDataUnionOf node) {
+        record.writeByte(DATA_UNION_OF);
+        write(node.getOperands());
+    }
+
+    @Override
+    public void visit(OWLDatatypeRestriction node) {
+        record.writeByte(DATATYPE_RESTRICTION);
+        entity(node.getDatatype());
+        write(node.getFacetRestrictions());
+    }
+
+    @Override
+    public void visit(OWLFacetRestriction node) {
+        iri(node.getFacet().getIRI());
+        write(node.getFacetValue());
+    }
+
+    // individuals and annotation values
+    @Override
+    public void visit(OWLNamedIndividual individual) {
+        record.writeByte(NAMED_INDIVIDUAL);
+        entity(individual);
+    }
+
+    @Override
+    public void visit(OWLAnonymousIndividual individual) {
+        record.writeByte(ANONYMOUS_INDIVIDUAL);
+        string(individual.getID().getID());
+    }
+
+    @Override
+    public void visit(IRI iri) {
+        record.writeByte(IRI_VALUE);
+        iri(iri);
+    }
+
+    @Override
+    public void visit(OWLLiteral literal) {
+        if (literal.isRDFPlainLiteral()) {
+            record.writeByte(PLAIN_LITERAL);
+            string(literal.getLang());
+        } else {
+            record.writeByte(TYPED_LITERAL);
+            entity(literal.getDatatype());
+        }
+        record.writeString(literal.getLiteral());
+    }
+
+    @Override
+    public void visit(OWLAnnotation node) {
+        entity(node.getProperty());
+        write(node.getValue());
+        write(node.getAnnotations());
+    }
+
+    // SWRL
+    @Override
+    public void visit(SWRLClassAtom node) {
+        record.writeByte(SWRL_CLASS_ATOM);
+        write(node.getPredicate());
+        write(node.getArgument());
+    }
+
+    @Override
+    public void visit(SWRLDataRangeAtom node) {
+        record.writeByte(SWRL_DATA_RANGE_ATOM);
+        write(node.getPredicate());
+        write(node.getArgument());
+    }
+
+    @Override
+    public void visit(SWRLObjectPropertyAtom node) {
+        record.writeByte(SWRL_OBJECT_PROPERTY_ATOM);
+        write(node.getPredicate());
+        write(node.getFirstArgument());
+        write(node.getSecondArgument());
+    }
+
+    @Override
+    public void visit(SWRLDataPropertyAtom node) {
+        record.writeByte(SWRL_DATA_PROPERTY_ATOM);
+        dataProperty(node.getPredicate());
+        write(node.getFirstArgument());
+        write(node.getSecondArgument());
+    }
+
+    @Override
+    public void visit(SWRLBuiltInAtom node) {
+        record.writeByte(SWRL_BUILT_IN_ATOM);
+        iri(node.getPredicate());
+        List<SWRLDArgument> arguments = node.getArguments();
+        write(arguments);
+    }
+
+    @Override
+    public void visit(SWRLSameIndividualAtom node) {
+        record.writeByte(SWRL_SAME_INDIVIDUAL_ATOM);
+        write(node.getFirstArgument());
+        write(node.getSecondArgument());
+    }
+
+    @Override
+    public void visit(SWRLDifferentIndividualsAtom node) {
+        record.writeByte(SWRL_DIFFERENT_INDIVIDUALS_ATOM);
+        write(node.getFirstArgument());
+        write(node.getSecondArgument());
+    }
+
+    @Override
+    public void visit(SWRLVariable node) {
+        record.writeByte(SWRL_VARIABLE);
+        iri(node.getIRI());
+    }
+
+    @Override
+    public void visit(SWRLIndividualArgument node) {
+        record.writeByte(SWRL_INDIVIDUAL_ARGUMENT);
+        write(node.getIndividual());
+    }
+
+    @Override
+    public void visit(SWRLLiteralArgument node) {
+        record.writeByte(SWRL_LITERAL_ARGUMENT);
+        write(node.getLiteral());
+    }
+}
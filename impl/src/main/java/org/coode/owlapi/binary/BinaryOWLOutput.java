@@ -0,0 +1,138 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.coode.owlapi.binary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/** A growable byte buffer with the primitive encodings of the binary format;
+ * unlike <code>ByteArrayOutputStream</code>, it is not synchronized and can
+ * be reset and reused for every record. */
+final class BinaryOWLOutput {
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+    private byte[] bytes = new byte[256];
+    private int size = 0;
+
+    void reset() {
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+        }
+    }
+
+    void writeByte(int b) {
+        ensureCapacity(1);
+        bytes[size++] = (byte) b;
+    }
+
+    /** @param i
+     *            a non negative int, written in seven bit groups, least
+     *            significant first */
+    void writeVarInt(int i) {
+        ensureCapacity(5);
+        int value = i;
+        while ((value & ~0x7F) != 0) {
+            bytes[size++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        bytes[size++] = (byte) value;
+    }
+
+    /** @param i
+     *            an int, written as four bytes, most significant first */
+    void writeInt(int i) {
+        ensureCapacity(4);
+        bytes[size++] = (byte) (i >>> 24);
+        bytes[size++] = (byte) (i >>> 16);
+        bytes[size++] = (byte) (i >>> 8);
+        bytes[size++] = (byte) i;
+    }
+
+    /** @param other
+     *            the buffer whose content is appended to this buffer */
+    void write(BinaryOWLOutput other) {
+        ensureCapacity(other.size);
+        System.arraycopy(other.bytes, 0, bytes, size, other.size);
+        size += other.size;
+    }
+
+    void writeString(String s) {
+        byte[] b = s.getBytes(UTF_8);
+        writeVarInt(b.length);
+        writeBytes(b);
+    }
+
+    void writeBytes(byte[] b) {
+        ensureCapacity(b.length);
+        System.arraycopy(b, 0, bytes, size, b.length);
+        size += b.length;
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, size);
+    }
+
+    /** writes a record: the tag, the length of this buffer and its content
+     * 
+     * @param tag
+     *            record tag
+     * @param out
+     *            the stream to write to
+     * @throws IOException
+     *             if the stream cannot be written */
+    void writeRecord(int tag, OutputStream out) throws IOException {
+        out.write(tag);
+        int value = size;
+        while ((value & ~0x7F) != 0) {
+            out.write(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+        out.write(bytes, 0, size);
+    }
+}
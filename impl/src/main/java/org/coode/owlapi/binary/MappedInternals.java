@@ -0,0 +1,553 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.coode.owlapi.binary;
+
+import static org.coode.owlapi.binary.BinaryOWLConstants.*;
+
+import java.io.ObjectStreamException;
+import java.util.List;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAnnotationProperty;
+import org.semanticweb.owlapi.model.OWLAnonymousIndividual;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassAxiom;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLDeclarationAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLLogicalAxiom;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.model.OWLSubPropertyChainOfAxiom;
+import org.semanticweb.owlapi.util.CollectionFactory;
+
+import uk.ac.manchester.cs.owl.owlapi.AbstractInternalsImpl;
+import uk.ac.manchester.cs.owl.owlapi.InternalsImpl;
+import uk.ac.manchester.cs.owl.owlapi.MapPointer;
+
+/** Read only internals backed by a {@link MappedOWLOntologyStore}. The axiom
+ * by type, entity reference, declaration and subclass indexes are read from
+ * the file; the other indexes are built in memory, as usual, the first time
+ * they are used, from the axioms of the types they need. There is no in
+ * memory storage for changes: {@link MappedOWLOntology} rejects them before
+ * they get here, and the methods that would change the ontology throw
+ * {@link UnsupportedOperationException}.
+ * <p>
+ * The mapped file is not written when serializing; an in memory copy of the
+ * axioms, imports and annotations is written instead. */
+class MappedInternals extends AbstractInternalsImpl {
+    private static final long serialVersionUID = 30402L;
+    private final transient MappedOWLOntologyStore store;
+    private final MappedPointer<AxiomType<?>, OWLAxiom> mappedAxiomsByType;
+    private final MappedPointer<OWLClass, OWLAxiom> classReferences;
+    private final MappedPointer<OWLObjectProperty, OWLAxiom> objectPropertyReferences;
+    private final MappedPointer<OWLDataProperty, OWLAxiom> dataPropertyReferences;
+    private final MappedPointer<OWLNamedIndividual, OWLAxiom> individualReferences;
+    private final MappedPointer<OWLDatatype, OWLAxiom> datatypeReferences;
+    private final MappedPointer<OWLAnnotationProperty, OWLAxiom> annotationPropertyReferences;
+    private final MappedPointer<OWLEntity, OWLDeclarationAxiom> declarations;
+    private final MappedPointer<OWLClass, OWLSubClassOfAxiom> subClassAxiomsBySubClass;
+    private final MappedPointer<OWLClass, OWLSubClassOfAxiom> subClassAxiomsBySuperClass;
+    private MapPointer<OWLAnonymousIndividual, OWLAxiom> anonymousIndividualReferences;
+
+    /** @param store
+     *            the mapped file */
+    MappedInternals(MappedOWLOntologyStore store) {
+        this.store = store;
+        mappedAxiomsByType = new AxiomsByType();
+        classReferences = new References<OWLClass>(CLASS);
+        objectPropertyReferences = new References<OWLObjectProperty>(OBJECT_PROPERTY);
+        dataPropertyReferences = new References<OWLDataProperty>(DATA_PROPERTY);
+        individualReferences = new References<OWLNamedIndividual>(NAMED_INDIVIDUAL);
+        datatypeReferences = new References<OWLDatatype>(DATATYPE);
+        annotationPropertyReferences = new References<OWLAnnotationProperty>(
+                ANNOTATION_PROPERTY);
+        declarations = new Declarations();
+        subClassAxiomsBySubClass = new SubClassAxioms(true);
+        subClassAxiomsBySuperClass = new SubClassAxioms(false);
+    }
+
+    static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException(
+                "Ontologies loaded from mapped files cannot be changed");
+    }
+
+    @SuppressWarnings("unchecked")
+    <V extends OWLAxiom> Set<V> decode(List<OWLAxiom> axioms) {
+        Set<V> set = CollectionFactory.createSet();
+        for (OWLAxiom ax : axioms) {
+            set.add((V) ax);
+        }
+        return set;
+    }
+
+    /** @return in memory internals with the same content, which are
+     *         serialized in place of these
+     * @throws ObjectStreamException
+     *             never */
+    protected Object writeReplace() throws ObjectStreamException {
+        InternalsImpl copy = new InternalsImpl();
+        for (OWLAxiom ax : getAxioms()) {
+            copy.addAxiom(ax);
+        }
+        for (OWLImportsDeclaration decl : getImportsDeclarations()) {
+            copy.addImportsDeclaration(decl);
+        }
+        for (OWLAnnotation ann : getOntologyAnnotations()) {
+            copy.addOntologyAnnotation(ann);
+        }
+        return copy;
+    }
+
+    /** an index read from the mapped file; values are decoded for every
+     * request, and there is no map behind it */
+    private abstract class MappedPointer<K, V extends OWLAxiom> extends MapPointer<K, V> {
+        private static final long serialVersionUID = 30402L;
+
+        MappedPointer() {
+            super(null, null, true, MappedInternals.this, null);
+        }
+
+        @Override
+        public abstract Set<K> keySet();
+
+        @Override
+        public abstract Set<V> getValues(K key);
+
+        @Override
+        public boolean hasValues(K key) {
+            return !getValues(key).isEmpty();
+        }
+
+        @Override
+        public boolean containsKey(K key) {
+            return hasValues(key);
+        }
+
+        @Override
+        public boolean contains(K key, V value) {
+            return getValues(key).contains(value);
+        }
+
+        @Override
+        public Set<V> getAllValues() {
+            Set<V> values = CollectionFactory.createSet();
+            for (K key : keySet()) {
+                values.addAll(getValues(key));
+            }
+            return values;
+        }
+
+        @Override
+        public int size() {
+            return getAllValues().size();
+        }
+
+        @Override
+        public boolean put(K key, V value) {
+            throw readOnly();
+        }
+
+        @Override
+        public boolean remove(K key, V value) {
+            throw readOnly();
+        }
+
+        @Override
+        public String toString() {
+            return "mapped index";
+        }
+    }
+
+    private class AxiomsByType extends MappedPointer<AxiomType<?>, OWLAxiom> {
+        private static final long serialVersionUID = 30402L;
+
+        AxiomsByType() {}
+
+        @Override
+        public Set<AxiomType<?>> keySet() {
+            return store.getAxiomTypes();
+        }
+
+        @Override
+        public Set<OWLAxiom> getValues(AxiomType<?> key) {
+            int[] range = store.getRange(key);
+            return decode(store.getAxioms(range[0], range[1]));
+        }
+
+        @Override
+        public boolean hasValues(AxiomType<?> key) {
+            int[] range = store.getRange(key);
+            return range[0] < range[1];
+        }
+
+        /** only decodes the axioms of the same type that refer to one of the
+         * entities of the axiom, if it has any */
+        @Override
+        public boolean contains(AxiomType<?> key, OWLAxiom value) {
+            int[] range = store.getRange(key);
+            if (range[0] == range[1]) {
+                return false;
+            }
+            Set<OWLEntity> signature = value.getSignature();
+            if (signature.isEmpty()) {
+                return store.getAxioms(range[0], range[1]).contains(value);
+            }
+            int entity = store.getEntityId(signature.iterator().next());
+            if (entity < 0) {
+                return false;
+            }
+            for (int id : store.getReferences(entity)) {
+                if (id >= range[0] && id < range[1] && store.getAxiom(id).equals(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Set<OWLAxiom> getAllValues() {
+            return decode(store.getAxioms(0, store.getAxiomCount()));
+        }
+
+        @Override
+        public int size() {
+            return store.getAxiomCount();
+        }
+    }
+
+    private class References<E extends OWLEntity> extends MappedPointer<E, OWLAxiom> {
+        private static final long serialVersionUID = 30402L;
+        private final int tag;
+
+        References(int tag) {
+            this.tag = tag;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Set<E> keySet() {
+            Set<E> keys = CollectionFactory.createSet();
+            for (int id = 0; id < store.getEntityCount(); id++) {
+                if (store.getEntityTag(id) == tag && store.getReferences(id).length > 0) {
+                    keys.add((E) store.getEntity(id));
+                }
+            }
+            return keys;
+        }
+
+        @Override
+        public Set<OWLAxiom> getValues(E key) {
+            return decode(store.getAxioms(store.getReferences(store.getEntityId(key))));
+        }
+
+        @Override
+        public boolean hasValues(E key) {
+            return store.getReferences(store.getEntityId(key)).length > 0;
+        }
+    }
+
+    /** declarations are found through the references of the entity */
+    private class Declarations extends MappedPointer<OWLEntity, OWLDeclarationAxiom> {
+        private static final long serialVersionUID = 30402L;
+
+        Declarations() {}
+
+        @Override
+        public Set<OWLEntity> keySet() {
+            Set<OWLEntity> keys = CollectionFactory.createSet();
+            int[] range = store.getRange(AxiomType.DECLARATION);
+            for (OWLAxiom ax : store.getAxioms(range[0], range[1])) {
+                keys.add(((OWLDeclarationAxiom) ax).getEntity());
+            }
+            return keys;
+        }
+
+        @Override
+        public Set<OWLDeclarationAxiom> getValues(OWLEntity key) {
+            Set<OWLDeclarationAxiom> values = CollectionFactory.createSet();
+            int[] range = store.getRange(AxiomType.DECLARATION);
+            for (int id : store.getReferences(store.getEntityId(key))) {
+                if (id >= range[0] && id < range[1]) {
+                    OWLDeclarationAxiom ax = (OWLDeclarationAxiom) store.getAxiom(id);
+                    // the entity could be in the annotations
+                    if (ax.getEntity().equals(key)) {
+                        values.add(ax);
+                    }
+                }
+            }
+            return values;
+        }
+    }
+
+    private class SubClassAxioms extends MappedPointer<OWLClass, OWLSubClassOfAxiom> {
+        private static final long serialVersionUID = 30402L;
+        private final boolean bySubClass;
+
+        SubClassAxioms(boolean bySubClass) {
+            this.bySubClass = bySubClass;
+        }
+
+        private int[] ids(int entity) {
+            return bySubClass ? store.getSubClassAxioms(entity) : store
+                    .getSuperClassAxioms(entity);
+        }
+
+        @Override
+        public Set<OWLClass> keySet() {
+            Set<OWLClass> keys = CollectionFactory.createSet();
+            for (int id = 0; id < store.getEntityCount(); id++) {
+                if (ids(id).length > 0) {
+                    keys.add((OWLClass) store.getEntity(id));
+                }
+            }
+            return keys;
+        }
+
+        @Override
+        public Set<OWLSubClassOfAxiom> getValues(OWLClass key) {
+            return decode(store.getAxioms(ids(store.getEntityId(key))));
+        }
+
+        @Override
+        public boolean hasValues(OWLClass key) {
+            return ids(store.getEntityId(key)).length > 0;
+        }
+    }
+
+    @Override
+    public MapPointer<AxiomType<?>, OWLAxiom> getAxiomsByType() {
+        return mappedAxiomsByType;
+    }
+
+    @Override
+    public MapPointer<OWLClass, OWLAxiom> getOwlClassReferences() {
+        return classReferences;
+    }
+
+    @Override
+    public MapPointer<OWLObjectProperty, OWLAxiom> getOwlObjectPropertyReferences() {
+        return objectPropertyReferences;
+    }
+
+    @Override
+    public MapPointer<OWLDataProperty, OWLAxiom> getOwlDataPropertyReferences() {
+        return dataPropertyReferences;
+    }
+
+    @Override
+    public MapPointer<OWLNamedIndividual, OWLAxiom> getOwlIndividualReferences() {
+        return individualReferences;
+    }
+
+    @Override
+    public MapPointer<OWLDatatype, OWLAxiom> getOwlDatatypeReferences() {
+        return datatypeReferences;
+    }
+
+    @Override
+    public MapPointer<OWLAnnotationProperty, OWLAxiom>
+            getOwlAnnotationPropertyReferences() {
+        return annotationPropertyReferences;
+    }
+
+    /** anonymous individuals are not in the file; this index is built in
+     * memory, from all axioms, the first time it is used */
+    @Override
+    public synchronized MapPointer<OWLAnonymousIndividual, OWLAxiom>
+            getOwlAnonymousIndividualReferences() {
+        if (anonymousIndividualReferences == null) {
+            anonymousIndividualReferences = new MapPointer<OWLAnonymousIndividual, OWLAxiom>(
+                    null, null, true, this);
+            for (OWLAxiom ax : getAxioms()) {
+                for (OWLAnonymousIndividual i : ax.getAnonymousIndividuals()) {
+                    anonymousIndividualReferences.put(i, ax);
+                }
+            }
+        }
+        return anonymousIndividualReferences;
+    }
+
+    @Override
+    public MapPointer<OWLEntity, OWLDeclarationAxiom> getDeclarationsByEntity() {
+        return declarations;
+    }
+
+    @Override
+    public MapPointer<OWLClass, OWLSubClassOfAxiom> getSubClassAxiomsByLHS() {
+        return subClassAxiomsBySubClass;
+    }
+
+    @Override
+    public MapPointer<OWLClass, OWLSubClassOfAxiom> getSubClassAxiomsByRHS() {
+        return subClassAxiomsBySuperClass;
+    }
+
+    @Override
+    public boolean isDeclared(OWLDeclarationAxiom ax) {
+        return declarations.containsKey(ax.getEntity());
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return store.getAxiomCount() == 0 && store.getAnnotations().isEmpty();
+    }
+
+    @Override
+    public int getAxiomCount() {
+        return store.getAxiomCount();
+    }
+
+    @Override
+    public Set<OWLAxiom> getAxioms() {
+        return mappedAxiomsByType.getAllValues();
+    }
+
+    @Override
+    public <T extends OWLAxiom> int getAxiomCount(AxiomType<T> axiomType) {
+        int[] range = store.getRange(axiomType);
+        return range[1] - range[0];
+    }
+
+    @Override
+    public Set<OWLLogicalAxiom> getLogicalAxioms() {
+        Set<OWLLogicalAxiom> axioms = CollectionFactory.createSet();
+        for (AxiomType<?> type : store.getAxiomTypes()) {
+            if (type.isLogical()) {
+                int[] range = store.getRange(type);
+                for (OWLAxiom ax : store.getAxioms(range[0], range[1])) {
+                    axioms.add((OWLLogicalAxiom) ax);
+                }
+            }
+        }
+        return axioms;
+    }
+
+    @Override
+    public int getLogicalAxiomCount() {
+        int count = 0;
+        for (AxiomType<?> type : store.getAxiomTypes()) {
+            if (type.isLogical()) {
+                count += getAxiomCount(type);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Set<OWLClassAxiom> getGeneralClassAxioms() {
+        return decode(store.getAxioms(store.getGeneralClassAxioms()));
+    }
+
+    @Override
+    public Set<OWLImportsDeclaration> getImportsDeclarations() {
+        return store.getImportsDeclarations();
+    }
+
+    @Override
+    public Set<OWLAnnotation> getOntologyAnnotations() {
+        return store.getAnnotations();
+    }
+
+    @Override
+    public boolean addAxiom(OWLAxiom axiom) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeAxiom(OWLAxiom axiom) {
+        throw readOnly();
+    }
+
+    @Override
+    public <K, V extends OWLAxiom> boolean add(Pointer<K, V> p, K k, V v) {
+        throw readOnly();
+    }
+
+    @Override
+    public <K, V extends OWLAxiom> boolean remove(Pointer<K, V> pointer, K k, V v) {
+        throw readOnly();
+    }
+
+    @Override
+    public void addGeneralClassAxioms(OWLClassAxiom ax) {
+        throw readOnly();
+    }
+
+    @Override
+    public void removeGeneralClassAxioms(OWLClassAxiom ax) {
+        throw readOnly();
+    }
+
+    @Override
+    public void addPropertyChainSubPropertyAxioms(OWLSubPropertyChainOfAxiom ax) {
+        throw readOnly();
+    }
+
+    @Override
+    public void removePropertyChainSubPropertyAxioms(OWLSubPropertyChainOfAxiom ax) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean addImportsDeclaration(OWLImportsDeclaration importDeclaration) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeImportsDeclaration(OWLImportsDeclaration importDeclaration) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean addOntologyAnnotation(OWLAnnotation ann) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeOntologyAnnotation(OWLAnnotation ann) {
+        throw readOnly();
+    }
+}
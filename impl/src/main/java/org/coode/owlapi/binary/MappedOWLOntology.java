@@ -0,0 +1,76 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.coode.owlapi.binary;
+
+import java.util.List;
+
+import org.semanticweb.owlapi.model.ImmutableOWLOntologyChangeException;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLOntologyImpl;
+
+/** A read only ontology whose axioms and main indexes stay in a memory mapped
+ * file, see {@link MappedOWLOntologyFactory}. Queries decode the axioms they
+ * return; changes are rejected with an
+ * {@link ImmutableOWLOntologyChangeException}. Serializing the ontology
+ * writes its content, not the file: the copy read back keeps its axioms in
+ * memory, and is still read only. */
+public class MappedOWLOntology extends OWLOntologyImpl {
+    private static final long serialVersionUID = 30402L;
+
+    MappedOWLOntology(OWLOntologyManager manager, OWLOntologyID ontologyID,
+            MappedOWLOntologyStore store) {
+        super(manager, ontologyID, new MappedInternals(store));
+    }
+
+    @Override
+    public List<OWLOntologyChange> applyChange(OWLOntologyChange change) {
+        throw new ImmutableOWLOntologyChangeException(change);
+    }
+
+    @Override
+    public List<OWLOntologyChange> applyChanges(List<OWLOntologyChange> changes) {
+        if (changes.isEmpty()) {
+            return changes;
+        }
+        throw new ImmutableOWLOntologyChangeException(changes.get(0));
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.coode.owlapi.binary;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import org.semanticweb.owlapi.io.FileDocumentSource;
+import org.semanticweb.owlapi.io.IRIDocumentSource;
+import org.semanticweb.owlapi.io.MappedOWLOntologyFormat;
+import org.semanticweb.owlapi.io.OWLOntologyCreationIOException;
+import org.semanticweb.owlapi.io.OWLOntologyDocumentSource;
+import org.semanticweb.owlapi.io.OWLParserException;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyFactory;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+/** Loads local files in the mapped layout as {@link MappedOWLOntology}
+ * instances. Loading maps the file and reads its header, so it takes the same
+ * short time regardless of the size of the ontology; the ontology cannot be
+ * changed afterwards. Documents that are not local files, or do not start
+ * with the signature of the mapped layout, are left to the other factories;
+ * this factory cannot create empty ontologies.
+ * 
+ * @see MappedOWLOntologyFormat */
+public class MappedOWLOntologyFactory implements OWLOntologyFactory {
+    private static final long serialVersionUID = 30402L;
+    private OWLOntologyManager ontologyManager;
+
+    @Override
+    public void setOWLOntologyManager(OWLOntologyManager owlOntologyManager) {
+        if (owlOntologyManager == null) {
+            throw new IllegalArgumentException("ontologyManager cannot be null");
+        }
+        ontologyManager = owlOntologyManager;
+    }
+
+    @Override
+    public OWLOntologyManager getOWLOntologyManager() {
+        return ontologyManager;
+    }
+
+    @Override
+    public boolean canCreateFromDocumentIRI(IRI documentIRI) {
+        return false;
+    }
+
+    @Override
+    public OWLOntology createOWLOntology(OWLOntologyID ontologyID, IRI documentIRI,
+            OWLOntologyCreationHandler handler) throws OWLOntologyCreationException {
+        throw new OWLOntologyCreationException(
+                "Mapped ontologies can only be loaded from existing files");
+    }
+
+    @Override
+    public boolean canLoad(OWLOntologyDocumentSource documentSource) {
+        File file = getFile(documentSource);
+        return file != null && MappedOWLOntologyStore.isMapped(file);
+    }
+
+    private static File getFile(OWLOntologyDocumentSource documentSource) {
+        if (!(documentSource instanceof FileDocumentSource)
+                && !(documentSource instanceof IRIDocumentSource)) {
+            return null;
+        }
+        IRI documentIRI = documentSource.getDocumentIRI();
+        if (!"file".equals(documentIRI.getScheme())) {
+            return null;
+        }
+        return new File(documentIRI.toURI());
+    }
+
+    @Override
+    public OWLOntology loadOWLOntology(OWLOntologyDocumentSource documentSource,
+            OWLOntologyCreationHandler handler) throws OWLOntologyCreationException {
+        return loadOWLOntology(documentSource, handler,
+                new OWLOntologyLoaderConfiguration());
+    }
+
+    @Override
+    public OWLOntology loadOWLOntology(OWLOntologyDocumentSource documentSource,
+            OWLOntologyCreationHandler handler,
+            OWLOntologyLoaderConfiguration configuration)
+            throws OWLOntologyCreationException {
+        File file = getFile(documentSource);
+        if (file == null) {
+            throw new OWLOntologyCreationException(
+                    "Mapped ontologies can only be loaded from local files: "
+                            + documentSource.getDocumentIRI());
+        }
+        MappedOWLOntologyStore store;
+        try {
+            store = new MappedOWLOntologyStore(file,
+                    ontologyManager.getOWLDataFactory());
+        } catch (IOException e) {
+            throw new OWLOntologyCreationIOException(e);
+        } catch (OWLParserException e) {
+            throw new OWLOntologyCreationException(e);
+        }
+        OWLOntology ontology = new MappedOWLOntology(ontologyManager,
+                store.getOntologyID(), store);
+        handler.ontologyCreated(ontology);
+        MappedOWLOntologyFormat format = new MappedOWLOntologyFormat();
+        for (Map.Entry<String, String> e : store.getPrefixes().entrySet()) {
+            format.setPrefix(e.getKey(), e.getValue());
+        }
+        handler.setOntologyFormat(ontology, format);
+        for (OWLImportsDeclaration decl : store.getImportsDeclarations()) {
+            ontologyManager.makeLoadImportRequest(decl, configuration);
+        }
+        return ontology;
+    }
+}
@@ -0,0 +1,477 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.coode.owlapi.binary;
+
+import static org.coode.owlapi.binary.BinaryOWLConstants.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.owlapi.io.OWLParserException;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+import org.semanticweb.owlapi.util.CollectionFactory;
+
+/** A file in the mapped layout, mapped read only. The tables are read in place;
+ * strings, IRIs, entities and axioms are decoded when they are asked for, and
+ * are not cached, so that the heap used does not depend on the size of the
+ * file. Each section is mapped separately, and cannot be larger than 2GB.
+ * Safe for concurrent use.
+ *
+ * @see MappedOWLOntologyWriter */
+final class MappedOWLOntologyStore {
+    private static final int[] NONE = new int[0];
+    private final OWLDataFactory df;
+    private final IntBuffer stringOffsets;
+    private final ByteBuffer stringData;
+    private final IntBuffer iris;
+    private final IntBuffer entities;
+    private final IntBuffer entityTable;
+    private final IntBuffer axiomOffsets;
+    private final ByteBuffer axiomData;
+    private final IntBuffer referenceStarts;
+    private final IntBuffer references;
+    private final IntBuffer subClassStarts;
+    private final IntBuffer subClasses;
+    private final IntBuffer superClassStarts;
+    private final IntBuffer superClasses;
+    private final IntBuffer generalClassAxioms;
+    private final Decoder decoder;
+    private final OWLOntologyID ontologyID;
+    private final Map<String, String> prefixes = new LinkedHashMap<String, String>();
+    private final Set<OWLImportsDeclaration> importsDeclarations = CollectionFactory
+            .createSet();
+    private final Set<OWLAnnotation> annotations = CollectionFactory.createSet();
+    /** first axiom id and end axiom id for each axiom type in the file */
+    private final Map<AxiomType<?>, int[]> types = new HashMap<AxiomType<?>, int[]>();
+
+    /** @param file
+     *            the file to map
+     * @param df
+     *            the data factory used to build the decoded objects
+     * @throws IOException
+     *             if the file cannot be mapped
+     * @throws OWLParserException
+     *             if the file is not in the mapped layout */
+    MappedOWLOntologyStore(File file, OWLDataFactory df) throws IOException,
+            OWLParserException {
+        this.df = df;
+        ByteBuffer[] sections = map(file);
+        stringOffsets = sections[SECTION_STRING_OFFSETS].asIntBuffer();
+        stringData = sections[SECTION_STRING_DATA];
+        iris = sections[SECTION_IRIS].asIntBuffer();
+        entities = sections[SECTION_ENTITIES].asIntBuffer();
+        entityTable = sections[SECTION_ENTITY_TABLE].asIntBuffer();
+        axiomOffsets = sections[SECTION_AXIOM_OFFSETS].asIntBuffer();
+        axiomData = sections[SECTION_AXIOM_DATA];
+        referenceStarts = sections[SECTION_REFERENCE_STARTS].asIntBuffer();
+        references = sections[SECTION_REFERENCES].asIntBuffer();
+        subClassStarts = sections[SECTION_SUBCLASS_STARTS].asIntBuffer();
+        subClasses = sections[SECTION_SUBCLASSES].asIntBuffer();
+        superClassStarts = sections[SECTION_SUPERCLASS_STARTS].asIntBuffer();
+        superClasses = sections[SECTION_SUPERCLASSES].asIntBuffer();
+        generalClassAxioms = sections[SECTION_GENERAL_CLASS_AXIOMS].asIntBuffer();
+        decoder = new Decoder(df);
+        ontologyID = readHeader(sections[SECTION_HEADER]);
+    }
+
+    /** @param file
+     *            the file to check
+     * @return true if the file starts with the signature of the mapped layout */
+    static boolean isMapped(File file) {
+        if (!file.isFile() || file.length() < MAPPED_MAGIC.length) {
+            return false;
+        }
+        try {
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                byte[] magic = new byte[MAPPED_MAGIC.length];
+                raf.readFully(magic);
+                return Arrays.equals(magic, MAPPED_MAGIC);
+            } finally {
+                raf.close();
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static ByteBuffer[] map(File file) throws IOException, OWLParserException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            byte[] magic = new byte[MAPPED_MAGIC.length];
+            raf.readFully(magic);
+            if (!Arrays.equals(magic, MAPPED_MAGIC)) {
+                throw new OWLParserException("Not a mapped binary OWL document");
+            }
+            int version = raf.readInt();
+            if (version > MAPPED_VERSION) {
+                throw new OWLParserException("Unsupported mapped binary OWL version "
+                        + version + "; the latest supported version is "
+                        + MAPPED_VERSION);
+            }
+            int count = raf.readInt();
+            if (count < SECTION_COUNT) {
+                throw new OWLParserException("Malformed mapped binary OWL document");
+            }
+            long[] offsets = new long[count];
+            long[] lengths = new long[count];
+            for (int i = 0; i < count; i++) {
+                offsets[i] = raf.readLong();
+                lengths[i] = raf.readLong();
+            }
+            // sections added by later versions are not mapped
+            ByteBuffer[] sections = new ByteBuffer[SECTION_COUNT];
+            for (int i = 0; i < SECTION_COUNT; i++) {
+                if (offsets[i] < 0 || lengths[i] < 0 || lengths[i] > Integer.MAX_VALUE
+                        || offsets[i] + lengths[i] > channel.size()) {
+                    throw new OWLParserException(
+                            "Malformed mapped binary OWL document: section " + i
+                                    + " is outside the file or larger than 2GB");
+                }
+                // the mapping stays valid after the channel is closed
+                sections[i] = channel.map(FileChannel.MapMode.READ_ONLY, offsets[i],
+                        lengths[i]);
+            }
+            return sections;
+        } finally {
+            raf.close();
+        }
+    }
+
+    private OWLOntologyID readHeader(ByteBuffer header) throws OWLParserException {
+        synchronized (decoder) {
+            decoder.load(header, 0, header.limit());
+            IRI ontologyIRI = decoder.readOptionalIRI();
+            IRI versionIRI = decoder.readOptionalIRI();
+            int count = decoder.readVarInt();
+            for (int i = 0; i < count; i++) {
+                prefixes.put(decoder.readString(), decoder.readString());
+            }
+            count = decoder.readVarInt();
+            for (int i = 0; i < count; i++) {
+                importsDeclarations.add(df.getOWLImportsDeclaration(decoder.readIRI()));
+            }
+            count = decoder.readVarInt();
+            for (int i = 0; i < count; i++) {
+                annotations.add(decoder.readAnnotation());
+            }
+            count = decoder.readVarInt();
+            for (int i = 0; i < count; i++) {
+                String name = decoder.readString();
+                int first = decoder.readVarInt();
+                int end = first + decoder.readVarInt();
+                AxiomType<?> type = AxiomType.getAxiomType(name);
+                if (type == null || end > getAxiomCount()) {
+                    throw decoder.malformed();
+                }
+                types.put(type, new int[] { first, end });
+            }
+            if (ontologyIRI == null) {
+                return new OWLOntologyID();
+            }
+            return new OWLOntologyID(ontologyIRI, versionIRI);
+        }
+    }
+
+    OWLOntologyID getOntologyID() {
+        return ontologyID;
+    }
+
+    Map<String, String> getPrefixes() {
+        return Collections.unmodifiableMap(prefixes);
+    }
+
+    Set<OWLImportsDeclaration> getImportsDeclarations() {
+        return Collections.unmodifiableSet(importsDeclarations);
+    }
+
+    Set<OWLAnnotation> getAnnotations() {
+        return Collections.unmodifiableSet(annotations);
+    }
+
+    int getAxiomCount() {
+        return axiomOffsets.limit() - 1;
+    }
+
+    /** @return the axiom types with at least one axiom */
+    Set<AxiomType<?>> getAxiomTypes() {
+        return Collections.unmodifiableSet(types.keySet());
+    }
+
+    /** @param type
+     *            axiom type
+     * @return first and end axiom id for the type; both are zero if there are
+     *         no axioms of the type */
+    int[] getRange(AxiomType<?> type) {
+        int[] range = types.get(type);
+        if (range == null) {
+            return new int[2];
+        }
+        return range;
+    }
+
+    int getEntityCount() {
+        return entities.limit() / 2;
+    }
+
+    /** @param entity
+     *            the entity to look up
+     * @return the id of the entity, or -1 if the entity does not appear in the
+     *         file */
+    int getEntityId(OWLEntity entity) {
+        int tag = BinaryOWLOntologyWriter.entityTag(entity);
+        IRI iri = entity.getIRI();
+        int mask = entityTable.limit() - 1;
+        int slot = MappedOWLOntologyWriter.hash(tag, iri.toString()) & mask;
+        for (int entry = entityTable.get(slot); entry != 0; entry = entityTable
+                .get(slot)) {
+            int id = entry - 1;
+            if (entities.get(2 * id) == tag && getIRI(entities.get(2 * id + 1)).equals(iri)) {
+                return id;
+            }
+            slot = slot + 1 & mask;
+        }
+        return -1;
+    }
+
+    int getEntityTag(int id) {
+        return entities.get(2 * id);
+    }
+
+    OWLEntity getEntity(int id) {
+        try {
+            return decoder.entity(id);
+        } catch (OWLParserException e) {
+            throw new OWLRuntimeException(e);
+        }
+    }
+
+    /** @param id
+     *            entity id
+     * @return ids of the axioms that refer to the entity, in ascending order */
+    int[] getReferences(int id) {
+        return slice(referenceStarts, references, id);
+    }
+
+    /** @param id
+     *            class id
+     * @return ids of the subclass axioms where the class is the subclass */
+    int[] getSubClassAxioms(int id) {
+        return slice(subClassStarts, subClasses, id);
+    }
+
+    /** @param id
+     *            class id
+     * @return ids of the subclass axioms where the class is the superclass */
+    int[] getSuperClassAxioms(int id) {
+        return slice(superClassStarts, superClasses, id);
+    }
+
+    int[] getGeneralClassAxioms() {
+        int[] ids = new int[generalClassAxioms.limit()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = generalClassAxioms.get(i);
+        }
+        return ids;
+    }
+
+    private static int[] slice(IntBuffer starts, IntBuffer values, int id) {
+        if (id < 0 || id + 1 >= starts.limit()) {
+            return NONE;
+        }
+        int start = starts.get(id);
+        int end = starts.get(id + 1);
+        if (start == end) {
+            return NONE;
+        }
+        int[] ids = new int[end - start];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = values.get(start + i);
+        }
+        return ids;
+    }
+
+    /** @param id
+     *            axiom id
+     * @return the decoded axiom */
+    OWLAxiom getAxiom(int id) {
+        synchronized (decoder) {
+            try {
+                return decoder.decodeAxiom(id);
+            } catch (OWLParserException e) {
+                throw new OWLRuntimeException(e);
+            }
+        }
+    }
+
+    /** @param ids
+     *            axiom ids
+     * @return the decoded axioms */
+    List<OWLAxiom> getAxioms(int[] ids) {
+        List<OWLAxiom> axioms = new ArrayList<OWLAxiom>(ids.length);
+        for (int id : ids) {
+            axioms.add(getAxiom(id));
+        }
+        return axioms;
+    }
+
+    /** @param first
+     *            first axiom id
+     * @param end
+     *            end axiom id, excluded
+     * @return the decoded axioms */
+    List<OWLAxiom> getAxioms(int first, int end) {
+        List<OWLAxiom> axioms = new ArrayList<OWLAxiom>(end - first);
+        for (int id = first; id < end; id++) {
+            axioms.add(getAxiom(id));
+        }
+        return axioms;
+    }
+
+    String getString(int id) {
+        if (id < 0 || id + 1 >= stringOffsets.limit()) {
+            throw new IndexOutOfBoundsException("No string with id " + id);
+        }
+        int start = stringOffsets.get(id);
+        byte[] bytes = new byte[stringOffsets.get(id + 1) - start];
+        ByteBuffer data = stringData.duplicate();
+        data.position(start);
+        data.get(bytes);
+        return new String(bytes, BinaryOWLOutput.UTF_8);
+    }
+
+    IRI getIRI(int id) {
+        int fragment = iris.get(2 * id + 1);
+        return IRI.create(getString(iris.get(2 * id)), fragment == 0 ? null
+                : getString(fragment - 1));
+    }
+
+    /** decodes from the mapped sections; the dictionaries are read in place */
+    private class Decoder extends BinaryOWLDecoder {
+        Decoder(OWLDataFactory dataFactory) {
+            super(dataFactory);
+        }
+
+        void load(ByteBuffer buffer, int start, int length) {
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            ByteBuffer b = buffer.duplicate();
+            b.position(start);
+            b.get(bytes, 0, length);
+            pos = 0;
+            end = length;
+        }
+
+        OWLAxiom decodeAxiom(int id) throws OWLParserException {
+            if (id < 0 || id >= getAxiomCount()) {
+                throw new OWLParserException("No axiom with id " + id);
+            }
+            int start = axiomOffsets.get(id);
+            load(axiomData, start, axiomOffsets.get(id + 1) - start);
+            recordTag = readByte();
+            OWLAxiom axiom = readAxiom(recordTag);
+            if (pos != end) {
+                throw malformed();
+            }
+            return axiom;
+        }
+
+        @Override
+        String string(int id) throws OWLParserException {
+            if (id < 0 || id + 1 >= stringOffsets.limit()) {
+                throw malformed();
+            }
+            return getString(id);
+        }
+
+        @Override
+        IRI iri(int id) throws OWLParserException {
+            if (id < 0 || id >= iris.limit() / 2) {
+                throw malformed();
+            }
+            return getIRI(id);
+        }
+
+        @Override
+        OWLEntity entity(int id) throws OWLParserException {
+            if (id < 0 || id >= getEntityCount()) {
+                throw malformed();
+            }
+            IRI iri = getIRI(entities.get(2 * id + 1));
+            switch (entities.get(2 * id)) {
+                case CLASS:
+                    return df.getOWLClass(iri);
+                case OBJECT_PROPERTY:
+                    return df.getOWLObjectProperty(iri);
+                case DATA_PROPERTY:
+                    return df.getOWLDataProperty(iri);
+                case ANNOTATION_PROPERTY:
+                    return df.getOWLAnnotationProperty(iri);
+                case NAMED_INDIVIDUAL:
+                    return df.getOWLNamedIndividual(iri);
+                case DATATYPE:
+                    return df.getOWLDatatype(iri);
+                default:
+                    throw malformed();
+            }
+        }
+    }
+}
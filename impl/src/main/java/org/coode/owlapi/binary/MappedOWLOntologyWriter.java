@@ -0,0 +1,319 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.coode.owlapi.binary;
+
+import static org.coode.owlapi.binary.BinaryOWLConstants.*;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClassAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.vocab.PrefixOWLOntologyFormat;
+
+/** Writes an ontology in the mapped layout. Every section is built in memory
+ * and then written in order; sections start at multiples of eight bytes, and
+ * all tables are big endian ints, so that they can be read in place.
+ * <ul>
+ * <li>header: ontology id, prefixes, imports, ontology annotations, and the
+ * first axiom id and axiom count for each axiom type, as varints</li>
+ * <li>strings: start offset of each string, followed by the UTF-8 data</li>
+ * <li>IRIs: namespace string id and fragment string id plus one (zero for no
+ * fragment)</li>
+ * <li>entities: entity tag and IRI id; the entity table is an open addressing
+ * hash table of entity ids plus one, see {@link #hash(int, String)}</li>
+ * <li>axioms: start offset of each axiom, followed by the axiom records, each
+ * made of the record tag and the payload of the streaming format; axioms of
+ * the same type have consecutive ids</li>
+ * <li>references, subclasses and superclasses: for each entity id, the start
+ * of its axiom ids, followed by the ascending axiom ids</li>
+ * <li>general class axioms: axiom ids</li>
+ * </ul>
+ *
+ * @see MappedOWLOntologyStore */
+final class MappedOWLOntologyWriter {
+    private static final int ALIGNMENT = 8;
+    private final BinaryOWLOntologyWriter encoder = new BinaryOWLOntologyWriter();
+    private final BinaryOWLOutput[] sections = new BinaryOWLOutput[SECTION_COUNT];
+
+    MappedOWLOntologyWriter() {
+        for (int i = 0; i < sections.length; i++) {
+            sections[i] = new BinaryOWLOutput();
+        }
+    }
+
+    /** @param ontology
+     *            the ontology to write
+     * @param format
+     *            the format whose prefixes are written; can be null
+     * @param out
+     *            the stream to write to; flushed, but not closed
+     * @throws IOException
+     *             if the stream cannot be written */
+    void write(OWLOntology ontology, PrefixOWLOntologyFormat format, OutputStream out)
+            throws IOException {
+        Set<OWLClassAxiom> general = ontology.getGeneralClassAxioms();
+        Pairs references = new Pairs();
+        Pairs subClasses = new Pairs();
+        Pairs superClasses = new Pairs();
+        BinaryOWLOutput offsets = sections[SECTION_AXIOM_OFFSETS];
+        BinaryOWLOutput data = sections[SECTION_AXIOM_DATA];
+        BinaryOWLOutput header = sections[SECTION_HEADER];
+        BinaryOWLOutput types = new BinaryOWLOutput();
+        int typeCount = 0;
+        int id = 0;
+        for (AxiomType<?> type : AxiomType.AXIOM_TYPES) {
+            Set<? extends OWLAxiom> axioms = ontology.getAxioms(type);
+            if (axioms.isEmpty()) {
+                continue;
+            }
+            types.writeVarInt(encoder.stringId(type.getName()));
+            types.writeVarInt(id);
+            types.writeVarInt(axioms.size());
+            typeCount++;
+            for (OWLAxiom axiom : axioms) {
+                offsets.writeInt(data.size());
+                data.writeByte(encoder.encode(axiom));
+                data.write(encoder.getRecord());
+                for (OWLEntity entity : axiom.getSignature()) {
+                    references.add(encoder.entityId(entity), id);
+                }
+                if (axiom instanceof OWLSubClassOfAxiom) {
+                    OWLSubClassOfAxiom ax = (OWLSubClassOfAxiom) axiom;
+                    if (!ax.getSubClass().isAnonymous()) {
+                        subClasses.add(encoder.entityId(ax.getSubClass().asOWLClass()),
+                                id);
+                    }
+                    if (!ax.getSuperClass().isAnonymous()) {
+                        superClasses.add(
+                                encoder.entityId(ax.getSuperClass().asOWLClass()), id);
+                    }
+                }
+                if (general.contains(axiom)) {
+                    sections[SECTION_GENERAL_CLASS_AXIOMS].writeInt(id);
+                }
+                id++;
+            }
+        }
+        offsets.writeInt(data.size());
+        optionalIRI(header, ontology.getOntologyID().getOntologyIRI());
+        optionalIRI(header, ontology.getOntologyID().getVersionIRI());
+        if (format == null) {
+            header.writeVarInt(0);
+        } else {
+            Map<String, String> prefixes = format.getPrefixName2PrefixMap();
+            header.writeVarInt(prefixes.size());
+            for (Map.Entry<String, String> e : prefixes.entrySet()) {
+                header.writeVarInt(encoder.stringId(e.getKey()));
+                header.writeVarInt(encoder.stringId(e.getValue()));
+            }
+        }
+        Set<OWLImportsDeclaration> imports = ontology.getImportsDeclarations();
+        header.writeVarInt(imports.size());
+        for (OWLImportsDeclaration decl : imports) {
+            header.writeVarInt(encoder.iriId(decl.getIRI()));
+        }
+        Set<OWLAnnotation> annotations = ontology.getAnnotations();
+        header.writeVarInt(annotations.size());
+        for (OWLAnnotation annotation : annotations) {
+            encoder.encode(annotation);
+            header.write(encoder.getRecord());
+        }
+        header.writeVarInt(typeCount);
+        header.write(types);
+        // the header is the last user of the dictionary
+        writeDictionary();
+        int entityCount = encoder.getEntities().size();
+        references.writeTo(sections[SECTION_REFERENCE_STARTS],
+                sections[SECTION_REFERENCES], entityCount);
+        subClasses.writeTo(sections[SECTION_SUBCLASS_STARTS],
+                sections[SECTION_SUBCLASSES], entityCount);
+        superClasses.writeTo(sections[SECTION_SUPERCLASS_STARTS],
+                sections[SECTION_SUPERCLASSES], entityCount);
+        writeSections(out);
+    }
+
+    private void optionalIRI(BinaryOWLOutput header, IRI iri) {
+        if (iri == null) {
+            header.writeVarInt(0);
+        } else {
+            header.writeVarInt(1);
+            header.writeVarInt(encoder.iriId(iri));
+        }
+    }
+
+    private void writeDictionary() {
+        BinaryOWLOutput stringData = sections[SECTION_STRING_DATA];
+        for (String s : encoder.getStrings()) {
+            sections[SECTION_STRING_OFFSETS].writeInt(stringData.size());
+            stringData.writeBytes(s.getBytes(BinaryOWLOutput.UTF_8));
+        }
+        sections[SECTION_STRING_OFFSETS].writeInt(stringData.size());
+        for (IRI iri : encoder.getIRIs()) {
+            sections[SECTION_IRIS].writeInt(encoder.stringId(iri.getNamespace()));
+            String fragment = iri.getFragment();
+            sections[SECTION_IRIS].writeInt(fragment == null ? 0 : encoder
+                    .stringId(fragment) + 1);
+        }
+        List<OWLEntity> entities = encoder.getEntities();
+        int[] table = new int[tableSize(entities.size())];
+        int mask = table.length - 1;
+        for (int i = 0; i < entities.size(); i++) {
+            OWLEntity entity = entities.get(i);
+            int tag = BinaryOWLOntologyWriter.entityTag(entity);
+            sections[SECTION_ENTITIES].writeInt(tag);
+            sections[SECTION_ENTITIES].writeInt(encoder.iriId(entity.getIRI()));
+            int slot = hash(tag, entity.getIRI().toString()) & mask;
+            while (table[slot] != 0) {
+                slot = slot + 1 & mask;
+            }
+            table[slot] = i + 1;
+        }
+        for (int entry : table) {
+            sections[SECTION_ENTITY_TABLE].writeInt(entry);
+        }
+    }
+
+    private void writeSections(OutputStream os) throws IOException {
+        DataOutputStream out = new DataOutputStream(os);
+        out.write(MAPPED_MAGIC);
+        out.writeInt(MAPPED_VERSION);
+        out.writeInt(SECTION_COUNT);
+        long offset = align(MAPPED_MAGIC.length + 8 + SECTION_COUNT * 16L);
+        for (BinaryOWLOutput section : sections) {
+            out.writeLong(offset);
+            out.writeLong(section.size());
+            offset = align(offset + section.size());
+        }
+        pad(out);
+        for (BinaryOWLOutput section : sections) {
+            section.writeTo(out);
+            pad(out);
+        }
+        out.flush();
+    }
+
+    private static long align(long offset) {
+        return (offset + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static void pad(DataOutputStream out) throws IOException {
+        while (out.size() % ALIGNMENT != 0) {
+            out.write(0);
+        }
+    }
+
+    /** @param entries
+     *            number of entries
+     * @return a power of two at least twice the number of entries */
+    static int tableSize(int entries) {
+        int size = 2;
+        while (size < entries * 2) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    /** @param tag
+     *            entity tag
+     * @param iri
+     *            entity IRI, as a string
+     * @return the hash of an entity in the entity table; only depends on the
+     *         hash code of the IRI string, which is the same on every virtual
+     *         machine */
+    static int hash(int tag, String iri) {
+        int h = iri.hashCode() * 31 + tag;
+        return h ^ h >>> 16;
+    }
+
+    /** key and value pairs, added in ascending value order and written as a
+     * compressed table */
+    private static class Pairs {
+        private int[] keys = new int[64];
+        private int[] values = new int[64];
+        private int size = 0;
+
+        Pairs() {}
+
+        void add(int key, int value) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            keys[size] = key;
+            values[size] = value;
+            size++;
+        }
+
+        /** writes the start of the values of each key, plus the end of the
+         * values, then the values grouped by key; values keep their order
+         * within a key */
+        void writeTo(BinaryOWLOutput starts, BinaryOWLOutput out, int keyCount) {
+            int[] next = new int[keyCount + 1];
+            for (int i = 0; i < size; i++) {
+                next[keys[i] + 1]++;
+            }
+            for (int k = 0; k < keyCount; k++) {
+                next[k + 1] += next[k];
+            }
+            for (int start : next) {
+                starts.writeInt(start);
+            }
+            int[] grouped = new int[size];
+            for (int i = 0; i < size; i++) {
+                grouped[next[keys[i]]++] = values[i];
+            }
+            for (int value : grouped) {
+                out.writeInt(value);
+            }
+        }
+    }
+}
@@ -192,15 +192,46 @@ public abstract class OWLReasonerBase implements OWLReasoner {
         if (rawChanges.isEmpty()) {
             return;
         }
+        for (OWLOntologyChange change : rawChanges) {
+            if (!change.isAxiomChange()) {
+                // Imports changes can change the whole imports closure
+                computeFullDiff(added, removed);
+                return;
+            }
+        }
+        // Only the axioms that have been added or removed need to be looked at
+        Set<OWLOntology> importsClosure = rootOntology.getImportsClosure();
+        for (OWLOntologyChange change : rawChanges) {
+            OWLAxiom ax = change.getAxiom();
+            if (!importsClosure.contains(change.getOntology()) || !ax.isLogicalAxiom() && !ax.getAxiomType().equals(AxiomType.DECLARATION)) {
+                continue;
+            }
+            OWLAxiom axiomWithoutAnnotations = ax.getAxiomWithoutAnnotations();
+            if (change.isAddAxiom()) {
+                if (!reasonerAxioms.contains(axiomWithoutAnnotations) && rootOntology.containsAxiom(ax, true)) {
+                    // the reasoner axioms are kept without annotations, so
+                    // that removing an annotated axiom finds them
+                    added.add(axiomWithoutAnnotations);
+                }
+            }
+            else if (reasonerAxioms.contains(axiomWithoutAnnotations) && !rootOntology.containsAxiom(axiomWithoutAnnotations, true) && !rootOntology.containsAxiomIgnoreAnnotations(axiomWithoutAnnotations, true)) {
+                removed.add(axiomWithoutAnnotations);
+            }
+        }
+    }
+
+    private void computeFullDiff(Set<OWLAxiom> added, Set<OWLAxiom> removed) {
         for (OWLOntology ont : rootOntology.getImportsClosure()) {
             for (OWLAxiom ax : ont.getLogicalAxioms()) {
-                if (!reasonerAxioms.contains(ax.getAxiomWithoutAnnotations())) {
-                    added.add(ax);
+                OWLAxiom axiomWithoutAnnotations = ax.getAxiomWithoutAnnotations();
+                if (!reasonerAxioms.contains(axiomWithoutAnnotations)) {
+                    added.add(axiomWithoutAnnotations);
                 }
             }
             for (OWLAxiom ax : ont.getAxioms(AxiomType.DECLARATION)) {
-                if (!reasonerAxioms.contains(ax.getAxiomWithoutAnnotations())) {
-                    added.add(ax);
+                OWLAxiom axiomWithoutAnnotations = ax.getAxiomWithoutAnnotations();
+                if (!reasonerAxioms.contains(axiomWithoutAnnotations)) {
+                    added.add(axiomWithoutAnnotations);
                 }
             }
         }
@@ -40,6 +40,7 @@
 package org.semanticweb.owlapi.reasoner.structural;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -47,7 +48,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.Stack;
 
 import org.semanticweb.owlapi.model.AxiomType;
 import org.semanticweb.owlapi.model.OWLAxiom;
@@ -769,58 +769,72 @@ public class StructuralReasoner extends OWLReasonerBase {
             pm.reasonerTaskStarted("Computing " + name + " hierarchy");
             pm.reasonerTaskBusy();
             nodeCache.clear();
-            Map<T, Collection<T>> cache = new HashMap<T, Collection<T>>();
+            directChildrenOfTopNode.clear();
+            directParentsOfBottomNode.clear();
             Set<T> entities = new HashSet<T>();
             for (OWLOntology ont : getRootOntology().getImportsClosure()) {
                 entities.addAll(getEntities(ont));
             }
             classificationSize = entities.size();
             pm.reasonerTaskProgressChanged(0, classificationSize);
-            updateForSignature(entities, cache);
+            updateForSignature(entities);
             pm.reasonerTaskStopped();
         }
 
 
-        private void updateForSignature(Set<T> signature, Map<T, Collection<T>> cache) {
-            HashSet<Set<T>> cyclesResult = new HashSet<Set<T>>();
-            Set<T> processed = new HashSet<T>();
-            nodeCache.clearTopNode();
-            nodeCache.clearBottomNode();
-            nodeCache.clearNodes(signature);
-
-            directChildrenOfTopNode.removeAll(signature);
-
-            Set<T> equivTopOrChildrenOfTop = new HashSet<T>();
-            Set<T> equivBottomOrParentsOfBottom = new HashSet<T>();
+        /**
+         * Recomputes the nodes of the specified entities.  The raw parents and children of an entity only change
+         * when an axiom that mentions it changes, so a node can only split if it contains an entity from the
+         * signature, and a new cycle can only pass through entities from the signature and their ancestors.  The
+         * search therefore starts from the signature and the current nodes of its entities, and only the nodes of
+         * the entities that it reaches are replaced.
+         * @param signature The entities whose raw parents or children may have changed
+         */
+        private void updateForSignature(Set<T> signature) {
+            SCCSearch search = new SCCSearch();
             for (T entity : signature) {
-                if (!processed.contains(entity)) {
-                    pm.reasonerTaskProgressChanged(processed.size(), signature.size());
-                    tarjan(entity, 0, new Stack<T>(), new HashMap<T, Integer>(), new HashMap<T, Integer>(), cyclesResult, processed, new HashSet<T>(), cache, equivTopOrChildrenOfTop, equivBottomOrParentsOfBottom);
-                    throwExceptionIfInterrupted();
+                search.search(entity);
+                for (T equivalent : nodeCache.getNode(entity)) {
+                    search.search(equivalent);
                 }
+                throwExceptionIfInterrupted();
             }
+            Set<T> visited = search.ids.keySet();
+            nodeCache.clearNodes(visited);
+            if (search.ids.containsKey(topEntity)) {
+                nodeCache.clearTopNode();
+            }
+            if (search.ids.containsKey(bottomEntity)) {
+                nodeCache.clearBottomNode();
+            }
+            directChildrenOfTopNode.removeAll(visited);
+            directParentsOfBottomNode.removeAll(visited);
+
             // Store new cycles
-            for (Set<T> cycle : cyclesResult) {
+            for (Set<T> cycle : search.cycles) {
                 nodeCache.addNode(cycle);
             }
 
-            directChildrenOfTopNode.addAll(equivTopOrChildrenOfTop);
+            directChildrenOfTopNode.addAll(search.childrenOfTop);
             directChildrenOfTopNode.removeAll(nodeCache.getTopNode().getEntities());
 
-            directParentsOfBottomNode.addAll(equivBottomOrParentsOfBottom);
+            directParentsOfBottomNode.addAll(search.parentsOfBottom);
             directParentsOfBottomNode.removeAll(nodeCache.getBottomNode().getEntities());
 
 
             // Now check that each found cycle has a proper parent an child
-            for (Set<T> node : cyclesResult) {
+            for (Set<T> node : search.cycles) {
                 if (!node.contains(topEntity) && !node.contains(bottomEntity)) {
                     boolean childOfTop = true;
                     for (T element : node) {
-                        Collection<T> parents = rawParentChildProvider.getParents(element);
-                        parents.removeAll(node);
-                        parents.removeAll(nodeCache.getTopNode().getEntities());
-                        if (!parents.isEmpty()) {
-                            childOfTop = false;
+                        for (int parent : search.parents[search.ids.get(element).intValue()]) {
+                            T parentEntity = search.entities.get(parent);
+                            if (!node.contains(parentEntity) && !nodeCache.getTopNode().contains(parentEntity)) {
+                                childOfTop = false;
+                                break;
+                            }
+                        }
+                        if (!childOfTop) {
                             break;
                         }
                     }
@@ -855,7 +869,7 @@ public class StructuralReasoner extends OWLReasonerBase {
          */
         @SuppressWarnings("unused")
         public void processChanges(Set<T> signature, Set<OWLAxiom> added, Set<OWLAxiom> removed) {
-            updateForSignature(signature, null);
+            updateForSignature(signature);
         }
 
 
@@ -863,83 +877,162 @@ public class StructuralReasoner extends OWLReasonerBase {
         //////////////////////////////////////////////////////////////////////////////////////////////////////////
 
         /**
-         * Applies the tarjan algorithm for a given entity.  This computes the cycle that the entity is involved in (if
-         * any).
-         * @param entity The entity
-         * @param index index
-         * @param stack stack
-         * @param indexMap index map
-         * @param lowlinkMap low link map
-         * @param result result
-         * @param processed processed
-         * @param stackEntities stack entities
-         * @param cache A cache of children to parents - may be <code>null</code> if no caching is to take place.
-         * @param childrenOfTop A set of entities that have a raw parent that is the top entity
-         * @param parentsOfBottom A set of entities that have a raw parent that is the bottom entity
+         * An iterative version of Tarjan's algorithm that finds the cycles (strongly connected components) in the
+         * raw parent relation.  Entities are numbered in the order in which they are reached, the raw parents of
+         * each entity are fetched once and kept as an array of numbers, and the depth first search keeps its own
+         * stack, so that deep hierarchies cannot overflow the thread stack.  Successive searches share all state,
+         * so that entities reached by an earlier search are not visited again.
          */
-        public void tarjan(T entity, int index, Stack<T> stack, Map<T, Integer> indexMap, Map<T, Integer> lowlinkMap, Set<Set<T>> result, Set<T> processed, Set<T> stackEntities, Map<T, Collection<T>> cache, Set<T> childrenOfTop, Set<T> parentsOfBottom) {
-            throwExceptionIfInterrupted();
-            if (processed.add(entity)) {
-                Collection<T> rawChildren = rawParentChildProvider.getChildren(entity);
-                if (rawChildren.isEmpty() || rawChildren.contains(bottomEntity)) {
-                    parentsOfBottom.add(entity);
+        private class SCCSearch {
+
+            /**
+             * Maps entities to their numbers, i.e., their positions in {@link #entities}
+             */
+            final Map<T, Integer> ids = new HashMap<T, Integer>();
+
+            final List<T> entities = new ArrayList<T>();
+
+            /**
+             * The numbers of the raw parents of each entity, <code>null</code> until the entity has been visited
+             */
+            int[][] parents = new int[16][];
+
+            /**
+             * Tarjan's index of each entity, plus one, so that zero stands for entities not visited yet
+             */
+            private int[] index = new int[16];
+
+            private int[] lowlink = new int[16];
+
+            private boolean[] onStack = new boolean[16];
+
+            private int[] stack = new int[16];
+
+            private int stackSize = 0;
+
+            /**
+             * The entities on the path of the depth first search, and the position of the next parent to look at for each
+             * of them
+             */
+            private int[] path = new int[16];
+
+            private int[] nextParent = new int[16];
+
+            private int pathSize = 0;
+
+            private int counter = 0;
+
+            final Set<Set<T>> cycles = new HashSet<Set<T>>();
+
+            /**
+             * The entities that have a raw parent that is the top entity, or no raw parents at all
+             */
+            final Set<T> childrenOfTop = new HashSet<T>();
+
+            /**
+             * The entities that have a raw child that is the bottom entity, or no raw children at all
+             */
+            final Set<T> parentsOfBottom = new HashSet<T>();
+
+            private int getId(T entity) {
+                Integer id = ids.get(entity);
+                if (id != null) {
+                    return id.intValue();
+                }
+                int newId = entities.size();
+                ids.put(entity, Integer.valueOf(newId));
+                entities.add(entity);
+                if (newId == index.length) {
+                    int length = newId * 2;
+                    parents = Arrays.copyOf(parents, length);
+                    index = Arrays.copyOf(index, length);
+                    lowlink = Arrays.copyOf(lowlink, length);
+                    onStack = Arrays.copyOf(onStack, length);
+                    stack = Arrays.copyOf(stack, length);
+                    path = Arrays.copyOf(path, length);
+                    nextParent = Arrays.copyOf(nextParent, length);
                 }
+                return newId;
             }
-            pm.reasonerTaskProgressChanged(processed.size(), classificationSize);
-            indexMap.put(entity, index);
-            lowlinkMap.put(entity, index);
-            index = index + 1;
-            stack.push(entity);
-            stackEntities.add(entity);
-
-            // Get the raw parents - cache if necessary
-            Collection<T> rawParents = null;
-            if (cache != null) {
-                // We are therefore caching raw parents of children.
-                rawParents = cache.get(entity);
-                if (rawParents == null) {
-                    // Not in cache!
-                    rawParents = rawParentChildProvider.getParents(entity);
-                    // Note down if our entity is a
-                    if (rawParents.isEmpty() || rawParents.contains(topEntity)) {
-                        childrenOfTop.add(entity);
-                    }
-                    cache.put(entity, rawParents);
 
+            public void search(T entity) {
+                int root = getId(entity);
+                if (index[root] != 0) {
+                    return;
                 }
-            }
-            else {
-                rawParents = rawParentChildProvider.getParents(entity);
-                // Note down if our entity is a
-                if (rawParents.isEmpty() || rawParents.contains(topEntity)) {
-                    childrenOfTop.add(entity);
+                visit(root);
+                while (pathSize > 0) {
+                    int current = path[pathSize - 1];
+                    int[] currentParents = parents[current];
+                    if (nextParent[pathSize - 1] < currentParents.length) {
+                        int parent = currentParents[nextParent[pathSize - 1]++];
+                        if (index[parent] == 0) {
+                            visit(parent);
+                        }
+                        else if (onStack[parent]) {
+                            lowlink[current] = Math.min(lowlink[current], index[parent]);
+                        }
+                    }
+                    else {
+                        pathSize--;
+                        if (pathSize > 0) {
+                            int child = path[pathSize - 1];
+                            lowlink[child] = Math.min(lowlink[child], lowlink[current]);
+                        }
+                        if (lowlink[current] == index[current]) {
+                            popComponent(current);
+                        }
+                    }
                 }
             }
 
+            private void visit(int id) {
+                throwExceptionIfInterrupted();
+                T entity = entities.get(id);
+                counter++;
+                index[id] = counter;
+                lowlink[id] = counter;
+                stack[stackSize++] = id;
+                onStack[id] = true;
+                path[pathSize] = id;
+                nextParent[pathSize] = 0;
+                pathSize++;
+                pm.reasonerTaskProgressChanged(counter, classificationSize);
 
-            for (T superEntity : rawParents) {
-                if (!indexMap.containsKey(superEntity)) {
-                    tarjan(superEntity, index, stack, indexMap, lowlinkMap, result, processed, stackEntities, cache, childrenOfTop, parentsOfBottom);
-                    lowlinkMap.put(entity, Math.min(lowlinkMap.get(entity), lowlinkMap.get(superEntity)));
+                Collection<T> rawChildren = rawParentChildProvider.getChildren(entity);
+                if (rawChildren.isEmpty() || rawChildren.contains(bottomEntity)) {
+                    parentsOfBottom.add(entity);
                 }
-                else if (stackEntities.contains(superEntity)) {
-                    lowlinkMap.put(entity, Math.min(lowlinkMap.get(entity), indexMap.get(superEntity)));
+                Collection<T> rawParents = rawParentChildProvider.getParents(entity);
+                // Note down if our entity is a child of top
+                if (rawParents.isEmpty() || rawParents.contains(topEntity)) {
+                    childrenOfTop.add(entity);
+                }
+                int[] parentIds = new int[rawParents.size()];
+                int i = 0;
+                for (T parent : rawParents) {
+                    parentIds[i] = getId(parent);
+                    i++;
                 }
+                parents[id] = parentIds;
             }
-            if (lowlinkMap.get(entity).equals(indexMap.get(entity))) {
-                Set<T> scc = new HashSet<T>();
-                while (true) {
-                    T clsPrime = stack.pop();
-                    stackEntities.remove(clsPrime);
-                    scc.add(clsPrime);
-                    if (clsPrime.equals(entity)) {
-                        break;
-                    }
+
+            private void popComponent(int root) {
+                int top = stack[--stackSize];
+                onStack[top] = false;
+                if (top == root) {
+                    return;
                 }
-                if (scc.size() > 1) {
-                    // We ADD a cycle
-                    result.add(scc);
+                Set<T> scc = new HashSet<T>();
+                scc.add(entities.get(top));
+                do {
+                    top = stack[--stackSize];
+                    onStack[top] = false;
+                    scc.add(entities.get(top));
                 }
+                while (top != root);
+                // We ADD a cycle
+                cycles.add(scc);
             }
         }
 
@@ -948,69 +1041,86 @@ public class StructuralReasoner extends OWLReasonerBase {
 
 
         public NodeSet<T> getNodeHierarchyChildren(T parent, boolean direct, DefaultNodeSet<T> ns) {
-            Node<T> node = nodeCache.getNode(parent);
+            // Walk down with a worklist rather than recursively, so that deep hierarchies are safe
+            List<T> toProcess = new ArrayList<T>();
+            Set<T> processed = new HashSet<T>();
+            toProcess.add(parent);
+            processed.add(parent);
+            while (!toProcess.isEmpty()) {
+                Node<T> node = nodeCache.getNode(toProcess.remove(toProcess.size() - 1));
 
-            if (node.isBottomNode()) {
-                return ns;
-            }
+                if (node.isBottomNode()) {
+                    continue;
+                }
 
 
-            Set<T> directChildren = new HashSet<T>();
-            for (T equiv : node) {
-                directChildren.addAll(rawParentChildProvider.getChildren(equiv));
-                if(directParentsOfBottomNode.contains(equiv)) {
-                    ns.addNode(nodeCache.getBottomNode());
+                Set<T> directChildren = new HashSet<T>();
+                for (T equiv : node) {
+                    directChildren.addAll(rawParentChildProvider.getChildren(equiv));
+                    if(directParentsOfBottomNode.contains(equiv)) {
+                        ns.addNode(nodeCache.getBottomNode());
+                    }
                 }
-            }
-            directChildren.removeAll(node.getEntities());
+                directChildren.removeAll(node.getEntities());
 
-            if (node.isTopNode()) {
-                // Special treatment
-                directChildren.addAll(directChildrenOfTopNode);
-            }
+                if (node.isTopNode()) {
+                    // Special treatment
+                    directChildren.addAll(directChildrenOfTopNode);
+                }
 
-            for (Node<T> childNode : nodeCache.getNodes(directChildren)) {
-                ns.addNode(childNode);
-            }
+                for (Node<T> childNode : nodeCache.getNodes(directChildren)) {
+                    ns.addNode(childNode);
+                }
 
 
-            if (!direct) {
-                for (T child : directChildren) {
-                    getNodeHierarchyChildren(child, direct, ns);
+                if (!direct) {
+                    for (T child : directChildren) {
+                        if (processed.add(child)) {
+                            toProcess.add(child);
+                        }
+                    }
                 }
             }
             return ns;
         }
 
         public NodeSet<T> getNodeHierarchyParents(T child, boolean direct, DefaultNodeSet<T> ns) {
-            Node<T> node = nodeCache.getNode(child);
+            List<T> toProcess = new ArrayList<T>();
+            Set<T> processed = new HashSet<T>();
+            toProcess.add(child);
+            processed.add(child);
+            while (!toProcess.isEmpty()) {
+                Node<T> node = nodeCache.getNode(toProcess.remove(toProcess.size() - 1));
 
-            if (node.isTopNode()) {
-                return ns;
-            }
+                if (node.isTopNode()) {
+                    continue;
+                }
 
 
-            Set<T> directParents = new HashSet<T>();
-            for (T equiv : node) {
-                directParents.addAll(rawParentChildProvider.getParents(equiv));
-                if(directChildrenOfTopNode.contains(equiv)) {
-                    ns.addNode(nodeCache.getTopNode());
+                Set<T> directParents = new HashSet<T>();
+                for (T equiv : node) {
+                    directParents.addAll(rawParentChildProvider.getParents(equiv));
+                    if(directChildrenOfTopNode.contains(equiv)) {
+                        ns.addNode(nodeCache.getTopNode());
+                    }
                 }
-            }
-            directParents.removeAll(node.getEntities());
+                directParents.removeAll(node.getEntities());
 
-            if (node.isBottomNode()) {
-                // Special treatment
-                directParents.addAll(directParentsOfBottomNode);
-            }
+                if (node.isBottomNode()) {
+                    // Special treatment
+                    directParents.addAll(directParentsOfBottomNode);
+                }
 
-            for (Node<T> parentNode : nodeCache.getNodes(directParents)) {
-                ns.addNode(parentNode);
-            }
+                for (Node<T> parentNode : nodeCache.getNodes(directParents)) {
+                    ns.addNode(parentNode);
+                }
 
-            if (!direct) {
-                for(T parent : directParents) {
-                    getNodeHierarchyParents(parent, direct, ns);
+                if (!direct) {
+                    for (T parent : directParents) {
+                        if (processed.add(parent)) {
+                            toProcess.add(parent);
+                        }
+                    }
                 }
             }
             return ns;
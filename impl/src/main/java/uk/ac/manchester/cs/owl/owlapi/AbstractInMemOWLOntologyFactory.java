@@ -58,6 +58,35 @@ public abstract class AbstractInMemOWLOntologyFactory implements OWLOntologyFact
 
 	private static final long serialVersionUID = 30402L;
 	private OWLOntologyManager ontologyManager;
+    private final boolean useCompactIndexes;
+
+    /** Creates a factory whose ontologies use the default indexes. */
+    public AbstractInMemOWLOntologyFactory() {
+        this(false);
+    }
+
+    /**
+     * @param useCompactIndexes true if the ontologies created by this factory
+     *            should store their indexes as interned integer ids (see
+     *            {@link CompactInternalsImpl}); this reduces memory usage for
+     *            large ontologies at the cost of slower changes
+     */
+    public AbstractInMemOWLOntologyFactory(boolean useCompactIndexes) {
+        this.useCompactIndexes = useCompactIndexes;
+    }
+
+    /** @return true if the ontologies created use compact indexes */
+    public boolean isUseCompactIndexes() {
+        return useCompactIndexes;
+    }
+
+    /** @return the internals for a new ontology */
+    protected Internals createInternals() {
+        if (useCompactIndexes) {
+            return new CompactInternalsImpl();
+        }
+        return new InternalsImpl();
+    }
 
     @Override
     public void setOWLOntologyManager(OWLOntologyManager owlOntologyManager) {
@@ -90,7 +119,8 @@ public abstract class AbstractInMemOWLOntologyFactory implements OWLOntologyFact
 
     @Override
     public OWLOntology createOWLOntology(OWLOntologyID ontologyID, IRI documentIRI, OWLOntologyCreationHandler handler) throws OWLOntologyCreationException {
-        OWLOntology ont = new OWLOntologyImpl(ontologyManager, ontologyID);
+        OWLOntology ont = new OWLOntologyImpl(ontologyManager, ontologyID,
+                createInternals());
 
         handler.ontologyCreated(ont);
         return ont;
@@ -39,13 +39,23 @@
 package uk.ac.manchester.cs.owl.owlapi;
 
 import static org.semanticweb.owlapi.model.AxiomType.*;
+import static org.semanticweb.owlapi.util.CollectionFactory.createSet;
 import static uk.ac.manchester.cs.owl.owlapi.InitVisitorFactory.*;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.EntityType;
+import org.semanticweb.owlapi.model.OWLAnnotation;
 import org.semanticweb.owlapi.model.OWLAnnotationAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLAnnotationProperty;
 import org.semanticweb.owlapi.model.OWLAnnotationSubject;
 import org.semanticweb.owlapi.model.OWLAsymmetricObjectPropertyAxiom;
 import org.semanticweb.owlapi.model.OWLAxiom;
@@ -63,6 +73,7 @@ import org.semanticweb.owlapi.model.OWLDisjointClassesAxiom;
 import org.semanticweb.owlapi.model.OWLDisjointDataPropertiesAxiom;
 import org.semanticweb.owlapi.model.OWLDisjointObjectPropertiesAxiom;
 import org.semanticweb.owlapi.model.OWLDisjointUnionAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.model.OWLEquivalentClassesAxiom;
 import org.semanticweb.owlapi.model.OWLEquivalentDataPropertiesAxiom;
 import org.semanticweb.owlapi.model.OWLEquivalentObjectPropertiesAxiom;
@@ -87,15 +98,40 @@ import org.semanticweb.owlapi.model.OWLSubObjectPropertyOfAxiom;
 import org.semanticweb.owlapi.model.OWLSymmetricObjectPropertyAxiom;
 import org.semanticweb.owlapi.model.OWLTransitiveObjectPropertyAxiom;
 import org.semanticweb.owlapi.util.CollectionFactory;
+import org.semanticweb.owlapi.util.MultiMap;
+import org.semanticweb.owlapi.util.OWLAxiomSearchFilter;
 
 /** this class encapsulates all lazily built indexes */
 public abstract class AbstractInternalsImpl implements Internals, Serializable {
 
     private static final long serialVersionUID = 30402L;
+    /** the indexes built on demand, which can be dropped and rebuilt; declared
+     * before the indexes so that it exists when they are built */
+    private final List<MapPointer<?, ?>> lazyIndexes = new ArrayList<MapPointer<?, ?>>();
+
+    /** the signature, and the entities in it by type, built on first request
+     * and then kept up to date by the add and remove visitors and by the
+     * ontology annotation changes; null until requested. The annotation
+     * properties include those of the ontology annotations. */
+    private transient volatile Set<OWLEntity> signature;
+    private transient Map<EntityType<?>, Set<OWLEntity>> signatureByType;
+    /** unmodifiable copies of the signature sets, returned by every call until
+     * a change to the signature drops them, so that changes do not show
+     * through sets already returned; rebuilt on the next request */
+    private transient volatile Set<OWLEntity> signatureView;
+    private transient Map<EntityType<?>, Set<OWLEntity>> signatureViewsByType;
+
+    /** @return the multimap to be used as storage by a new pointer; subclasses
+     *         can override this to change how indexes are stored. This is
+     *         called while the fields of this class are being initialized, so
+     *         overriders must not rely on their own field initializers. */
+    protected <K, V extends OWLAxiom> MultiMap<K, V> buildMultiMap() {
+        return new MultiMap<K, V>();
+    }
 
     protected <K, V extends OWLAxiom> MapPointer<K, V> build(AxiomType<?> t,
             OWLAxiomVisitorEx<?> v) {
-        return new MapPointer<K, V>(t, v, true, this);
+        return new MapPointer<K, V>(t, v, true, this, this.<K, V> buildMultiMap());
     }
 
     protected <K, V extends OWLAxiom> MapPointer<K, V> build() {
@@ -104,15 +140,80 @@ public abstract class AbstractInternalsImpl implements Internals, Serializable {
 
     protected <K, V extends OWLAxiom> MapPointer<K, V> buildLazy(AxiomType<?> t,
             OWLAxiomVisitorEx<?> v) {
-        return new MapPointer<K, V>(t, v, false, this);
+        MapPointer<K, V> p = new MapPointer<K, V>(t, v, false, this,
+                this.<K, V> buildMultiMap());
+        lazyIndexes.add(p);
+        return p;
     }
 
     protected ClassAxiomByClassPointer buildClassAxiomByClass() {
-        return new ClassAxiomByClassPointer(null, null, false, this);
+        ClassAxiomByClassPointer p = new ClassAxiomByClassPointer(null, null, false,
+                this, this.<OWLClass, OWLClassAxiom> buildMultiMap());
+        lazyIndexes.add(p);
+        return p;
+    }
+
+    protected AxiomsIgnoreAnnotationsPointer buildAxiomsIgnoreAnnotations() {
+        AxiomsIgnoreAnnotationsPointer p = new AxiomsIgnoreAnnotationsPointer(this,
+                this.<OWLAxiom, OWLAxiom> buildMultiMap());
+        lazyIndexes.add(p);
+        return p;
+    }
+
+    @Override
+    public void invalidateLazyIndexes(Collection<AxiomType<?>> types) {
+        for (MapPointer<?, ?> p : lazyIndexes) {
+            p.invalidate(types);
+        }
+    }
+
+    @Override
+    public <K, V extends OWLAxiom> Set<K> getKeyset(Pointer<K, V> pointer) {
+        final MapPointer<K, V> mapPointer = (MapPointer<K, V>) pointer;
+        mapPointer.init();
+        return mapPointer.keySet();
+    }
+
+    @Override
+    public <K, V extends OWLAxiom> Set<V> getValues(Pointer<K, V> pointer, K key) {
+        final MapPointer<K, V> mapPointer = (MapPointer<K, V>) pointer;
+        mapPointer.init();
+        return mapPointer.getValues(key);
+    }
+
+    @Override
+    public <K, V extends OWLAxiom> boolean hasValues(Pointer<K, V> pointer, K key) {
+        final MapPointer<K, V> mapPointer = (MapPointer<K, V>) pointer;
+        mapPointer.init();
+        return mapPointer.hasValues(key);
+    }
+
+    @Override
+    public <K, V extends OWLAxiom> boolean contains(Pointer<K, V> p, K k) {
+        return ((MapPointer<K, V>) p).containsKey(k);
+    }
+
+    @Override
+    public <K, V extends OWLAxiom> boolean contains(Pointer<K, V> p, K k, V v) {
+        return ((MapPointer<K, V>) p).contains(k, v);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends OWLAxiom, K> Set<T> filterAxioms(OWLAxiomSearchFilter<T, K> filter,
+            K key) {
+        Set<T> toReturn = createSet();
+        for (T t : (Set<T>) getValues(getAxiomsByType(), filter.getAxiomType())) {
+            if (filter.pass(t, key)) {
+                toReturn.add(t);
+            }
+        }
+        return toReturn;
     }
 
 
     protected final MapPointer<OWLClass, OWLClassAxiom> classAxiomsByClass = buildClassAxiomByClass();
+    protected final MapPointer<OWLAxiom, OWLAxiom> axiomsIgnoreAnnotations = buildAxiomsIgnoreAnnotations();
 
 
 
@@ -198,6 +299,11 @@ public abstract class AbstractInternalsImpl implements Internals, Serializable {
         return classAxiomsByClass;
     }
 
+    @Override
+    public MapPointer<OWLAxiom, OWLAxiom> getAxiomsIgnoreAnnotations() {
+        return axiomsIgnoreAnnotations;
+    }
+
     @Override
     public MapPointer<OWLClass, OWLSubClassOfAxiom> getSubClassAxiomsByLHS() {
         return subClassAxiomsByLHS;
@@ -377,4 +483,128 @@ public abstract class AbstractInternalsImpl implements Internals, Serializable {
     public MapPointer<OWLAnnotationSubject, OWLAnnotationAssertionAxiom> getAnnotationAssertionAxiomsBySubject() {
         return annotationAssertionAxiomsBySubject;
     }
-}
\ No newline at end of file
+
+    @Override
+    public Set<OWLEntity> getSignature() {
+        Set<OWLEntity> view = signatureView;
+        if (view == null) {
+            view = createSignatureView();
+        }
+        return view;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <E extends OWLEntity> Set<E> getEntitiesInSignature(EntityType<E> type) {
+        if (signature == null) {
+            initSignature();
+        }
+        Set<OWLEntity> view = signatureViewsByType.get(type);
+        if (view == null) {
+            view = createSignatureView(type);
+        }
+        return (Set<E>) view;
+    }
+
+    private synchronized Set<OWLEntity> createSignatureView() {
+        if (signature == null) {
+            initSignature();
+        }
+        Set<OWLEntity> view = signatureView;
+        if (view == null) {
+            view = Collections.unmodifiableSet(createSet(signature));
+            signatureView = view;
+        }
+        return view;
+    }
+
+    private synchronized Set<OWLEntity> createSignatureView(EntityType<?> type) {
+        Set<OWLEntity> view = signatureViewsByType.get(type);
+        if (view == null) {
+            view = Collections.unmodifiableSet(createSet(signatureByType.get(type)));
+            signatureViewsByType.put(type, view);
+        }
+        return view;
+    }
+
+    /** drops the views after a change to the signature
+     * 
+     * @param type
+     *            the type of the entity added or removed */
+    private void signatureChanged(EntityType<?> type) {
+        signatureView = null;
+        signatureViewsByType.remove(type);
+    }
+
+    private synchronized void initSignature() {
+        if (signature != null) {
+            return;
+        }
+        Map<EntityType<?>, Set<OWLEntity>> byType = new HashMap<EntityType<?>, Set<OWLEntity>>();
+        byType.put(EntityType.CLASS, createEntitySet(getOwlClassReferences()));
+        byType.put(EntityType.OBJECT_PROPERTY,
+                createEntitySet(getOwlObjectPropertyReferences()));
+        byType.put(EntityType.DATA_PROPERTY,
+                createEntitySet(getOwlDataPropertyReferences()));
+        byType.put(EntityType.NAMED_INDIVIDUAL,
+                createEntitySet(getOwlIndividualReferences()));
+        byType.put(EntityType.DATATYPE, createEntitySet(getOwlDatatypeReferences()));
+        Set<OWLEntity> properties = createEntitySet(getOwlAnnotationPropertyReferences());
+        for (OWLAnnotation anno : getOntologyAnnotations()) {
+            properties.add(anno.getProperty());
+        }
+        byType.put(EntityType.ANNOTATION_PROPERTY, properties);
+        Set<OWLEntity> entities = createSet();
+        for (Set<OWLEntity> typed : byType.values()) {
+            entities.addAll(typed);
+        }
+        signatureByType = byType;
+        signatureViewsByType = CollectionFactory.createSyncMap();
+        signature = entities;
+    }
+
+    private <K extends OWLEntity> Set<OWLEntity> createEntitySet(
+            Pointer<K, OWLAxiom> references) {
+        Set<OWLEntity> entities = createSet();
+        entities.addAll(getKeyset(references));
+        return entities;
+    }
+
+    protected void addToSignature(OWLEntity entity) {
+        if (signature != null && signature.add(entity)) {
+            signatureByType.get(entity.getEntityType()).add(entity);
+            signatureChanged(entity.getEntityType());
+        }
+    }
+
+    /** removes the entity from the signature if no axiom references it any
+     * longer */
+    protected <K extends OWLEntity> void removeFromSignature(
+            Pointer<K, OWLAxiom> references, K entity) {
+        if (signature != null && !contains(references, entity)) {
+            dropFromSignature(entity);
+        }
+    }
+
+    /** removes the property from the signature if no axiom or ontology
+     * annotation references it any longer */
+    protected void removeFromSignature(OWLAnnotationProperty property) {
+        if (signature == null
+                || contains(getOwlAnnotationPropertyReferences(), property)) {
+            return;
+        }
+        for (OWLAnnotation anno : getOntologyAnnotations()) {
+            if (anno.getProperty().equals(property)) {
+                return;
+            }
+        }
+        dropFromSignature(property);
+    }
+
+    private void dropFromSignature(OWLEntity entity) {
+        if (signature.remove(entity)) {
+            signatureByType.get(entity.getEntityType()).remove(entity);
+            signatureChanged(entity.getEntityType());
+        }
+    }
+}
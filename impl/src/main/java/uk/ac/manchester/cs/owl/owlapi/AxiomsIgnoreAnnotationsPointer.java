@@ -0,0 +1,75 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import java.util.Collection;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.util.MultiMap;
+
+/** Index of the axioms of all types by the axiom without annotations, so that
+ * the axioms equal to a given one up to annotations can be found without a
+ * scan. Built lazily, the first time it is used. */
+public class AxiomsIgnoreAnnotationsPointer extends MapPointer<OWLAxiom, OWLAxiom> {
+    private static final long serialVersionUID = 30406L;
+
+    /** @param i
+     *            the internals whose axioms are indexed
+     * @param map
+     *            the multimap used to store the index */
+    public AxiomsIgnoreAnnotationsPointer(Internals i, MultiMap<OWLAxiom, OWLAxiom> map) {
+        super(null, null, false, i, map);
+    }
+
+    @Override
+    protected boolean isBuiltFrom(Collection<AxiomType<?>> types) {
+        return !types.isEmpty();
+    }
+
+    @Override
+    protected void build() {
+        super.build();
+        for (AxiomType<?> type : i.getKeyset(i.getAxiomsByType())) {
+            for (OWLAxiom ax : i.getValues(i.getAxiomsByType(), type)) {
+                put(ax.getAxiomWithoutAnnotations(), ax);
+            }
+        }
+    }
+}
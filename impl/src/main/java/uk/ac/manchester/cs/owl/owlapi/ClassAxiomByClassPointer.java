@@ -39,10 +39,13 @@
 
 package uk.ac.manchester.cs.owl.owlapi;
 
+import java.util.Collection;
+
 import org.semanticweb.owlapi.model.AxiomType;
 import org.semanticweb.owlapi.model.OWLAxiomVisitorEx;
 import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLClassAxiom;
+import org.semanticweb.owlapi.util.MultiMap;
 
 @SuppressWarnings("javadoc")
 public class ClassAxiomByClassPointer extends MapPointer<OWLClass, OWLClassAxiom> {
@@ -54,12 +57,22 @@ public class ClassAxiomByClassPointer extends MapPointer<OWLClass, OWLClassAxiom
         super(t, v, initialized, i);
     }
 
+    public ClassAxiomByClassPointer(AxiomType<?> t, OWLAxiomVisitorEx<?> v,
+            boolean initialized, Internals i, MultiMap<OWLClass, OWLClassAxiom> map) {
+        super(t, v, initialized, i, map);
+    }
+
     @Override
-    public void init() {
-        if (isInitialized()) {
-            return;
-        }
-        super.init();
+    protected boolean isBuiltFrom(Collection<AxiomType<?>> types) {
+        return types.contains(AxiomType.SUBCLASS_OF)
+                || types.contains(AxiomType.EQUIVALENT_CLASSES)
+                || types.contains(AxiomType.DISJOINT_CLASSES)
+                || types.contains(AxiomType.DISJOINT_UNION);
+    }
+
+    @Override
+    protected void build() {
+        super.build();
         // special case: this map needs other maps to be initialized first
         for (OWLClass c : i.getKeyset(i.getEquivalentClassesAxiomsByClass())) {
             for (OWLClassAxiom ax : i.getValues(
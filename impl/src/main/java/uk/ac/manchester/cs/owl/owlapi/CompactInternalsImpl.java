@@ -0,0 +1,70 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.util.CompactMultiMap;
+import org.semanticweb.owlapi.util.MultiMap;
+import org.semanticweb.owlapi.util.ObjectIdInterner;
+
+/** Internals that store every index as a {@link CompactMultiMap}: entities,
+ * axiom types and axioms are interned once per ontology as integer ids, and
+ * the indexes only hold ids. Reference indexes for large ontologies take a
+ * fraction of the heap needed by the default implementation; adding and
+ * removing axioms is somewhat slower.
+ * 
+ * @author ignazio */
+public class CompactInternalsImpl extends InternalsImpl {
+    private static final long serialVersionUID = 30402L;
+    /** shared by all the indexes of this object; it is threadsafe, so lazy
+     * indexes can be built concurrently, each under the lock of its own
+     * pointer. Not initialized in the
+     * declaration on purpose: the superclasses build their pointers, and
+     * therefore call buildMultiMap(), before the initializers of this class
+     * run; an initializer would overwrite the interner already in use. */
+    private ObjectIdInterner<Object> interner;
+
+    @Override
+    protected <K, V extends OWLAxiom> MultiMap<K, V> buildMultiMap() {
+        if (interner == null) {
+            interner = new ObjectIdInterner<Object>();
+        }
+        return new CompactMultiMap<K, V>(interner);
+    }
+}
@@ -56,6 +56,18 @@ import org.semanticweb.owlapi.model.OWLRuntimeException;
 public class EmptyInMemOWLOntologyFactory extends AbstractInMemOWLOntologyFactory {
     private static final long serialVersionUID = 30402L;
 
+    /** Creates a factory whose ontologies use the default indexes. */
+    public EmptyInMemOWLOntologyFactory() {
+        super();
+    }
+
+    /** @param useCompactIndexes
+     *            true if the ontologies created should use compact, id based
+     *            indexes */
+    public EmptyInMemOWLOntologyFactory(boolean useCompactIndexes) {
+        super(useCompactIndexes);
+    }
+
     @Override
     public OWLOntology loadOWLOntology(OWLOntologyDocumentSource documentSource,
             OWLOntologyCreationHandler mediator) throws OWLOntologyCreationException {
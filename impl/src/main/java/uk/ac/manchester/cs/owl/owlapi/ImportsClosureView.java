@@ -0,0 +1,276 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.AddOntologyAnnotation;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.EntityType;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAnnotationProperty;
+import org.semanticweb.owlapi.model.OWLAnonymousIndividual;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.RemoveOntologyAnnotation;
+import org.semanticweb.owlapi.util.CollectionFactory;
+import org.semanticweb.owlapi.util.MultiMap;
+
+/** A merged, read only view of the imports closure of an ontology, with the
+ * indexes that the <code>includeImportsClosure</code> variants of the
+ * <code>OWLOntology</code> methods need: axioms by type and by axiom without
+ * annotations, referencing axioms by entity, and the signature by entity
+ * type. An axiom in several ontologies of the closure is counted once per
+ * ontology, so that removing it from one of them keeps it in the view.
+ * <p>
+ * Views are built and kept up to date by {@link OWLOntologyManagerImpl}: they
+ * follow the changes applied through the manager, and are dropped when the
+ * imports closure changes. */
+class ImportsClosureView {
+    private final Set<OWLOntology> ontologies;
+    private final Map<OWLAxiom, Integer> axiomCounts = new HashMap<OWLAxiom, Integer>();
+    private final MultiMap<AxiomType<?>, OWLAxiom> axiomsByType = new MultiMap<AxiomType<?>, OWLAxiom>();
+    private final MultiMap<OWLAxiom, OWLAxiom> axiomsIgnoreAnnotations = new MultiMap<OWLAxiom, OWLAxiom>();
+    private final MultiMap<OWLEntity, OWLAxiom> references = new MultiMap<OWLEntity, OWLAxiom>();
+    private final Map<EntityType<?>, Set<OWLEntity>> signature = new HashMap<EntityType<?>, Set<OWLEntity>>();
+    /** properties of ontology annotations, counted once per annotation */
+    private final Map<OWLAnnotationProperty, Integer> ontologyAnnotationProperties = new HashMap<OWLAnnotationProperty, Integer>();
+    private final Set<OWLEntity> referenced = new HashSet<OWLEntity>();
+    private final AbstractEntityRegistrationManager referenceCollector = new AbstractEntityRegistrationManager() {
+        @Override
+        public void visit(OWLClass owlClass) {
+            referenced.add(owlClass);
+        }
+
+        @Override
+        public void visit(OWLObjectProperty property) {
+            referenced.add(property);
+        }
+
+        @Override
+        public void visit(OWLDataProperty property) {
+            referenced.add(property);
+        }
+
+        @Override
+        public void visit(OWLNamedIndividual owlIndividual) {
+            referenced.add(owlIndividual);
+        }
+
+        @Override
+        public void visit(OWLAnnotationProperty property) {
+            referenced.add(property);
+        }
+
+        @Override
+        public void visit(OWLDatatype datatype) {
+            referenced.add(datatype);
+        }
+
+        @Override
+        public void visit(OWLAnonymousIndividual individual) {}
+    };
+
+    /** @param ontologies
+     *            the ontologies in the imports closure */
+    ImportsClosureView(Set<OWLOntology> ontologies) {
+        this.ontologies = new HashSet<OWLOntology>(ontologies);
+        for (EntityType<?> type : EntityType.values()) {
+            signature.put(type, new HashSet<OWLEntity>());
+        }
+        for (OWLOntology ont : this.ontologies) {
+            for (OWLAxiom ax : ont.getAxioms()) {
+                addAxiom(ax);
+            }
+            for (OWLAnnotation anno : ont.getAnnotations()) {
+                addOntologyAnnotation(anno);
+            }
+        }
+    }
+
+    /** Updates the view after a change has been applied.
+     * 
+     * @param change
+     *            a change that has been applied */
+    void changeApplied(OWLOntologyChange change) {
+        if (!ontologies.contains(change.getOntology())) {
+            return;
+        }
+        if (change.isAxiomChange()) {
+            if (change.isAddAxiom()) {
+                addAxiom(change.getAxiom());
+            } else {
+                removeAxiom(change.getAxiom());
+            }
+        } else if (change instanceof AddOntologyAnnotation) {
+            addOntologyAnnotation(((AddOntologyAnnotation) change).getAnnotation());
+        } else if (change instanceof RemoveOntologyAnnotation) {
+            removeOntologyAnnotation(((RemoveOntologyAnnotation) change).getAnnotation());
+        }
+    }
+
+    private void addAxiom(OWLAxiom ax) {
+        Integer count = axiomCounts.get(ax);
+        if (count != null) {
+            axiomCounts.put(ax, count + 1);
+            return;
+        }
+        axiomCounts.put(ax, 1);
+        axiomsByType.put(ax.getAxiomType(), ax);
+        axiomsIgnoreAnnotations.put(ax.getAxiomWithoutAnnotations(), ax);
+        for (OWLEntity e : getReferences(ax)) {
+            if (!references.containsKey(e)) {
+                signature.get(e.getEntityType()).add(e);
+            }
+            references.put(e, ax);
+        }
+    }
+
+    private void removeAxiom(OWLAxiom ax) {
+        Integer count = axiomCounts.get(ax);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            axiomCounts.put(ax, count - 1);
+            return;
+        }
+        axiomCounts.remove(ax);
+        axiomsByType.remove(ax.getAxiomType(), ax);
+        axiomsIgnoreAnnotations.remove(ax.getAxiomWithoutAnnotations(), ax);
+        for (OWLEntity e : getReferences(ax)) {
+            references.remove(e, ax);
+            if (!references.containsKey(e)) {
+                signature.get(e.getEntityType()).remove(e);
+            }
+        }
+    }
+
+    private void addOntologyAnnotation(OWLAnnotation anno) {
+        Integer count = ontologyAnnotationProperties.get(anno.getProperty());
+        ontologyAnnotationProperties.put(anno.getProperty(), count == null ? 1
+                : count + 1);
+    }
+
+    private void removeOntologyAnnotation(OWLAnnotation anno) {
+        Integer count = ontologyAnnotationProperties.get(anno.getProperty());
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            ontologyAnnotationProperties.put(anno.getProperty(), count - 1);
+        } else {
+            ontologyAnnotationProperties.remove(anno.getProperty());
+        }
+    }
+
+    /** @return the entities the ontology indexes the axiom under, the same as
+     *         in {@link InternalsImpl#addAxiom(OWLAxiom)} */
+    private Set<OWLEntity> getReferences(OWLAxiom ax) {
+        referenced.clear();
+        ax.accept(referenceCollector);
+        return new HashSet<OWLEntity>(referenced);
+    }
+
+    private static <T> Set<T> view(Collection<T> values) {
+        return CollectionFactory.getCopyOnRequestSetFromMutableCollection(values);
+    }
+
+    boolean containsAxiom(OWLAxiom ax) {
+        return axiomCounts.containsKey(ax);
+    }
+
+    @SuppressWarnings("unchecked")
+    <T extends OWLAxiom> Set<T> getAxioms(AxiomType<T> type) {
+        return (Set<T>) view(axiomsByType.get(type));
+    }
+
+    boolean containsAxiomIgnoreAnnotations(OWLAxiom ax) {
+        return axiomsIgnoreAnnotations.containsKey(ax.getAxiomWithoutAnnotations());
+    }
+
+    Set<OWLAxiom> getAxiomsIgnoreAnnotations(OWLAxiom ax) {
+        return view(axiomsIgnoreAnnotations.get(ax.getAxiomWithoutAnnotations()));
+    }
+
+    Set<OWLAxiom> getReferencingAxioms(OWLEntity entity) {
+        return view(references.get(entity));
+    }
+
+    /** @return true if an axiom of the closure references the entity */
+    boolean containsReference(OWLEntity entity) {
+        return references.containsKey(entity);
+    }
+
+    /** @return true if an axiom or an ontology annotation of the closure
+     *         references the property */
+    boolean containsAnnotationProperty(OWLAnnotationProperty property) {
+        return references.containsKey(property)
+                || ontologyAnnotationProperties.containsKey(property);
+    }
+
+    /** @param type
+     *            an entity type
+     * @return the entities of the type referenced by the axioms of the
+     *         closure */
+    @SuppressWarnings("unchecked")
+    <E extends OWLEntity> Set<E> getEntities(EntityType<E> type) {
+        return (Set<E>) view(signature.get(type));
+    }
+
+    /** @return the annotation properties referenced by the axioms or by the
+     *         ontology annotations of the closure */
+    Set<OWLAnnotationProperty> getAnnotationProperties() {
+        Set<OWLAnnotationProperty> toReturn = new HashSet<OWLAnnotationProperty>(
+                getEntities(EntityType.ANNOTATION_PROPERTY));
+        toReturn.addAll(ontologyAnnotationProperties.keySet());
+        return toReturn;
+    }
+}
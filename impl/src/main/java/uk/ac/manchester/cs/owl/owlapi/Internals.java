@@ -38,9 +38,11 @@
  */
 package uk.ac.manchester.cs.owl.owlapi;
 
+import java.util.Collection;
 import java.util.Set;
 
 import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.EntityType;
 import org.semanticweb.owlapi.model.OWLAnnotation;
 import org.semanticweb.owlapi.model.OWLAnnotationAssertionAxiom;
 import org.semanticweb.owlapi.model.OWLAnnotationProperty;
@@ -143,6 +145,9 @@ public interface Internals {
 
     Pointer<OWLClass, OWLClassAxiom> getClassAxiomsByClass();
 
+    /** @return the axioms indexed by the axiom without annotations */
+    Pointer<OWLAxiom, OWLAxiom> getAxiomsIgnoreAnnotations();
+
     Pointer<OWLIndividual, OWLDataPropertyAssertionAxiom>
             getDataPropertyAssertionsByIndividual();
 
@@ -264,6 +269,19 @@ public interface Internals {
 
     <K, V extends OWLAxiom> Set<K> getKeyset(Pointer<K, V> pointer);
 
+    /** @return the entities referenced by the axioms, and the annotation
+     *         properties of the ontology annotations, as an unmodifiable set
+     *         that later changes do not affect; the signature is maintained
+     *         as axioms and annotations are added and removed, and the same
+     *         set is returned until it changes */
+    Set<OWLEntity> getSignature();
+
+    /** @param type
+     *            the type of entities
+     * @return the entities of the given type in {@link #getSignature()}, as
+     *         an unmodifiable set returned until they change */
+    <E extends OWLEntity> Set<E> getEntitiesInSignature(EntityType<E> type);
+
     public <T extends OWLAxiom, K> Set<T> filterAxioms(OWLAxiomSearchFilter<T, K> filter,
             K key);
 
@@ -275,6 +293,14 @@ public interface Internals {
 
     boolean removeAxiom(OWLAxiom axiom);
 
+    /** Drops the indexes that are built on demand from axioms of the given
+     * types; they are rebuilt in one pass the next time they are used, rather
+     * than being updated for every changed axiom.
+     * 
+     * @param types
+     *            the axiom types about to change */
+    void invalidateLazyIndexes(Collection<AxiomType<?>> types);
+
     void removeGeneralClassAxioms(OWLClassAxiom ax);
 
     /** @param importDeclaration
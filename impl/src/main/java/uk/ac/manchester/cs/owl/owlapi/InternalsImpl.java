@@ -105,7 +105,6 @@ import org.semanticweb.owlapi.model.OWLSymmetricObjectPropertyAxiom;
 import org.semanticweb.owlapi.model.OWLTransitiveObjectPropertyAxiom;
 import org.semanticweb.owlapi.model.SWRLRule;
 import org.semanticweb.owlapi.util.CollectionFactory;
-import org.semanticweb.owlapi.util.OWLAxiomSearchFilter;
 
 @SuppressWarnings("javadoc")
 public class InternalsImpl extends AbstractInternalsImpl {
@@ -158,27 +157,6 @@ public class InternalsImpl extends AbstractInternalsImpl {
     protected final MapPointer<OWLAnnotationProperty, OWLAxiom> owlAnnotationPropertyReferences = build();
     protected final MapPointer<OWLEntity, OWLDeclarationAxiom> declarationsByEntity = build();
 
-    @Override
-    public <K, V extends OWLAxiom> Set<K> getKeyset(Pointer<K, V> pointer) {
-        final MapPointer<K, V> mapPointer = (MapPointer<K, V>) pointer;
-        mapPointer.init();
-        return mapPointer.keySet();
-    }
-
-    @Override
-    public <K, V extends OWLAxiom> Set<V> getValues(Pointer<K, V> pointer, K key) {
-        final MapPointer<K, V> mapPointer = (MapPointer<K, V>) pointer;
-        mapPointer.init();
-        return mapPointer.getValues(key);
-    }
-
-    @Override
-    public <K, V extends OWLAxiom> boolean hasValues(Pointer<K, V> pointer, K key) {
-        final MapPointer<K, V> mapPointer = (MapPointer<K, V>) pointer;
-        mapPointer.init();
-        return mapPointer.hasValues(key);
-    }
-
     @Override
     public <K, V extends OWLAxiom> boolean remove(Internals.Pointer<K, V> pointer, K k,
             V v) {
@@ -196,35 +174,46 @@ public class InternalsImpl extends AbstractInternalsImpl {
     public boolean addAxiom(final OWLAxiom axiom) {
         if (add(getAxiomsByType(), axiom.getAxiomType(), axiom)) {
             axiom.accept(addChangeVisitor);
+            // the key is only worth building if the index is in use
+            if (getAxiomsIgnoreAnnotations().isInitialized()) {
+                add(getAxiomsIgnoreAnnotations(), axiom.getAxiomWithoutAnnotations(),
+                        axiom);
+            }
             axiom.accept(new AbstractEntityRegistrationManager() {
                 @Override
                 public void visit(OWLClass owlClass) {
                     add(getOwlClassReferences(), owlClass, axiom);
+                    addToSignature(owlClass);
                 }
 
                 @Override
                 public void visit(OWLObjectProperty property) {
                     add(getOwlObjectPropertyReferences(), property, axiom);
+                    addToSignature(property);
                 }
 
                 @Override
                 public void visit(OWLDataProperty property) {
                     add(getOwlDataPropertyReferences(), property, axiom);
+                    addToSignature(property);
                 }
 
                 @Override
                 public void visit(OWLNamedIndividual owlIndividual) {
                     add(getOwlIndividualReferences(), owlIndividual, axiom);
+                    addToSignature(owlIndividual);
                 }
 
                 @Override
                 public void visit(OWLAnnotationProperty property) {
                     add(getOwlAnnotationPropertyReferences(), property, axiom);
+                    addToSignature(property);
                 }
 
                 @Override
                 public void visit(OWLDatatype datatype) {
                     add(getOwlDatatypeReferences(), datatype, axiom);
+                    addToSignature(datatype);
                 }
 
                 @Override
@@ -241,35 +230,45 @@ public class InternalsImpl extends AbstractInternalsImpl {
     public boolean removeAxiom(final OWLAxiom axiom) {
         if (remove(getAxiomsByType(), axiom.getAxiomType(), axiom)) {
             axiom.accept(removeChangeVisitor);
+            if (getAxiomsIgnoreAnnotations().isInitialized()) {
+                remove(getAxiomsIgnoreAnnotations(), axiom.getAxiomWithoutAnnotations(),
+                        axiom);
+            }
             AbstractEntityRegistrationManager referenceRemover = new AbstractEntityRegistrationManager() {
                 @Override
                 public void visit(OWLClass owlClass) {
                     remove(getOwlClassReferences(), owlClass, axiom);
+                    removeFromSignature(getOwlClassReferences(), owlClass);
                 }
 
                 @Override
                 public void visit(OWLObjectProperty property) {
                     remove(getOwlObjectPropertyReferences(), property, axiom);
+                    removeFromSignature(getOwlObjectPropertyReferences(), property);
                 }
 
                 @Override
                 public void visit(OWLDataProperty property) {
                     remove(getOwlDataPropertyReferences(), property, axiom);
+                    removeFromSignature(getOwlDataPropertyReferences(), property);
                 }
 
                 @Override
                 public void visit(OWLNamedIndividual owlIndividual) {
                     remove(getOwlIndividualReferences(), owlIndividual, axiom);
+                    removeFromSignature(getOwlIndividualReferences(), owlIndividual);
                 }
 
                 @Override
                 public void visit(OWLAnnotationProperty property) {
                     remove(getOwlAnnotationPropertyReferences(), property, axiom);
+                    removeFromSignature(property);
                 }
 
                 @Override
                 public void visit(OWLDatatype datatype) {
                     remove(getOwlDatatypeReferences(), datatype, axiom);
+                    removeFromSignature(getOwlDatatypeReferences(), datatype);
                 }
 
                 @Override
@@ -293,19 +292,6 @@ public class InternalsImpl extends AbstractInternalsImpl {
         return axiomsByType.size() == 0 && ontologyAnnotations.isEmpty();
     }
 
-    @Override
-    @SuppressWarnings("unchecked")
-    public <T extends OWLAxiom, K> Set<T> filterAxioms(OWLAxiomSearchFilter<T, K> filter,
-            K key) {
-        Set<T> toReturn = createSet();
-        for (T t : (Set<T>) getValues(getAxiomsByType(), filter.getAxiomType())) {
-            if (filter.pass(t, key)) {
-                toReturn.add(t);
-            }
-        }
-        return toReturn;
-    }
-
     @Override
     public Set<OWLImportsDeclaration> getImportsDeclarations() {
         return importsDeclarations.copy();
@@ -336,22 +322,20 @@ public class InternalsImpl extends AbstractInternalsImpl {
 
     @Override
     public boolean addOntologyAnnotation(OWLAnnotation ann) {
-        return ontologyAnnotations.add(ann);
+        if (ontologyAnnotations.add(ann)) {
+            addToSignature(ann.getProperty());
+            return true;
+        }
+        return false;
     }
 
     @Override
     public boolean removeOntologyAnnotation(OWLAnnotation ann) {
-        return ontologyAnnotations.remove(ann);
-    }
-
-    @Override
-    public <K, V extends OWLAxiom> boolean contains(Pointer<K, V> p, K k) {
-        return ((MapPointer<K, V>) p).containsKey(k);
-    }
-
-    @Override
-    public <K, V extends OWLAxiom> boolean contains(Pointer<K, V> p, K k, V v) {
-        return ((MapPointer<K, V>) p).contains(k, v);
+        if (ontologyAnnotations.remove(ann)) {
+            removeFromSignature(ann.getProperty());
+            return true;
+        }
+        return false;
     }
 
     @Override
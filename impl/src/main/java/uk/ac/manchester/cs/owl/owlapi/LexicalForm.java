@@ -0,0 +1,333 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+import org.semanticweb.owlapi.util.WeakCache;
+
+/** The lexical form of a literal, stored as compactly as possible and shared
+ * between all the literals with the same lexical form. Strings whose
+ * characters all fit in one byte are stored one byte per character; other
+ * strings are stored in UTF-8, or as raw UTF-16 characters when that is
+ * shorter or when they contain surrogates. Long forms are deflated with a
+ * preset dictionary of words common in labels and definitions, which gives
+ * a good ratio even on texts of a few hundred characters. Recently decoded
+ * strings are kept in a small cache, so that repeated calls to
+ * {@link #get()} do not decode again. */
+final class LexicalForm implements Serializable {
+    private static final long serialVersionUID = 30402L;
+    /** forms longer than this, in bytes, are deflated */
+    static final int COMPRESSION_LIMIT = 160;
+    private static final byte LATIN_1 = 0;
+    private static final byte UTF_8 = 1;
+    private static final byte UTF_16 = 2;
+    private static final byte DEFLATED = 4;
+    private static final Charset LATIN_1_CHARSET = Charset.forName("ISO-8859-1");
+    private static final Charset UTF_8_CHARSET = Charset.forName("UTF-8");
+    /** frequent words and phrases of annotation texts; the most frequent come
+     * last, since deflate finds them with shorter distances */
+    private static final byte[] DICTIONARY = ("http://www.w3.org/2001/XMLSchema# "
+            + "http://purl.obolibrary.org/obo/ http://www.w3.org/2002/07/owl# "
+            + "including however between through because although during "
+            + "within without against should would could other these those "
+            + "their there where which while about after before under "
+            + "process protein cell tissue disease structure function region "
+            + "organism activity molecule compound gene system anatomical "
+            + "material entity quality role disposition occurrent continuant "
+            + "located involved associated composed consists derived "
+            + "characterized specified described defined refers used "
+            + "such as that is a type of a kind of a part of is part of "
+            + "has part in which or more one or more at least any of "
+            + "the presence of the process of an entity that "
+            + "that has for example, e.g. i.e. of the in the to the "
+            + "and the with the by the from the on the is a is the "
+            + "of a that is an ").getBytes(LATIN_1_CHARSET);
+    private static final int CACHE_SIZE = 1024;
+    /** recently decoded forms; entries are immutable, so the array can be
+     * read and written without synchronization */
+    private static final Decoded[] DECODED = new Decoded[CACHE_SIZE];
+    private static final ThreadLocal<Inflater> INFLATERS = new ThreadLocal<Inflater>() {
+        @Override
+        protected Inflater initialValue() {
+            return new Inflater(true);
+        }
+    };
+    /** the shared arena of lexical forms */
+    private static final WeakCache<LexicalForm> ARENA = new WeakCache<LexicalForm>();
+    private final byte[] bytes;
+    private final byte encoding;
+    /** length of the encoded form before deflation */
+    private final int length;
+    /** hash code of the lexical form, as computed by String */
+    private final int hash;
+
+    private LexicalForm(byte[] bytes, byte encoding, int length, int hash) {
+        this.bytes = bytes;
+        this.encoding = encoding;
+        this.length = length;
+        this.hash = hash;
+    }
+
+    /** @param s
+     *            the lexical form
+     * @return the shared lexical form equal to s */
+    static LexicalForm create(String s) {
+        byte encoding = LATIN_1;
+        boolean surrogates = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c > 0xFF) {
+                encoding = UTF_8;
+                if (c >= '\uD800' && c <= '\uDFFF') {
+                    // unpaired surrogates would not survive UTF-8
+                    surrogates = true;
+                    break;
+                }
+            }
+        }
+        byte[] bytes;
+        if (encoding == LATIN_1) {
+            bytes = s.getBytes(LATIN_1_CHARSET);
+        } else {
+            bytes = surrogates ? null : s.getBytes(UTF_8_CHARSET);
+            if (bytes == null || bytes.length > s.length() * 2) {
+                encoding = UTF_16;
+                bytes = toChars(s);
+            }
+        }
+        int length = bytes.length;
+        if (length > COMPRESSION_LIMIT) {
+            // a parser often sees the same long form again: deflate only new
+            // forms
+            LexicalForm existing = ARENA.find(new Probe(s));
+            if (existing != null) {
+                return existing;
+            }
+            byte[] deflated = deflate(bytes);
+            if (deflated.length < length) {
+                bytes = deflated;
+                encoding |= DEFLATED;
+            }
+        }
+        LexicalForm form = ARENA.cache(new LexicalForm(bytes, encoding, length, s
+                .hashCode()));
+        if (form.isDeflated()) {
+            DECODED[form.hash & CACHE_SIZE - 1] = new Decoded(form, s);
+        }
+        return form;
+    }
+
+    /** @return the number of lexical forms in the shared arena, including
+     *         forms no longer referenced but not yet removed */
+    static int arenaSize() {
+        return ARENA.size();
+    }
+
+    /** @return the lexical form */
+    String get() {
+        if (!isDeflated() && encoding == LATIN_1 && bytes.length <= 16) {
+            // short forms decode faster than a cache lookup
+            return new String(bytes, LATIN_1_CHARSET);
+        }
+        int index = hash & CACHE_SIZE - 1;
+        Decoded decoded = DECODED[index];
+        if (decoded != null && decoded.form == this) {
+            return decoded.value;
+        }
+        String value = decode();
+        DECODED[index] = new Decoded(this, value);
+        return value;
+    }
+
+    /** @return true if the form is deflated */
+    boolean isDeflated() {
+        return (encoding & DEFLATED) != 0;
+    }
+
+    /** @return the number of bytes used to store the form */
+    int getStoredLength() {
+        return bytes.length;
+    }
+
+    private String decode() {
+        byte[] raw = isDeflated() ? inflate(bytes, length) : bytes;
+        switch (encoding & ~DEFLATED) {
+            case LATIN_1:
+                return new String(raw, LATIN_1_CHARSET);
+            case UTF_8:
+                return new String(raw, UTF_8_CHARSET);
+            default:
+                char[] chars = new char[raw.length / 2];
+                for (int i = 0; i < chars.length; i++) {
+                    chars[i] = (char) ((raw[2 * i] & 0xFF) << 8 | raw[2 * i + 1] & 0xFF);
+                }
+                return new String(chars);
+        }
+    }
+
+    private static byte[] toChars(String s) {
+        byte[] bytes = new byte[s.length() * 2];
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            bytes[2 * i] = (byte) (c >> 8);
+            bytes[2 * i + 1] = (byte) c;
+        }
+        return bytes;
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setDictionary(DICTIONARY);
+            deflater.setInput(bytes);
+            deflater.finish();
+            // anything longer than the input is not worth keeping
+            byte[] buffer = new byte[bytes.length];
+            int size = 0;
+            while (!deflater.finished() && size < buffer.length) {
+                size += deflater.deflate(buffer, size, buffer.length - size);
+            }
+            if (!deflater.finished()) {
+                return bytes;
+            }
+            return Arrays.copyOf(buffer, size);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes, int length) {
+        Inflater inflater = INFLATERS.get();
+        inflater.reset();
+        inflater.setDictionary(DICTIONARY);
+        inflater.setInput(bytes);
+        byte[] raw = new byte[length];
+        try {
+            int size = 0;
+            while (size < length) {
+                int read = inflater.inflate(raw, size, length - size);
+                if (read == 0 && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                size += read;
+            }
+            if (size < length) {
+                throw new OWLRuntimeException("Truncated lexical form: " + size
+                        + " bytes out of " + length);
+            }
+        } catch (DataFormatException e) {
+            throw new OWLRuntimeException(e);
+        }
+        return raw;
+    }
+
+    /** forms are shared again after deserialization
+     * 
+     * @return the shared form equal to this one
+     * @throws ObjectStreamException
+     *             never */
+    private Object readResolve() throws ObjectStreamException {
+        return ARENA.cache(this);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof LexicalForm)) {
+            return false;
+        }
+        LexicalForm other = (LexicalForm) obj;
+        return hash == other.hash && encoding == other.encoding
+                && length == other.length && Arrays.equals(bytes, other.bytes);
+    }
+
+    @Override
+    public String toString() {
+        return get();
+    }
+
+    /** finds the form of a string in the arena without deflating it; equal
+     * to a form with the hash of the string that decodes to it */
+    private static final class Probe {
+        private final String value;
+        private final int hash;
+
+        Probe(String value) {
+            this.value = value;
+            hash = value.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof LexicalForm && ((LexicalForm) obj).hash == hash
+                    && value.equals(((LexicalForm) obj).get());
+        }
+    }
+
+    /** a decoded form and its value */
+    private static final class Decoded {
+        final LexicalForm form;
+        final String value;
+
+        Decoded(LexicalForm form, String value) {
+            this.form = form;
+            this.value = value;
+        }
+    }
+}
@@ -20,15 +20,25 @@ public class MapPointer<K, V extends OWLAxiom> implements Internals.Pointer<K, V
     private final MultiMap<K, V> map;
     private final AxiomType<?> type;
     private final OWLAxiomVisitorEx<?> visitor;
-    private boolean initialized;
+    private volatile boolean initialized;
+    private final boolean lazy;
     protected final Internals i;
 
     public MapPointer(AxiomType<?> t, OWLAxiomVisitorEx<?> v, boolean initialized,
             Internals i) {
+        this(t, v, initialized, i, new MultiMap<K, V>());
+    }
+
+    /** @param map
+     *            the multimap used to store the index; allows internals to
+     *            choose a different storage strategy */
+    public MapPointer(AxiomType<?> t, OWLAxiomVisitorEx<?> v, boolean initialized,
+            Internals i, MultiMap<K, V> map) {
         type = t;
         visitor = v;
-        map = new MultiMap<K, V>();
+        this.map = map;
         this.initialized = initialized;
+        lazy = !initialized;
         this.i = i;
     }
 
@@ -36,12 +46,24 @@ public class MapPointer<K, V extends OWLAxiom> implements Internals.Pointer<K, V
         return initialized;
     }
 
-    @SuppressWarnings("unchecked")
+    /** Builds the index if it has not been built yet. Safe for concurrent
+     * readers: the index is marked as initialized only once it is complete. */
     public void init() {
         if (initialized) {
             return;
         }
-        initialized = true;
+        synchronized (this) {
+            if (!initialized) {
+                build();
+                initialized = true;
+            }
+        }
+    }
+
+    /** Fills the index from the axioms in the ontology; called once, by
+     * {@link #init()}, before the index is marked as initialized. */
+    @SuppressWarnings("unchecked")
+    protected void build() {
         if (visitor == null) {
             return;
         }
@@ -49,19 +71,42 @@ public class MapPointer<K, V extends OWLAxiom> implements Internals.Pointer<K, V
             for (V ax : (Set<V>) i.getValues(i.getAxiomsByType(), type)) {
                 K key = ax.accept((InitVisitor<K>) visitor);
                 if (key != null) {
-                    map.put(key, ax);
+                    put(key, ax);
                 }
             }
         } else {
             for (V ax : (Set<V>) i.getValues(i.getAxiomsByType(), type)) {
                 Collection<K> keys = ax.accept((InitCollectionVisitor<K>) visitor);
                 for (K key : keys) {
-                    map.put(key, ax);
+                    put(key, ax);
                 }
             }
         }
     }
 
+    /** Empties a lazily built index built from any of the given axiom types,
+     * so that it is built again, in a single pass, the next time it is used.
+     * Indexes that are not built lazily are never dropped.
+     * 
+     * @param types
+     *            the axiom types that are about to change
+     * @return true if the index was dropped */
+    public synchronized boolean invalidate(Collection<AxiomType<?>> types) {
+        if (!lazy || !initialized || !isBuiltFrom(types)) {
+            return false;
+        }
+        map.clear();
+        initialized = false;
+        return true;
+    }
+
+    /** @param types
+     *            axiom types
+     * @return true if this index contains axioms of any of the types */
+    protected boolean isBuiltFrom(Collection<AxiomType<?>> types) {
+        return type != null && types.contains(type);
+    }
+
     @Override
     public String toString() {
         return initialized + map.toString();
@@ -38,8 +38,6 @@
  */
 package uk.ac.manchester.cs.owl.owlapi;
 
-import java.lang.ref.WeakReference;
-
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLAnnotationProperty;
 import org.semanticweb.owlapi.model.OWLClass;
@@ -67,22 +65,15 @@ public class OWLDataFactoryInternalsImpl extends InternalsNoCache {
             this.f = f;
         }
 
+        @SuppressWarnings("unchecked")
         public V cache(IRI s, Buildable v) {
-            WeakReference<V> w = prefixCache.get(s);
-            if (w != null) {
-                V toReturn = w.get();
-                if (toReturn == null) {
-                    //entry removed - move on
-                }
-                else {
-                    return toReturn;
-                }
+            V toReturn = get(s);
+            if (toReturn != null) {
+                return toReturn;
             }
-            // need to add the new key and return it
-            @SuppressWarnings("unchecked")
-            V value = (V) v.build(s);
-            prefixCache.put(s, new WeakReference<V>(value));
-            return value;
+            // need to add the new key and return it; if another thread got
+            // there first, its value is returned instead
+            return cache(s, (V) v.build(s));
         }
     }
 
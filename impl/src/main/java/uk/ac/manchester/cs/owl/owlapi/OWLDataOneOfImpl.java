@@ -40,7 +40,6 @@
 package uk.ac.manchester.cs.owl.owlapi;
 
 import java.util.Set;
-import java.util.TreeSet;
 
 import org.semanticweb.owlapi.model.DataRangeType;
 import org.semanticweb.owlapi.model.OWLDataOneOf;
@@ -72,7 +71,7 @@ public class OWLDataOneOfImpl extends OWLObjectImpl implements OWLDataOneOf {
     @SuppressWarnings("javadoc")
     public OWLDataOneOfImpl(Set<? extends OWLLiteral> values) {
         super();
-        this.values = new TreeSet<OWLLiteral>(values);
+        this.values = new SortedArraySet<OWLLiteral>(values);
     }
 
     @Override
@@ -150,6 +149,9 @@ public class OWLDataOneOfImpl extends OWLObjectImpl implements OWLDataOneOf {
 
     @Override
 	protected int compareObjectOfSameType(OWLObject object) {
+        if (object instanceof OWLDataOneOfImpl) {
+            return compareSets(values, ((OWLDataOneOfImpl) object).values);
+        }
         return compareSets(values, ((OWLDataOneOf) object).getValues());
     }
 }
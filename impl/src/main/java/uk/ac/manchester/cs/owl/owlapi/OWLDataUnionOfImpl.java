@@ -73,7 +73,7 @@ public class OWLDataUnionOfImpl extends OWLNaryDataRangeImpl implements OWLDataU
     @Override
     protected int compareObjectOfSameType(OWLObject object) {
         OWLDataUnionOf other = (OWLDataUnionOf) object;
-        return compareSets(getOperands(), other.getOperands());
+        return compareOperands(other);
     }
 
     @Override
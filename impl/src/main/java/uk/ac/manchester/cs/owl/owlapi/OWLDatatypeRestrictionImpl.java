@@ -38,7 +38,6 @@
  */
 package uk.ac.manchester.cs.owl.owlapi;
 
-import java.util.HashSet;
 import java.util.Set;
 
 import org.semanticweb.owlapi.model.DataRangeType;
@@ -71,7 +70,7 @@ public class OWLDatatypeRestrictionImpl extends OWLObjectImpl implements
             Set<OWLFacetRestriction> facetRestrictions) {
         super();
         this.datatype = datatype;
-        this.facetRestrictions = new HashSet<OWLFacetRestriction>(facetRestrictions);
+        this.facetRestrictions = new SortedArraySet<OWLFacetRestriction>(facetRestrictions);
     }
 
     @Override
@@ -155,6 +154,10 @@ public class OWLDatatypeRestrictionImpl extends OWLObjectImpl implements
         if (diff != 0) {
             return diff;
         }
+        if (other instanceof OWLDatatypeRestrictionImpl) {
+            return compareSets(facetRestrictions,
+                    ((OWLDatatypeRestrictionImpl) other).facetRestrictions);
+        }
         return compareSets(facetRestrictions, other.getFacetRestrictions());
     }
 }
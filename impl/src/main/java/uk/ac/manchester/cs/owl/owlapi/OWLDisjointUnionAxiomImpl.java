@@ -40,7 +40,6 @@
 package uk.ac.manchester.cs.owl.owlapi;
 
 import java.util.Set;
-import java.util.TreeSet;
 
 import org.semanticweb.owlapi.model.AxiomType;
 import org.semanticweb.owlapi.model.OWLAnnotation;
@@ -78,7 +77,7 @@ public class OWLDisjointUnionAxiomImpl extends OWLClassAxiomImpl implements OWLD
 //        if(classExpressions==null || classExpressions.isEmpty()) {
 //        	throw new IllegalArgumentException("the classExpressions set must contain at least one value");
 //        }
-        this.classExpressions = new TreeSet<OWLClassExpression>(classExpressions);
+        this.classExpressions = new SortedArraySet<OWLClassExpression>(classExpressions);
     }
 
     @Override
@@ -162,6 +161,10 @@ public class OWLDisjointUnionAxiomImpl extends OWLClassAxiomImpl implements OWLD
         if (diff != 0) {
             return diff;
         }
+        if (other instanceof OWLDisjointUnionAxiomImpl) {
+            return compareSets(classExpressions,
+                    ((OWLDisjointUnionAxiomImpl) other).classExpressions);
+        }
         return compareSets(classExpressions, other.getClassExpressions());
     }
 }
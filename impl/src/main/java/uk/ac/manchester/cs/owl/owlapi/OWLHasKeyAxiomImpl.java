@@ -73,7 +73,7 @@ public class OWLHasKeyAxiomImpl extends OWLLogicalAxiomImpl implements OWLHasKey
     public OWLHasKeyAxiomImpl(OWLClassExpression expression, Set<? extends OWLPropertyExpression<?,?>> propertyExpressions, Collection<? extends OWLAnnotation> annotations) {
         super(annotations);
         this.expression = expression;
-        this.propertyExpressions = new TreeSet<OWLPropertyExpression<?,?>>(propertyExpressions);
+        this.propertyExpressions = new SortedArraySet<OWLPropertyExpression<?,?>>(propertyExpressions);
     }
 
     @Override
@@ -142,6 +142,10 @@ public class OWLHasKeyAxiomImpl extends OWLLogicalAxiomImpl implements OWLHasKey
         if (diff != 0) {
             return diff;
         }
+        if (other instanceof OWLHasKeyAxiomImpl) {
+            return compareSets(propertyExpressions,
+                    ((OWLHasKeyAxiomImpl) other).propertyExpressions);
+        }
         return compareSets(propertyExpressions, other.getPropertyExpressions());
     }
 
@@ -38,18 +38,6 @@
  */
 package uk.ac.manchester.cs.owl.owlapi;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.Reader;
-import java.io.Serializable;
-import java.io.Writer;
-import java.util.Arrays;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
-
 import org.semanticweb.owlapi.model.OWLAnnotationValueVisitor;
 import org.semanticweb.owlapi.model.OWLAnnotationValueVisitorEx;
 import org.semanticweb.owlapi.model.OWLDataVisitor;
@@ -69,18 +57,20 @@ import org.semanticweb.owlapi.vocab.OWL2Datatype;
  * Date: 26-Oct-2006<br>
  * <br>
  * <p>
- *     Implementation of {@link OWLLiteral} that uses compression of strings.  See also
+ *     Implementation of {@link OWLLiteral} that uses compression of strings.  Lexical forms
+ *     are kept in compact byte arrays, shared between all literals with the same lexical
+ *     form; long forms are deflated with a shared dictionary.  See also
  *     {@link OWLLiteralImplNoCompression}
  * </p>
  */
 public class OWLLiteralImpl extends OWLObjectImpl implements OWLLiteral {
 
 
-    private static final long serialVersionUID = 30402L;
-
-    private static final int COMPRESSION_LIMIT = 160;
+    /** changed with the type of the lexical form, so that literals serialized
+     * by earlier versions are rejected as incompatible */
+    private static final long serialVersionUID = 30406L;
 
-    private final LiteralWrapper literal;
+    private final LexicalForm literal;
 
     private final OWLDatatype datatype;
 
@@ -95,7 +85,7 @@ public class OWLLiteralImpl extends OWLObjectImpl implements OWLLiteral {
      */
     public OWLLiteralImpl(String literal, String lang, OWLDatatype datatype) {
         super();
-        this.literal = new LiteralWrapper(literal);
+        this.literal = LexicalForm.create(literal);
         if (lang == null || lang.length() == 0) {
             this.lang = "";
             this.datatype = datatype;
@@ -207,13 +197,7 @@ public class OWLLiteralImpl extends OWLObjectImpl implements OWLLiteral {
     private int getHashCode() {
         int hashCode = 277;
         hashCode = hashCode * 37 + getDatatype().hashCode();
-        hashCode = hashCode * 37;
-        if (literal.l != null) {
-            hashCode += literal.l.hashCode();
-        }
-        else {
-            hashCode += Arrays.hashCode(literal.bytes);
-        }
+        hashCode = hashCode * 37 + literal.hashCode();
         if (hasLang()) {
             hashCode = hashCode * 37 + getLang().hashCode();
         }
@@ -227,6 +211,10 @@ public class OWLLiteralImpl extends OWLObjectImpl implements OWLLiteral {
                 return false;
             }
             OWLLiteral other = (OWLLiteral) obj;
+            if (other instanceof OWLLiteralImpl) {
+                // lexical forms are shared, so equal forms are the same object
+                return literal == ((OWLLiteralImpl) other).literal && datatype.equals(other.getDatatype()) && lang.equals(other.getLang());
+            }
             return literal.get().equals(other.getLiteral()) && datatype.equals(other.getDatatype()) && lang.equals(other.getLang());
         }
         return false;
@@ -255,7 +243,10 @@ public class OWLLiteralImpl extends OWLObjectImpl implements OWLLiteral {
     @Override
     protected int compareObjectOfSameType(OWLObject object) {
         OWLLiteral other = (OWLLiteral) object;
-        int diff = literal.get().compareTo(other.getLiteral());
+        int diff = 0;
+        if (!(other instanceof OWLLiteralImpl) || literal != ((OWLLiteralImpl) other).literal) {
+            diff = literal.get().compareTo(other.getLiteral());
+        }
         if (diff != 0) {
             return diff;
         }
@@ -275,86 +266,4 @@ public class OWLLiteralImpl extends OWLObjectImpl implements OWLLiteral {
     public <O> O accept(OWLObjectVisitorEx<O> visitor) {
         return visitor.visit(this);
     }
-
-
-    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
-    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
-    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
-    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
-    ///////
-    ///////  Literal Wraper
-    ///////
-    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
-    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
-    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
-
-    private static final class LiteralWrapper implements Serializable {
-
-        private static final long serialVersionUID = 30402L;
-
-        String l;
-
-        byte[] bytes;
-
-        LiteralWrapper(String s) {
-            if (s.length() > COMPRESSION_LIMIT) {
-                try {
-                    bytes = compress(s);
-                    l = null;
-                }
-                catch (IOException e) {
-                    // some problem happened - defaulting to no compression
-                    l = s;
-                    bytes = null;
-                }
-            }
-            else {
-                bytes = null;
-                l = s;
-            }
-        }
-
-        String get() {
-            if (l != null) {
-                return l;
-            }
-            try {
-                return decompress(bytes);
-            }
-            catch (IOException e) {
-                // some problem has happened - cannot recover from this
-                e.printStackTrace();
-                return null;
-            }
-        }
-
-        byte[] compress(String s) throws IOException {
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            GZIPOutputStream zipout;
-            zipout = new GZIPOutputStream(out);
-            Writer writer = new OutputStreamWriter(zipout, COMPRESSED_ENCODING);
-            writer.write(s);
-            writer.flush();
-            zipout.finish();
-            zipout.flush();
-            return out.toByteArray();
-        }
-
-        String decompress(byte[] result) throws IOException {
-            ByteArrayInputStream in = new ByteArrayInputStream(result);
-            GZIPInputStream zipin = new GZIPInputStream(in);
-            Reader reader = new InputStreamReader(zipin, COMPRESSED_ENCODING);
-            StringBuilder b = new StringBuilder();
-            int c = reader.read();
-            while (c > -1) {
-                b.append((char) c);
-                c = reader.read();
-            }
-            return b.toString();
-        }
-
-        private static final String COMPRESSED_ENCODING = "UTF-16";
-    }
-
-
 }
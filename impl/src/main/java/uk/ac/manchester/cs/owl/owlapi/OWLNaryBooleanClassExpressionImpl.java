@@ -42,7 +42,6 @@ package uk.ac.manchester.cs.owl.owlapi;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
-import java.util.TreeSet;
 
 import org.semanticweb.owlapi.model.OWLClassExpression;
 import org.semanticweb.owlapi.model.OWLNaryBooleanClassExpression;
@@ -65,7 +64,7 @@ public abstract class OWLNaryBooleanClassExpressionImpl extends OWLAnonymousClas
     @SuppressWarnings("javadoc")
     public OWLNaryBooleanClassExpressionImpl(Set<? extends OWLClassExpression> operands) {
         super();
-        this.operands = new TreeSet<OWLClassExpression>(operands);
+        this.operands = new SortedArraySet<OWLClassExpression>(operands);
     }
 
     @Override
@@ -99,6 +98,9 @@ public abstract class OWLNaryBooleanClassExpressionImpl extends OWLAnonymousClas
 
     @Override
 	final protected int compareObjectOfSameType(OWLObject object) {
+        if (object instanceof OWLNaryBooleanClassExpressionImpl) {
+            return compareSets(operands, ((OWLNaryBooleanClassExpressionImpl) object).operands);
+        }
         return compareSets(operands, ((OWLNaryBooleanClassExpression) object).getOperands());
     }
 }
@@ -44,7 +44,6 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.TreeSet;
 
 import org.semanticweb.owlapi.model.OWLAnnotation;
 import org.semanticweb.owlapi.model.OWLClassExpression;
@@ -68,7 +67,7 @@ public abstract class OWLNaryClassAxiomImpl extends OWLClassAxiomImpl implements
     @SuppressWarnings("javadoc")
     public OWLNaryClassAxiomImpl(Set<? extends OWLClassExpression> classExpressions, Collection<? extends OWLAnnotation> annotations) {
         super(annotations);
-        this.classExpressions = new TreeSet<OWLClassExpression>(classExpressions);
+        this.classExpressions = new SortedArraySet<OWLClassExpression>(classExpressions);
     }
 
 
@@ -112,6 +111,10 @@ public abstract class OWLNaryClassAxiomImpl extends OWLClassAxiomImpl implements
 
     @Override
 	protected int compareObjectOfSameType(OWLObject object) {
+        if (object instanceof OWLNaryClassAxiomImpl) {
+            return compareSets(classExpressions,
+                    ((OWLNaryClassAxiomImpl) object).classExpressions);
+        }
         return compareSets(classExpressions, ((OWLNaryClassAxiom) object).getClassExpressions());
     }
 }
@@ -40,7 +40,6 @@
 package uk.ac.manchester.cs.owl.owlapi;
 
 import java.util.Set;
-import java.util.TreeSet;
 
 import org.semanticweb.owlapi.model.OWLDataRange;
 import org.semanticweb.owlapi.model.OWLDatatype;
@@ -60,7 +59,7 @@ public abstract class OWLNaryDataRangeImpl extends OWLObjectImpl implements OWLN
 
     protected OWLNaryDataRangeImpl(Set<? extends OWLDataRange> operands) {
         super();
-        this.operands = new TreeSet<OWLDataRange>(operands);
+        this.operands = new SortedArraySet<OWLDataRange>(operands);
     }
 
     @Override
@@ -68,6 +67,18 @@ public abstract class OWLNaryDataRangeImpl extends OWLObjectImpl implements OWLN
         return CollectionFactory.getCopyOnRequestSetFromImmutableCollection(operands);
     }
 
+    /** @param other
+     *            the data range to compare operands with
+     * @return the comparison of the operands of this data range with those of
+     *         other, without copying them when other is also an implementation
+     *         of this class */
+    protected int compareOperands(OWLNaryDataRange other) {
+        if (other instanceof OWLNaryDataRangeImpl) {
+            return compareSets(operands, ((OWLNaryDataRangeImpl) other).operands);
+        }
+        return compareSets(operands, other.getOperands());
+    }
+
     @Override
     public boolean isTopDatatype() {
         return false;
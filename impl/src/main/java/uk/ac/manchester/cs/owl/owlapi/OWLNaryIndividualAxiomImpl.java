@@ -43,7 +43,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
-import java.util.TreeSet;
 
 import org.semanticweb.owlapi.model.OWLAnnotation;
 import org.semanticweb.owlapi.model.OWLIndividual;
@@ -67,7 +66,7 @@ public abstract class OWLNaryIndividualAxiomImpl extends OWLIndividualAxiomImpl
     @SuppressWarnings("javadoc")
     public OWLNaryIndividualAxiomImpl(Set<? extends OWLIndividual> individuals, Collection<? extends OWLAnnotation> annotations) {
         super(annotations);
-        this.individuals = new TreeSet<OWLIndividual>(individuals);
+        this.individuals = new SortedArraySet<OWLIndividual>(individuals);
     }
 
 
@@ -95,6 +94,9 @@ public abstract class OWLNaryIndividualAxiomImpl extends OWLIndividualAxiomImpl
 
     @Override
 	protected int compareObjectOfSameType(OWLObject object) {
+        if (object instanceof OWLNaryIndividualAxiomImpl) {
+            return compareSets(individuals, ((OWLNaryIndividualAxiomImpl) object).individuals);
+        }
         return compareSets(individuals, ((OWLNaryIndividualAxiom) object).getIndividuals());
     }
 }
@@ -66,7 +66,7 @@ public abstract class OWLNaryPropertyAxiomImpl<P extends OWLPropertyExpression<?
     @SuppressWarnings("javadoc")
     public OWLNaryPropertyAxiomImpl(Set<? extends P> properties, Collection<? extends OWLAnnotation> annotations) {
         super(annotations);
-        this.properties = new TreeSet<P>(properties);
+        this.properties = new SortedArraySet<P>(properties);
     }
 
 
@@ -96,6 +96,9 @@ public abstract class OWLNaryPropertyAxiomImpl<P extends OWLPropertyExpression<?
 
     @Override
 	final protected int compareObjectOfSameType(OWLObject object) {
+        if (object instanceof OWLNaryPropertyAxiomImpl) {
+            return compareSets(properties, ((OWLNaryPropertyAxiomImpl<?>) object).properties);
+        }
         return compareSets(properties, ((OWLNaryPropertyAxiom<?>) object).getProperties());
     }
 }
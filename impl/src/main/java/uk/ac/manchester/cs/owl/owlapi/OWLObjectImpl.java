@@ -46,6 +46,8 @@ import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.semanticweb.owlapi.io.ToStringRenderer;
 import org.semanticweb.owlapi.model.OWLAnonymousIndividual;
@@ -71,6 +73,10 @@ import org.semanticweb.owlapi.util.OWLObjectTypeIndexProvider;
 public abstract class OWLObjectImpl implements OWLObject, Serializable {
 
     private static final long serialVersionUID = 30402L;
+    /** type indexes by implementation class; every case of
+     * OWLObjectTypeIndexProvider depends on the class of the object only, so
+     * the index is computed once per class rather than once per comparison */
+    private static final ConcurrentMap<Class<?>, Integer> TYPE_INDEXES = new ConcurrentHashMap<Class<?>, Integer>();
     private int hashCode = 0;
     private WeakReference<Set<OWLEntity>> signature = null;
     private WeakReference<Set<OWLAnonymousIndividual>> anons;
@@ -196,10 +202,7 @@ public abstract class OWLObjectImpl implements OWLObject, Serializable {
 
     @Override
     final public int compareTo(OWLObject o) {
-        OWLObjectTypeIndexProvider typeIndexProvider = new OWLObjectTypeIndexProvider();
-        int thisTypeIndex = typeIndexProvider.getTypeIndex(this);
-        int otherTypeIndex = typeIndexProvider.getTypeIndex(o);
-        int diff = thisTypeIndex - otherTypeIndex;
+        int diff = typeIndex(this) - typeIndex(o);
         if (diff == 0) {
             // Objects are the same type
             return compareObjectOfSameType(o);
@@ -210,6 +213,18 @@ public abstract class OWLObjectImpl implements OWLObject, Serializable {
 
     protected abstract int compareObjectOfSameType(OWLObject object);
 
+    /** @param o
+     *            the object
+     * @return the type index of o, as computed by OWLObjectTypeIndexProvider */
+    protected static int typeIndex(OWLObject o) {
+        Integer index = TYPE_INDEXES.get(o.getClass());
+        if (index == null) {
+            index = new OWLObjectTypeIndexProvider().getTypeIndex(o);
+            TYPE_INDEXES.put(o.getClass(), index);
+        }
+        return index;
+    }
+
     @Override
     public String toString() {
         return ToStringRenderer.getInstance().getRendering(this);
@@ -227,6 +242,9 @@ public abstract class OWLObjectImpl implements OWLObject, Serializable {
 
     protected static int compareSets(Set<? extends OWLObject> set1,
             Set<? extends OWLObject> set2) {
+        if (set1 instanceof SortedArraySet && set2 instanceof SortedArraySet) {
+            return ((SortedArraySet<?>) set1).compareTo((SortedArraySet<?>) set2);
+        }
         SortedSet<? extends OWLObject> ss1;
         if (set1 instanceof SortedSet) {
             ss1 = (SortedSet<? extends OWLObject>) set1;
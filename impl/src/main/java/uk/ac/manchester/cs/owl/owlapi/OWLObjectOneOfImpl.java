@@ -65,7 +65,7 @@ public class OWLObjectOneOfImpl extends OWLAnonymousClassExpressionImpl implemen
     @SuppressWarnings("javadoc")
     public OWLObjectOneOfImpl(Set<? extends OWLIndividual> values) {
         super();
-        this.values = new HashSet<OWLIndividual>(values);
+        this.values = new SortedArraySet<OWLIndividual>(values);
     }
 
     @Override
@@ -129,6 +129,9 @@ public class OWLObjectOneOfImpl extends OWLAnonymousClassExpressionImpl implemen
 
     @Override
     protected int compareObjectOfSameType(OWLObject object) {
+        if (object instanceof OWLObjectOneOfImpl) {
+            return compareSets(values, ((OWLObjectOneOfImpl) object).values);
+        }
         return compareSets(values, ((OWLObjectOneOf) object).getIndividuals());
     }
 }
@@ -42,14 +42,17 @@ import static org.semanticweb.owlapi.util.CollectionFactory.createSet;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.semanticweb.owlapi.model.AddAxiom;
 import org.semanticweb.owlapi.model.AddImport;
 import org.semanticweb.owlapi.model.AddOntologyAnnotation;
 import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.EntityType;
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLAnnotation;
 import org.semanticweb.owlapi.model.OWLAnnotationAssertionAxiom;
@@ -65,6 +68,7 @@ import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
 import org.semanticweb.owlapi.model.OWLClassAxiom;
 import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.model.OWLDataProperty;
 import org.semanticweb.owlapi.model.OWLDataPropertyAssertionAxiom;
 import org.semanticweb.owlapi.model.OWLDataPropertyAxiom;
@@ -144,6 +148,9 @@ public class OWLOntologyImpl extends OWLObjectImpl implements OWLMutableOntology
 Serializable {
 
     private static final long serialVersionUID = 30402L;
+    /** axiom types with fewer changes in a batch keep their indexes up to date
+     * one axiom at a time */
+    private static final int DEFERRED_INDEXING_MIN_CHANGES = 100;
     private final OWLOntologyManager manager;
     protected OWLOntologyID ontologyID;
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -155,10 +162,21 @@ Serializable {
 
     @SuppressWarnings("javadoc")
     public OWLOntologyImpl(OWLOntologyManager manager, OWLOntologyID ontologyID) {
+        this(manager, ontologyID, new InternalsImpl());
+    }
+
+    /** @param manager
+     *            the manager for this ontology
+     * @param ontologyID
+     *            the ontology id
+     * @param internals
+     *            the index structures to be used by this ontology */
+    public OWLOntologyImpl(OWLOntologyManager manager, OWLOntologyID ontologyID,
+            Internals internals) {
         super();
         this.manager = manager;
         this.ontologyID = ontologyID;
-        internals = new InternalsImpl();
+        this.internals = internals;
     }
 
     @Override
@@ -243,6 +261,10 @@ Serializable {
     public <T extends OWLAxiom> Set<T> getAxioms(AxiomType<T> axiomType,
             boolean includeImportsClosure) {
         if (includeImportsClosure) {
+            ImportsClosureView view = getImportsClosureView();
+            if (view != null) {
+                return view.getAxioms(axiomType);
+            }
             Set<T> toReturn = createSet();
             for (OWLOntology o : getImportsClosure()) {
                 toReturn.addAll(o.getAxioms(axiomType));
@@ -322,6 +344,10 @@ Serializable {
         if (!includeImportsClosure) {
             return containsAxiom(axiom);
         }
+        ImportsClosureView view = getImportsClosureView();
+        if (view != null) {
+            return view.containsAxiom(axiom);
+        }
         for (OWLOntology ont : getImportsClosure()) {
             if (ont.containsAxiom(axiom)) {
                 return true;
@@ -332,14 +358,8 @@ Serializable {
 
     @Override
     public boolean containsAxiomIgnoreAnnotations(OWLAxiom axiom) {
-        Set<OWLAxiom> set = internals.getValues(internals.getAxiomsByType(),
-                axiom.getAxiomType());
-        for (OWLAxiom ax : set) {
-            if (ax.equalsIgnoreAnnotations(axiom)) {
-                return true;
-            }
-        }
-        return false;
+        return internals.hasValues(internals.getAxiomsIgnoreAnnotations(),
+                axiom.getAxiomWithoutAnnotations());
     }
 
     @Override
@@ -348,6 +368,10 @@ Serializable {
         if (!includeImportsClosure) {
             return containsAxiomIgnoreAnnotations(axiom);
         } else {
+            ImportsClosureView view = getImportsClosureView();
+            if (view != null) {
+                return view.containsAxiomIgnoreAnnotations(axiom);
+            }
             for (OWLOntology ont : getImportsClosure()) {
                 if (ont.containsAxiomIgnoreAnnotations(axiom)) {
                     return true;
@@ -360,16 +384,8 @@ Serializable {
     @Override
     public Set<OWLAxiom> getAxiomsIgnoreAnnotations(OWLAxiom axiom) {
         Set<OWLAxiom> result = createSet();
-        if (containsAxiom(axiom)) {
-            result.add(axiom);
-        }
-        Set<OWLAxiom> set = internals.getValues(internals.getAxiomsByType(),
-                axiom.getAxiomType());
-        for (OWLAxiom ax : set) {
-            if (ax.equalsIgnoreAnnotations(axiom)) {
-                result.add(ax);
-            }
-        }
+        result.addAll(internals.getValues(internals.getAxiomsIgnoreAnnotations(),
+                axiom.getAxiomWithoutAnnotations()));
         return result;
     }
 
@@ -379,6 +395,10 @@ Serializable {
         if (!includeImportsClosure) {
             return getAxiomsIgnoreAnnotations(axiom);
         }
+        ImportsClosureView view = getImportsClosureView();
+        if (view != null) {
+            return createSet(view.getAxiomsIgnoreAnnotations(axiom));
+        }
         Set<OWLAxiom> result = createSet();
         for (OWLOntology ont : getImportsClosure()) {
             result.addAll(ont.getAxiomsIgnoreAnnotations(axiom));
@@ -397,6 +417,10 @@ Serializable {
         if (!includeImportsClosure) {
             return containsClassInSignature(owlClassIRI);
         }
+        ImportsClosureView view = getImportsClosureView();
+        if (view != null) {
+            return view.containsReference(getOWLDataFactory().getOWLClass(owlClassIRI));
+        }
         for (OWLOntology ont : manager.getImportsClosure(this)) {
             if (ont.containsClassInSignature(owlClassIRI)) {
                 return true;
@@ -417,6 +441,10 @@ Serializable {
         if (!includeImportsClosure) {
             return containsObjectPropertyInSignature(propIRI);
         }
+        ImportsClosureView view = getImportsClosureView();
+        if (view != null) {
+            return view.containsReference(getOWLDataFactory().getOWLObjectProperty(propIRI));
+        }
         for (OWLOntology ont : manager.getImportsClosure(this)) {
             if (ont.containsObjectPropertyInSignature(propIRI)) {
                 return true;
@@ -437,6 +465,10 @@ Serializable {
         if (!includeImportsClosure) {
             return containsDataPropertyInSignature(propIRI);
         }
+        ImportsClosureView view = getImportsClosureView();
+        if (view != null) {
+            return view.containsReference(getOWLDataFactory().getOWLDataProperty(propIRI));
+        }
         for (OWLOntology ont : manager.getImportsClosure(this)) {
             if (ont.containsDataPropertyInSignature(propIRI)) {
                 return true;
@@ -469,6 +501,11 @@ Serializable {
         if (!includeImportsClosure) {
             return containsAnnotationPropertyInSignature(propIRI);
         }
+        ImportsClosureView view = getImportsClosureView();
+        if (view != null) {
+            return view.containsAnnotationProperty(getOWLDataFactory()
+                    .getOWLAnnotationProperty(propIRI));
+        }
         for (OWLOntology ont : manager.getImportsClosure(this)) {
             if (ont.containsAnnotationPropertyInSignature(propIRI)) {
                 return true;
@@ -489,6 +526,10 @@ Serializable {
         if (!includeImportsClosure) {
             return containsIndividualInSignature(individualIRI);
         }
+        ImportsClosureView view = getImportsClosureView();
+        if (view != null) {
+            return view.containsReference(getOWLDataFactory().getOWLNamedIndividual(individualIRI));
+        }
         for (OWLOntology ont : manager.getImportsClosure(this)) {
             if (ont.containsIndividualInSignature(individualIRI)) {
                 return true;
@@ -509,6 +550,10 @@ Serializable {
         if (!includeImportsClosure) {
             return containsDatatypeInSignature(datatypeIRI);
         }
+        ImportsClosureView view = getImportsClosureView();
+        if (view != null) {
+            return view.containsReference(getOWLDataFactory().getOWLDatatype(datatypeIRI));
+        }
         for (OWLOntology ont : manager.getImportsClosure(this)) {
             if (ont.containsDatatypeInSignature(datatypeIRI)) {
                 return true;
@@ -547,6 +592,20 @@ Serializable {
             return getEntitiesInSignature(iri);
         } else {
             Set<OWLEntity> result = createSet(6);
+            ImportsClosureView view = getImportsClosureView();
+            if (view != null) {
+                OWLDataFactory df = getOWLDataFactory();
+                addIfReferenced(view, df.getOWLClass(iri), result);
+                addIfReferenced(view, df.getOWLObjectProperty(iri), result);
+                addIfReferenced(view, df.getOWLDataProperty(iri), result);
+                addIfReferenced(view, df.getOWLNamedIndividual(iri), result);
+                addIfReferenced(view, df.getOWLDatatype(iri), result);
+                OWLAnnotationProperty property = df.getOWLAnnotationProperty(iri);
+                if (view.containsAnnotationProperty(property)) {
+                    result.add(property);
+                }
+                return result;
+            }
             for (OWLOntology ont : getImportsClosure()) {
                 result.addAll(ont.getEntitiesInSignature(iri));
             }
@@ -554,6 +613,13 @@ Serializable {
         }
     }
 
+    private static void addIfReferenced(ImportsClosureView view, OWLEntity entity,
+            Set<OWLEntity> result) {
+        if (view.containsReference(entity)) {
+            result.add(entity);
+        }
+    }
+
     //XXX not in the interface
     @SuppressWarnings("javadoc")
     //@Override
@@ -710,6 +776,10 @@ Serializable {
         if (!includeImportsClosure) {
             return containsEntityInSignature(owlEntity);
         }
+        ImportsClosureView view = getImportsClosureView();
+        if (view != null) {
+            return view.containsReference(owlEntity);
+        }
         for (OWLOntology ont : getImportsClosure()) {
             if (ont.containsEntityInSignature(owlEntity)) {
                 return true;
@@ -746,6 +816,10 @@ Serializable {
         if (!includeImportsClosure) {
             return containsEntityInSignature(entityIRI);
         }
+        ImportsClosureView view = getImportsClosureView();
+        if (view != null) {
+            return !getEntitiesInSignature(entityIRI, true).isEmpty();
+        }
         for (OWLOntology ont : getImportsClosure()) {
             if (ont.containsEntityInSignature(entityIRI)) {
                 return true;
@@ -766,6 +840,10 @@ Serializable {
         if (!includeImportsClosure) {
             return getReferencingAxioms(owlEntity);
         }
+        ImportsClosureView view = getImportsClosureView();
+        if (view != null) {
+            return createSet(view.getReferencingAxioms(owlEntity));
+        }
         Set<OWLAxiom> result = createSet();
         for (OWLOntology ont : getImportsClosure()) {
             result.addAll(ont.getReferencingAxioms(owlEntity));
@@ -875,21 +953,24 @@ Serializable {
 
     @Override
     public Set<OWLEntity> getSignature() {
-        // We might want to cache this for performance reasons,
-        // but I'm not sure right now.
-        Set<OWLEntity> entities = createSet();
-        entities.addAll(getClassesInSignature());
-        entities.addAll(getObjectPropertiesInSignature());
-        entities.addAll(getDataPropertiesInSignature());
-        entities.addAll(getIndividualsInSignature());
-        entities.addAll(getDatatypesInSignature());
-        entities.addAll(getAnnotationPropertiesInSignature());
-        return entities;
+        return internals.getSignature();
     }
 
     @Override
     public Set<OWLEntity> getSignature(boolean includeImportsClosure) {
-        Set<OWLEntity> entities = getSignature();
+        ImportsClosureView view = includeImportsClosure ? getImportsClosureView()
+                : null;
+        if (view != null) {
+            Set<OWLEntity> entities = createSet();
+            entities.addAll(view.getEntities(EntityType.CLASS));
+            entities.addAll(view.getEntities(EntityType.OBJECT_PROPERTY));
+            entities.addAll(view.getEntities(EntityType.DATA_PROPERTY));
+            entities.addAll(view.getEntities(EntityType.NAMED_INDIVIDUAL));
+            entities.addAll(view.getEntities(EntityType.DATATYPE));
+            entities.addAll(view.getAnnotationProperties());
+            return entities;
+        }
+        Set<OWLEntity> entities = createSet(getSignature());
         if (includeImportsClosure) {
             for (OWLOntology ont : getImportsClosure()) {
                 if (!ont.equals(this)) {
@@ -907,27 +988,27 @@ Serializable {
 
     @Override
     public Set<OWLClass> getClassesInSignature() {
-        return internals.getKeyset(internals.getOwlClassReferences());
+        return internals.getEntitiesInSignature(EntityType.CLASS);
     }
 
     @Override
     public Set<OWLDataProperty> getDataPropertiesInSignature() {
-        return internals.getKeyset(internals.getOwlDataPropertyReferences());
+        return internals.getEntitiesInSignature(EntityType.DATA_PROPERTY);
     }
 
     @Override
     public Set<OWLObjectProperty> getObjectPropertiesInSignature() {
-        return internals.getKeyset(internals.getOwlObjectPropertyReferences());
+        return internals.getEntitiesInSignature(EntityType.OBJECT_PROPERTY);
     }
 
     @Override
     public Set<OWLNamedIndividual> getIndividualsInSignature() {
-        return internals.getKeyset(internals.getOwlIndividualReferences());
+        return internals.getEntitiesInSignature(EntityType.NAMED_INDIVIDUAL);
     }
 
     @Override
     public Set<OWLDatatype> getDatatypesInSignature() {
-        return internals.getKeyset(internals.getOwlDatatypeReferences());
+        return internals.getEntitiesInSignature(EntityType.DATATYPE);
     }
 
     @Override
@@ -935,6 +1016,10 @@ Serializable {
         if (!includeImportsClosure) {
             return getClassesInSignature();
         }
+        ImportsClosureView view = getImportsClosureView();
+        if (view != null) {
+            return view.getEntities(EntityType.CLASS);
+        }
         Set<OWLClass> results = createSet();
         for (OWLOntology ont : getImportsClosure()) {
             results.addAll(ont.getClassesInSignature());
@@ -948,6 +1033,10 @@ Serializable {
         if (!includeImportsClosure) {
             return getObjectPropertiesInSignature();
         }
+        ImportsClosureView view = getImportsClosureView();
+        if (view != null) {
+            return view.getEntities(EntityType.OBJECT_PROPERTY);
+        }
         Set<OWLObjectProperty> results = createSet();
         for (OWLOntology ont : getImportsClosure()) {
             results.addAll(ont.getObjectPropertiesInSignature());
@@ -960,6 +1049,10 @@ Serializable {
         if (!includeImportsClosure) {
             return getDataPropertiesInSignature();
         }
+        ImportsClosureView view = getImportsClosureView();
+        if (view != null) {
+            return view.getEntities(EntityType.DATA_PROPERTY);
+        }
         Set<OWLDataProperty> results = createSet();
         for (OWLOntology ont : getImportsClosure()) {
             results.addAll(ont.getDataPropertiesInSignature());
@@ -972,6 +1065,10 @@ Serializable {
         if (!includeImportsClosure) {
             return getIndividualsInSignature();
         }
+        ImportsClosureView view = getImportsClosureView();
+        if (view != null) {
+            return view.getEntities(EntityType.NAMED_INDIVIDUAL);
+        }
         Set<OWLNamedIndividual> results = createSet();
         for (OWLOntology ont : getImportsClosure()) {
             results.addAll(ont.getIndividualsInSignature());
@@ -989,6 +1086,10 @@ Serializable {
         if (!includeImportsClosure) {
             return getDatatypesInSignature();
         }
+        ImportsClosureView view = getImportsClosureView();
+        if (view != null) {
+            return view.getEntities(EntityType.DATATYPE);
+        }
         Set<OWLDatatype> results = createSet();
         for (OWLOntology ont : getImportsClosure()) {
             results.addAll(ont.getDatatypesInSignature());
@@ -998,12 +1099,7 @@ Serializable {
 
     @Override
     public Set<OWLAnnotationProperty> getAnnotationPropertiesInSignature() {
-        Set<OWLAnnotationProperty> props = createSet(internals.getKeyset(internals
-                .getOwlAnnotationPropertyReferences()));
-        for (OWLAnnotation anno : internals.getOntologyAnnotations()) {
-            props.add(anno.getProperty());
-        }
-        return props;
+        return internals.getEntitiesInSignature(EntityType.ANNOTATION_PROPERTY);
     }
 
     //XXX not in the interface
@@ -1014,6 +1110,10 @@ Serializable {
         if (!includeImportsClosure) {
             return getAnnotationPropertiesInSignature();
         }
+        ImportsClosureView view = getImportsClosureView();
+        if (view != null) {
+            return view.getAnnotationProperties();
+        }
         Set<OWLAnnotationProperty> results = createSet();
         for (OWLOntology ont : getImportsClosure()) {
             results.addAll(ont.getAnnotationPropertiesInSignature());
@@ -1299,11 +1399,13 @@ Serializable {
         } else {
             appliedChanges.addAll(applied);
         }
+        updateImportsClosureViews(appliedChanges);
         return appliedChanges;
     }
 
     @Override
     public List<OWLOntologyChange> applyChanges(List<OWLOntologyChange> changes) {
+        deferIndexing(changes);
         List<OWLOntologyChange> appliedChanges = new ArrayList<OWLOntologyChange>();
         OWLOntologyChangeFilter changeFilter = new OWLOntologyChangeFilter();
         for (OWLOntologyChange change : changes) {
@@ -1311,9 +1413,57 @@ Serializable {
             appliedChanges.addAll(changeFilter.getAppliedChanges());
             changeFilter.reset();
         }
+        updateImportsClosureViews(appliedChanges);
         return appliedChanges;
     }
 
+    private void updateImportsClosureViews(List<OWLOntologyChange> appliedChanges) {
+        if (!appliedChanges.isEmpty() && manager instanceof OWLOntologyManagerImpl) {
+            ((OWLOntologyManagerImpl) manager).updateImportsClosureViews(appliedChanges);
+        }
+    }
+
+    /** @return the merged view of the imports closure kept by the manager, or
+     *         null if there is none and the ontologies in the closure have to
+     *         be queried one by one */
+    private ImportsClosureView getImportsClosureView() {
+        if (manager instanceof OWLOntologyManagerImpl) {
+            return ((OWLOntologyManagerImpl) manager).getImportsClosureView(this);
+        }
+        return null;
+    }
+
+    /** Drops the lazily built indexes over the axiom types that a batch changes
+     * substantially: rebuilding such an index once, on first use, is cheaper
+     * than updating it for every axiom in the batch.
+     * 
+     * @param changes
+     *            the changes about to be applied */
+    private void deferIndexing(List<OWLOntologyChange> changes) {
+        if (changes.size() < DEFERRED_INDEXING_MIN_CHANGES) {
+            return;
+        }
+        Map<AxiomType<?>, Integer> counts = new HashMap<AxiomType<?>, Integer>();
+        for (OWLOntologyChange change : changes) {
+            if (change.isAxiomChange()) {
+                AxiomType<?> type = change.getAxiom().getAxiomType();
+                Integer count = counts.get(type);
+                counts.put(type, count == null ? 1 : count + 1);
+            }
+        }
+        Set<AxiomType<?>> types = new HashSet<AxiomType<?>>();
+        for (Map.Entry<AxiomType<?>, Integer> e : counts.entrySet()) {
+            int count = e.getValue();
+            if (count >= DEFERRED_INDEXING_MIN_CHANGES
+                    && count * 4 >= internals.getAxiomCount(e.getKey())) {
+                types.add(e.getKey());
+            }
+        }
+        if (!types.isEmpty()) {
+            internals.invalidateLazyIndexes(types);
+        }
+    }
+
     private final class ReferencedAxiomsCollector implements
             OWLEntityVisitorEx<Set<OWLAxiom>> {
         public ReferencedAxiomsCollector() {}
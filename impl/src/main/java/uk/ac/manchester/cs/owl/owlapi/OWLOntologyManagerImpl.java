@@ -130,7 +130,7 @@ public class OWLOntologyManagerImpl implements OWLOntologyManager,
     protected List<OWLOntologyIRIMapper> documentMappers;
     protected List<OWLOntologyFactory> ontologyFactories;
     protected List<OWLOntologyStorer> ontologyStorers;
-    private boolean broadcastChanges;
+    private volatile boolean broadcastChanges;
     protected int loadCount = 0;
     protected int importsLoadCount = 0;
     @Deprecated
@@ -138,6 +138,9 @@ public class OWLOntologyManagerImpl implements OWLOntologyManager,
     protected Set<IRI> importedIRIs = new HashSet<IRI>();
     protected final OWLDataFactory dataFactory;
     protected Map<OWLOntologyID, Set<OWLOntology>> importsClosureCache;
+    /** merged views of the imports closures, dropped with the closures */
+    private final Map<OWLOntologyID, ImportsClosureView> importsClosureViews = CollectionFactory
+            .createSyncMap();
     protected final OWLOntologyManagerProperties properties;
     protected List<MissingImportListener> missingImportsListeners;
     protected List<OWLOntologyLoaderListener> loaderListeners;
@@ -145,22 +148,24 @@ public class OWLOntologyManagerImpl implements OWLOntologyManager,
     protected int autoGeneratedURICounter;
     protected OWLOntologyChangeBroadcastStrategy defaultChangeBroadcastStrategy;
     protected final ImpendingOWLOntologyChangeBroadcastStrategy defaultImpendingChangeBroadcastStrategy;
+    private transient ParallelImportsLoader parallelImportsLoader;
 
     @SuppressWarnings("javadoc")
     public OWLOntologyManagerImpl(OWLDataFactory dataFactory) {
         this.dataFactory = dataFactory;
         properties = new OWLOntologyManagerProperties();
-        ontologiesByID = new HashMap<OWLOntologyID, OWLOntology>();
-        documentIRIsByID = new HashMap<OWLOntologyID, IRI>();
-        ontologyFormatsByOntology = new HashMap<OWLOntologyID, OWLOntologyFormat>();
+        // concurrent maps, as imports can be loaded in parallel
+        ontologiesByID = CollectionFactory.createSyncMap();
+        documentIRIsByID = CollectionFactory.createSyncMap();
+        ontologyFormatsByOntology = CollectionFactory.createSyncMap();
         documentMappers = new ArrayList<OWLOntologyIRIMapper>();
         ontologyFactories = new ArrayList<OWLOntologyFactory>();
-        ontologyIDsByImportsDeclaration = new HashMap<OWLImportsDeclaration, OWLOntologyID>();
+        ontologyIDsByImportsDeclaration = CollectionFactory.createSyncMap();
         installDefaultURIMappers();
         installDefaultOntologyFactories();
         broadcastChanges = true;
         ontologyStorers = new ArrayList<OWLOntologyStorer>();
-        importsClosureCache = new HashMap<OWLOntologyID, Set<OWLOntology>>();
+        importsClosureCache = CollectionFactory.createSyncMap();
         missingImportsListeners = new ArrayList<MissingImportListener>();
         loaderListeners = new ArrayList<OWLOntologyLoaderListener>();
         progressListeners = new ArrayList<OWLOntologyChangeProgressListener>();
@@ -326,6 +331,10 @@ public class OWLOntologyManagerImpl implements OWLOntologyManager,
 
     @Override
     public OWLOntology getImportedOntology(OWLImportsDeclaration declaration) {
+        ParallelImportsLoader loader = parallelImportsLoader;
+        if (loader != null) {
+            loader.awaitImport(declaration.getIRI());
+        }
         OWLOntologyID ontologyID = ontologyIDsByImportsDeclaration.get(declaration);
         if (ontologyID == null) {
             // No such ontology
@@ -391,6 +400,41 @@ public class OWLOntologyManagerImpl implements OWLOntologyManager,
         return CollectionFactory.getCopyOnRequestSetFromMutableCollection(ontologies);
     }
 
+    /** @param ontology
+     *            the ontology
+     * @return a merged view of the imports closure of the ontology, built on
+     *         first request and kept up to date as changes are applied; null
+     *         if the ontology imports nothing, as the ontology is its own
+     *         closure */
+    ImportsClosureView getImportsClosureView(OWLOntology ontology) {
+        ImportsClosureView view = importsClosureViews.get(ontology.getOntologyID());
+        if (view == null) {
+            Set<OWLOntology> closure = getImportsClosure(ontology);
+            if (closure.size() < 2) {
+                return null;
+            }
+            view = new ImportsClosureView(closure);
+            importsClosureViews.put(ontology.getOntologyID(), view);
+        }
+        return view;
+    }
+
+    /** Called by the ontologies with the changes they have applied, whether
+     * the changes came through this manager or were applied directly.
+     * 
+     * @param appliedChanges
+     *            the applied changes */
+    void updateImportsClosureViews(List<OWLOntologyChange> appliedChanges) {
+        if (importsClosureViews.isEmpty()) {
+            return;
+        }
+        for (ImportsClosureView view : importsClosureViews.values()) {
+            for (OWLOntologyChange change : appliedChanges) {
+                view.changeApplied(change);
+            }
+        }
+    }
+
     /** A recursive method that gets the reflexive transitive closure of the
      * ontologies that are imported by this ontology.
      * 
@@ -465,6 +509,52 @@ public class OWLOntologyManagerImpl implements OWLOntologyManager,
         return appliedChanges;
     }
 
+    /** @param changes
+     *            the changes to apply
+     * @param start
+     *            index of the first change
+     * @return the end of the run of axiom changes to the same ontology that
+     *         starts at <code>start</code>; a change that is not an axiom
+     *         change forms a run by itself */
+    private static int endOfAxiomChanges(List<? extends OWLOntologyChange> changes,
+            int start) {
+        OWLOntologyChange first = changes.get(start);
+        int end = start + 1;
+        if (!first.isAxiomChange()) {
+            return end;
+        }
+        while (end < changes.size() && changes.get(end).isAxiomChange()
+                && changes.get(end).getOntology() == first.getOntology()) {
+            end++;
+        }
+        return end;
+    }
+
+    /** Applies a run of axiom changes to the same ontology with a single call,
+     * so that the ontology can update its indexes once for the whole run.
+     * 
+     * @param changes
+     *            axiom changes, all to the same ontology
+     * @return A list of changes that were actually applied. */
+    private List<OWLOntologyChange> enactAxiomChangeApplication(
+            List<? extends OWLOntologyChange> changes) {
+        List<OWLOntologyChange> applicable = new ArrayList<OWLOntologyChange>(
+                changes.size());
+        for (OWLOntologyChange change : changes) {
+            if (isChangeApplicable(change)) {
+                applicable.add(change);
+            }
+        }
+        if (applicable.isEmpty()) {
+            return Collections.emptyList();
+        }
+        OWLOntology ont = applicable.get(0).getOntology();
+        if (!(ont instanceof OWLMutableOntology)) {
+            throw new ImmutableOWLOntologyChangeException(applicable.get(0));
+        }
+        return ((OWLMutableOntology) ont).applyChanges(applicable);
+    }
+
     @Override
     public List<OWLOntologyChange>
             applyChanges(List<? extends OWLOntologyChange> changes) {
@@ -478,9 +568,21 @@ public class OWLOntologyManagerImpl implements OWLOntologyManager,
         List<OWLOntologyChange> appliedChanges = new ArrayList<OWLOntologyChange>(
                 changes.size() + 2);
         fireBeginChanges(changes.size());
-        for (OWLOntologyChange change : changes) {
-            appliedChanges.addAll(enactChangeApplication(change));
-            fireChangeApplied(change);
+        int start = 0;
+        while (start < changes.size()) {
+            int end = endOfAxiomChanges(changes, start);
+            if (end - start > 1) {
+                List<? extends OWLOntologyChange> run = changes.subList(start, end);
+                appliedChanges.addAll(enactAxiomChangeApplication(run));
+                for (OWLOntologyChange change : run) {
+                    fireChangeApplied(change);
+                }
+            } else {
+                OWLOntologyChange change = changes.get(start);
+                appliedChanges.addAll(enactChangeApplication(change));
+                fireChangeApplied(change);
+            }
+            start = end;
         }
         fireEndChanges();
         broadcastChanges(appliedChanges);
@@ -703,7 +805,7 @@ public class OWLOntologyManagerImpl implements OWLOntologyManager,
 
     @Override
     public OWLOntology loadOntology(IRI ontologyIRI) throws OWLOntologyCreationException {
-        importedIRIs.clear();
+        clearImportRequests();
         return loadOntology(ontologyIRI, false, new OWLOntologyLoaderConfiguration());
     }
 
@@ -750,6 +852,20 @@ public class OWLOntologyManagerImpl implements OWLOntologyManager,
                 configuration);
     }
 
+    private void clearImportRequests() {
+        importedIRIs.clear();
+        if (parallelImportsLoader != null) {
+            parallelImportsLoader.reset();
+        }
+    }
+
+    private synchronized ParallelImportsLoader getParallelImportsLoader() {
+        if (parallelImportsLoader == null) {
+            parallelImportsLoader = new ParallelImportsLoader(this);
+        }
+        return parallelImportsLoader;
+    }
+
     private OWLOntology getOntologyByDocumentIRI(IRI documentIRI) {
         for (OWLOntologyID ontID : documentIRIsByID.keySet()) {
             IRI docIRI = documentIRIsByID.get(ontID);
@@ -764,7 +880,7 @@ public class OWLOntologyManagerImpl implements OWLOntologyManager,
     public OWLOntology loadOntologyFromOntologyDocument(IRI documentIRI)
             throws OWLOntologyCreationException {
         // Ontology URI not known in advance
-        importedIRIs.clear();
+        clearImportRequests();
         return loadOntology(null, new IRIDocumentSource(documentIRI),
                 new OWLOntologyLoaderConfiguration());
     }
@@ -773,7 +889,7 @@ public class OWLOntologyManagerImpl implements OWLOntologyManager,
     public OWLOntology loadOntologyFromOntologyDocument(
             OWLOntologyDocumentSource documentSource) throws OWLOntologyCreationException {
         // Ontology URI not known in advance
-        importedIRIs.clear();
+        clearImportRequests();
         return loadOntology(null, documentSource, new OWLOntologyLoaderConfiguration());
     }
 
@@ -781,7 +897,7 @@ public class OWLOntologyManagerImpl implements OWLOntologyManager,
     public OWLOntology loadOntologyFromOntologyDocument(
             OWLOntologyDocumentSource documentSource,
             OWLOntologyLoaderConfiguration config) throws OWLOntologyCreationException {
-        importedIRIs.clear();
+        clearImportRequests();
         return loadOntology(null, documentSource, config);
     }
 
@@ -812,16 +928,26 @@ public class OWLOntologyManagerImpl implements OWLOntologyManager,
             OWLOntologyDocumentSource documentSource,
             OWLOntologyLoaderConfiguration configuration)
             throws OWLOntologyCreationException {
-        if (loadCount != importsLoadCount) {
+        boolean parallelImports = configuration.isParallelImportsLoading();
+        // with parallel imports, the counters are shared by concurrent loads
+        if (loadCount != importsLoadCount && !parallelImports) {
             System.err
                     .println("Runtime Warning: Parsers should load imported ontologies using the makeImportLoadRequest method.");
         }
+        boolean imported;
+        synchronized (this) {
+            imported = loadCount > 0;
+            loadCount++;
+            broadcastChanges = false;
+        }
         fireStartedLoadingEvent(new OWLOntologyID(ontologyIRI),
-                documentSource.getDocumentIRI(), loadCount > 0);
-        loadCount++;
-        broadcastChanges = false;
+                documentSource.getDocumentIRI(), imported);
         OWLOntologyCreationException ex = null;
         OWLOntologyID idOfLoadedOntology = new OWLOntologyID();
+        ParallelImportsLoader.Frame frame = null;
+        if (parallelImports) {
+            frame = getParallelImportsLoader().enter();
+        }
         try {
             for (OWLOntologyFactory factory : ontologyFactories) {
                 if (factory.canLoad(documentSource)) {
@@ -831,6 +957,16 @@ public class OWLOntologyManagerImpl implements OWLOntologyManager,
                         // when the ontology is created.
                         OWLOntology ontology = factory.loadOWLOntology(documentSource,
                                 this, configuration);
+                        if (frame != null) {
+                            try {
+                                parallelImportsLoader.awaitImports(frame);
+                            } catch (OWLOntologyCreationException e) {
+                                // same clean up as a parser failing on an
+                                // import
+                                removeOntology(ontology);
+                                throw e;
+                            }
+                        }
                         idOfLoadedOntology = ontology.getOntologyID();
                         // Store the ontology to the document IRI mapping
                         documentIRIsByID.put(ontology.getOntologyID(),
@@ -848,13 +984,18 @@ public class OWLOntologyManagerImpl implements OWLOntologyManager,
             ex = e;
             throw e;
         } finally {
-            loadCount--;
-            if (loadCount == 0) {
-                broadcastChanges = true;
-                // Completed loading ontology and imports
+            if (frame != null) {
+                parallelImportsLoader.exit(frame);
+            }
+            synchronized (this) {
+                loadCount--;
+                if (loadCount == 0) {
+                    broadcastChanges = true;
+                    // Completed loading ontology and imports
+                }
             }
             fireFinishedLoadingEvent(idOfLoadedOntology, documentSource.getDocumentIRI(),
-                    loadCount > 0, ex);
+                    imported, ex);
         }
         throw new OWLOntologyFactoryNotFoundException(documentSource.getDocumentIRI());
     }
@@ -922,6 +1063,7 @@ public class OWLOntologyManagerImpl implements OWLOntologyManager,
 
     protected void resetImportsClosureCache() {
         importsClosureCache.clear();
+        importsClosureViews.clear();
     }
 
     // /////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -1073,10 +1215,14 @@ public class OWLOntologyManagerImpl implements OWLOntologyManager,
         if (defIRI == null) {
             return null;
         }
-        for (OWLOntologyIRIMapper mapper : documentMappers) {
-            IRI documentIRI = mapper.getDocumentIRI(defIRI);
-            if (documentIRI != null) {
-                return documentIRI;
+        // mappers are not required to be thread safe, but imports can be
+        // loaded in parallel
+        synchronized (documentMappers) {
+            for (OWLOntologyIRIMapper mapper : documentMappers) {
+                IRI documentIRI = mapper.getDocumentIRI(defIRI);
+                if (documentIRI != null) {
+                    return documentIRI;
+                }
             }
         }
         if (!quiet) {
@@ -1221,7 +1367,9 @@ public class OWLOntologyManagerImpl implements OWLOntologyManager,
     protected OWLOntology loadImports(OWLImportsDeclaration declaration,
             OWLOntologyLoaderConfiguration configuration)
             throws OWLOntologyCreationException {
-        importsLoadCount++;
+        synchronized (this) {
+            importsLoadCount++;
+        }
         OWLOntology ont = null;
         try {
             ont = loadOntology(declaration.getIRI(), true, configuration);
@@ -1238,11 +1386,25 @@ public class OWLOntologyManagerImpl implements OWLOntologyManager,
                 fireMissingImportEvent(evt);
             }
         } finally {
-            importsLoadCount--;
+            synchronized (this) {
+                importsLoadCount--;
+            }
         }
         return ont;
     }
 
+    /** Records the ontology loaded for an imports declaration; called once the
+     * ontology and its imports have been loaded.
+     * 
+     * @param declaration
+     *            the imports declaration
+     * @param ontology
+     *            the imported ontology */
+    protected void importLoaded(OWLImportsDeclaration declaration, OWLOntology ontology) {
+        ontologyIDsByImportsDeclaration.put(declaration, ontology.getOntologyID());
+        resetImportsClosureCache();
+    }
+
     @Override
     public void makeLoadImportRequest(OWLImportsDeclaration declaration)
             throws UnloadableImportException {
@@ -1254,6 +1416,13 @@ public class OWLOntologyManagerImpl implements OWLOntologyManager,
             OWLOntologyLoaderConfiguration configuration)
             throws UnloadableImportException {
         IRI iri = declaration.getIRI();
+        if (configuration.isParallelImportsLoading()) {
+            if (!configuration.isIgnoredImport(iri)) {
+                // failures are reported when the importing load completes
+                getParallelImportsLoader().request(declaration, configuration);
+            }
+            return;
+        }
         if (!importedIRIs.contains(iri)) {
             importedIRIs.add(iri);
             if (!configuration.isIgnoredImport(iri)) {
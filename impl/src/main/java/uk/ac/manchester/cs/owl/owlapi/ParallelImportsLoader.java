@@ -0,0 +1,313 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
+import org.semanticweb.owlapi.model.UnloadableImportException;
+
+/** Loads the imports closure of an ontology in parallel for
+ * {@link OWLOntologyManagerImpl}. Import requests are submitted to the
+ * executor in the loader configuration and return immediately; each imported
+ * document is loaded at most once per top level load. A load waits for the
+ * imports it requested before it completes, and the top level load waits for
+ * every import requested while it was running, so that the imports closure
+ * is complete when the manager returns it.<br>
+ * Threads waiting for an import that has not been picked up by the executor
+ * load it themselves, so a bounded executor cannot starve. A wait that would
+ * close a cycle of loads waiting for each other (cyclic imports) is skipped:
+ * the waiting load sees the partially loaded import, as it would when loading
+ * sequentially. */
+class ParallelImportsLoader {
+    private final OWLOntologyManagerImpl manager;
+    /** guards tasks, ordered and the wait graph (Frame.waitingFor and
+     * ImportTask.frame) */
+    private final Object lock = new Object();
+    private final Map<IRI, ImportTask> tasks = new HashMap<IRI, ImportTask>();
+    private final List<ImportTask> ordered = new ArrayList<ImportTask>();
+    private final ThreadLocal<Frame> frames = new ThreadLocal<Frame>();
+
+    ParallelImportsLoader(OWLOntologyManagerImpl manager) {
+        this.manager = manager;
+    }
+
+    /** forgets the imports requested by previous top level loads */
+    void reset() {
+        synchronized (lock) {
+            tasks.clear();
+            ordered.clear();
+        }
+    }
+
+    /** Submits the loading of an import, unless it has already been requested.
+     * 
+     * @param declaration
+     *            the imports declaration
+     * @param configuration
+     *            the configuration, holding the executor */
+    void request(OWLImportsDeclaration declaration,
+            OWLOntologyLoaderConfiguration configuration) {
+        ImportTask task;
+        synchronized (lock) {
+            if (tasks.containsKey(declaration.getIRI())) {
+                return;
+            }
+            task = new ImportTask(new ImportLoad(declaration, configuration));
+            tasks.put(declaration.getIRI(), task);
+            ordered.add(task);
+            Frame frame = frames.get();
+            if (frame != null) {
+                frame.requested.add(task);
+            }
+        }
+        try {
+            configuration.getParallelImportsExecutor().execute(task);
+        } catch (RejectedExecutionException e) {
+            // the load waiting for this import will run it
+        }
+    }
+
+    /** @return the frame of the load running on this thread, or a new top
+     *         level frame if there is none; the frame must be passed to
+     *         {@link #exit(Frame)} */
+    Frame enter() {
+        Frame frame = frames.get();
+        if (frame == null) {
+            frame = new Frame(null);
+            frames.set(frame);
+        }
+        return frame;
+    }
+
+    /** @param frame
+     *            frame returned by {@link #enter()} */
+    void exit(Frame frame) {
+        if (frame.task == null && frames.get() == frame) {
+            frames.remove();
+        }
+    }
+
+    /** Waits for the imports requested by the load of the current frame; a top
+     * level load waits for all the imports requested since the last reset.
+     * 
+     * @param frame
+     *            the current frame
+     * @throws OWLOntologyCreationException
+     *             the failure of the first import (in declaration order) that
+     *             could not be loaded */
+    void awaitImports(Frame frame) throws OWLOntologyCreationException {
+        OWLOntologyCreationException failure = null;
+        if (frame.task == null) {
+            int awaited = 0;
+            while (true) {
+                List<ImportTask> pending;
+                synchronized (lock) {
+                    if (awaited == ordered.size()) {
+                        break;
+                    }
+                    pending = new ArrayList<ImportTask>(ordered.subList(awaited,
+                            ordered.size()));
+                }
+                for (ImportTask task : pending) {
+                    OWLOntologyCreationException e = await(frame, task);
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+                awaited += pending.size();
+            }
+        }
+        // failures of direct imports take precedence, so that the reported
+        // error does not depend on the scheduling
+        for (ImportTask task : frame.requested) {
+            OWLOntologyCreationException e = await(frame, task);
+            if (e != null) {
+                throw e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /** Waits for a pending import, if there is one, so that lookups see the
+     * imported ontology.
+     * 
+     * @param iri
+     *            the imported IRI */
+    void awaitImport(IRI iri) {
+        ImportTask task;
+        synchronized (lock) {
+            task = tasks.get(iri);
+        }
+        if (task != null && !task.isDone()) {
+            Frame frame = frames.get();
+            await(frame == null ? new Frame(null) : frame, task);
+        }
+    }
+
+    /** @return the failure of the task, or null if it succeeded or waiting
+     *         for it would deadlock */
+    private OWLOntologyCreationException await(Frame waiter, ImportTask task) {
+        synchronized (lock) {
+            if (!task.isDone()) {
+                if (leadsTo(task, waiter)) {
+                    return null;
+                }
+                waiter.waitingFor = task;
+            }
+        }
+        try {
+            // if the executor has not started the task yet, run it here
+            task.run();
+            task.get();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new UnloadableImportException(new OWLOntologyCreationException(e),
+                    task.declaration);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof OWLOntologyCreationException) {
+                return (OWLOntologyCreationException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (RuntimeException) cause;
+        } finally {
+            synchronized (lock) {
+                waiter.waitingFor = null;
+            }
+        }
+    }
+
+    /** @return true if the load of task is, directly or through other loads,
+     *         waiting for the frame */
+    private static boolean leadsTo(ImportTask task, Frame frame) {
+        ImportTask t = task;
+        while (t != null) {
+            Frame f = t.frame;
+            if (f == null) {
+                return false;
+            }
+            if (f == frame) {
+                return true;
+            }
+            t = f.waitingFor;
+        }
+        return false;
+    }
+
+    /** a load running on a thread: a top level load, or the load of an
+     * import */
+    static final class Frame {
+        final ImportTask task;
+        /** imports requested while this load was running; only accessed by
+         * the thread running the load */
+        final List<ImportTask> requested = new ArrayList<ImportTask>();
+        /** the import this load is waiting for; guarded by lock */
+        ImportTask waitingFor;
+
+        Frame(ImportTask task) {
+            this.task = task;
+        }
+    }
+
+    private final class ImportTask extends FutureTask<OWLOntology> {
+        final OWLImportsDeclaration declaration;
+        /** the frame running this task; guarded by lock */
+        Frame frame;
+
+        ImportTask(ImportLoad load) {
+            super(load);
+            declaration = load.declaration;
+            load.task = this;
+        }
+    }
+
+    private final class ImportLoad implements Callable<OWLOntology> {
+        final OWLImportsDeclaration declaration;
+        final OWLOntologyLoaderConfiguration configuration;
+        ImportTask task;
+
+        ImportLoad(OWLImportsDeclaration declaration,
+                OWLOntologyLoaderConfiguration configuration) {
+            this.declaration = declaration;
+            this.configuration = configuration;
+        }
+
+        @Override
+        public OWLOntology call() throws OWLOntologyCreationException {
+            Frame previous = frames.get();
+            Frame frame = new Frame(task);
+            synchronized (lock) {
+                task.frame = frame;
+            }
+            frames.set(frame);
+            try {
+                OWLOntology ont = manager.loadImports(declaration, configuration);
+                if (ont != null) {
+                    manager.importLoaded(declaration, ont);
+                }
+                return ont;
+            } catch (OWLOntologyCreationException e) {
+                throw new UnloadableImportException(e, declaration);
+            } finally {
+                if (previous == null) {
+                    frames.remove();
+                } else {
+                    frames.set(previous);
+                }
+            }
+        }
+    }
+}
@@ -45,6 +45,7 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -52,7 +53,10 @@ import java.util.Map;
 import java.util.Set;
 import java.util.logging.Logger;
 
+import org.semanticweb.owlapi.io.OWLFormatSniffer;
+import org.semanticweb.owlapi.io.OWLFormatSniffer.Likelihood;
 import org.semanticweb.owlapi.io.OWLOntologyCreationIOException;
+import org.semanticweb.owlapi.io.OWLOntologyDocumentPreview;
 import org.semanticweb.owlapi.io.OWLOntologyDocumentSource;
 import org.semanticweb.owlapi.io.OWLParser;
 import org.semanticweb.owlapi.io.OWLParserException;
@@ -88,6 +92,16 @@ public class ParsableOWLOntologyFactory extends AbstractInMemOWLOntologyFactory
 
     /** Creates an ontology factory. */
     public ParsableOWLOntologyFactory() {
+        this(false);
+    }
+
+    /** Creates an ontology factory.
+     * 
+     * @param useCompactIndexes
+     *            true if the ontologies created should use compact, id based
+     *            indexes */
+    public ParsableOWLOntologyFactory(boolean useCompactIndexes) {
+        super(useCompactIndexes);
         parsableSchemes = new HashSet<String>();
         parsableSchemes.add("http");
         parsableSchemes.add("https");
@@ -112,6 +126,45 @@ public class ParsableOWLOntologyFactory extends AbstractInMemOWLOntologyFactory
         return new ArrayList<OWLParser>(parsers);
     }
 
+    /** Orders parsers by the likelihood that they can parse a document, judging
+     * from a bounded preview of the document (extension, XML root
+     * element, syntax keywords). Parsers that do not implement
+     * {@link OWLFormatSniffer} keep their relative position among the parsers
+     * that cannot tell. Parsers that cannot parse the document are moved to
+     * the end rather than removed, so that a wrong guess costs time but does
+     * not make a document unparsable.
+     * 
+     * @param parsers
+     *            the parsers, in registration order
+     * @param documentSource
+     *            the document to parse
+     * @return the parsers, most likely first */
+    protected List<OWLParser> rankParsers(List<OWLParser> parsers,
+            OWLOntologyDocumentSource documentSource) {
+        if (parsers.size() < 2) {
+            return parsers;
+        }
+        OWLOntologyDocumentPreview preview = OWLOntologyDocumentPreview
+                .read(documentSource);
+        Map<Likelihood, List<OWLParser>> ranks = new EnumMap<Likelihood, List<OWLParser>>(
+                Likelihood.class);
+        for (Likelihood l : Likelihood.values()) {
+            ranks.put(l, new ArrayList<OWLParser>());
+        }
+        for (OWLParser parser : parsers) {
+            Likelihood l = Likelihood.UNKNOWN;
+            if (parser instanceof OWLFormatSniffer) {
+                l = ((OWLFormatSniffer) parser).getFormatLikelihood(preview);
+            }
+            ranks.get(l).add(parser);
+        }
+        List<OWLParser> toReturn = new ArrayList<OWLParser>(parsers.size());
+        for (List<OWLParser> l : ranks.values()) {
+            toReturn.addAll(l);
+        }
+        return toReturn;
+    }
+
     /** Overriden - We don't create new empty ontologies - this isn't our
      * responsibility
      * 
@@ -176,12 +229,8 @@ public class ParsableOWLOntologyFactory extends AbstractInMemOWLOntologyFactory
             throws OWLOntologyCreationException {
         // Attempt to parse the ontology by looping through the parsers. If the
         // ontology is parsed successfully then we break out and return the
-        // ontology.
-        // I think that this is more reliable than selecting a parser based on a
-        // file extension
-        // for example (perhaps the parser list could be ordered based on most
-        // likely parser, which
-        // could be determined by file extension).
+        // ontology. The parsers are ordered by how likely they are to parse
+        // the document, so that in most cases the first parser succeeds.
         Map<OWLParser, OWLParserException> exceptions = new LinkedHashMap<OWLParser, OWLParserException>();
         // Call the super method to create the ontology - this is needed,
         // because
@@ -195,7 +244,7 @@ public class ParsableOWLOntologyFactory extends AbstractInMemOWLOntologyFactory
         OWLOntology ont = super.createOWLOntology(ontologyID,
                 documentSource.getDocumentIRI(), mediator);
         // Now parse the input into the empty ontology that we created
-        for (final OWLParser parser : getParsers()) {
+        for (final OWLParser parser : rankParsers(getParsers(), documentSource)) {
             try {
                 if (existingOntology == null && !ont.isEmpty()) {
                     // Junk from a previous parse. We should clear the ont
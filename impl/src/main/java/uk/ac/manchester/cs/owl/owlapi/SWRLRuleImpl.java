@@ -42,7 +42,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.TreeSet;
 
 import org.semanticweb.owlapi.model.AxiomType;
 import org.semanticweb.owlapi.model.OWLAnnotation;
@@ -88,8 +87,8 @@ public class SWRLRuleImpl extends OWLLogicalAxiomImpl implements SWRLRule {
     public SWRLRuleImpl(Set<? extends SWRLAtom> body, Set<? extends SWRLAtom> head,
             Collection<? extends OWLAnnotation> annotations) {
         super(annotations);
-        this.head = new TreeSet<SWRLAtom>(head);
-        this.body = new TreeSet<SWRLAtom>(body);
+        this.head = new SortedArraySet<SWRLAtom>(head);
+        this.body = new SortedArraySet<SWRLAtom>(body);
     }
 
     @Override
@@ -239,6 +238,13 @@ public class SWRLRuleImpl extends OWLLogicalAxiomImpl implements SWRLRule {
     @Override
     protected int compareObjectOfSameType(OWLObject object) {
         SWRLRule other = (SWRLRule) object;
+        if (other instanceof SWRLRuleImpl) {
+            int diff = compareSets(body, ((SWRLRuleImpl) other).body);
+            if (diff == 0) {
+                diff = compareSets(head, ((SWRLRuleImpl) other).head);
+            }
+            return diff;
+        }
         int diff = compareSets(getBody(), other.getBody());
         if (diff == 0) {
             diff = compareSets(getHead(), other.getHead());
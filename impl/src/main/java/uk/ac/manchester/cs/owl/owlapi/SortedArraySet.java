@@ -0,0 +1,188 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.manchester.cs.owl.owlapi;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+
+import org.semanticweb.owlapi.model.OWLObject;
+
+/** An immutable set of OWL objects, kept sorted in an array; it replaces the
+ * tree sets that hold the operands of n-ary expressions and axioms. It uses
+ * less memory than a tree set, and two of these sets are compared (see
+ * {@link #compareTo(SortedArraySet)}) without allocating anything.
+ * 
+ * @param <E>
+ *            the element type */
+final class SortedArraySet<E extends OWLObject> extends AbstractSet<E> implements
+        SortedSet<E>, Serializable {
+    private static final long serialVersionUID = 30402L;
+    private static final OWLObject[] EMPTY = new OWLObject[0];
+    private final OWLObject[] elements;
+
+    /** @param source
+     *            the elements; duplicates, as defined by compareTo, are
+     *            dropped */
+    SortedArraySet(Collection<? extends E> source) {
+        if (source instanceof SortedArraySet) {
+            elements = ((SortedArraySet<?>) source).elements;
+            return;
+        }
+        OWLObject[] array = source.toArray(new OWLObject[source.size()]);
+        Arrays.sort(array);
+        int size = 0;
+        for (int i = 0; i < array.length; i++) {
+            if (size == 0 || array[size - 1].compareTo(array[i]) != 0) {
+                array[size++] = array[i];
+            }
+        }
+        elements = size == array.length ? array : Arrays.copyOf(array, size);
+    }
+
+    private SortedArraySet(OWLObject[] elements) {
+        this.elements = elements;
+    }
+
+    /** @param other
+     *            the set to compare to
+     * @return the comparison of the elements in order, then of the sizes */
+    int compareTo(SortedArraySet<?> other) {
+        int size = Math.min(elements.length, other.elements.length);
+        for (int i = 0; i < size; i++) {
+            int diff = elements[i].compareTo(other.elements[i]);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return elements.length - other.elements.length;
+    }
+
+    @Override
+    public int size() {
+        return elements.length;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof OWLObject && Arrays.binarySearch(elements, o) >= 0;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < elements.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (next >= elements.length) {
+                    throw new NoSuchElementException();
+                }
+                return (E) elements[next++];
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Immutable set");
+            }
+        };
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E first() {
+        if (elements.length == 0) {
+            throw new NoSuchElementException();
+        }
+        return (E) elements[0];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E last() {
+        if (elements.length == 0) {
+            throw new NoSuchElementException();
+        }
+        return (E) elements[elements.length - 1];
+    }
+
+    @Override
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        return range(lowerBound(fromElement), lowerBound(toElement));
+    }
+
+    @Override
+    public SortedSet<E> headSet(E toElement) {
+        return range(0, lowerBound(toElement));
+    }
+
+    @Override
+    public SortedSet<E> tailSet(E fromElement) {
+        return range(lowerBound(fromElement), elements.length);
+    }
+
+    /** @return the index of the first element not less than the object */
+    private int lowerBound(E object) {
+        int index = Arrays.binarySearch(elements, object);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private SortedSet<E> range(int from, int to) {
+        if (from >= to) {
+            return new SortedArraySet<E>(EMPTY);
+        }
+        return new SortedArraySet<E>(Arrays.copyOfRange(elements, from, to));
+    }
+}
@@ -43,6 +43,8 @@ import java.io.InputStream;
 import java.io.Reader;
 
 import org.semanticweb.owlapi.io.AbstractOWLParser;
+import org.semanticweb.owlapi.io.OWLFormatSniffer;
+import org.semanticweb.owlapi.io.OWLOntologyDocumentPreview;
 import org.semanticweb.owlapi.io.OWLOntologyDocumentSource;
 import org.semanticweb.owlapi.io.OWLParserException;
 import org.semanticweb.owlapi.model.OWLOntology;
@@ -291,7 +293,7 @@ import org.semanticweb.owlapi.model.UnloadableImportException;
  * Author: Olaf Noppens<br>
  * Ulm University<br>
  * Institute of Artificial Intelligence<br> */
-public class KRSS2OWLParser extends AbstractOWLParser {
+public class KRSS2OWLParser extends AbstractOWLParser implements OWLFormatSniffer {
     @Override
     public OWLOntologyFormat parse(OWLOntologyDocumentSource documentSource,
             OWLOntology ontology) throws OWLParserException, IOException,
@@ -333,4 +335,19 @@ public class KRSS2OWLParser extends AbstractOWLParser {
             }
         }
     }
+
+    @Override
+    public Likelihood getFormatLikelihood(OWLOntologyDocumentPreview preview) {
+        if (preview.isContentAvailable()) {
+            // statements are s-expressions
+            if (preview.getFirstSignificantChar(";") == '(') {
+                return Likelihood.LIKELY;
+            }
+            return Likelihood.IMPOSSIBLE;
+        }
+        if (preview.hasExtension("krss")) {
+            return Likelihood.LIKELY;
+        }
+        return Likelihood.UNKNOWN;
+    }
 }
@@ -42,6 +42,8 @@ package org.coode.owl.krssparser;
 import java.io.IOException;
 
 import org.semanticweb.owlapi.io.AbstractOWLParser;
+import org.semanticweb.owlapi.io.OWLFormatSniffer;
+import org.semanticweb.owlapi.io.OWLOntologyDocumentPreview;
 import org.semanticweb.owlapi.io.OWLOntologyDocumentSource;
 import org.semanticweb.owlapi.io.OWLParserException;
 import org.semanticweb.owlapi.model.OWLOntology;
@@ -57,7 +59,7 @@ import org.semanticweb.owlapi.model.UnloadableImportException;
  * Bio-Health Informatics Group<br>
  * Date: 14-Nov-2006<br><br>
  */
-public class KRSSOWLParser extends AbstractOWLParser {
+public class KRSSOWLParser extends AbstractOWLParser implements OWLFormatSniffer {
 
 
     @Override
@@ -93,4 +95,19 @@ public class KRSSOWLParser extends AbstractOWLParser {
             throw new KRSSOWLParserException(e);
         }
     }
+
+    @Override
+    public Likelihood getFormatLikelihood(OWLOntologyDocumentPreview preview) {
+        if (preview.isContentAvailable()) {
+            // statements are s-expressions
+            if (preview.getFirstSignificantChar(";") == '(') {
+                return Likelihood.LIKELY;
+            }
+            return Likelihood.IMPOSSIBLE;
+        }
+        if (preview.hasExtension("krss")) {
+            return Likelihood.LIKELY;
+        }
+        return Likelihood.UNKNOWN;
+    }
 }
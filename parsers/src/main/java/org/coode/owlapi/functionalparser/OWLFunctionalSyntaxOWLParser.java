@@ -44,6 +44,8 @@ import java.io.InputStream;
 import java.io.Reader;
 
 import org.semanticweb.owlapi.io.AbstractOWLParser;
+import org.semanticweb.owlapi.io.OWLFormatSniffer;
+import org.semanticweb.owlapi.io.OWLOntologyDocumentPreview;
 import org.semanticweb.owlapi.io.OWLOntologyDocumentSource;
 import org.semanticweb.owlapi.io.OWLParserException;
 import org.semanticweb.owlapi.model.OWLOntology;
@@ -59,7 +61,7 @@ import org.semanticweb.owlapi.model.UnloadableImportException;
  * Bio-Health Informatics Group<br>
  * Date: 14-Nov-2006<br><br>
  */
-public class OWLFunctionalSyntaxOWLParser extends AbstractOWLParser {
+public class OWLFunctionalSyntaxOWLParser extends AbstractOWLParser implements OWLFormatSniffer {
 
     @Override
     public OWLOntologyFormat parse(OWLOntologyDocumentSource documentSource, OWLOntology ontology) throws OWLParserException, IOException, UnloadableImportException {
@@ -98,4 +100,26 @@ public class OWLFunctionalSyntaxOWLParser extends AbstractOWLParser {
             }
         }
     }
+
+    @Override
+    public Likelihood getFormatLikelihood(OWLOntologyDocumentPreview preview) {
+        if (preview.isContentAvailable()) {
+            if (preview.isXML()) {
+                return Likelihood.IMPOSSIBLE;
+            }
+            char first = preview.getFirstSignificantChar("#");
+            if (first != 'P' && first != 'O') {
+                // documents start with Prefix( or Ontology(
+                return Likelihood.IMPOSSIBLE;
+            }
+            if (preview.contains("Ontology(") || preview.contains("Prefix(")) {
+                return Likelihood.LIKELY;
+            }
+            return Likelihood.POSSIBLE;
+        }
+        if (preview.hasExtension("ofn")) {
+            return Likelihood.LIKELY;
+        }
+        return Likelihood.UNKNOWN;
+    }
 }
@@ -41,6 +41,7 @@ package org.coode.owlapi.functionalrenderer;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.semanticweb.owlapi.io.OWLFunctionalSyntaxOntologyFormat;
 import org.semanticweb.owlapi.model.OWLOntology;
@@ -84,6 +85,11 @@ public class OWLFunctionalSyntaxOntologyStorer extends AbstractOWLOntologyStorer
                 }
                 ren.setPrefixManager(man);
             }
+            Object executor = format.getParameter(OWLOntologyFormat.RENDERING_EXECUTOR,
+                    null);
+            if (executor instanceof Executor) {
+                ren.setRenderingExecutor((Executor) executor);
+            }
             ontology.accept(ren);
             writer.flush();
         } catch (IOException e) {
@@ -41,6 +41,7 @@ package org.coode.owlapi.functionalrenderer;
 import static org.semanticweb.owlapi.vocab.OWLXMLVocabulary.*;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -49,7 +50,9 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
+import org.semanticweb.owlapi.io.FrameRenderingPipeline;
 import org.semanticweb.owlapi.model.*;
 import org.semanticweb.owlapi.util.DefaultPrefixManager;
 import org.semanticweb.owlapi.util.EscapeUtils;
@@ -70,6 +73,7 @@ public class OWLObjectRenderer implements OWLObjectVisitor {
     int lastNewLinePos;
     private boolean writeEnitiesAsURIs;
     private OWLObject focusedObject;
+    private Executor renderingExecutor;
 
     @Deprecated
     public OWLObjectRenderer(OWLOntologyManager man, OWLOntology ontology, Writer writer) {
@@ -102,6 +106,14 @@ public class OWLObjectRenderer implements OWLObjectVisitor {
         this.prefixManager = prefixManager;
     }
 
+    /** @param renderingExecutor
+     *            the executor on which the entity frames of an ontology are
+     *            rendered, or null to render them on the calling thread; the
+     *            output is the same */
+    public void setRenderingExecutor(Executor renderingExecutor) {
+        this.renderingExecutor = renderingExecutor;
+    }
+
     public void setFocusedObject(OWLObject focusedObject) {
         this.focusedObject = focusedObject;
     }
@@ -191,8 +203,12 @@ public class OWLObjectRenderer implements OWLObjectVisitor {
         for (OWLEntity ent : signature) {
             writeDeclarations(ent, writtenAxioms);
         }
-        for (OWLEntity ent : signature) {
-            writeAxioms(ent, writtenAxioms);
+        if (renderingExecutor == null) {
+            for (OWLEntity ent : signature) {
+                writeAxioms(ent, writtenAxioms);
+            }
+        } else {
+            writeFrames(signature, writtenAxioms);
         }
         List<OWLAxiom> remainingAxioms = new ArrayList<OWLAxiom>(ontology1.getAxioms());
         remainingAxioms.removeAll(writtenAxioms);
@@ -221,6 +237,21 @@ public class OWLObjectRenderer implements OWLObjectVisitor {
         setFocusedObject(entity);
         writtenAxioms.addAll(writeDeclarations(entity, alreadyWrittenAxioms));
         writtenAxioms.addAll(writeAnnotations(entity));
+        List<OWLAxiom> axs = getFrameAxioms(entity);
+        for (OWLAxiom ax : axs) {
+            if (alreadyWrittenAxioms.contains(ax) || !isFrameAxiom(ax)) {
+                continue;
+            }
+            ax.accept(this);
+            writtenAxioms.add(ax);
+            write("\n");
+        }
+        alreadyWrittenAxioms.addAll(writtenAxioms);
+        return writtenAxioms;
+    }
+
+    /** @return the axioms that describe the entity, sorted */
+    private List<OWLAxiom> getFrameAxioms(OWLEntity entity) {
         List<OWLAxiom> axs = new ArrayList<OWLAxiom>();
         axs.addAll(entity.accept(new OWLEntityVisitorEx<Set<? extends OWLAxiom>>() {
             @Override
@@ -254,23 +285,93 @@ public class OWLObjectRenderer implements OWLObjectVisitor {
             }
         }));
         Collections.sort(axs);
-        for (OWLAxiom ax : axs) {
-            if (alreadyWrittenAxioms.contains(ax)) {
-                continue;
+        return axs;
+    }
+
+    /** @return false for the axioms that are written after the entity frames */
+    private static boolean isFrameAxiom(OWLAxiom ax) {
+        if (ax.getAxiomType().equals(AxiomType.DIFFERENT_INDIVIDUALS)) {
+            return false;
+        }
+        return !(ax.getAxiomType().equals(AxiomType.DISJOINT_CLASSES) && ((OWLDisjointClassesAxiom) ax)
+                .getClassExpressions().size() > 2);
+    }
+
+    /** An entity frame rendered in advance: the text of each axiom the frame
+     * can contain. Which of them are written depends on the frames written
+     * before. */
+    private static class RenderedFrame {
+        final List<OWLAxiom> axioms = new ArrayList<OWLAxiom>();
+        final List<String> texts = new ArrayList<String>();
+        int declarations;
+        int annotations;
+    }
+
+    /** Renders the frames on the executor and writes them in order; writes the
+     * same as {@link #writeAxioms(OWLEntity, Set)} for each entity. */
+    private void writeFrames(List<OWLEntity> entities, Set<OWLAxiom> alreadyWrittenAxioms) {
+        FrameRenderingPipeline<OWLEntity, RenderedFrame> frames = new FrameRenderingPipeline<OWLEntity, RenderedFrame>(
+                renderingExecutor, entities) {
+            @Override
+            protected RenderedFrame translate(OWLEntity entity) {
+                return renderFrame(entity);
             }
-            if (ax.getAxiomType().equals(AxiomType.DIFFERENT_INDIVIDUALS)) {
-                continue;
+        };
+        for (OWLEntity entity : entities) {
+            RenderedFrame frame = frames.next();
+            setFocusedObject(entity);
+            Set<OWLAxiom> writtenAxioms = new HashSet<OWLAxiom>();
+            int i = 0;
+            for (; i < frame.declarations; i++) {
+                if (!alreadyWrittenAxioms.contains(frame.axioms.get(i))) {
+                    write(frame.texts.get(i));
+                    writtenAxioms.add(frame.axioms.get(i));
+                }
             }
-            if (ax.getAxiomType().equals(AxiomType.DISJOINT_CLASSES)
-                    && ((OWLDisjointClassesAxiom) ax).getClassExpressions().size() > 2) {
-                continue;
+            alreadyWrittenAxioms.addAll(writtenAxioms);
+            for (; i < frame.declarations + frame.annotations; i++) {
+                write(frame.texts.get(i));
+                writtenAxioms.add(frame.axioms.get(i));
             }
-            ax.accept(this);
-            writtenAxioms.add(ax);
-            write("\n");
+            for (; i < frame.axioms.size(); i++) {
+                if (!alreadyWrittenAxioms.contains(frame.axioms.get(i))) {
+                    write(frame.texts.get(i));
+                    writtenAxioms.add(frame.axioms.get(i));
+                }
+            }
+            alreadyWrittenAxioms.addAll(writtenAxioms);
         }
-        alreadyWrittenAxioms.addAll(writtenAxioms);
-        return writtenAxioms;
+    }
+
+    /** Renders a frame with a new renderer; called on the executor threads. */
+    private RenderedFrame renderFrame(OWLEntity entity) {
+        StringWriter buffer = new StringWriter();
+        OWLObjectRenderer renderer = new OWLObjectRenderer(ontology, buffer);
+        renderer.setPrefixManager(prefixManager);
+        renderer.setFocusedObject(entity);
+        RenderedFrame frame = new RenderedFrame();
+        for (OWLAxiom ax : ontology.getDeclarationAxioms(entity)) {
+            renderer.render(ax, buffer, frame);
+            frame.declarations++;
+        }
+        for (OWLAnnotationAxiom ax : entity.getAnnotationAssertionAxioms(ontology)) {
+            renderer.render(ax, buffer, frame);
+            frame.annotations++;
+        }
+        for (OWLAxiom ax : getFrameAxioms(entity)) {
+            if (isFrameAxiom(ax)) {
+                renderer.render(ax, buffer, frame);
+            }
+        }
+        return frame;
+    }
+
+    private void render(OWLAxiom ax, StringWriter buffer, RenderedFrame frame) {
+        ax.accept(this);
+        write("\n");
+        frame.axioms.add(ax);
+        frame.texts.add(buffer.toString());
+        buffer.getBuffer().setLength(0);
     }
 
     /** Writes out the declaration axioms for the specified entity
@@ -45,6 +45,8 @@ import java.io.InputStreamReader;
 
 import org.semanticweb.owlapi.expression.ParserException;
 import org.semanticweb.owlapi.io.AbstractOWLParser;
+import org.semanticweb.owlapi.io.OWLFormatSniffer;
+import org.semanticweb.owlapi.io.OWLOntologyDocumentPreview;
 import org.semanticweb.owlapi.io.OWLOntologyDocumentSource;
 import org.semanticweb.owlapi.io.OWLParserException;
 import org.semanticweb.owlapi.model.OWLDataFactory;
@@ -61,7 +63,7 @@ import org.semanticweb.owlapi.model.UnloadableImportException;
  * Bio-Health Informatics Group<br>
  * Date: 13-Aug-2007<br><br>
  */
-public class ManchesterOWLSyntaxOntologyParser extends AbstractOWLParser {
+public class ManchesterOWLSyntaxOntologyParser extends AbstractOWLParser implements OWLFormatSniffer {
 
     private static final String COMMENT_START_CHAR = "#";
     
@@ -148,4 +150,25 @@ public class ManchesterOWLSyntaxOntologyParser extends AbstractOWLParser {
     private boolean startsWithMagicNumber(String line) {
         return line.indexOf(ManchesterOWLSyntax.PREFIX.toString()) != -1 || line.indexOf(ManchesterOWLSyntax.ONTOLOGY.toString()) != -1;
     }
+
+    @Override
+    public Likelihood getFormatLikelihood(OWLOntologyDocumentPreview preview) {
+        if (preview.isContentAvailable()) {
+            if (preview.isXML()) {
+                return Likelihood.IMPOSSIBLE;
+            }
+            if (!Character.isLetter(preview.getFirstSignificantChar("#"))) {
+                // documents start with a keyword
+                return Likelihood.IMPOSSIBLE;
+            }
+            if (preview.contains("Ontology:") || preview.contains("Prefix:")) {
+                return Likelihood.LIKELY;
+            }
+            return Likelihood.POSSIBLE;
+        }
+        if (preview.hasExtension("omn")) {
+            return Likelihood.LIKELY;
+        }
+        return Likelihood.UNKNOWN;
+    }
 }
@@ -45,6 +45,8 @@ import java.io.Reader;
 import java.util.List;
 
 import org.semanticweb.owlapi.io.AbstractOWLParser;
+import org.semanticweb.owlapi.io.OWLFormatSniffer;
+import org.semanticweb.owlapi.io.OWLOntologyDocumentPreview;
 import org.semanticweb.owlapi.io.OWLOntologyDocumentSource;
 import org.semanticweb.owlapi.io.OWLParserException;
 import org.semanticweb.owlapi.model.OWLOntology;
@@ -61,7 +63,7 @@ import org.semanticweb.owlapi.model.UnloadableImportException;
  * Bio-Health Informatics Group<br>
  * Date: 10-Jan-2007<br><br>
  */
-public class OWLOBOParser extends AbstractOWLParser {
+public class OWLOBOParser extends AbstractOWLParser implements OWLFormatSniffer {
 
     @Override
     public OWLOntologyFormat parse(OWLOntologyDocumentSource documentSource, OWLOntology ontology) throws OWLParserException, IOException, UnloadableImportException {
@@ -156,4 +158,26 @@ public class OWLOBOParser extends AbstractOWLParser {
         oboConsumer.handleTagValue(tagValuePair.getTagName(), tagValuePair.getValue(), tagValuePair.getQualifier(), tagValuePair.getComment());
     }
     }
+
+    @Override
+    public Likelihood getFormatLikelihood(OWLOntologyDocumentPreview preview) {
+        if (preview.isContentAvailable()) {
+            if (preview.isXML()) {
+                return Likelihood.IMPOSSIBLE;
+            }
+            if (preview.contains("format-version:") || preview.contains("[Term]")
+                    || preview.contains("[Typedef]")) {
+                return Likelihood.LIKELY;
+            }
+            char first = preview.getFirstSignificantChar("!");
+            if (first == '[' || Character.isLetter(first)) {
+                return Likelihood.POSSIBLE;
+            }
+            return Likelihood.IMPOSSIBLE;
+        }
+        if (preview.hasExtension("obo")) {
+            return Likelihood.LIKELY;
+        }
+        return Likelihood.UNKNOWN;
+    }
 }
@@ -47,6 +47,8 @@ import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 
 import org.semanticweb.owlapi.io.AbstractOWLParser;
+import org.semanticweb.owlapi.io.OWLFormatSniffer;
+import org.semanticweb.owlapi.io.OWLOntologyDocumentPreview;
 import org.semanticweb.owlapi.io.OWLOntologyDocumentSource;
 import org.semanticweb.owlapi.io.OWLParserException;
 import org.semanticweb.owlapi.io.OWLParserSAXException;
@@ -67,7 +69,7 @@ import org.xml.sax.SAXException;
  * Bio-Health Informatics Group<br>
  * Date: 13-Dec-2006<br><br>
  */
-public class OWLXMLParser extends AbstractOWLParser {
+public class OWLXMLParser extends AbstractOWLParser implements OWLFormatSniffer {
 
 
     @Override
@@ -114,4 +116,25 @@ public class OWLXMLParser extends AbstractOWLParser {
 			}
 		}
     }
+
+    @Override
+    public Likelihood getFormatLikelihood(OWLOntologyDocumentPreview preview) {
+        if (preview.isContentAvailable()) {
+            // the root element is Ontology, in the OWL namespace or in one of
+            // the older OWL/XML namespaces; RDF/XML may use owl:Ontology as
+            // root as well, but then it has an rdf:about attribute
+            if (preview.isXML() && "Ontology".equals(preview.getRootElementName())
+                    && !preview.getRootElementAttributes().containsKey("rdf:about")) {
+                return Likelihood.LIKELY;
+            }
+            return Likelihood.IMPOSSIBLE;
+        }
+        if (preview.hasExtension("owx")) {
+            return Likelihood.LIKELY;
+        }
+        if (preview.hasExtension("owl", "xml")) {
+            return Likelihood.POSSIBLE;
+        }
+        return Likelihood.UNKNOWN;
+    }
 }
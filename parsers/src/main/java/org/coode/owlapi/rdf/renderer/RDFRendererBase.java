@@ -50,6 +50,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Executor;
 
 import org.coode.owlapi.rdf.model.RDFGraph;
 import org.coode.owlapi.rdf.model.RDFLiteralNode;
@@ -57,6 +58,7 @@ import org.coode.owlapi.rdf.model.RDFNode;
 import org.coode.owlapi.rdf.model.RDFResourceNode;
 import org.coode.owlapi.rdf.model.RDFTranslator;
 import org.coode.owlapi.rdf.model.RDFTriple;
+import org.semanticweb.owlapi.io.FrameRenderingPipeline;
 import org.semanticweb.owlapi.io.RDFOntologyFormat;
 import org.semanticweb.owlapi.model.AxiomType;
 import org.semanticweb.owlapi.model.IRI;
@@ -318,6 +320,11 @@ public abstract class RDFRendererBase {
      * @throws IOException If there was a problem writing the rendering
      */
     private void renderEntities(Set<? extends OWLEntity> entities, String bannerText) throws IOException {
+        Executor executor = getRenderingExecutor();
+        if (executor != null) {
+            renderEntities(entities, bannerText, executor);
+            return;
+        }
         boolean firstRendering = true;
         for(OWLEntity entity : toSortedSet(entities)) {
             if(createGraph(entity)) {
@@ -332,6 +339,57 @@ public abstract class RDFRendererBase {
         }
     }
 
+    /**
+     * Renders a set of entities, translating their graphs on the executor while the graphs already translated are
+     * written out; the output is the same as the output of the sequential rendering.
+     * @param entities The entities. Not null.
+     * @param bannerText The banner text
+     * @param executor The executor translating the graphs
+     * @throws IOException If there was a problem writing the rendering
+     */
+    private void renderEntities(Set<? extends OWLEntity> entities, String bannerText, Executor executor)
+            throws IOException {
+        final List<OWLEntity> sorted = new ArrayList<OWLEntity>(toSortedSet(entities));
+        FrameRenderingPipeline<OWLEntity, RDFGraph> graphs = new FrameRenderingPipeline<OWLEntity, RDFGraph>(
+                executor, sorted) {
+            @Override
+            protected RDFGraph translate(OWLEntity entity) {
+                RDFGraph entityGraph = translateEntity(entity);
+                if (entityGraph != null) {
+                    // computed here rather than on the rendering thread
+                    entityGraph.getRootAnonymousNodes();
+                }
+                return entityGraph;
+            }
+        };
+        boolean firstRendering = true;
+        for (OWLEntity entity : sorted) {
+            RDFGraph entityGraph = graphs.next();
+            if (entityGraph != null) {
+                graph = entityGraph;
+                if (firstRendering) {
+                    firstRendering = false;
+                    if (!bannerText.isEmpty()) {
+                        writeBanner(bannerText);
+                    }
+                }
+                renderEntity(entity);
+            }
+        }
+    }
+
+    /**
+     * @return the executor set as {@link OWLOntologyFormat#RENDERING_EXECUTOR} in the format, or null if entities
+     * are to be translated on the rendering thread
+     */
+    private Executor getRenderingExecutor() {
+        if (format == null) {
+            return null;
+        }
+        Object executor = format.getParameter(OWLOntologyFormat.RENDERING_EXECUTOR, null);
+        return executor instanceof Executor ? (Executor) executor : null;
+    }
+
     private void renderEntity(OWLEntity entity) throws IOException {
         beginObject();
         writeEntityComment(entity);
@@ -549,6 +607,21 @@ public abstract class RDFRendererBase {
 
 
     private boolean createGraph(OWLEntity entity) {
+        RDFGraph entityGraph = translateEntity(entity);
+        if (entityGraph == null) {
+            return false;
+        }
+        graph = entityGraph;
+        return true;
+    }
+
+    /**
+     * Translates the axioms that describe an entity. Does not change the state of the renderer, so that entities can
+     * be translated concurrently.
+     * @param entity The entity
+     * @return the graph for the entity, or null if there is nothing to render for it
+     */
+    private RDFGraph translateEntity(OWLEntity entity) {
         final Set<OWLAxiom> axioms = new HashSet<OWLAxiom>();
         // Don't write out duplicates for punned annotations!
         if (!isIndividualAndClass(entity)) {
@@ -580,7 +653,6 @@ public abstract class RDFRendererBase {
             @Override
             public void visit(OWLDatatype datatype) {
                 axioms.addAll(ontology.getDatatypeDefinitions(datatype));
-                createGraph(axioms);
             }
 
 
@@ -638,9 +710,10 @@ public abstract class RDFRendererBase {
                 axioms.add(ontology.getOWLOntologyManager().getOWLDataFactory().getOWLDeclarationAxiom(entity));
             }
         }
-        createGraph(axioms);
-
-        return !axioms.isEmpty();
+        if (axioms.isEmpty()) {
+            return null;
+        }
+        return translateGraph(axioms);
     }
 
     private boolean isIndividualAndClass(OWLEntity entity) {
@@ -652,12 +725,16 @@ public abstract class RDFRendererBase {
     }
 
     protected void createGraph(Set<? extends OWLObject> objects) {
+        graph = translateGraph(objects);
+    }
+
+    private RDFGraph translateGraph(Set<? extends OWLObject> objects) {
         RDFTranslator translator = new RDFTranslator(ontology.getOWLOntologyManager(),
                 ontology, shouldInsertDeclarations());
         for (OWLObject obj : objects) {
             obj.accept(translator);
         }
-        graph = translator.getGraph();
+        return translator.getGraph();
     }
 
     protected abstract void writeBanner(String name) throws IOException;
@@ -104,6 +104,10 @@ public class AbstractTripleHandler {
         return consumer.getConfiguration().isStrict();
     }
 
+    protected boolean isStreaming() {
+        return consumer.getConfiguration().isStreamingRDF();
+    }
+
     protected boolean isObjectPropertyOnly(IRI iri) {
         return consumer.isObjectPropertyOnly(iri);
     }
@@ -65,7 +65,7 @@ public class GTPAnnotationResourceTripleHandler extends AbstractResourceTripleHa
     @Override
     public boolean canHandleStreaming(IRI subject, IRI predicate, IRI object) {
         if(isStrict()) {
-            return false;
+            return isStreaming() && !isAnonymous(subject) && !isAnonymous(object) && isAnnotationPropertyOnly(predicate) && !getConsumer().isAxiom(subject) && !getConsumer().isAnnotation(subject);
         }
         else {
             return !isAnonymous(subject) &&  !isAnonymous(object) && getConsumer().isAnnotationProperty(predicate);
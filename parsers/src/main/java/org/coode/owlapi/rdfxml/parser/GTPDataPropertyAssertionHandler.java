@@ -71,7 +71,11 @@ public class GTPDataPropertyAssertionHandler extends AbstractLiteralTripleHandle
 
     @Override
 	public boolean canHandleStreaming(IRI subject, IRI predicate, OWLLiteral object) {
-        return false;
+        // See GTPObjectPropertyAssertionHandler
+        if(!isStreaming() || isAnonymous(subject)) {
+            return false;
+        }
+        return isDataPropertyOnly(predicate) && !getConsumer().isAxiom(subject) && !getConsumer().isAnnotation(subject);
     }
 
 
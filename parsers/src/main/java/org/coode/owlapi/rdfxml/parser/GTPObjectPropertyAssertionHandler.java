@@ -71,7 +71,13 @@ public class GTPObjectPropertyAssertionHandler extends AbstractResourceTripleHan
 
     @Override
 	public boolean canHandleStreaming(IRI subject, IRI predicate, IRI object) {
-        return false;
+        // In streaming mode, assertions between named individuals are translated
+        // straight away if the predicate is already known to be an object property
+        // and nothing else.  Anything else waits for the end of the document.
+        if(!isStreaming() || isAnonymous(subject) || isAnonymous(object)) {
+            return false;
+        }
+        return isObjectPropertyOnly(predicate) && !getConsumer().isAxiom(subject) && !getConsumer().isAnnotation(subject);
     }
 
 
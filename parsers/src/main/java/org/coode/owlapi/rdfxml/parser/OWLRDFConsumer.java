@@ -122,6 +122,11 @@ import org.xml.sax.SAXException;
  * The parser attempts to consume as many triples as possible while streaming parsing
  * is taking place. Whether or not a triple can be consumed dIRIng parsing is determined
  * by installed triple handlers.
+ * When {@link OWLOntologyLoaderConfiguration#isStreamingRDF()} is set, handlers also
+ * consume property assertions between named individuals whose properties are already
+ * known, and annotation axioms are added as soon as they are translated, so that only
+ * triples about blank nodes, lists and reified axioms are kept until the end of the
+ * document.
  */
 @SuppressWarnings("javadoc")
 public class OWLRDFConsumer implements RDFConsumer {
@@ -293,6 +298,8 @@ public class OWLRDFConsumer implements RDFConsumer {
 
     private TPTypeHandler nonBuiltInTypeHandler;
 
+    private TPImportsHandler importsHandler;
+
 
     /**
      * A cache of annotation axioms to be added at the end - saves some peek memory doing this
@@ -690,7 +697,8 @@ public class OWLRDFConsumer implements RDFConsumer {
         nonBuiltInTypeHandler = new TPTypeHandler(this);
         addPredicateHandler(nonBuiltInTypeHandler);
         addPredicateHandler(new TPDistinctMembersHandler(this));
-        addPredicateHandler(new TPImportsHandler(this));
+        importsHandler = new TPImportsHandler(this);
+        addPredicateHandler(importsHandler);
         addPredicateHandler(new TPIntersectionOfHandler(this));
         addPredicateHandler(new TPUnionOfHandler(this));
         addPredicateHandler(new TPComplementOfHandler(this));
@@ -903,7 +911,13 @@ public class OWLRDFConsumer implements RDFConsumer {
 
         if(axiom.isAnnotationAxiom()) {
             if(configuration.isLoadAnnotationAxioms()) {
-                parsedAnnotationAxioms.add((OWLAnnotationAxiom) axiom);
+                if (configuration.isStreamingRDF()) {
+                    // Don't hold on to annotation axioms when streaming - there might be lots of them
+                    owlOntologyManager.addAxiom(ontology, axiom);
+                }
+                else {
+                    parsedAnnotationAxioms.add((OWLAnnotationAxiom) axiom);
+                }
             }
         }
         else {
@@ -1448,6 +1462,8 @@ public class OWLRDFConsumer implements RDFConsumer {
             tripleProcessor.fine("Total number of triples: " + count);
             RDFOntologyFormat format = ontologyFormat;
 
+            // Imports loaded in parallel are only looked at now
+            importsHandler.handlePendingImports();
 
             consumeSWRLRules();
 
@@ -42,6 +42,8 @@ package org.coode.owlapi.rdfxml.parser;
 import java.io.IOException;
 
 import org.semanticweb.owlapi.io.AbstractOWLParser;
+import org.semanticweb.owlapi.io.OWLFormatSniffer;
+import org.semanticweb.owlapi.io.OWLOntologyDocumentPreview;
 import org.semanticweb.owlapi.io.OWLOntologyDocumentSource;
 import org.semanticweb.owlapi.io.OWLParserException;
 import org.semanticweb.owlapi.io.RDFXMLOntologyFormat;
@@ -53,6 +55,7 @@ import org.semanticweb.owlapi.model.OWLOntologyFormat;
 import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
 import org.semanticweb.owlapi.model.UnloadableImportException;
 import org.semanticweb.owlapi.rdf.syntax.RDFParser;
+import org.semanticweb.owlapi.vocab.Namespaces;
 import org.xml.sax.Attributes;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
@@ -64,7 +67,7 @@ import org.xml.sax.SAXException;
  * Bio-Health Informatics Group<br>
  * Date: 08-Dec-2006<br><br>
  */
-public class RDFXMLParser extends AbstractOWLParser {
+public class RDFXMLParser extends AbstractOWLParser implements OWLFormatSniffer {
 
 
     @Override
@@ -135,4 +138,25 @@ public class RDFXMLParser extends AbstractOWLParser {
             }
         }
     }
+
+    @Override
+    public Likelihood getFormatLikelihood(OWLOntologyDocumentPreview preview) {
+        if (preview.isContentAvailable()) {
+            if (!preview.isXML()) {
+                return Likelihood.IMPOSSIBLE;
+            }
+            if (preview.isRootElement(Namespaces.RDF.toString(), "RDF")) {
+                return Likelihood.LIKELY;
+            }
+            // any other root element could be a typed node
+            return Likelihood.POSSIBLE;
+        }
+        if (preview.hasExtension("rdf", "rdfs")) {
+            return Likelihood.LIKELY;
+        }
+        if (preview.hasExtension("owl", "xml")) {
+            return Likelihood.POSSIBLE;
+        }
+        return Likelihood.UNKNOWN;
+    }
 }
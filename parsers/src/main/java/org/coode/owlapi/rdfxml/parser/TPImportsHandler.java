@@ -39,6 +39,9 @@
 
 package org.coode.owlapi.rdfxml.parser;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.semanticweb.owlapi.io.RDFOntologyFormat;
 import org.semanticweb.owlapi.model.AddImport;
 import org.semanticweb.owlapi.model.AddOntologyAnnotation;
@@ -65,6 +68,8 @@ import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
 public class TPImportsHandler extends TriplePredicateHandler {
 
 
+    private final List<OWLImportsDeclaration> pendingImports = new ArrayList<OWLImportsDeclaration>();
+
     public TPImportsHandler(OWLRDFConsumer consumer) {
         super(consumer, OWLRDFVocabulary.OWL_IMPORTS.getIRI());
     }
@@ -87,42 +92,60 @@ public class TPImportsHandler extends TriplePredicateHandler {
         if (!getConsumer().getConfiguration().isIgnoredImport(object)) {
             OWLOntologyManager man = getConsumer().getOWLOntologyManager();
             man.makeLoadImportRequest(importsDeclaration, getConsumer().getConfiguration());
+            if (getConsumer().getConfiguration().isParallelImportsLoading()) {
+                // the import is loading in the background; looking it up now
+                // would wait for it, so it is handled once all triples are in
+                pendingImports.add(importsDeclaration);
+            } else {
+                handleImportedOntology(importsDeclaration);
+            }
+        }
+    }
 
+    /**
+     * Handles the imports whose handling was postponed because they were being loaded in parallel; called when all
+     * triples have been streamed.
+     */
+    public void handlePendingImports() {
+        for (OWLImportsDeclaration importsDeclaration : pendingImports) {
+            handleImportedOntology(importsDeclaration);
+        }
+        pendingImports.clear();
+    }
 
-            OWLOntology importedOntology = man.getImportedOntology(importsDeclaration);
-            if (importedOntology != null) {
-                OWLOntologyFormat importedOntologyFormat = man.getOntologyFormat(importedOntology);
-                if (importedOntologyFormat instanceof RDFOntologyFormat) {
-                    if (importedOntology.isAnonymous()) {
-                        OWLOntologyLoaderConfiguration.MissingOntologyHeaderStrategy missingOntologyHeaderStrategy = getConsumer().getConfiguration().getMissingOntologyHeaderStrategy();
-                        boolean includeGraph = missingOntologyHeaderStrategy.equals(OWLOntologyLoaderConfiguration.MissingOntologyHeaderStrategy.INCLUDE_GRAPH);
-
-                        if (includeGraph) {
-                            // We should have just included the triples rather than imported them. So,
-                            // we remove the imports statement, add the axioms from the imported ontology to
-                            // out importing ontology and remove the imported ontology.
-                            // WHO EVER THOUGHT THAT THIS WAS A GOOD IDEA?
-                            man.applyChange(new RemoveImport(getConsumer().getOntology(), importsDeclaration));
-
-                            for (OWLImportsDeclaration decl : importedOntology.getImportsDeclarations()) {
-                                man.applyChange(new AddImport(getConsumer().getOntology(), decl));
-                            }
-                            for (OWLAnnotation anno : importedOntology.getAnnotations()) {
-                                man.applyChange(new AddOntologyAnnotation(getConsumer().getOntology(), anno));
-                            }
-                            for (OWLAxiom ax : importedOntology.getAxioms()) {
-                                getConsumer().addAxiom(ax);
-                            }
-                            man.removeOntology(importedOntology);
+    private void handleImportedOntology(OWLImportsDeclaration importsDeclaration) {
+        OWLOntologyManager man = getConsumer().getOWLOntologyManager();
+        OWLOntology importedOntology = man.getImportedOntology(importsDeclaration);
+        if (importedOntology != null) {
+            OWLOntologyFormat importedOntologyFormat = man.getOntologyFormat(importedOntology);
+            if (importedOntologyFormat instanceof RDFOntologyFormat) {
+                if (importedOntology.isAnonymous()) {
+                    OWLOntologyLoaderConfiguration.MissingOntologyHeaderStrategy missingOntologyHeaderStrategy = getConsumer().getConfiguration().getMissingOntologyHeaderStrategy();
+                    boolean includeGraph = missingOntologyHeaderStrategy.equals(OWLOntologyLoaderConfiguration.MissingOntologyHeaderStrategy.INCLUDE_GRAPH);
+
+                    if (includeGraph) {
+                        // We should have just included the triples rather than imported them. So,
+                        // we remove the imports statement, add the axioms from the imported ontology to
+                        // out importing ontology and remove the imported ontology.
+                        // WHO EVER THOUGHT THAT THIS WAS A GOOD IDEA?
+                        man.applyChange(new RemoveImport(getConsumer().getOntology(), importsDeclaration));
+
+                        for (OWLImportsDeclaration decl : importedOntology.getImportsDeclarations()) {
+                            man.applyChange(new AddImport(getConsumer().getOntology(), decl));
                         }
-
+                        for (OWLAnnotation anno : importedOntology.getAnnotations()) {
+                            man.applyChange(new AddOntologyAnnotation(getConsumer().getOntology(), anno));
+                        }
+                        for (OWLAxiom ax : importedOntology.getAxioms()) {
+                            getConsumer().addAxiom(ax);
+                        }
+                        man.removeOntology(importedOntology);
                     }
+
                 }
             }
-
-            getConsumer().importsClosureChanged();
-
         }
 
+        getConsumer().importsClosureChanged();
     }
 }
@@ -79,7 +79,11 @@ public class TPSubClassOfHandler extends TriplePredicateHandler {
     public boolean canHandleStreaming(IRI subject, IRI predicate, IRI object) {
         getConsumer().addClassExpression(subject, false);
         getConsumer().addClassExpression(object, false);
-        return !isStrict() && !isSubjectOrObjectAnonymous(subject, object);
+        if(isStrict()) {
+            // Named classes that have already been declared can be translated straight away
+            return isStreaming() && !isSubjectOrObjectAnonymous(subject, object) && isClassExpressionStrict(subject) && isClassExpressionStrict(object);
+        }
+        return !isSubjectOrObjectAnonymous(subject, object);
     }
 
 
@@ -138,6 +138,37 @@ public class AbstractRenderer {
         }
     }
 
+    /** @return true if the next character written starts a line at the base
+     *         indentation, where a new renderer would start */
+    protected boolean isAtFrameStart() {
+        return currentPos - lastNewLinePos == 1 && tabs.size() == 1 && tabs.get(0) == 0;
+    }
+
+    /** @return the position of the last new line written, relative to the
+     *         start of the output, or -1 */
+    protected int getLastNewLinePos() {
+        return lastNewLinePos;
+    }
+
+    /** Writes the output of a new renderer, as if it had been written by this
+     * one; this renderer must be at the start of a frame.
+     * 
+     * @param s
+     *            the output
+     * @param newLinePos
+     *            the last new line position of the other renderer */
+    protected void writeRendered(String s, int newLinePos) {
+        if (newLinePos != -1) {
+            lastNewLinePos = currentPos + newLinePos;
+        }
+        currentPos += s.length();
+        try {
+            writer.write(s);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     protected void write(char ch) {
         write(Character.toString(ch));
     }
@@ -40,6 +40,7 @@ package uk.ac.manchester.cs.owl.owlapi.mansyntaxrenderer;
 
 import static org.coode.owlapi.manchesterowlsyntax.ManchesterOWLSyntax.*;
 
+import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -52,8 +53,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Executor;
 
 import org.coode.owlapi.manchesterowlsyntax.ManchesterOWLSyntax;
+import org.semanticweb.owlapi.io.FrameRenderingPipeline;
 import org.semanticweb.owlapi.io.OWLRendererException;
 import org.semanticweb.owlapi.model.AxiomType;
 import org.semanticweb.owlapi.model.IRI;
@@ -134,6 +137,7 @@ public class ManchesterOWLSyntaxFrameRenderer extends ManchesterOWLSyntaxObjectR
         }
     };
     private RenderingDirector renderingDirector = new DefaultRenderingDirector();
+    private Executor renderingExecutor;
 
     @Deprecated
     public ManchesterOWLSyntaxFrameRenderer(OWLOntologyManager owlOntologyManager,
@@ -171,6 +175,15 @@ public class ManchesterOWLSyntaxFrameRenderer extends ManchesterOWLSyntaxObjectR
         this.renderingDirector = renderingDirector;
     }
 
+    /** @param renderingExecutor
+     *            the executor on which the entity frames are rendered, or null
+     *            to render them on the calling thread; the output is the same.
+     *            Frames are rendered on the calling thread while there are
+     *            renderer listeners. */
+    public void setRenderingExecutor(Executor renderingExecutor) {
+        this.renderingExecutor = renderingExecutor;
+    }
+
     public void addRendererListener(RendererListener listener) {
         listeners.add(listener);
     }
@@ -207,27 +220,19 @@ public class ManchesterOWLSyntaxFrameRenderer extends ManchesterOWLSyntaxObjectR
         writePrefixMap();
         writeNewLine();
         writeOntologyHeader(ontology);
-        for (OWLAnnotationProperty prop : ontology.getAnnotationPropertiesInSignature()) {
-            write(prop);
-        }
-        for (OWLDatatype datatype : ontology.getDatatypesInSignature()) {
-            write(datatype);
-        }
-        for (OWLObjectProperty prop : ontology.getObjectPropertiesInSignature()) {
-            write(prop);
-            OWLObjectPropertyExpression invProp = prop.getInverseProperty();
-            if (!ontology.getAxioms(invProp).isEmpty()) {
-                write(invProp);
+        List<OWLEntity> entities = new ArrayList<OWLEntity>();
+        entities.addAll(ontology.getAnnotationPropertiesInSignature());
+        entities.addAll(ontology.getDatatypesInSignature());
+        entities.addAll(ontology.getObjectPropertiesInSignature());
+        entities.addAll(ontology.getDataPropertiesInSignature());
+        entities.addAll(ontology.getClassesInSignature());
+        entities.addAll(ontology.getIndividualsInSignature());
+        if (renderingExecutor == null || !listeners.isEmpty()) {
+            for (OWLEntity entity : entities) {
+                writeEntityFrames(ontology, entity);
             }
-        }
-        for (OWLDataProperty prop : ontology.getDataPropertiesInSignature()) {
-            write(prop);
-        }
-        for (OWLClass cls : ontology.getClassesInSignature()) {
-            write(cls);
-        }
-        for (OWLNamedIndividual ind : ontology.getIndividualsInSignature()) {
-            write(ind);
+        } else {
+            writeEntityFrames(ontology, entities);
         }
         for (OWLAnonymousIndividual ind : ontology.getReferencedAnonymousIndividuals()) {
             write(ind);
@@ -301,6 +306,71 @@ public class ManchesterOWLSyntaxFrameRenderer extends ManchesterOWLSyntaxObjectR
         flush();
     }
 
+    /** Writes the frame of an entity; for an object property, also the frame
+     * of its inverse if the inverse is used in axioms. */
+    private void writeEntityFrames(OWLOntology ontology, OWLEntity entity) {
+        if (entity.isOWLObjectProperty()) {
+            write(entity.asOWLObjectProperty());
+            OWLObjectPropertyExpression invProp = entity.asOWLObjectProperty()
+                    .getInverseProperty();
+            if (!ontology.getAxioms(invProp).isEmpty()) {
+                write(invProp);
+            }
+        } else {
+            writeFrame(entity);
+        }
+    }
+
+    /** Output of a renderer that started at the start of a frame. */
+    private static class RenderedFrames {
+        final String text;
+        final int lastNewLinePos;
+
+        RenderedFrames(String text, int lastNewLinePos) {
+            this.text = text;
+            this.lastNewLinePos = lastNewLinePos;
+        }
+    }
+
+    /** Renders the entity frames on the executor and writes them in order. The
+     * position in the line affects wrapping, so a frame rendered in advance is
+     * only used if this renderer is at the start of a frame, as the renderer
+     * that rendered it was. */
+    private void writeEntityFrames(final OWLOntology ontology, List<OWLEntity> entities) {
+        FrameRenderingPipeline<OWLEntity, RenderedFrames> frames = new FrameRenderingPipeline<OWLEntity, RenderedFrames>(
+                renderingExecutor, entities) {
+            @Override
+            protected RenderedFrames translate(OWLEntity entity) {
+                StringWriter buffer = new StringWriter();
+                ManchesterOWLSyntaxFrameRenderer renderer = copy(buffer);
+                renderer.writeEntityFrames(ontology, entity);
+                return new RenderedFrames(buffer.toString(), renderer.getLastNewLinePos());
+            }
+        };
+        for (OWLEntity entity : entities) {
+            RenderedFrames rendered = frames.next();
+            if (isAtFrameStart()) {
+                writeRendered(rendered.text, rendered.lastNewLinePos);
+            } else {
+                writeEntityFrames(ontology, entity);
+            }
+        }
+    }
+
+    /** @return a renderer with the same settings as this one, which writes to
+     *         the specified writer */
+    private ManchesterOWLSyntaxFrameRenderer copy(Writer writer) {
+        ManchesterOWLSyntaxFrameRenderer copy = new ManchesterOWLSyntaxFrameRenderer(
+                ontologies, writer, getShortFormProvider());
+        copy.filteredAxiomTypes.addAll(filteredAxiomTypes);
+        copy.renderExtensions = renderExtensions;
+        copy.axiomFilter = axiomFilter;
+        copy.renderingDirector = renderingDirector;
+        copy.setUseTabbing(isUseTabbing());
+        copy.setUseWrapping(isUseWrapping());
+        return copy;
+    }
+
     public void writeOntologyHeader(OWLOntology ontology) {
         event = new RendererEvent(this, ontology);
         fireFrameRenderingPrepared(ONTOLOGY.toString());
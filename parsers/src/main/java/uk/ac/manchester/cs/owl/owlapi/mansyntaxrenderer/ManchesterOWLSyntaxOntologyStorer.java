@@ -40,6 +40,7 @@
 package uk.ac.manchester.cs.owl.owlapi.mansyntaxrenderer;
 
 import java.io.Writer;
+import java.util.concurrent.Executor;
 
 import org.coode.owlapi.manchesterowlsyntax.ManchesterOWLSyntaxOntologyFormat;
 import org.semanticweb.owlapi.model.OWLOntology;
@@ -80,6 +81,10 @@ public class ManchesterOWLSyntaxOntologyStorer extends AbstractOWLOntologyStorer
         ManchesterOWLSyntaxFrameRenderer ren = new ManchesterOWLSyntaxFrameRenderer(
                 ontology, writer, new ManchesterOWLSyntaxPrefixNameShortFormProvider(
                         format));
+        Object executor = format.getParameter(OWLOntologyFormat.RENDERING_EXECUTOR, null);
+        if (executor instanceof Executor) {
+            ren.setRenderingExecutor((Executor) executor);
+        }
         ren.writeOntology();
     }
 }
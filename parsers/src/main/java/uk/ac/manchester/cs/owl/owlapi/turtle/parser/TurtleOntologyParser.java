@@ -46,6 +46,8 @@ import java.io.Reader;
 
 import org.coode.owlapi.turtle.TurtleOntologyFormat;
 import org.semanticweb.owlapi.io.AbstractOWLParser;
+import org.semanticweb.owlapi.io.OWLFormatSniffer;
+import org.semanticweb.owlapi.io.OWLOntologyDocumentPreview;
 import org.semanticweb.owlapi.io.OWLOntologyDocumentSource;
 import org.semanticweb.owlapi.io.OWLParserException;
 import org.semanticweb.owlapi.io.OWLParserIOException;
@@ -63,7 +65,7 @@ import org.semanticweb.owlapi.util.DefaultPrefixManager;
  * Bio-Health Informatics Group<br>
  * Date: 23-Feb-2008<br><br>
  */
-public class TurtleOntologyParser extends AbstractOWLParser {
+public class TurtleOntologyParser extends AbstractOWLParser implements OWLFormatSniffer {
 
     @Override
     public OWLOntologyFormat parse(OWLOntologyDocumentSource documentSource, OWLOntology ontology) throws OWLParserException, UnloadableImportException, IOException {
@@ -118,4 +120,26 @@ public class TurtleOntologyParser extends AbstractOWLParser {
             }
         }
     }
+
+    @Override
+    public Likelihood getFormatLikelihood(OWLOntologyDocumentPreview preview) {
+        if (preview.isContentAvailable()) {
+            if (preview.isXML()) {
+                return Likelihood.IMPOSSIBLE;
+            }
+            if (preview.contains("@prefix") || preview.contains("@base")) {
+                return Likelihood.LIKELY;
+            }
+            char first = preview.getFirstSignificantChar("#");
+            if (first == '<' || first == '_' || first == '[' || first == '('
+                    || first == ':' || Character.isLetter(first)) {
+                return Likelihood.POSSIBLE;
+            }
+            return Likelihood.IMPOSSIBLE;
+        }
+        if (preview.hasExtension("ttl", "n3", "nt")) {
+            return Likelihood.LIKELY;
+        }
+        return Likelihood.UNKNOWN;
+    }
 }
@@ -43,6 +43,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -67,6 +68,7 @@ import org.semanticweb.owlapi.model.OWLOntologyChange;
 import org.semanticweb.owlapi.model.OWLOntologyManager;
 import org.semanticweb.owlapi.model.OWLRuntimeException;
 import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+import org.semanticweb.owlapi.model.RemoveAxiom;
 import org.semanticweb.owlapi.reasoner.OWLReasoner;
 import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
 import org.semanticweb.owlapi.util.OWLAxiomVisitorAdapter;
@@ -74,7 +76,10 @@ import org.semanticweb.owlapi.util.OWLAxiomVisitorAdapter;
 import com.clarkparsia.owlapi.explanation.util.OntologyUtils;
 
 /**
- * A black box explanation
+ * A black box explanation. The satisfiability tests are run against one
+ * debugging ontology and one buffering reasoner, which are kept up to date
+ * with the changes to the debugging axioms until the explanation generator is
+ * disposed; results are cached for the axiom sets already tested.
  *
  */
 public class BlackBoxExplanation extends SingleExplanationGeneratorImpl implements SingleExplanationGenerator {
@@ -83,6 +88,30 @@ public class BlackBoxExplanation extends SingleExplanationGeneratorImpl implemen
 
     private OWLOntology debuggingOntology;
 
+    private OWLReasoner debuggingReasoner;
+
+    /** the axioms currently in the debugging ontology */
+    private final Set<OWLAxiom> debuggingOntologyAxioms = new HashSet<OWLAxiom>();
+
+    /** maximum number of cached satisfiability results */
+    private static final int SATISFIABILITY_CACHE_SIZE = 1024;
+
+    /** the class expression the cached results refer to */
+    private OWLClassExpression cachedClass;
+
+    /** satisfiability of cachedClass in the axiom sets already tested; the
+     * debugging ontology contains only these axioms, so the results do not
+     * depend on the ontology being explained */
+    private final Map<Set<OWLAxiom>, Boolean> satisfiabilityCache = new LinkedHashMap<Set<OWLAxiom>, Boolean>(
+            16, 0.75f, true) {
+        private static final long serialVersionUID = 30406L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Set<OWLAxiom>, Boolean> eldest) {
+            return size() > SATISFIABILITY_CACHE_SIZE;
+        }
+    };
+
     protected final Set<OWLAxiom> debuggingAxioms;
 
     private final Set<OWLEntity> objectsExpandedWithDefiningAxioms;
@@ -135,15 +164,27 @@ public class BlackBoxExplanation extends SingleExplanationGeneratorImpl implemen
     @SuppressWarnings("javadoc")
     public void dispose() {
         reset();
+        disposeDebuggingOntology();
         getReasoner().dispose();
     }
 
 
-    private void reset() {
+    private void disposeDebuggingOntology() {
+        if (debuggingReasoner != null) {
+            debuggingReasoner.dispose();
+            debuggingReasoner = null;
+        }
         if (debuggingOntology != null) {
             owlOntologyManager.removeOntology(debuggingOntology);
             debuggingOntology = null;
         }
+        debuggingOntologyAxioms.clear();
+        satisfiabilityCache.clear();
+        cachedClass = null;
+    }
+
+
+    private void reset() {
         debuggingAxioms.clear();
         objectsExpandedWithDefiningAxioms.clear();
         objectsExpandedWithReferencingAxioms.clear();
@@ -400,35 +441,59 @@ public class BlackBoxExplanation extends SingleExplanationGeneratorImpl implemen
 
 
     /**
-     * Tests the satisfiability of the test class. The ontology is recreated
-     * before the test is performed.
+     * Tests the satisfiability of the test class. The debugging ontology is
+     * brought up to date with the debugging axioms before the test is
+     * performed, unless the same axioms have already been tested.
      */
     private boolean isSatisfiable(OWLClassExpression unsatClass) throws OWLException {
-        createDebuggingOntology();
-
-        OWLReasoner reasoner = getReasonerFactory().createNonBufferingReasoner(debuggingOntology);
-
+        if (!unsatClass.equals(cachedClass)) {
+            satisfiabilityCache.clear();
+            cachedClass = unsatClass;
+        }
+        Boolean cached = satisfiabilityCache.get(debuggingAxioms);
+        if (cached != null) {
+            return cached.booleanValue();
+        }
+        updateDebuggingOntology();
+        boolean sat;
         if (OntologyUtils.containsUnreferencedEntity(debuggingOntology, unsatClass)) {
-            reasoner.dispose();
-            return true;
+            sat = true;
         }
-        satTestCount++;
-        boolean sat = reasoner.isSatisfiable(unsatClass);
-        reasoner.dispose();
+        else {
+            satTestCount++;
+            debuggingReasoner.flush();
+            sat = debuggingReasoner.isSatisfiable(unsatClass);
+        }
+        satisfiabilityCache.put(new HashSet<OWLAxiom>(debuggingAxioms), Boolean.valueOf(sat));
         return sat;
     }
 
-    private void createDebuggingOntology() throws OWLException {
-        if (debuggingOntology != null) {
-            owlOntologyManager.removeOntology(debuggingOntology);
+    /**
+     * Creates the debugging ontology and its reasoner the first time; after
+     * that, only the axioms added to or removed from the debugging axioms
+     * since the last test are changed.
+     */
+    private void updateDebuggingOntology() throws OWLException {
+        if (debuggingOntology == null) {
+            debuggingOntology = owlOntologyManager.createOntology();
+            debuggingReasoner = getReasonerFactory().createReasoner(debuggingOntology);
         }
-        debuggingOntology = owlOntologyManager.createOntology();
         List<OWLOntologyChange> changes = new ArrayList<OWLOntologyChange>();
+        for (OWLAxiom ax : debuggingOntologyAxioms) {
+            if (!debuggingAxioms.contains(ax)) {
+                changes.add(new RemoveAxiom(debuggingOntology, ax));
+            }
+        }
         for (OWLAxiom ax : debuggingAxioms) {
-            changes.add(new AddAxiom(debuggingOntology, ax));
+            if (!debuggingOntologyAxioms.contains(ax)) {
+                changes.add(new AddAxiom(debuggingOntology, ax));
+            }
+        }
+        if (!changes.isEmpty()) {
+            owlOntologyManager.applyChanges(changes);
+            debuggingOntologyAxioms.retainAll(debuggingAxioms);
+            debuggingOntologyAxioms.addAll(debuggingAxioms);
         }
-
-        owlOntologyManager.applyChanges(changes);
     }
 
 
@@ -46,17 +46,26 @@ import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.semanticweb.owlapi.model.AddAxiom;
 import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLClassExpression;
 import org.semanticweb.owlapi.model.OWLDeclarationAxiom;
 import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.model.OWLException;
 import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
 import org.semanticweb.owlapi.model.OWLOntologyManager;
 import org.semanticweb.owlapi.model.OWLRuntimeException;
+import org.semanticweb.owlapi.model.RemoveAxiom;
 import org.semanticweb.owlapi.reasoner.OWLReasoner;
 import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
 import org.semanticweb.owlapi.util.OWLEntityCollector;
@@ -65,12 +74,18 @@ import com.clarkparsia.owlapi.explanation.util.ExplanationProgressMonitor;
 import com.clarkparsia.owlapi.explanation.util.OntologyUtils;
 import com.clarkparsia.owlapi.explanation.util.SilentExplanationProgressMonitor;
 
-/** HST explanation generator */
+/** HST explanation generator. By default the hitting set tree is explored
+ * depth first on the calling thread; with
+ * {@link #setParallelExploration(Executor, int, TransactionAwareSingleExpGenFactory)}
+ * its branches are explored concurrently. */
 public class HSTExplanationGenerator implements MultipleExplanationGenerator {
     private static final Logger log = Logger.getLogger(HSTExplanationGenerator.class
             .getName());
     private final TransactionAwareSingleExpGen singleExplanationGenerator;
     private ExplanationProgressMonitor progressMonitor = new SilentExplanationProgressMonitor();
+    private Executor executor;
+    private int parallelism;
+    private TransactionAwareSingleExpGenFactory generatorFactory;
 
     /** @param singleExplanationGenerator
      *            explanation generator to use */
@@ -103,6 +118,35 @@ public class HSTExplanationGenerator implements MultipleExplanationGenerator {
         return singleExplanationGenerator.getReasonerFactory();
     }
 
+    /** Explores the branches of the hitting set tree concurrently. Each branch
+     * computes its justification with one of at most parallelism explanation
+     * generators, created by the factory on copies of the ontology; the
+     * ontology itself is not changed. Paths found satisfiable and
+     * justifications found are shared between the branches, for early path
+     * termination and justification reuse. The explanations found are the
+     * same as with sequential exploration, but the order in which they are
+     * found and reported to the progress monitor varies.
+     * 
+     * @param branchExecutor
+     *            the executor for the branches; null to explore the tree
+     *            sequentially
+     * @param maxGenerators
+     *            the number of explanation generators, i.e., the maximum
+     *            number of justifications computed at the same time; it should
+     *            not be larger than the number of threads of the executor
+     * @param factory
+     *            the factory for the explanation generators */
+    public void setParallelExploration(Executor branchExecutor, int maxGenerators,
+            TransactionAwareSingleExpGenFactory factory) {
+        if (branchExecutor != null && (maxGenerators < 1 || factory == null)) {
+            throw new IllegalArgumentException(
+                    "Parallel exploration needs a factory and at least one generator");
+        }
+        executor = branchExecutor;
+        parallelism = maxGenerators;
+        generatorFactory = factory;
+    }
+
     /** @return the explanation generator */
     public TransactionAwareSingleExpGen getSingleExplanationGenerator() {
         return singleExplanationGenerator;
@@ -141,6 +185,12 @@ public class HSTExplanationGenerator implements MultipleExplanationGenerator {
             Set<Set<OWLAxiom>> allMups = new LinkedHashSet<Set<OWLAxiom>>();
             progressMonitor.foundExplanation(firstMups);
             allMups.add(firstMups);
+            if (executor != null) {
+                new ParallelHittingSetTree(unsatClass, allMups, maxExplanations)
+                        .explore(firstMups);
+                progressMonitor.foundAllExplanations();
+                return allMups;
+            }
             Set<Set<OWLAxiom>> satPaths = new HashSet<Set<OWLAxiom>>();
             Set<OWLAxiom> currentPathContents = new HashSet<OWLAxiom>();
             singleExplanationGenerator.beginTransaction();
@@ -355,4 +405,269 @@ public class HSTExplanationGenerator implements MultipleExplanationGenerator {
             OntologyUtils.addAxiom(axiom, ontologies, getOntologyManager());
         }
     }
+
+    // //////////////////////////////////////////////////////////////////////////////////////////
+    //
+    // Parallel exploration
+    //
+    // /////////////////////////////////////////////////////////////////////////////////////////
+    /** An explanation generator working on its own copy of the ontology, with
+     * the axioms of a path removed. */
+    private static class Worker {
+        final TransactionAwareSingleExpGen generator;
+        /** the axioms currently removed from the copy */
+        final Set<OWLAxiom> removed = new HashSet<OWLAxiom>();
+
+        Worker(TransactionAwareSingleExpGen generator) {
+            this.generator = generator;
+            generator.beginTransaction();
+        }
+
+        /** @return the justification for the class in the ontology without
+         *         the axioms of the path */
+        Set<OWLAxiom> getExplanation(OWLClassExpression unsatClass, Set<OWLAxiom> path) {
+            OWLOntology ontology = generator.getOntology();
+            List<OWLOntologyChange> changes = new ArrayList<OWLOntologyChange>();
+            for (OWLAxiom ax : removed) {
+                if (!path.contains(ax)) {
+                    changes.add(new AddAxiom(ontology, ax));
+                }
+            }
+            for (OWLAxiom ax : path) {
+                if (!removed.contains(ax)) {
+                    changes.add(new RemoveAxiom(ontology, ax));
+                }
+            }
+            generator.getOntologyManager().applyChanges(changes);
+            removed.clear();
+            removed.addAll(path);
+            return generator.getExplanation(unsatClass);
+        }
+    }
+
+    /** The state of one parallel exploration. The tree is explored one edge
+     * per task: a task removes the axioms on the path to its edge, computes or
+     * reuses a justification and submits a task for each axiom of that
+     * justification. */
+    private class ParallelHittingSetTree {
+        private final OWLClassExpression unsatClass;
+        /** the justifications found; guarded by itself */
+        private final Set<Set<OWLAxiom>> allMups;
+        private final int maxExplanations;
+        /** paths already explored, by any task */
+        private final Set<Set<OWLAxiom>> visitedPaths = Collections
+                .newSetFromMap(new ConcurrentHashMap<Set<OWLAxiom>, Boolean>());
+        /** paths that made the class satisfiable */
+        private final List<Set<OWLAxiom>> satPaths = new CopyOnWriteArrayList<Set<OWLAxiom>>();
+        private final BlockingQueue<Worker> idleWorkers = new LinkedBlockingQueue<Worker>();
+        private final List<Worker> workers = new ArrayList<Worker>();
+        /** the axioms of the ontology copies */
+        private Set<OWLAxiom> axioms;
+        /** tasks submitted and not completed; guarded by this */
+        private int pending = 0;
+        /** the first failure of a task; guarded by this */
+        private Throwable failure;
+        /** true when the workers are to be disposed by the last task; guarded
+         * by this */
+        private boolean disposeWhenIdle = false;
+        private volatile boolean stopped = false;
+
+        ParallelHittingSetTree(OWLClassExpression unsatClass, Set<Set<OWLAxiom>> allMups,
+                int maxExplanations) {
+            this.unsatClass = unsatClass;
+            this.allMups = allMups;
+            this.maxExplanations = maxExplanations;
+        }
+
+        void explore(Set<OWLAxiom> firstMups) throws OWLException {
+            axioms = new HashSet<OWLAxiom>();
+            for (OWLOntology ont : getReasoner().getRootOntology().getImportsClosure()) {
+                axioms.addAll(ont.getAxioms());
+                // removing axioms must not make entities undefined
+                for (OWLEntity e : ont.getSignature()) {
+                    axioms.add(getOntologyManager().getOWLDataFactory()
+                            .getOWLDeclarationAxiom(e));
+                }
+            }
+            try {
+                submitChildren(Collections.<OWLAxiom> emptySet(), firstMups);
+                awaitCompletion();
+            } finally {
+                stopped = true;
+                boolean idle;
+                synchronized (this) {
+                    // after an interruption, tasks may still be using workers
+                    idle = pending == 0;
+                    disposeWhenIdle = !idle;
+                }
+                if (idle) {
+                    disposeWorkers();
+                }
+            }
+        }
+
+        private void disposeWorkers() {
+            synchronized (workers) {
+                for (Worker worker : workers) {
+                    worker.generator.endTransaction();
+                    generatorFactory.disposeExplanationGenerator(worker.generator);
+                }
+                workers.clear();
+            }
+        }
+
+        private void awaitCompletion() {
+            synchronized (this) {
+                try {
+                    while (pending > 0) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    stopped = true;
+                    Thread.currentThread().interrupt();
+                    throw new OWLRuntimeException(e);
+                }
+                if (failure instanceof RuntimeException) {
+                    throw (RuntimeException) failure;
+                }
+                if (failure instanceof Error) {
+                    throw (Error) failure;
+                }
+                if (failure != null) {
+                    throw new OWLRuntimeException(failure);
+                }
+            }
+        }
+
+        private boolean isDone() {
+            if (stopped || progressMonitor.isCancelled()) {
+                return true;
+            }
+            synchronized (allMups) {
+                return maxExplanations > 0 && allMups.size() >= maxExplanations;
+            }
+        }
+
+        private void submitChildren(Set<OWLAxiom> path, Set<OWLAxiom> mups) {
+            List<OWLAxiom> orderedMups;
+            synchronized (allMups) {
+                orderedMups = getOrderedMUPS(new ArrayList<OWLAxiom>(mups), allMups);
+            }
+            for (OWLAxiom axiom : orderedMups) {
+                Set<OWLAxiom> childPath = new HashSet<OWLAxiom>(path);
+                childPath.add(axiom);
+                submit(childPath);
+            }
+        }
+
+        private void submit(final Set<OWLAxiom> path) {
+            synchronized (this) {
+                pending++;
+            }
+            Runnable task = new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        exploreEdge(path);
+                    } catch (Throwable e) {
+                        stopped = true;
+                        synchronized (ParallelHittingSetTree.this) {
+                            if (failure == null) {
+                                failure = e;
+                            }
+                        }
+                    } finally {
+                        boolean dispose = false;
+                        synchronized (ParallelHittingSetTree.this) {
+                            pending--;
+                            if (pending == 0) {
+                                ParallelHittingSetTree.this.notifyAll();
+                                dispose = disposeWhenIdle;
+                            }
+                        }
+                        if (dispose) {
+                            disposeWorkers();
+                        }
+                    }
+                }
+            };
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.run();
+            }
+        }
+
+        private void exploreEdge(Set<OWLAxiom> path) throws OWLException,
+                InterruptedException {
+            if (isDone() || !visitedPaths.add(path)) {
+                return;
+            }
+            // Early path termination: a path containing a satisfiable path is
+            // satisfiable as well
+            for (Set<OWLAxiom> satPath : satPaths) {
+                if (path.containsAll(satPath)) {
+                    if (log.isLoggable(Level.FINE)) {
+                        log.fine("Stop - satisfiable (early termination)");
+                    }
+                    return;
+                }
+            }
+            Set<OWLAxiom> newMUPS = null;
+            synchronized (allMups) {
+                for (Set<OWLAxiom> foundMUPS : allMups) {
+                    if (Collections.disjoint(foundMUPS, path)) {
+                        newMUPS = foundMUPS;
+                        break;
+                    }
+                }
+            }
+            if (newMUPS == null) {
+                Worker worker = borrowWorker();
+                try {
+                    newMUPS = worker.getExplanation(unsatClass, path);
+                } finally {
+                    idleWorkers.add(worker);
+                }
+            }
+            if (newMUPS.isEmpty()) {
+                if (log.isLoggable(Level.FINE)) {
+                    log.fine("Stop - satisfiable");
+                }
+                satPaths.add(path);
+                return;
+            }
+            if (!Collections.disjoint(newMUPS, path)) {
+                throw new OWLRuntimeException("Explanation contains removed axiom: "
+                        + newMUPS + " " + path);
+            }
+            synchronized (allMups) {
+                if (maxExplanations > 0 && allMups.size() >= maxExplanations) {
+                    return;
+                }
+                if (allMups.add(newMUPS)) {
+                    if (log.isLoggable(Level.FINE)) {
+                        log.fine("MUPS " + allMups.size() + ": " + newMUPS);
+                    }
+                    progressMonitor.foundExplanation(newMUPS);
+                }
+            }
+            submitChildren(path, newMUPS);
+        }
+
+        private Worker borrowWorker() throws OWLException, InterruptedException {
+            Worker worker = idleWorkers.poll();
+            if (worker != null) {
+                return worker;
+            }
+            synchronized (workers) {
+                if (workers.size() < parallelism) {
+                    worker = new Worker(generatorFactory.createExplanationGenerator(axioms));
+                    workers.add(worker);
+                    return worker;
+                }
+            }
+            return idleWorkers.take();
+        }
+    }
 }
@@ -0,0 +1,67 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.clarkparsia.owlapi.explanation;
+
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLException;
+
+/** Creates the single explanation generators used by the parallel exploration
+ * of {@link HSTExplanationGenerator}. Each generator is used by one thread at a
+ * time and must work on its own copy of the ontology, which the hitting set
+ * tree changes through the ontology manager of the generator; creating one
+ * manager per generator keeps the copies independent. */
+public interface TransactionAwareSingleExpGenFactory {
+    /** @param axioms
+     *            the axioms of the copy of the ontology to explain
+     * @return a new explanation generator, working on a new ontology that
+     *         contains the axioms
+     * @throws OWLException
+     *             if the ontology cannot be created */
+    TransactionAwareSingleExpGen createExplanationGenerator(Set<OWLAxiom> axioms)
+            throws OWLException;
+
+    /** Releases the resources of a generator created by this factory, such as
+     * its reasoner and its ontology.
+     * 
+     * @param generator
+     *            the generator to dispose */
+    void disposeExplanationGenerator(TransactionAwareSingleExpGen generator);
+}
@@ -0,0 +1,544 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.manchester.cs.owlapi.modularity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+import uk.ac.manchester.cs.owlapi.modularity.SyntacticLocalityModuleExtractor.OntologyAxiomSet;
+
+import com.clarkparsia.owlapi.modularity.locality.LocalityClass;
+import com.clarkparsia.owlapi.modularity.locality.SyntacticLocalityEvaluator;
+
+/** Atomic decomposition of a set of axioms for a module type. An atom is a
+ * maximal set of axioms that are either all in a module or all outside it,
+ * for every signature; atom <i>a</i> depends on atom <i>b</i> if every module
+ * containing <i>a</i> also contains <i>b</i>. The module of the signature of
+ * any axiom of an atom is the atom plus all atoms it depends on, and the
+ * module of any signature is a union of such sets: once an axiom is found to
+ * belong to a module, the rest of its atom and the atoms below it are added
+ * without checking their locality.
+ * <p>
+ * The decomposition is computed when the object is built and does not follow
+ * later changes to the ontology; see {@link AtomicDecompositionModuleExtractor}
+ * for a decomposition that is kept up to date. Instances are safe for use by
+ * multiple threads.
+ * 
+ * @since 3.4.5 */
+public class AtomicDecomposition {
+    private static final int[] NO_IDS = new int[0];
+    private static final Atom[] NO_ATOMS = new Atom[0];
+
+    /** A set of axioms that always occur together in modules. */
+    public static final class Atom {
+        private final int index;
+        private final int[] axiomIds;
+        private final Set<OWLAxiom> axioms;
+        private final int moduleSize;
+        private Atom[] dependencies = NO_ATOMS;
+
+        Atom(int index, int[] axiomIds, OntologyAxiomSet ontologyAxioms, int moduleSize) {
+            this.index = index;
+            this.axiomIds = axiomIds;
+            this.moduleSize = moduleSize;
+            Set<OWLAxiom> set = new HashSet<OWLAxiom>(axiomIds.length * 2);
+            for (int id : axiomIds) {
+                set.add(ontologyAxioms.getAxiom(id));
+            }
+            axioms = Collections.unmodifiableSet(set);
+        }
+
+        /** @return the position of this atom in
+         *         {@link AtomicDecomposition#getAtoms()}; atoms come after the
+         *         atoms they depend on */
+        public int getIndex() {
+            return index;
+        }
+
+        /** @return the axioms in this atom */
+        public Set<OWLAxiom> getAxioms() {
+            return axioms;
+        }
+
+        /** @return the atoms this atom directly depends on */
+        public Set<Atom> getDependencies() {
+            return Collections.unmodifiableSet(new LinkedHashSet<Atom>(Arrays
+                    .asList(dependencies)));
+        }
+
+        /** @return the number of axioms in this atom and in all the atoms it
+         *         depends on */
+        public int getModuleSize() {
+            return moduleSize;
+        }
+
+        @Override
+        public String toString() {
+            return "Atom(" + index + " " + axioms + ")";
+        }
+    }
+
+    /** A locality class, with the axioms that are not local for the empty
+     * signature and are therefore in every module. */
+    private final class Locality {
+        final SyntacticLocalityEvaluator evaluator;
+        final int[] global;
+
+        Locality(LocalityClass localityClass) {
+            evaluator = new SyntacticLocalityEvaluator(localityClass);
+            Set<OWLEntity> empty = Collections.emptySet();
+            IntList list = new IntList();
+            for (int i = 0; i < axioms.size(); i++) {
+                if (!evaluator.isLocal(axioms.getAxiom(i), empty)) {
+                    list.add(i);
+                }
+            }
+            global = list.toArray();
+        }
+    }
+
+    private final ModuleType moduleType;
+    final OntologyAxiomSet axioms;
+    private final Map<OWLAxiom, Integer> axiomNumbers;
+    private final Locality locality;
+    /** the other locality class, used for the nested steps of STAR modules */
+    private final Locality otherLocality;
+    /** for STAR modules, the bottom decomposition that computes the first,
+     * largest, module of each sequence */
+    private final AtomicDecomposition bottom;
+    private final Atom[] atomOf;
+    private final List<Atom> atoms = new ArrayList<Atom>();
+    // scratch space for extractions: an element is marked if its mark is the
+    // current value of the counter
+    private int mark;
+    private final int[] axiomMarks;
+    private final int[] queuedMarks;
+    private final int[] subsetMarks;
+    private final int[] entityMarks;
+    private final int[] atomMarks;
+    private final int[] worklist;
+
+    /** Decomposes the logical axioms of an ontology and its imports closure.
+     * 
+     * @param ontology
+     *            the ontology
+     * @param moduleType
+     *            the module type; TOP, BOT and STAR are supported */
+    public AtomicDecomposition(OWLOntology ontology, ModuleType moduleType) {
+        this(logicalAxioms(ontology), moduleType);
+    }
+
+    /** @param axioms
+     *            the axioms to decompose
+     * @param moduleType
+     *            the module type; TOP, BOT and STAR are supported */
+    public AtomicDecomposition(Set<? extends OWLAxiom> axioms, ModuleType moduleType) {
+        this(new OntologyAxiomSet(new HashSet<OWLAxiom>(axioms)), moduleType);
+    }
+
+    AtomicDecomposition(OntologyAxiomSet axioms, ModuleType moduleType) {
+        this.moduleType = moduleType;
+        this.axioms = axioms;
+        int n = axioms.size();
+        axiomNumbers = new HashMap<OWLAxiom, Integer>(n * 2);
+        for (int i = 0; i < n; i++) {
+            axiomNumbers.put(axioms.getAxiom(i), i);
+        }
+        switch (moduleType) {
+            case BOT:
+                locality = new Locality(LocalityClass.BOTTOM_BOTTOM);
+                otherLocality = null;
+                bottom = null;
+                break;
+            case TOP:
+                locality = new Locality(LocalityClass.TOP_TOP);
+                otherLocality = null;
+                bottom = null;
+                break;
+            case STAR:
+                bottom = new AtomicDecomposition(axioms, ModuleType.BOT);
+                locality = bottom.locality;
+                otherLocality = new Locality(LocalityClass.TOP_TOP);
+                break;
+            default:
+                throw new RuntimeException("Unsupported module type: " + moduleType);
+        }
+        atomOf = new Atom[n];
+        axiomMarks = new int[n];
+        queuedMarks = new int[n];
+        subsetMarks = new int[n];
+        atomMarks = new int[n];
+        worklist = new int[Math.max(1, n)];
+        entityMarks = new int[axioms.entityCount()];
+        decompose();
+    }
+
+    private static Set<OWLAxiom> logicalAxioms(OWLOntology ontology) {
+        Set<OWLAxiom> toReturn = new HashSet<OWLAxiom>();
+        for (OWLOntology o : ontology.getImportsClosure()) {
+            toReturn.addAll(o.getLogicalAxioms());
+        }
+        return toReturn;
+    }
+
+    /** Computes the atoms in two passes. The first computes the size of the
+     * module of each axiom; axioms outside their own module are in no module
+     * at all. The second builds the atoms in order of module size: the axioms
+     * in the module of an axiom with a module of the same size have the same
+     * module, hence the same atom, and all other axioms in it have smaller
+     * modules and are already in atoms, which become dependencies. */
+    private void decompose() {
+        int n = axioms.size();
+        int[] sizes = new int[n];
+        int[] counts = new int[n + 2];
+        for (int i = 0; i < n; i++) {
+            int[] module = module(axioms.getEntityNumbers(i), false);
+            sizes[i] = contains(module, i) ? module.length : 0;
+            counts[sizes[i] + 1]++;
+        }
+        // counting sort by module size, stable on axiom numbers
+        for (int s = 0; s <= n; s++) {
+            counts[s + 1] += counts[s];
+        }
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[counts[sizes[i]]++] = i;
+        }
+        for (int i : order) {
+            if (sizes[i] == 0 || atomOf[i] != null) {
+                continue;
+            }
+            int[] module = module(axioms.getEntityNumbers(i), true);
+            IntList members = new IntList();
+            List<Atom> below = new ArrayList<Atom>();
+            int m = nextMark();
+            for (int j : module) {
+                Atom a = atomOf[j];
+                if (a == null && sizes[j] == sizes[i]) {
+                    members.add(j);
+                } else if (a != null && atomMarks[a.index] != m) {
+                    atomMarks[a.index] = m;
+                    below.add(a);
+                }
+            }
+            Atom atom = new Atom(atoms.size(), members.toArray(), axioms, sizes[i]);
+            for (int j : atom.axiomIds) {
+                atomOf[j] = atom;
+            }
+            atoms.add(atom);
+            atom.dependencies = directDependencies(below);
+        }
+    }
+
+    /** @return the atoms that are not below another atom in the list */
+    private Atom[] directDependencies(List<Atom> below) {
+        if (below.isEmpty()) {
+            return NO_ATOMS;
+        }
+        Atom[] sorted = below.toArray(new Atom[below.size()]);
+        // larger modules first: an atom below another has a smaller module
+        Arrays.sort(sorted, new Comparator<Atom>() {
+            @Override
+            public int compare(Atom o1, Atom o2) {
+                return o2.moduleSize - o1.moduleSize;
+            }
+        });
+        int m = nextMark();
+        List<Atom> direct = new ArrayList<Atom>();
+        List<Atom> stack = new ArrayList<Atom>();
+        for (Atom a : sorted) {
+            if (atomMarks[a.index] == m) {
+                continue;
+            }
+            direct.add(a);
+            stack.add(a);
+            while (!stack.isEmpty()) {
+                Atom top = stack.remove(stack.size() - 1);
+                for (Atom d : top.dependencies) {
+                    if (atomMarks[d.index] != m) {
+                        atomMarks[d.index] = m;
+                        stack.add(d);
+                    }
+                }
+            }
+        }
+        return direct.toArray(new Atom[direct.size()]);
+    }
+
+    private boolean contains(int[] module, int axiom) {
+        for (int i : module) {
+            if (i == axiom) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int nextMark() {
+        if (mark == Integer.MAX_VALUE) {
+            Arrays.fill(axiomMarks, 0);
+            Arrays.fill(queuedMarks, 0);
+            Arrays.fill(subsetMarks, 0);
+            Arrays.fill(entityMarks, 0);
+            Arrays.fill(atomMarks, 0);
+            mark = 0;
+        }
+        return ++mark;
+    }
+
+    /** @param seed
+     *            entity numbers
+     * @param useAtoms
+     *            true if the atoms computed so far can be used
+     * @return the axiom numbers of the module */
+    private int[] module(int[] seed, boolean useAtoms) {
+        if (bottom == null) {
+            return extract(locality, seed, null, useAtoms);
+        }
+        int[] current;
+        synchronized (bottom) {
+            current = bottom.extract(bottom.locality, seed, null, true);
+        }
+        boolean top = true;
+        while (true) {
+            int[] next = extract(top ? otherLocality : locality, seed, current, false);
+            if (next.length == current.length) {
+                return next;
+            }
+            current = next;
+            top = !top;
+        }
+    }
+
+    /** Computes a module with a worklist: each axiom is tested when it
+     * mentions an entity of the signature, and tested again only when the
+     * signature gains another of its entities.
+     * 
+     * @param loc
+     *            the locality class
+     * @param seed
+     *            entity numbers of the seed signature
+     * @param subset
+     *            the axioms to extract from, or null for all axioms
+     * @param useAtoms
+     *            true to add the atom and the atoms below each axiom found
+     *            not to be local, rather than just the axiom
+     * @return the axiom numbers of the module */
+    private int[] extract(Locality loc, int[] seed, int[] subset, boolean useAtoms) {
+        int m = nextMark();
+        if (subset != null) {
+            for (int i : subset) {
+                subsetMarks[i] = m;
+            }
+        }
+        Extraction e = new Extraction(m, subset != null);
+        for (int id : seed) {
+            e.addEntity(id);
+        }
+        for (int i : loc.global) {
+            e.enqueue(i);
+        }
+        while (e.size > 0) {
+            int i = worklist[e.head];
+            e.head = (e.head + 1) % worklist.length;
+            e.size--;
+            queuedMarks[i] = 0;
+            if (axiomMarks[i] == m
+                    || loc.evaluator.isLocal(axioms.getAxiom(i), e.signature)) {
+                continue;
+            }
+            if (useAtoms && atomOf[i] != null) {
+                e.addAtom(atomOf[i]);
+            } else {
+                e.addAxiom(i);
+            }
+        }
+        return e.module.toArray();
+    }
+
+    /** the state of one extraction */
+    private final class Extraction {
+        final int m;
+        final boolean restricted;
+        final Set<OWLEntity> signature = new HashSet<OWLEntity>();
+        final IntList module = new IntList();
+        final List<Atom> stack = new ArrayList<Atom>();
+        int head = 0;
+        int size = 0;
+
+        Extraction(int m, boolean restricted) {
+            this.m = m;
+            this.restricted = restricted;
+        }
+
+        void enqueue(int i) {
+            if (axiomMarks[i] != m && queuedMarks[i] != m
+                    && (!restricted || subsetMarks[i] == m)) {
+                queuedMarks[i] = m;
+                worklist[(head + size) % worklist.length] = i;
+                size++;
+            }
+        }
+
+        void addEntity(int id) {
+            if (entityMarks[id] == m) {
+                return;
+            }
+            entityMarks[id] = m;
+            signature.add(axioms.getEntity(id));
+            int[] occurrences = axioms.getOccurrences();
+            int end = axioms.occurrencesEnd(id);
+            for (int o = axioms.occurrencesStart(id); o < end; o++) {
+                enqueue(occurrences[o]);
+            }
+        }
+
+        void addAxiom(int i) {
+            if (axiomMarks[i] == m) {
+                return;
+            }
+            axiomMarks[i] = m;
+            module.add(i);
+            for (int id : axioms.getEntityNumbers(i)) {
+                addEntity(id);
+            }
+        }
+
+        /** adds an atom and the atoms it depends on; an atom is marked only
+         * once all the atoms below it are added or about to be */
+        void addAtom(Atom atom) {
+            if (atomMarks[atom.index] == m) {
+                return;
+            }
+            atomMarks[atom.index] = m;
+            stack.add(atom);
+            while (!stack.isEmpty()) {
+                Atom a = stack.remove(stack.size() - 1);
+                for (int i : a.axiomIds) {
+                    addAxiom(i);
+                }
+                for (Atom d : a.dependencies) {
+                    if (atomMarks[d.index] != m) {
+                        atomMarks[d.index] = m;
+                        stack.add(d);
+                    }
+                }
+            }
+        }
+    }
+
+    /** @return the module type of this decomposition */
+    public ModuleType getModuleType() {
+        return moduleType;
+    }
+
+    /** @return the atoms; every atom comes after the atoms it depends on */
+    public List<Atom> getAtoms() {
+        return Collections.unmodifiableList(atoms);
+    }
+
+    /** @param axiom
+     *            an axiom
+     * @return the atom containing the axiom, or null if the axiom is not in
+     *         the decomposed axioms or is in no module (for example, because
+     *         it is a tautology) */
+    public Atom getAtom(OWLAxiom axiom) {
+        Integer i = axiomNumbers.get(axiom);
+        return i == null ? null : atomOf[i];
+    }
+
+    /** @param atom
+     *            an atom of this decomposition
+     * @return the axioms of the atom and of all the atoms it depends on, which
+     *         is the module of the signature of any axiom in the atom */
+    public synchronized Set<OWLAxiom> getPrincipalIdeal(Atom atom) {
+        Extraction e = new Extraction(nextMark(), false);
+        e.addAtom(atom);
+        return axioms.getAxiomSet(e.module.toArray());
+    }
+
+    /** @param signature
+     *            the seed signature
+     * @return the logical axioms of the module of the signature */
+    public Set<OWLAxiom> getModule(Set<OWLEntity> signature) {
+        return axioms.getAxiomSet(moduleIds(signature));
+    }
+
+    synchronized int[] moduleIds(Set<OWLEntity> signature) {
+        IntList seed = new IntList();
+        for (OWLEntity e : signature) {
+            int id = axioms.getEntityNumber(e);
+            if (id >= 0) {
+                seed.add(id);
+            }
+        }
+        return module(seed.toArray(), true);
+    }
+
+    /** a growable list of ints */
+    private static final class IntList {
+        private int[] values = NO_IDS;
+        private int size = 0;
+
+        IntList() {}
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.max(8, size * 2));
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * This file is part of the OWL API.
+ *
+ * The contents of this file are subject to the LGPL License, Version 3.0.
+ *
+ * Copyright (C) 2011, The University of Manchester
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses/.
+ *
+ *
+ * Alternatively, the contents of this file may be used under the terms of the Apache License, Version 2.0
+ * in which case, the provisions of the Apache License Version 2.0 are applicable instead of those above.
+ *
+ * Copyright 2011, University of Manchester
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.manchester.cs.owlapi.modularity;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.modularity.OntologySegmenter;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import com.clarkparsia.owlapi.modularity.locality.LocalityClass;
+import com.clarkparsia.owlapi.modularity.locality.SyntacticLocalityEvaluator;
+
+/** A module extractor for repeated extractions from the same ontology. The
+ * modules are the same as those of {@link SyntacticLocalityModuleExtractor},
+ * but are computed with an {@link AtomicDecomposition} of the imports closure
+ * of the ontology, and the most recently used modules are cached.
+ * <p>
+ * The extractor listens to the manager: after a change to the logical axioms
+ * of the imports closure, the decomposition is computed again when next
+ * needed, while cached modules that the change cannot affect are kept. For
+ * TOP and BOT modules, adding an axiom leaves a module unchanged if the axiom
+ * is local with respect to the signature of the module, and removing an axiom
+ * leaves it unchanged if it is not in the module. Call {@link #dispose()} to
+ * stop listening.
+ * 
+ * @since 3.4.5 */
+public class AtomicDecompositionModuleExtractor implements OntologySegmenter {
+    /** maximum number of cached modules */
+    private static final int CACHE_SIZE = 1024;
+
+    /** the logical axioms of a cached module, with their signature and the
+     * seed signature */
+    private static final class CachedModule {
+        final Set<OWLAxiom> axioms;
+        final Set<OWLEntity> signature;
+
+        CachedModule(Set<OWLAxiom> axioms, Set<OWLEntity> seed) {
+            this.axioms = axioms;
+            signature = new HashSet<OWLEntity>(seed);
+            for (OWLAxiom ax : axioms) {
+                signature.addAll(ax.getSignature());
+            }
+        }
+    }
+
+    private final OWLOntologyManager manager;
+    private final OWLOntology rootOntology;
+    private final ModuleType moduleType;
+    private final SyntacticLocalityEvaluator evaluator;
+    private AtomicDecomposition decomposition;
+    private final Map<Set<OWLEntity>, CachedModule> cache = new LinkedHashMap<Set<OWLEntity>, CachedModule>(
+            16, 0.75f, true) {
+        private static final long serialVersionUID = 30406L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Set<OWLEntity>, CachedModule> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    private final OWLOntologyChangeListener listener = new OWLOntologyChangeListener() {
+        @Override
+        public void ontologiesChanged(List<? extends OWLOntologyChange> changes) {
+            handleChanges(changes);
+        }
+    };
+
+    /** @param manager
+     *            the manager for the ontology
+     * @param ontology
+     *            the ontology; modules are extracted from its imports closure
+     * @param moduleType
+     *            the module type; TOP, BOT and STAR are supported */
+    public AtomicDecompositionModuleExtractor(OWLOntologyManager manager,
+            OWLOntology ontology, ModuleType moduleType) {
+        switch (moduleType) {
+            case TOP:
+                evaluator = new SyntacticLocalityEvaluator(LocalityClass.TOP_TOP);
+                break;
+            case BOT:
+                evaluator = new SyntacticLocalityEvaluator(LocalityClass.BOTTOM_BOTTOM);
+                break;
+            case STAR:
+                evaluator = null;
+                break;
+            default:
+                throw new RuntimeException("Unsupported module type: " + moduleType);
+        }
+        this.manager = manager;
+        rootOntology = ontology;
+        this.moduleType = moduleType;
+        manager.addOntologyChangeListener(listener);
+    }
+
+    /** @return the module type for this extractor */
+    public ModuleType getModuleType() {
+        return moduleType;
+    }
+
+    /** @return the atomic decomposition of the current logical axioms of the
+     *         imports closure */
+    public synchronized AtomicDecomposition getDecomposition() {
+        if (decomposition == null) {
+            decomposition = new AtomicDecomposition(rootOntology, moduleType);
+        }
+        return decomposition;
+    }
+
+    /** Stops listening to changes; the extractor must not be used afterwards. */
+    public void dispose() {
+        manager.removeOntologyChangeListener(listener);
+        synchronized (this) {
+            cache.clear();
+            decomposition = null;
+        }
+    }
+
+    synchronized void handleChanges(List<? extends OWLOntologyChange> changes) {
+        Set<OWLOntology> closure = null;
+        for (OWLOntologyChange change : changes) {
+            if (closure == null) {
+                closure = rootOntology.getImportsClosure();
+            }
+            if (!closure.contains(change.getOntology())) {
+                continue;
+            }
+            if (change.isImportChange()) {
+                cache.clear();
+                decomposition = null;
+                // the closure itself has changed
+                closure = null;
+                continue;
+            }
+            if (!change.isAxiomChange() || !change.getAxiom().isLogicalAxiom()) {
+                continue;
+            }
+            decomposition = null;
+            if (evaluator == null) {
+                // STAR modules are not monotone in the axioms
+                cache.clear();
+                continue;
+            }
+            OWLAxiom axiom = change.getAxiom();
+            boolean added = change.isAddAxiom();
+            for (Iterator<CachedModule> it = cache.values().iterator(); it.hasNext();) {
+                CachedModule module = it.next();
+                if (added ? !evaluator.isLocal(axiom, module.signature) : module.axioms
+                        .contains(axiom)) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private synchronized CachedModule getModule(Set<OWLEntity> signature) {
+        CachedModule module = cache.get(signature);
+        if (module == null) {
+            Set<OWLEntity> seed = new HashSet<OWLEntity>(signature);
+            module = new CachedModule(getDecomposition().getModule(seed), seed);
+            cache.put(seed, module);
+        }
+        return module;
+    }
+
+    /** Adds declarations, annotation assertions and same and different
+     * individual axioms for the signature of a module, as
+     * {@link SyntacticLocalityModuleExtractor} does. */
+    private Set<OWLAxiom> enrich(CachedModule module) {
+        Set<OWLAxiom> enrichedModule = new HashSet<OWLAxiom>(module.axioms);
+        for (OWLOntology ont : rootOntology.getImportsClosure()) {
+            for (OWLEntity entity : module.signature) {
+                enrichedModule.addAll(ont.getDeclarationAxioms(entity));
+                enrichedModule.addAll(entity.getAnnotationAssertionAxioms(ont));
+                if (entity.isOWLNamedIndividual()) {
+                    OWLIndividual individual = entity.asOWLNamedIndividual();
+                    enrichedModule.addAll(ont.getSameIndividualAxioms(individual));
+                    enrichedModule.addAll(ont.getDifferentIndividualAxioms(individual));
+                }
+            }
+        }
+        return enrichedModule;
+    }
+
+    @Override
+    public Set<OWLAxiom> extract(Set<OWLEntity> signature) {
+        return enrich(getModule(signature));
+    }
+
+    @Override
+    public Set<OWLAxiom> extract(Set<OWLEntity> signature, int superClassLevel,
+            int subClassLevel, OWLReasoner reasoner) {
+        return extract(SyntacticLocalityModuleExtractor.enrichSignature(signature,
+                superClassLevel, subClassLevel, reasoner));
+    }
+
+    @Override
+    public OWLOntology extractAsOntology(Set<OWLEntity> signature, IRI iri)
+            throws OWLOntologyCreationException {
+        return extractAsOntology(signature, iri, 0, 0, null);
+    }
+
+    @Override
+    public OWLOntology extractAsOntology(Set<OWLEntity> signature, IRI iri,
+            int superClassLevel, int subClassLevel, OWLReasoner reasoner)
+            throws OWLOntologyCreationException {
+        Set<OWLAxiom> axs = extract(signature, superClassLevel, subClassLevel, reasoner);
+        OWLOntology newOnt = manager.createOntology(iri);
+        List<AddAxiom> addaxs = new ArrayList<AddAxiom>();
+        for (OWLAxiom ax : axs) {
+            addaxs.add(new AddAxiom(newOnt, ax));
+        }
+        manager.applyChanges(addaxs);
+        return newOnt;
+    }
+}
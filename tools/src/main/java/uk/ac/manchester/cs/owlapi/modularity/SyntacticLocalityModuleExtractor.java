@@ -38,8 +38,13 @@
  */
 package uk.ac.manchester.cs.owlapi.modularity;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 
@@ -92,6 +97,126 @@ public class SyntacticLocalityModuleExtractor implements OntologySegmenter {
             ax = axs.toArray(new OWLAxiom[axs.size()]);
         }
 
+        /** Entities occurring in the axioms, by entity number; null until the
+         * occurrence index is built. */
+        private OWLEntity[] entities;
+        /** Entity numbers. */
+        private Map<OWLEntity, Integer> entityNumbers;
+        /** For each axiom, the numbers of the entities in its signature. */
+        private int[][] axiomEntities;
+        /** For each entity number, the start of its axioms in
+         * {@link #occurrences}; the last element is the end of the array. */
+        private int[] occurrenceStarts;
+        /** Axiom numbers, grouped by the entities they mention. */
+        private int[] occurrences;
+
+        /** Builds the index from entities to the axioms mentioning them, if it
+         * has not been built yet. The index is kept for the lifetime of this
+         * set, so that successive extractions only pay for it once. */
+        void buildOccurrenceIndex() {
+            if (entities != null) {
+                return;
+            }
+            Map<OWLEntity, Integer> ids = new HashMap<OWLEntity, Integer>(ax.length);
+            List<OWLEntity> list = new ArrayList<OWLEntity>();
+            int[][] axEntities = new int[ax.length][];
+            int total = 0;
+            for (int i = 0; i < ax.length; i++) {
+                Set<OWLEntity> sig = ax[i].getSignature();
+                int[] axIds = new int[sig.size()];
+                int j = 0;
+                for (OWLEntity e : sig) {
+                    Integer id = ids.get(e);
+                    if (id == null) {
+                        id = list.size();
+                        ids.put(e, id);
+                        list.add(e);
+                    }
+                    axIds[j++] = id;
+                }
+                axEntities[i] = axIds;
+                total += axIds.length;
+            }
+            int[] starts = new int[list.size() + 1];
+            for (int[] axIds : axEntities) {
+                for (int id : axIds) {
+                    starts[id + 1]++;
+                }
+            }
+            for (int id = 0; id < list.size(); id++) {
+                starts[id + 1] += starts[id];
+            }
+            int[] next = Arrays.copyOf(starts, list.size());
+            int[] occ = new int[total];
+            for (int i = 0; i < ax.length; i++) {
+                for (int id : axEntities[i]) {
+                    occ[next[id]++] = i;
+                }
+            }
+            axiomEntities = axEntities;
+            occurrenceStarts = starts;
+            occurrences = occ;
+            entityNumbers = ids;
+            entities = list.toArray(new OWLEntity[list.size()]);
+        }
+
+        /** @param entity
+         *            an entity
+         * @return the number of the entity, or -1 if no axiom mentions it */
+        int getEntityNumber(OWLEntity entity) {
+            buildOccurrenceIndex();
+            Integer id = entityNumbers.get(entity);
+            return id == null ? -1 : id.intValue();
+        }
+
+        /** @return the number of distinct entities in the axioms */
+        int entityCount() {
+            buildOccurrenceIndex();
+            return entities.length;
+        }
+
+        /** @param i
+         *            an axiom number
+         * @return the numbers of the entities in the signature of the i-th
+         *         axiom */
+        int[] getEntityNumbers(int i) {
+            buildOccurrenceIndex();
+            return axiomEntities[i];
+        }
+
+        /** @param id
+         *            an entity number
+         * @return the entity */
+        OWLEntity getEntity(int id) {
+            buildOccurrenceIndex();
+            return entities[id];
+        }
+
+        /** @param id
+         *            an entity number
+         * @return the first position in {@link #getOccurrences()} of the
+         *         axioms mentioning the entity */
+        int occurrencesStart(int id) {
+            buildOccurrenceIndex();
+            return occurrenceStarts[id];
+        }
+
+        /** @param id
+         *            an entity number
+         * @return the position in {@link #getOccurrences()} after the last
+         *         axiom mentioning the entity */
+        int occurrencesEnd(int id) {
+            buildOccurrenceIndex();
+            return occurrenceStarts[id + 1];
+        }
+
+        /** @return axiom numbers, grouped by entity; not copied, must not be
+         *         modified */
+        int[] getOccurrences() {
+            buildOccurrenceIndex();
+            return occurrences;
+        }
+
         /** Returns the number of axioms in this set.
          * 
          * @return the number of axioms in this set */
@@ -134,6 +259,17 @@ public class SyntacticLocalityModuleExtractor implements OntologySegmenter {
             return gas;
         }
 
+        /** @param ids
+         *            axiom numbers
+         * @return the set of the axioms with the given numbers */
+        Set<OWLAxiom> getAxiomSet(int[] ids) {
+            Set<OWLAxiom> toReturn = new HashSet<OWLAxiom>(ids.length * 2);
+            for (int i : ids) {
+                toReturn.add(ax[i]);
+            }
+            return toReturn;
+        }
+
         /** Constructs an array of Booleans that represents a subset of this set.
          * The subset either equals this set (if init==true) or is the empty set
          * (if init==false).
@@ -285,45 +421,65 @@ public class SyntacticLocalityModuleExtractor implements OntologySegmenter {
         boolean[] mod = ontologyAxiomSet.getSubset(false);
         boolean[] q2 = ontologyAxiomSet.cloneSubset(subOnt);
         SyntacticLocalityEvaluator sle = new SyntacticLocalityEvaluator(localityClass);
-        boolean change = true;
-        int loopNumber = 0;
-        while (change) {
-            change = false;
-            loopNumber++;
+        // Locality of an axiom only depends on the part of the signature that
+        // occurs in the axiom: every axiom is tested once, and tested again
+        // only when an entity it mentions is added to the signature.
+        int[] occurrences = ontologyAxiomSet.getOccurrences();
+        boolean[] inSignature = new boolean[ontologyAxiomSet.entityCount()];
+        for (int id = 0; id < inSignature.length; id++) {
+            inSignature[id] = signature.contains(ontologyAxiomSet.getEntity(id));
+        }
+        // each axiom is in the worklist at most once at any time, so a
+        // circular buffer as large as the ontology suffices
+        boolean[] queued = ontologyAxiomSet.cloneSubset(subOnt);
+        int[] worklist = new int[Math.max(1, q2.length)];
+        int head = 0;
+        int size = 0;
+        for (int i = 0; i < q2.length; i++) {
+            if (q2[i]) {
+                worklist[size++] = i;
+            }
+        }
+        while (size > 0) {
+            int i = worklist[head];
+            head = (head + 1) % worklist.length;
+            size--;
+            queued[i] = false;
+            if (!q2[i]) {
+                continue;
+            }
+            OWLAxiom axiom = ontologyAxiomSet.getAxiom(i);
+            if (sle.isLocal(axiom, signature)) {
+                if (verbose) {
+                    System.out.println("      Local axiom:       "
+                            + minusOntologyURI(axiom.toString()));
+                }
+                continue;
+            }
             if (verbose) {
-                System.out.println("  Loop " + loopNumber);
+                System.out.println("      Non-local axiom:   "
+                        + minusOntologyURI(axiom.toString()));
             }
-            for (int i = 0; i < q2.length; i = i + 1) {
-                if (q2[i]) {
-                    if (!sle.isLocal(ontologyAxiomSet.getAxiom(i), signature)) {
-                        if (verbose) {
-                            System.out.println("      Non-local axiom:   "
-                                    + minusOntologyURI(ontologyAxiomSet.getAxiom(i)
-                                            .toString()));
-                        }
-                        mod[i] = true;
-                        q2[i] = false;
-                        int oldSize = signature.size();
-                        signature.addAll(ontologyAxiomSet.getAxiom(i).getSignature());
-                        // only triggering a change when the signature has
-                        // changed doesn't improve performance
-                        if (signature.size() > oldSize) {
-                            change = true;
-                            if (verbose) {
-                                System.out.print("    New signature:   ");
-                                for (OWLEntity ent : signature) {
-                                    System.out.print(minusOntologyURI(ent.toString())
-                                            + ", ");
-                                }
-                                System.out.println();
-                            }
-                        }
-                    } else {
-                        if (verbose) {
-                            System.out.println("      Local axiom:       "
-                                    + minusOntologyURI(ontologyAxiomSet.getAxiom(i)
-                                            .toString()));
-                        }
+            mod[i] = true;
+            q2[i] = false;
+            for (int id : ontologyAxiomSet.getEntityNumbers(i)) {
+                if (inSignature[id]) {
+                    continue;
+                }
+                inSignature[id] = true;
+                OWLEntity entity = ontologyAxiomSet.getEntity(id);
+                signature.add(entity);
+                if (verbose) {
+                    System.out.println("    New signature entity:   "
+                            + minusOntologyURI(entity.toString()));
+                }
+                int end = ontologyAxiomSet.occurrencesEnd(id);
+                for (int o = ontologyAxiomSet.occurrencesStart(id); o < end; o++) {
+                    int j = occurrences[o];
+                    if (q2[j] && !queued[j]) {
+                        queued[j] = true;
+                        worklist[(head + size) % worklist.length] = j;
+                        size++;
                     }
                 }
             }
@@ -494,7 +650,7 @@ public class SyntacticLocalityModuleExtractor implements OntologySegmenter {
         return enrich(moduleAsSet, signature, verbose);
     }
 
-    Set<OWLClass> SuperOrSubClasses(int superOrSubClassLevel, boolean superVsSub,
+    static Set<OWLClass> SuperOrSubClasses(int superOrSubClassLevel, boolean superVsSub,
             OWLReasoner reasoner, Set<OWLClass> classesInSig) {
         Set<OWLClass> superOrSubClasses = new HashSet<OWLClass>();
         if (superOrSubClassLevel < 0) {
@@ -535,7 +691,7 @@ public class SyntacticLocalityModuleExtractor implements OntologySegmenter {
         return superOrSubClasses;
     }
 
-    Set<OWLEntity> enrichSignature(Set<OWLEntity> sig, int superClassLevel,
+    static Set<OWLEntity> enrichSignature(Set<OWLEntity> sig, int superClassLevel,
             int subClassLevel, OWLReasoner reasoner) {
         Set<OWLEntity> enrichedSig = new HashSet<OWLEntity>(sig);
         Set<OWLClass> classesInSig = new HashSet<OWLClass>();